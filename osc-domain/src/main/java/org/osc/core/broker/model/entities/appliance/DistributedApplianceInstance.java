@@ -26,6 +26,7 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.Lob;
@@ -40,7 +41,7 @@ import org.osc.core.broker.model.entities.virtualization.openstack.DeploymentSpe
 import org.osc.core.broker.model.entities.virtualization.openstack.VMPort;
 
 @Entity
-@Table(name = "DISTRIBUTED_APPLIANCE_INSTANCE")
+@Table(name = "DISTRIBUTED_APPLIANCE_INSTANCE", indexes = @Index(name = "IDX_DAI_LAST_STATUS", columnList = "last_status"))
 public class DistributedApplianceInstance extends BaseEntity {
 
     private static final long serialVersionUID = 1L;
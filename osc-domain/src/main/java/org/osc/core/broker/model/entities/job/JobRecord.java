@@ -26,6 +26,7 @@ import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
@@ -34,7 +35,8 @@ import org.osc.core.common.job.JobState;
 import org.osc.core.common.job.JobStatus;
 
 @Entity
-@Table(name = "JOB")
+@Table(name = "JOB", indexes = { @Index(name = "IDX_JOB_COMPLETED_TIMESTAMP", columnList = "completed_timestamp"),
+        @Index(name = "IDX_JOB_STATE", columnList = "state") })
 public class JobRecord extends BaseEntity {
 
     private static final long serialVersionUID = 1L;
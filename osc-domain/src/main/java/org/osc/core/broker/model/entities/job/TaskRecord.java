@@ -29,6 +29,7 @@ import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
@@ -42,7 +43,7 @@ import org.osc.core.common.job.TaskState;
 import org.osc.core.common.job.TaskStatus;
 
 @Entity
-@Table(name = "TASK")
+@Table(name = "TASK", indexes = @Index(name = "IDX_TASK_JOB", columnList = "job_fk"))
 public class TaskRecord extends BaseEntity {
 
     private static final long serialVersionUID = 1L;
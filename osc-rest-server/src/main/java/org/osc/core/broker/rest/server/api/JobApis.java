@@ -16,12 +16,15 @@
  *******************************************************************************/
 package org.osc.core.broker.rest.server.api;
 
+import java.util.Date;
 import java.util.List;
 
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
@@ -39,6 +42,7 @@ import org.osc.core.broker.service.dto.JobRecordDto;
 import org.osc.core.broker.service.dto.TaskRecordDto;
 import org.osc.core.broker.service.exceptions.ErrorCodeDto;
 import org.osc.core.broker.service.request.GetDtoFromEntityRequest;
+import org.osc.core.broker.service.request.ListJobRequest;
 import org.osc.core.broker.service.request.ListTaskRequest;
 import org.osc.core.broker.service.response.BaseDtoResponse;
 import org.osc.core.broker.service.response.ListResponse;
@@ -48,6 +52,7 @@ import org.slf4j.Logger;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.Authorization;
@@ -74,18 +79,40 @@ public class JobApis {
     private JobEntityManagerApi jobEntityManager;
 
     @ApiOperation(value = "Retrieves all jobs",
-            notes = "Retrieves all jobs",
+            notes = "Retrieves the jobs matching the given filters, most recent first, " + ListJobRequest.DEFAULT_PAGE_SIZE
+                    + " at a time unless another page size is given. The next page is retrieved by passing the id of "
+                    + "the last job received as 'beforeId'. A page size of 0 retrieves all the matching jobs",
             response = JobRecordDto.class,
             responseContainer = "List")
     @ApiResponses(value = { @ApiResponse(code = 200, message = "Successful operation"),
             @ApiResponse(code = 400, message = "In case of any error", response = ErrorCodeDto.class) })
     @GET
-    public List<JobRecordDto> getJobs() {
+    public List<JobRecordDto> getJobs(
+            @ApiParam(value = "Only jobs with an id lower than this one") @QueryParam("beforeId") Long beforeId,
+            @ApiParam(value = "The maximum number of jobs to retrieve, " + ListJobRequest.DEFAULT_PAGE_SIZE
+                    + " when not set and all when 0") @QueryParam("pageSize") @DefaultValue("" + ListJobRequest.DEFAULT_PAGE_SIZE) int pageSize,
+            @ApiParam(value = "The job state, like RUNNING or COMPLETED") @QueryParam("state") String state,
+            @ApiParam(value = "The job status, like PASSED or FAILED") @QueryParam("status") String status,
+            @ApiParam(value = "Only jobs completed at or after this time, in milliseconds since the epoch") @QueryParam("completedFrom") Long completedFrom,
+            @ApiParam(value = "Only jobs completed before this time, in milliseconds since the epoch") @QueryParam("completedTo") Long completedTo,
+            @ApiParam(value = "The type of an object the job is about, like VIRTUAL_SYSTEM") @QueryParam("objectType") String objectType,
+            @ApiParam(value = "The id of an object the job is about") @QueryParam("objectId") Long objectId,
+            @ApiParam(value = "The user who submitted the job") @QueryParam("submittedBy") String submittedBy) {
 
         logger.info("Listing job records");
 
         try {
-            ListResponse<JobRecordDto> res = this.listJobService.dispatch(null);
+            ListJobRequest listRequest = new ListJobRequest();
+            listRequest.setBeforeId(beforeId);
+            listRequest.setPageSize(pageSize);
+            listRequest.setState(state);
+            listRequest.setStatus(status);
+            listRequest.setCompletedFrom(completedFrom != null ? new Date(completedFrom) : null);
+            listRequest.setCompletedTo(completedTo != null ? new Date(completedTo) : null);
+            listRequest.setObjectType(objectType);
+            listRequest.setObjectId(objectId);
+            listRequest.setSubmittedBy(submittedBy);
+            ListResponse<JobRecordDto> res = this.listJobService.dispatch(listRequest);
             return res.getList();
         } catch (Exception e) {
             throw new VmidcRestServerException(Response.status(Status.INTERNAL_SERVER_ERROR), e.getMessage());
@@ -122,20 +149,30 @@ public class JobApis {
     }
 
     @ApiOperation(value = "Retrieves Job's tasks",
-            notes = "Retrieves a Job's Tasks for Job specified by the Job Id",
+            notes = "Retrieves a Job's Tasks for Job specified by the Job Id, in dependency order. When a page size is "
+                    + "given, the next page is retrieved by passing the dependency order of the last task received as "
+                    + "'afterDependencyOrder'",
             response = TaskRecordDto.class,
             responseContainer = "List")
     @ApiResponses(value = { @ApiResponse(code = 200, message = "Successful operation"),
             @ApiResponse(code = 400, message = "In case of any error", response = ErrorCodeDto.class) })
     @GET
     @Path("/{jobId}/tasks")
-    public List<TaskRecordDto> getJobTasks(@PathParam("jobId") Long jobId) {
+    public List<TaskRecordDto> getJobTasks(@PathParam("jobId") Long jobId,
+            @ApiParam(value = "Only tasks with a dependency order greater than this one") @QueryParam("afterDependencyOrder") Long afterDependencyOrder,
+            @ApiParam(value = "The maximum number of tasks to retrieve, all when not set") @QueryParam("pageSize") int pageSize,
+            @ApiParam(value = "The task state, like RUNNING or COMPLETED") @QueryParam("state") String state,
+            @ApiParam(value = "The task status, like PASSED or FAILED") @QueryParam("status") String status) {
 
         logger.info("Listing task records for job id " + jobId);
 
         try {
             ListTaskRequest listRequest = new ListTaskRequest();
             listRequest.setJobId(jobId);
+            listRequest.setAfterDependencyOrder(afterDependencyOrder);
+            listRequest.setPageSize(pageSize);
+            listRequest.setState(state);
+            listRequest.setStatus(status);
             ListResponse<TaskRecordDto> res = this.listTaskService.dispatch(listRequest);
 
             return res.getList();
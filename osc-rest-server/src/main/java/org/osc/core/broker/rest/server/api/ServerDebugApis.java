@@ -39,6 +39,7 @@ import org.slf4j.LoggerFactory;
 import org.osc.core.broker.rest.server.ServerRestConstants;
 import org.osc.core.broker.rest.server.annotations.LocalHostAuth;
 import org.osc.core.broker.service.api.DBConnectionManagerApi;
+import org.osc.core.broker.service.api.JobEngineInfoServiceApi;
 import org.osc.core.broker.service.api.LockInfoServiceApi;
 import org.osc.core.broker.service.api.server.ServerApi;
 import org.osgi.service.component.annotations.Component;
@@ -62,6 +63,9 @@ public class ServerDebugApis {
     @Reference
     private LockInfoServiceApi lockInfoServiceApi;
 
+    @Reference
+    private JobEngineInfoServiceApi jobEngineInfoServiceApi;
+
     @Path("/lock")
     @GET
     public Response getCurrentLockInfomation() {
@@ -77,6 +81,21 @@ public class ServerDebugApis {
         }
     }
 
+    @Path("/jobs")
+    @GET
+    public Response getJobQueueInformation() {
+        if(!this.server.getDevMode()) {
+            return Response.status(Status.NOT_FOUND).build();
+        }
+
+        try {
+            return Response.ok(this.jobEngineInfoServiceApi.getJobEngineInfo()).build();
+        } catch (Exception e) {
+            logger.error("Failed to get Job queue information.", e);
+            return Response.status(Status.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @Path("/query")
     @POST
     public Response queryDb(String sql) {
@@ -26,17 +26,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 
 import com.google.common.base.Joiner;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
-import com.google.common.collect.Sets;
 
 /**
 
@@ -66,6 +64,23 @@ public class Graph<T> implements Iterable<T>, Serializable {
 
     }
 
+    /**
+     * Notified of every edge added to or removed from the graph and of every node removed from it. Invoked while
+     * holding the graph monitor, so listeners observe changes in the order they are made.
+     */
+    public interface ChangeListener<T> {
+
+        void edgeAdded(T src, T dest);
+
+        void edgeRemoved(T src, T dest);
+
+        /**
+         * Invoked once the edges of the node have been removed.
+         */
+        void nodeRemoved(T node);
+
+    }
+
     /**
      * Iterator over the graph nodes in order of a depth-first <b>preorder</b>
      * traversal.
@@ -110,16 +125,34 @@ public class Graph<T> implements Iterable<T>, Serializable {
 
     }
 
-    private Set<T> nodes;
+    private final Set<T> nodes;
 
     /**
-     * The graphs edges represented as {@link Multimap} entries of the form
+     * The graphs edges represented as adjacency sets of the form
      *
      * <pre>
      * { src => { dst1, dst2, dst3} }
      * </pre>
+     *
+     * Mutations are serialized on the graph monitor. Reads do not take the monitor, they work off the
+     * concurrent adjacency sets and return immutable copies.
+     */
+    private final ConcurrentMap<T, Set<T>> successors;
+
+    /**
+     * Reverse index of {@link #successors} of the form
+     *
+     * <pre>
+     * { dst => { src1, src2, src3} }
+     * </pre>
+     *
+     * keeping predecessor lookups proportional to the node's in-degree.
      */
-    private Multimap<T, T> edges;
+    private final ConcurrentMap<T, Set<T>> predecessors;
+
+    private boolean readOnly = false;
+
+    private transient ChangeListener<T> changeListener;
 
     /*
      * Only used for the external representation of an edge
@@ -148,63 +181,81 @@ public class Graph<T> implements Iterable<T>, Serializable {
     }
 
     public Graph() {
-        this.nodes = new HashSet<T>();
-        this.edges = HashMultimap.create();
+        this.nodes = newSet();
+        this.successors = new ConcurrentHashMap<T, Set<T>>();
+        this.predecessors = new ConcurrentHashMap<T, Set<T>>();
     }
 
     public Graph(Graph<T> other) {
-        this.nodes = new HashSet<T>(other.nodes);
-        this.edges = HashMultimap.create(other.edges);
+        this();
+        synchronized (other) {
+            this.nodes.addAll(other.nodes);
+            copyAdjacency(other.successors, this.successors);
+            copyAdjacency(other.predecessors, this.predecessors);
+        }
     }
 
-    private Graph(Set<T> nodes, Multimap<T, T> edges) {
-        this.nodes = nodes;
-        this.edges = edges;
+    private static <T> Set<T> newSet() {
+        return Collections.newSetFromMap(new ConcurrentHashMap<T, Boolean>());
     }
 
-    private synchronized Set<Edge<T>> getEdges() {
-        Set<Edge<T>> edgeSet = new HashSet<Edge<T>>();
+    private static <T> void copyAdjacency(Map<T, Set<T>> from, Map<T, Set<T>> to) {
+        for (Map.Entry<T, Set<T>> entry : from.entrySet()) {
+            Set<T> adjacent = newSet();
+            adjacent.addAll(entry.getValue());
+            to.put(entry.getKey(), adjacent);
+        }
+    }
 
-        for (Map.Entry<T, T> edge : this.edges.entries()) {
-            T src = edge.getKey();
-            T dest = edge.getValue();
+    private Set<Edge<T>> getEdges() {
+        Set<Edge<T>> edgeSet = new HashSet<Edge<T>>();
 
-            edgeSet.add(new Edge<T>(src, dest));
+        for (Map.Entry<T, Set<T>> entry : this.successors.entrySet()) {
+            T src = entry.getKey();
+            for (T dest : entry.getValue()) {
+                edgeSet.add(new Edge<T>(src, dest));
+            }
         }
 
         return edgeSet;
     }
 
-    public synchronized Set<T> getSuccessors(T node) {
-        return ImmutableSet.copyOf(this.edges.get(node));
+    public Set<T> getSuccessors(T node) {
+        return adjacent(this.successors, node);
     }
 
-    public synchronized Set<T> getPredecessors(T node) {
-        Set<T> predecessors = new HashSet<T>();
-
-        for (Map.Entry<T, T> edge : this.edges.entries()) {
-            T src = edge.getKey();
-            T dest = edge.getValue();
-
-            if (node.equals(dest)) {
-                predecessors.add(src);
-            }
-        }
+    public Set<T> getPredecessors(T node) {
+        return adjacent(this.predecessors, node);
+    }
 
-        return Collections.unmodifiableSet(predecessors);
+    private static <T> Set<T> adjacent(Map<T, Set<T>> adjacency, T node) {
+        Set<T> adjacent = adjacency.get(node);
+        return adjacent == null ? ImmutableSet.<T>of() : ImmutableSet.copyOf(adjacent);
     }
 
     public Set<T> getDescendants(T node) {
-        Set<T> descendants = Sets.newHashSet();
-        for (T successor : this.getSuccessors(node)) {
-            descendants.addAll(Sets.newHashSet(this.depthFirstPreorderIterator(successor)));
-        }
-
-        return descendants;
+        return reachable(this.successors, node);
     }
 
     public Set<T> getAncestors(T node) {
-        return this.reverse().getDescendants(node);
+        return reachable(this.predecessors, node);
+    }
+
+    /**
+     * Collects every node reachable from the given node, excluding the node itself unless it lies on a cycle.
+     */
+    private static <T> Set<T> reachable(Map<T, Set<T>> adjacency, T node) {
+        Set<T> reached = new HashSet<T>();
+        Deque<T> nodesToVisit = new ArrayDeque<T>(adjacent(adjacency, node));
+
+        while (!nodesToVisit.isEmpty()) {
+            T next = nodesToVisit.pop();
+            if (reached.add(next)) {
+                nodesToVisit.addAll(adjacent(adjacency, next));
+            }
+        }
+
+        return reached;
     }
 
     @SuppressWarnings("unchecked")
@@ -217,7 +268,7 @@ public class Graph<T> implements Iterable<T>, Serializable {
         this.addNode(src);
         for (T dest : dests) {
             this.addNode(dest);
-            this.edges.put(src, dest);
+            link(src, dest);
         }
     }
 
@@ -225,11 +276,43 @@ public class Graph<T> implements Iterable<T>, Serializable {
         this.addNode(dest);
         for (T src : srcs) {
             this.addNode(src);
-            this.edges.put(src, dest);
+            link(src, dest);
+        }
+    }
+
+    private void link(T src, T dest) {
+        checkWritable();
+        if (this.successors.computeIfAbsent(src, k -> newSet()).add(dest)) {
+            this.predecessors.computeIfAbsent(dest, k -> newSet()).add(src);
+            if (this.changeListener != null) {
+                this.changeListener.edgeAdded(src, dest);
+            }
+        }
+    }
+
+    private void unlink(T src, T dest) {
+        checkWritable();
+        Set<T> srcSuccessors = this.successors.get(src);
+        if (srcSuccessors != null && srcSuccessors.remove(dest)) {
+            Set<T> destPredecessors = this.predecessors.get(dest);
+            if (destPredecessors != null) {
+                destPredecessors.remove(src);
+            }
+            if (this.changeListener != null) {
+                this.changeListener.edgeRemoved(src, dest);
+            }
         }
     }
 
+    /**
+     * Sets the listener notified of graph changes. Only a single listener is supported.
+     */
+    public synchronized void setChangeListener(ChangeListener<T> changeListener) {
+        this.changeListener = changeListener;
+    }
+
     public synchronized void addNode(T node) {
+        checkWritable();
         this.nodes.add(node);
     }
 
@@ -238,16 +321,27 @@ public class Graph<T> implements Iterable<T>, Serializable {
         return this.getNodes().iterator();
     }
 
-    public synchronized Set<T> getNodes() {
+    public Set<T> getNodes() {
         return Collections.unmodifiableSet(this.nodes);
     }
 
     public Set<T> getSources() {
-        return this.reverse().getSinks();
+        return nodesWithout(this.predecessors);
+    }
+
+    public Set<T> getSinks() {
+        return nodesWithout(this.successors);
     }
 
-    public synchronized Set<T> getSinks() {
-        return Sets.difference(this.nodes, this.edges.keySet());
+    private Set<T> nodesWithout(Map<T, Set<T>> adjacency) {
+        Set<T> result = new HashSet<T>();
+        for (T node : this.nodes) {
+            Set<T> adjacent = adjacency.get(node);
+            if (adjacent == null || adjacent.isEmpty()) {
+                result.add(node);
+            }
+        }
+        return Collections.unmodifiableSet(result);
     }
 
     /**
@@ -255,30 +349,30 @@ public class Graph<T> implements Iterable<T>, Serializable {
      * or destination will also be removed.
      */
     public synchronized void removeNode(T node) {
-        this.nodes.remove(node);
-        this.edges.removeAll(node);
+        checkWritable();
 
-        for (Iterator<Map.Entry<T, T>> i = this.edges.entries().iterator(); i.hasNext();) {
-            Map.Entry<T, T> edge = i.next();
-
-            T dest = edge.getValue();
+        for (T successor : getSuccessors(node)) {
+            unlink(node, successor);
+        }
 
-            if (node.equals(dest)) {
-                i.remove();
-            }
+        for (T predecessor : getPredecessors(node)) {
+            unlink(predecessor, node);
         }
 
+        boolean removed = this.nodes.remove(node);
+        this.successors.remove(node);
+        this.predecessors.remove(node);
+
+        if (removed && this.changeListener != null) {
+            this.changeListener.nodeRemoved(node);
+        }
     }
 
     public synchronized void removeEdge(T src, T dest) {
-        for (Iterator<T> i = this.edges.get(src).iterator(); i.hasNext();) {
-            if (i.next().equals(dest)) {
-                i.remove();
-            }
-        }
+        unlink(src, dest);
     }
 
-    public void replace(T orig, T replacement) {
+    public synchronized void replace(T orig, T replacement) {
 
         for (T successor : this.getSuccessors(orig)) {
             this.addEdge(replacement, successor);
@@ -298,10 +392,30 @@ public class Graph<T> implements Iterable<T>, Serializable {
      * @return the reversed graph
      */
     public synchronized Graph<T> reverse() {
-        Multimap<T, T> reverseEdges = HashMultimap.create();
-        Multimaps.invertFrom(this.edges, reverseEdges);
+        Graph<T> reversed = new Graph<T>();
+        reversed.nodes.addAll(this.nodes);
+        copyAdjacency(this.predecessors, reversed.successors);
+        copyAdjacency(this.successors, reversed.predecessors);
+
+        return reversed;
+    }
 
-        return new Graph<T>(new HashSet<T>(this.nodes), reverseEdges);
+    /**
+     * Return an immutable copy of this graph. Traversals of the snapshot see a single consistent state
+     * regardless of concurrent modifications of this graph.
+     *
+     * @return the graph snapshot
+     */
+    public synchronized Graph<T> snapshot() {
+        Graph<T> snapshot = new Graph<T>(this);
+        snapshot.readOnly = true;
+        return snapshot;
+    }
+
+    private void checkWritable() {
+        if (this.readOnly) {
+            throw new UnsupportedOperationException("Graph snapshots cannot be modified");
+        }
     }
 
     public boolean pathExists(T source, T dest) {
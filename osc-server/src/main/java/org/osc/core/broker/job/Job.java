@@ -24,14 +24,18 @@ import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.persistence.EntityManager;
 import javax.persistence.LockModeType;
 
 import org.osc.core.broker.job.lock.LockManager;
 import org.osc.core.broker.job.lock.LockObjectReference;
+import org.osc.core.broker.job.lock.LockOwner;
 import org.osc.core.broker.job.lock.LockRequest;
 import org.osc.core.broker.model.entities.ObjectType;
 import org.osc.core.broker.model.entities.job.JobObject;
@@ -63,10 +67,12 @@ import org.slf4j.Logger;
  * Job class is returned by the {@link JobEngine} on submission and
  * holds a running job.
  */
-public class Job implements Runnable, JobElement {
+public class Job implements Runnable, JobElement, LockOwner {
 
     private static Logger log = LoggerFactory.getLogger(Job.class);
 
+    private static final AtomicLong sequenceGenerator = new AtomicLong();
+
     public interface JobCompletionListener {
         void completed(Job job);
     }
@@ -78,6 +84,8 @@ public class Job implements Runnable, JobElement {
     private final String name;
     private final TaskGraph taskGraph;
     private final Set<LockObjectReference> objects;
+    private final JobPriority priority;
+    private final long sequence = sequenceGenerator.incrementAndGet();
 
     private JobState state = JobState.NOT_RUNNING;
     private JobStatus status = JobStatus.PASSED;
@@ -86,9 +94,10 @@ public class Job implements Runnable, JobElement {
     private Date queuedTimestamp;
     private Date startedTimestamp;
     private Date completedTimestamp;
-    private boolean isAborted = false;
+    private volatile boolean isAborted = false;
 
     private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService pollScheduler;
 
     private final BlockingQueue<TaskNode> pendingCompletedTasksQueue = new LinkedBlockingQueue<TaskNode>();
 
@@ -100,11 +109,17 @@ public class Job implements Runnable, JobElement {
     private JobRecord jobRecord;
     Future<?> future;
 
-    Job(String name, TaskGraph taskGraph, Set<LockObjectReference> objects, ThreadPoolExecutor taskExecutor) {
+    // Serializes the writes of pending state updates of this job, see JobStatePersister
+    private final Object stateFlushLock = new Object();
+
+    Job(String name, TaskGraph taskGraph, Set<LockObjectReference> objects, JobPriority priority,
+            ThreadPoolExecutor taskExecutor, ScheduledExecutorService pollScheduler) {
         this.taskGraph = taskGraph;
         this.name = name;
         this.objects = objects;
+        this.priority = priority;
         this.executor = taskExecutor;
+        this.pollScheduler = pollScheduler;
 
         taskGraph.setJob(this);
 
@@ -128,29 +143,7 @@ public class Job implements Runnable, JobElement {
         this.status = status;
 
         if (this.jobRecord != null) {
-            persistStatus();
-        }
-    }
-
-    private void persistStatus() {
-
-        try {
-            EntityManager em = HibernateUtil.getTransactionalEntityManager();
-            TransactionControl txControl = HibernateUtil.getTransactionControl();
-            // Use a new transaction to persist this update come what may
-            txControl.requiresNew(() -> {
-                this.jobRecord = em.find(JobRecord.class, this.jobRecord.getId());
-                this.jobRecord.setStatus(this.status);
-                OSCEntityManager.update(em, this.jobRecord, StaticRegistry.transactionalBroadcastUtil());
-                return null;
-            });
-        } catch (ScopedWorkException e) {
-            // Unwrap the ScopedWorkException to get the cause from
-            // the scoped work (i.e. the executeTransaction() call.
-            log.error("Fail to update JobRecord " + this, e.getCause());
-        } catch (Exception e) {
-            // TODO:nbartlex remove when EM and TX are injected in A7
-            log.error("Fail to update JobRecord " + this, e);
+            persistState();
         }
     }
 
@@ -166,6 +159,10 @@ public class Job implements Runnable, JobElement {
         return this.taskGraph;
     }
 
+    public JobPriority getPriority() {
+        return this.priority;
+    }
+
     @Override
     public void run() {
         executeGraph(getTaskGraph().getStartTaskNode());
@@ -181,6 +178,28 @@ public class Job implements Runnable, JobElement {
         }
     }
 
+    /**
+     * Schedules the next check of a {@link PollingTask}. The task stays running but gives its task thread back
+     * until the delay expires.
+     */
+    void schedulePoll(TaskNode taskNode, long delayMs) {
+        synchronized (this) {
+            if (this.isAborted) {
+                return;
+            }
+            taskNode.future = this.pollScheduler.schedule(() -> resumePoll(taskNode), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void resumePoll(TaskNode taskNode) {
+        synchronized (this) {
+            if (this.isAborted) {
+                return;
+            }
+            taskNode.future = this.executor.submit(taskNode);
+        }
+    }
+
     private void executeGraph(TaskNode rootTaskNode) {
 
         setState(JobState.RUNNING);
@@ -211,10 +230,12 @@ public class Job implements Runnable, JobElement {
                 }
 
                 /*
+                 * Release the completed task as a predecessor of its successors.
                  * If the completed task has no successors, it means it is the last
                  * task (EndTask) and job is completed.
                  */
-                if (completedTask.getSuccessors().isEmpty()) {
+                Set<TaskNode> successors = this.taskGraph.completeTaskNode(completedTask);
+                if (successors.isEmpty()) {
                     break;
                 }
 
@@ -222,7 +243,7 @@ public class Job implements Runnable, JobElement {
                  * Check successors and start them if possible (all their
                  * predecessors completed)
                  */
-                for (TaskNode successorTaskNode : completedTask.getSuccessors()) {
+                for (TaskNode successorTaskNode : successors) {
                     /*
                      * If is running, nothing to do, we'll need to wait for it. If
                      * it is completed, Nothing to do. If is pending a thread,
@@ -233,37 +254,28 @@ public class Job implements Runnable, JobElement {
                         continue;
                     }
 
-                    if (checkAllPredecessorsCompleted(successorTaskNode)) {
+                    if (!successorTaskNode.hasPendingPredecessors()) {
                         // If task guard require success completion..
                         TaskGuard taskGuard = successorTaskNode.getTaskGaurd();
-                        if (taskGuard == TaskGuard.ALL_PREDECESSORS_SUCCEEDED
-                                || taskGuard == TaskGuard.ALL_ANCESTORS_SUCCEEDED) {
-                            // Check if all predecessor completion state
-                            Boolean shouldExecuteTask = false;
-
-                            if (taskGuard == TaskGuard.ALL_PREDECESSORS_SUCCEEDED) {
-                                shouldExecuteTask = checkAllPredecessorsCompletedSuccessfully(successorTaskNode);
-                            } else if (taskGuard == TaskGuard.ALL_ANCESTORS_SUCCEEDED) {
-                                shouldExecuteTask = checkAllAncestorsCompletedSuccessfully(successorTaskNode);
-                            }
-
-                            if (shouldExecuteTask) {
-
-                                executeTask(successorTaskNode);
-                            } else {
-                                /*
-                                 * If task does not meet task guard criteria, no need
-                                 * to run this task. Just mark it as SKIPPED and add
-                                 * it to completed queue so successors still have a
-                                 * chance to execute and they may not require
-                                 * successful completion.
-                                 */
-                                markTaskSkipped(successorTaskNode);
-                            }
+                        boolean shouldExecuteTask = true;
 
-                        } else {
+                        if (taskGuard == TaskGuard.ALL_PREDECESSORS_SUCCEEDED) {
+                            shouldExecuteTask = successorTaskNode.allPredecessorsSucceeded();
+                        } else if (taskGuard == TaskGuard.ALL_ANCESTORS_SUCCEEDED) {
+                            shouldExecuteTask = successorTaskNode.allAncestorsSucceeded();
+                        }
 
+                        if (shouldExecuteTask) {
                             executeTask(successorTaskNode);
+                        } else {
+                            /*
+                             * If task does not meet task guard criteria, no need
+                             * to run this task. Just mark it as SKIPPED and add
+                             * it to completed queue so successors still have a
+                             * chance to execute and they may not require
+                             * successful completion.
+                             */
+                            markTaskSkipped(successorTaskNode);
                         }
 
                     } else {
@@ -286,6 +298,13 @@ public class Job implements Runnable, JobElement {
 
         setState(JobState.COMPLETED);
 
+        // Final job and task states must be durable before anyone is told the job completed
+        flushState();
+
+        notifyCompletion();
+    }
+
+    private void notifyCompletion() {
         // Notify all job completion listeners
         if (!this.jobCompletionListeners.isEmpty()) {
             Thread thread = new Thread(new NotifyJobCompletionListeners(this));
@@ -295,7 +314,7 @@ public class Job implements Runnable, JobElement {
             this.jobCompletionSemaphore.release();
         }
 
-        JobEngine.getEngine().activeJobs.remove(this);
+        JobEngine.getEngine().jobCompleted(this);
     }
 
     private class NotifyJobCompletionListeners implements Runnable {
@@ -315,16 +334,6 @@ public class Job implements Runnable, JobElement {
         }
     }
 
-    private boolean checkAllPredecessorsCompleted(TaskNode taskNode) {
-        // Check if task's predecessor all completed.
-        for (TaskNode predecessorTaskNode : taskNode.getPredecessors()) {
-            if (!((TaskStateElementImpl)predecessorTaskNode.getState()).getState().isTerminalState()) {
-                return false;
-            }
-        }
-        return true;
-    }
-
     private void markTaskSkipped(TaskNode taskNode) {
         taskNode.setState(TaskState.COMPLETED);
         taskNode.setStatus(TaskStatus.SKIPPED);
@@ -335,28 +344,6 @@ public class Job implements Runnable, JobElement {
         }
     }
 
-    private boolean checkAllPredecessorsCompletedSuccessfully(TaskNode taskNode) {
-        boolean isAllPredecessorsSuccessful = true;
-        for (TaskNode predecessorTaskNode : taskNode.getPredecessors()) {
-            if (!((TaskStatusElementImpl)predecessorTaskNode.getStatus()).getStatus().isSuccessful()) {
-                isAllPredecessorsSuccessful = false;
-                break;
-            }
-        }
-        return isAllPredecessorsSuccessful;
-    }
-
-    private boolean checkAllAncestorsCompletedSuccessfully(TaskNode taskNode) {
-        boolean isAllAncestorsSuccessful = true;
-        for (TaskNode ancestorTaskNode : taskNode.getAncestors()) {
-            if (!((TaskStatusElementImpl)ancestorTaskNode.getStatus()).getStatus().isSuccessful()) {
-                isAllAncestorsSuccessful = false;
-                break;
-            }
-        }
-        return isAllAncestorsSuccessful;
-    }
-
     BlockingQueue<TaskNode> getPendingCompletedTasksQueue() {
         return this.pendingCompletedTasksQueue;
     }
@@ -391,28 +378,17 @@ public class Job implements Runnable, JobElement {
     }
 
     private void persistState() {
-        try {
-            EntityManager em = HibernateUtil.getTransactionalEntityManager();
-            TransactionControl txControl = HibernateUtil.getTransactionControl();
-            // Use a new transaction to persist this update come what may
-            txControl.requiresNew(() -> {
-                this.jobRecord = em.find(JobRecord.class, this.jobRecord.getId());
-
-                this.jobRecord.setState(this.state);
-                this.jobRecord.setQueuedTimestamp(getQueuedTimestamp());
-                this.jobRecord.setStartedTimestamp(getStartedTimestamp());
-                this.jobRecord.setCompletedTimestamp(getCompletedTimestamp());
-                this.jobRecord.setFailureReason(getFailureReason());
-                OSCEntityManager.update(em, this.jobRecord, StaticRegistry.transactionalBroadcastUtil());
-                return null;
-            });
-        } catch (ScopedWorkException e) {
-            // Unwrap the ScopedWorkException to get the cause from
-            // the scoped work (i.e. the executeTransaction() call.
-            log.error("Fail to update JobRecord " + this, e.getCause());
-        } catch (Exception e) {
-            // TODO: nbartlex - remove when EM and TX are injected
-            log.error("Fail to update JobRecord " + this, e);
+        JobStatePersister.getPersister().enqueue(this, new JobStatePersister.JobRecordUpdate(this.jobRecord.getId(),
+                this.state, this.status, getFailureReason(), getQueuedTimestamp(), getStartedTimestamp(),
+                getCompletedTimestamp()));
+    }
+
+    /**
+     * Writes any pending job and task updates of this job to the database.
+     */
+    private void flushState() {
+        if (this.jobRecord != null) {
+            JobStatePersister.getPersister().flush(this);
         }
     }
 
@@ -509,12 +485,36 @@ public class Job implements Runnable, JobElement {
         setFailureReason(reason);
         setState(JobState.COMPLETED);
         setStatus(JobStatus.ABORTED);
+
+        flushState();
+    }
+
+    @Override
+    public long getLockOwnerSequence() {
+        return this.sequence;
+    }
+
+    @Override
+    public void abortDeadlocked() {
+        abort(VmidcMessages.getString(VmidcMessages_.JOB_ABORT_DEADLOCK));
+    }
+
+    /**
+     * Aborts a job which was never started, notifying its completion listeners since no job thread will.
+     */
+    void abortQueued(String reason) {
+        abort(reason);
+        notifyCompletion();
     }
 
     JobRecord getJobRecord() {
         return this.jobRecord;
     }
 
+    Object getStateFlushLock() {
+        return this.stateFlushLock;
+    }
+
     synchronized void mergeMetaTaskTaskGraph(TaskNode metaTaskNode) throws Exception {
         MetaTask metaTask = (MetaTask) metaTaskNode.getTask();
         TaskGraph tg = metaTask.getTaskGraph();
@@ -703,6 +703,13 @@ public class Job implements Runnable, JobElement {
         }
     }
 
+    /**
+     * Gets the objects the job was submitted for, null if none.
+     */
+    Set<LockObjectReference> getObjectReferences() {
+        return this.objects;
+    }
+
     /**
      * Gets all the acquired lock references to objects within the task graph
      *
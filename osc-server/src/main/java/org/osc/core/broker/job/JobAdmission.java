@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.osc.core.broker.job.lock.LockManager;
+import org.osc.core.broker.job.lock.LockObjectReference;
+import org.osc.core.broker.job.lock.LockRequest.LockType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JobAdmission decides when submitted {@link Job}s are started.
+ * <p>
+ * Jobs wait in a bounded queue ordered by {@link JobPriority}, then by submission order. A waiting job is started
+ * when fewer than the allowed number of jobs are running, unless one of the objects it was submitted for is locked
+ * or waited for by others, in which case it is deferred and later jobs are considered instead. Deferred jobs are
+ * considered again on every dispatch. A waiting job already holding a lock, placed before it was submitted and
+ * released by one of its unlock tasks, which another job is waiting for is started right away, since the waiter
+ * cannot make progress until it does. Up to a fixed number of such jobs may run beyond the running limit.
+ * <p>
+ * When the queue is full, a job is only admitted if a waiting job of lower priority can be shed to make room.
+ */
+final class JobAdmission {
+
+    private static final Logger log = LoggerFactory.getLogger(JobAdmission.class);
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    private static final class Candidate {
+        private final Job job;
+        private final JobPriority priority;
+        private final long sequence;
+        private final long queuedNanos = System.nanoTime();
+
+        // Held locks are captured on admission, the task graph does not change until the job starts
+        private final List<LockObjectReference> heldLocks;
+
+        // The submitted objects the job does not lock yet
+        private final Set<LockObjectReference> requiredLocks = new HashSet<>();
+
+        private Candidate(Job job, JobPriority priority, long sequence) {
+            this.job = job;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.heldLocks = job.getCurrentLockReferences();
+            if (job.getObjectReferences() != null) {
+                this.requiredLocks.addAll(job.getObjectReferences());
+                this.requiredLocks.removeAll(this.heldLocks);
+            }
+        }
+    }
+
+    private static final Comparator<Candidate> ORDER = Comparator.<Candidate, JobPriority>comparing(c -> c.priority)
+            .thenComparingLong(c -> c.sequence);
+
+    /**
+     * Admission counters of one priority.
+     */
+    private static final class Statistics {
+        private long admitted;
+        private long started;
+        private long shed;
+        private long rejected;
+        private long totalWaitNanos;
+        private long maxWaitNanos;
+    }
+
+    private final int maxRunningJobs;
+    private final int maxOverflowJobs;
+    private final int queueCapacity;
+    private final Consumer<Job> starter;
+
+    // All guarded by this
+    private final TreeSet<Candidate> waiting = new TreeSet<>(ORDER);
+    private final Set<Job> running = new HashSet<>();
+    private final Map<JobPriority, Statistics> statistics = new EnumMap<>(JobPriority.class);
+    private long sequence = 0;
+    private int deferred = 0;
+
+    /**
+     * @param maxRunningJobs
+     *            the number of jobs allowed to run at once, short of jobs holding locks others wait for
+     * @param maxOverflowJobs
+     *            the number of jobs holding locks others wait for allowed to run beyond maxRunningJobs
+     * @param queueCapacity
+     *            the maximum number of waiting jobs
+     * @param starter
+     *            starts a job once admitted, must not block
+     */
+    JobAdmission(int maxRunningJobs, int maxOverflowJobs, int queueCapacity, Consumer<Job> starter) {
+        this.maxRunningJobs = maxRunningJobs;
+        this.maxOverflowJobs = maxOverflowJobs;
+        this.queueCapacity = queueCapacity;
+        this.starter = starter;
+        for (JobPriority priority : JobPriority.values()) {
+            this.statistics.put(priority, new Statistics());
+        }
+    }
+
+    /**
+     * Queues a job and starts whatever can be started.
+     *
+     * @return the waiting job shed to make room for this one, to be aborted by the caller, or null
+     * @throws IllegalStateException
+     *             if the queue is full of jobs of the same or higher priority
+     */
+    synchronized Job offer(Job job, JobPriority priority) {
+        Job shedJob = null;
+        if (this.waiting.size() >= this.queueCapacity) {
+            Candidate lowest = this.waiting.last();
+            if (lowest.priority.compareTo(priority) <= 0) {
+                this.statistics.get(priority).rejected++;
+                throw new IllegalStateException("Job queue is full (" + this.queueCapacity + " waiting jobs)");
+            }
+            this.waiting.remove(lowest);
+            this.statistics.get(lowest.priority).shed++;
+            shedJob = lowest.job;
+            log.warn("Job queue is full, shedding " + shedJob + " (" + lowest.priority + ") in favor of " + job + " ("
+                    + priority + ")");
+        }
+
+        this.waiting.add(new Candidate(job, priority, this.sequence++));
+        this.statistics.get(priority).admitted++;
+        dispatch();
+        return shedJob;
+    }
+
+    /**
+     * Removes a job which has not been started yet.
+     *
+     * @return true if the job was waiting
+     */
+    synchronized boolean remove(Job job) {
+        return this.waiting.removeIf(c -> c.job == job);
+    }
+
+    /**
+     * Records the completion of a started job and starts whatever can be started.
+     */
+    synchronized void completed(Job job) {
+        if (this.running.remove(job)) {
+            dispatch();
+        }
+    }
+
+    /**
+     * Starts the waiting jobs which can be started, in priority order.
+     */
+    synchronized void dispatch() {
+        int deferredJobs = 0;
+        Iterator<Candidate> it = this.waiting.iterator();
+        while (it.hasNext() && this.running.size() < this.maxRunningJobs + this.maxOverflowJobs) {
+            Candidate candidate = it.next();
+            if (!holdsAwaitedLock(candidate)) {
+                if (this.running.size() >= this.maxRunningJobs) {
+                    // Keep looking for jobs others are waiting on
+                    continue;
+                }
+                if (!requiredLocksAvailable(candidate)) {
+                    // Would only block a job thread in its lock task
+                    deferredJobs++;
+                    continue;
+                }
+            }
+
+            it.remove();
+            start(candidate);
+        }
+        this.deferred = deferredJobs;
+    }
+
+    private void start(Candidate candidate) {
+        long waitNanos = System.nanoTime() - candidate.queuedNanos;
+        Statistics stats = this.statistics.get(candidate.priority);
+        stats.started++;
+        stats.totalWaitNanos += waitNanos;
+        stats.maxWaitNanos = Math.max(stats.maxWaitNanos, waitNanos);
+
+        this.running.add(candidate.job);
+        this.starter.accept(candidate.job);
+    }
+
+    private static boolean holdsAwaitedLock(Candidate candidate) {
+        for (LockObjectReference lockRef : candidate.heldLocks) {
+            if (LockManager.getLockManager().hasWaiters(lockRef)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean requiredLocksAvailable(Candidate candidate) {
+        for (LockObjectReference lockRef : candidate.requiredLocks) {
+            if (!LockManager.getLockManager().isAvailable(lockRef, LockType.WRITE_LOCK)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    synchronized int getQueueDepth() {
+        return this.waiting.size();
+    }
+
+    /**
+     * Describes the current queue depth, running jobs and per priority wait times.
+     */
+    synchronized String getStatus() {
+        Map<JobPriority, Integer> depth = new EnumMap<>(JobPriority.class);
+        for (Candidate candidate : this.waiting) {
+            depth.merge(candidate.priority, 1, Integer::sum);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("[job admission] Running: %d/%d (+%d overflow), Waiting: %d/%d, Deferred: %d",
+                this.running.size(), this.maxRunningJobs, this.maxOverflowJobs, this.waiting.size(),
+                this.queueCapacity, this.deferred));
+        for (Map.Entry<JobPriority, Statistics> entry : this.statistics.entrySet()) {
+            Statistics stats = entry.getValue();
+            long averageWaitMs = stats.started == 0 ? 0
+                    : TimeUnit.NANOSECONDS.toMillis(stats.totalWaitNanos / stats.started);
+            sb.append(String.format(
+                    "%n  %s: Waiting: %d, Admitted: %d, Started: %d, Shed: %d, Rejected: %d, Average wait: %dms, Max wait: %dms",
+                    entry.getKey(), depth.getOrDefault(entry.getKey(), 0), stats.admitted, stats.started, stats.shed,
+                    stats.rejected, averageWaitMs, TimeUnit.NANOSECONDS.toMillis(stats.maxWaitNanos)));
+        }
+        return sb.toString();
+    }
+}
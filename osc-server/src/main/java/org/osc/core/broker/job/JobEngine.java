@@ -22,9 +22,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -49,9 +50,12 @@ public final class JobEngine {
 
     public static final int DEFAULT_JOB_THREAD_POOL_SIZE = 10;
     public static final int DEFAULT_TASK_THREAD_POOL_SIZE = 40;
+    public static final int DEFAULT_JOB_OVERFLOW_THREAD_POOL_SIZE = 10;
 
     private static int jobThreadPoolSize = DEFAULT_JOB_THREAD_POOL_SIZE;
     private static int taskThreadPoolSize = DEFAULT_TASK_THREAD_POOL_SIZE;
+    private static int jobOverflowThreadPoolSize = DEFAULT_JOB_OVERFLOW_THREAD_POOL_SIZE;
+    private static int jobQueueCapacity = JobAdmission.DEFAULT_QUEUE_CAPACITY;
 
     private static Logger logger = LoggerFactory.getLogger(JobEngine.class);
 
@@ -69,6 +73,18 @@ public final class JobEngine {
     private ThreadPoolExecutor jobExecutor = null;
     private ThreadPoolExecutor taskExecutor = null;
 
+    /*
+     * Schedules the next check of waiting PollingTasks. It only hands polling tasks back to the task pool and never
+     * runs a task itself, so a single thread is enough.
+     */
+    private ScheduledThreadPoolExecutor pollScheduler = null;
+
+    /*
+     * Queues submitted jobs by priority and decides when they start. The job pool has no queue of its own, a job is
+     * only handed to it once admitted.
+     */
+    private JobAdmission admission = null;
+
     private Set<JobCompletionListener> jobCompletionListeners = new HashSet<JobCompletionListener>();
 
     private JobEngine() {
@@ -79,14 +95,26 @@ public final class JobEngine {
             return;
         }
 
-        this.jobExecutor = new ThreadPoolExecutor(jobThreadPoolSize, jobThreadPoolSize, 60, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<Runnable>(), new ThreadFactoryBuilder().setNameFormat("isc-job-pool-%d")
-                .build(), new RejectedExecutionHandlerImpl());
+        // Admission keeps the number of running jobs at the pool size, plus the overflow for jobs holding locks
+        // others wait for
+        this.jobExecutor = new ThreadPoolExecutor(jobThreadPoolSize, jobThreadPoolSize + jobOverflowThreadPoolSize,
+                60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                new ThreadFactoryBuilder().setNameFormat("isc-job-pool-%d").build(), new RejectedExecutionHandlerImpl());
 
         this.taskExecutor = new ThreadPoolExecutor(taskThreadPoolSize, taskThreadPoolSize, 60, TimeUnit.SECONDS,
                 new LinkedBlockingQueue<Runnable>(), new ThreadFactoryBuilder().setNameFormat("isc-task-pool-%d")
                 .build(), new RejectedExecutionHandlerImpl());
 
+        this.pollScheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+                .setNameFormat("isc-task-poll-%d").build(), new RejectedExecutionHandlerImpl());
+        this.pollScheduler.setRemoveOnCancelPolicy(true);
+
+        this.admission = new JobAdmission(jobThreadPoolSize, jobOverflowThreadPoolSize, jobQueueCapacity,
+                this::startJob);
+        // Waiting jobs are considered again as jobs complete, and periodically as well since running jobs start
+        // waiting for locks held by waiting jobs at any time
+        this.pollScheduler.scheduleWithFixedDelay(this.admission::dispatch, 1, 1, TimeUnit.SECONDS);
+
         jobEngine.initialized = true;
     }
 
@@ -109,7 +137,9 @@ public final class JobEngine {
         logger.info("Job Engine Shutdown Requested");
         this.isShutdown = true;
         abortAllJobs(VmidcMessages.getString(VmidcMessages_.JOB_ABORT_SHUTDOWN));
+        JobStatePersister.shutdown();
         this.jobExecutor.shutdownNow();
+        this.pollScheduler.shutdownNow();
         this.taskExecutor.shutdownNow();
         try {
             logStatus();
@@ -125,6 +155,7 @@ public final class JobEngine {
      */
     void shutdownForTest() {
         shutdown();
+        JobStatePersister.resetForTest();
         this.initialized = false;
         this.isShutdown = false;
     }
@@ -142,6 +173,14 @@ public final class JobEngine {
                         this.taskExecutor.getActiveCount(), this.taskExecutor.getCompletedTaskCount(),
                         this.taskExecutor.getTaskCount(), this.taskExecutor.getQueue().size(),
                         this.taskExecutor.isShutdown(), this.taskExecutor.isTerminated()));
+        logger.debug(this.admission.getStatus());
+    }
+
+    /**
+     * Gets the job queue depth, running jobs and per priority admission counters and wait times.
+     */
+    public String getAdmissionStatus() {
+        return this.admission.getStatus();
     }
 
     public Job submit(String name, TaskGraph taskGraph, JobCompletionListener listener, boolean persistent)
@@ -182,7 +221,8 @@ public final class JobEngine {
             JobCompletionListener jobCompletionListener, TaskChangeListener taskChangeListener, boolean persistent)
                     throws Exception {
         if (!this.isShutdown) {
-            Job job = new Job(name, taskGraph, objects, this.taskExecutor);
+            JobPriority priority = JobPriority.getCurrent();
+            Job job = new Job(name, taskGraph, objects, priority, this.taskExecutor, this.pollScheduler);
             if (persistent) {
                 job.persistJob();
             }
@@ -198,36 +238,37 @@ public final class JobEngine {
             }
 
             job.setState(JobState.QUEUED);
-            if (this.jobExecutor.getActiveCount() >= DEFAULT_JOB_THREAD_POOL_SIZE) {
-                // We have no threads to execute this job, see if this job has a lock which the
-                // other jobs are waiting on, and abort if necessary.
-                List<LockObjectReference> currentJobLockReferences = job.getCurrentLockReferences();
-                List<LockObjectReference> activeJobsLockReferences = new ArrayList<>();
-                Iterator<Job> it = this.activeJobs.iterator();
-                while (it.hasNext()) {
-                    Job activeJob = it.next();
-                    activeJobsLockReferences.addAll(activeJob.getCurrentLockReferences());
-                }
-
-                for (LockObjectReference currentJobLockReference : currentJobLockReferences) {
-                    if (activeJobsLockReferences.contains(currentJobLockReference)) {
-                        job.abort(VmidcMessages.getString(VmidcMessages_.JOB_ABORT_DEADLOCK));
-                        throw new VmidcBrokerValidationException("Job will Result in DeadLock. Please try again later.");
-                    }
-                }
-            }
             this.activeJobs.add(job);
 
-            Future<?> future = this.jobExecutor.submit(job);
-            job.future = future;
+            Job shedJob;
+            try {
+                shedJob = this.admission.offer(job, priority);
+            } catch (IllegalStateException e) {
+                logger.warn("Rejecting " + job + ": " + e.getMessage());
+                this.activeJobs.remove(job);
+                job.abortQueued(VmidcMessages.getString(VmidcMessages_.JOB_ABORT_QUEUE_FULL));
+                throw new VmidcBrokerValidationException("Job queue is full. Please try again later.");
+            }
+            if (shedJob != null) {
+                shedJob.abortQueued(VmidcMessages.getString(VmidcMessages_.JOB_ABORT_PREEMPTED));
+            }
             return job;
         } else {
             throw new VmidcBrokerValidationException("Cannot process job, job engine is shutting down.");
         }
     }
 
+    private void startJob(Job job) {
+        job.future = this.jobExecutor.submit(job);
+    }
+
+    synchronized void jobCompleted(Job job) {
+        this.activeJobs.remove(job);
+        this.admission.completed(job);
+    }
+
     public boolean isActive() {
-        return this.jobExecutor.getActiveCount() > 0;
+        return this.jobExecutor.getActiveCount() > 0 || this.admission.getQueueDepth() > 0;
     }
 
     public static void setJobThreadPoolSize(String value) {
@@ -244,13 +285,43 @@ public final class JobEngine {
         taskThreadPoolSize = Integer.parseInt(value);
     }
 
+    /**
+     * Sets the number of jobs allowed to run beyond the job thread pool size because they hold a lock another job
+     * is waiting for.
+     */
+    public static void setJobOverflowThreadPoolSize(String value) {
+        if (value == null) {
+            return;
+        }
+        jobOverflowThreadPoolSize = Integer.parseInt(value);
+    }
+
+    /**
+     * Sets the maximum number of jobs waiting to be started. Once reached, a job is only accepted if a waiting job of
+     * lower priority can be shed to make room for it.
+     */
+    public static void setJobQueueCapacity(String value) {
+        if (value == null) {
+            return;
+        }
+        jobQueueCapacity = Integer.parseInt(value);
+    }
+
+    /**
+     * Sets the interval, in milliseconds, at which job and task state changes are written behind to the database.
+     * A value of zero or less writes every change immediately.
+     */
+    public static void setStatePersistenceInterval(String value) {
+        JobStatePersister.setFlushInterval(value);
+    }
+
     private synchronized void abortAllJobs(String reason) {
         // Active jobs will be changing as jobs are completed. Act on snapshot of jobs that we know.
         CopyOnWriteArrayList<Job> activeJobsCopy = new CopyOnWriteArrayList<>(this.activeJobs);
         Iterator<Job> it = activeJobsCopy.iterator();
         while (it.hasNext()) {
             Job job = it.next();
-            job.abort(reason);
+            abort(job, reason);
         }
     }
 
@@ -260,13 +331,22 @@ public final class JobEngine {
             Job job = it.next();
             if (job.getId().equals(jobId)) {
                 if (!job.getState().getState().isTerminalState()) {
-                    job.abort(reason);
+                    abort(job, reason);
                 }
                 return;
             }
         }
     }
 
+    private void abort(Job job, String reason) {
+        if (this.admission.remove(job)) {
+            // Never started, no job thread is left to complete it
+            job.abortQueued(reason);
+        } else {
+            job.abort(reason);
+        }
+    }
+
     public void addJobCompletionListener(JobCompletionListener listener) {
         this.jobCompletionListeners.add(listener);
     }
@@ -280,10 +360,8 @@ public final class JobEngine {
         Iterator<Job> it = activeJobsCopy.iterator();
         while (it.hasNext()) {
             Job job = it.next();
-            for (TaskNode taskNode : job.getTaskGraph().getGraph().getNodes()) {
-                if (taskNode.getTask() == task) {
-                    return job;
-                }
+            if (job.getTaskGraph().getTaskNode(task) != null) {
+                return job;
             }
         }
         return null;
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job;
+
+import org.osc.core.broker.service.ConformService;
+import org.osc.core.broker.service.api.JobEngineInfoServiceApi;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+@Component
+public class JobEngineInfoService implements JobEngineInfoServiceApi {
+    @Reference
+    private ConformService conformService;
+
+    @Override
+    public String getJobEngineInfo() {
+        return JobEngine.getEngine().getAdmissionStatus() + System.lineSeparator()
+                + this.conformService.getSecurityGroupSyncStatus();
+    }
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job;
+
+/**
+ * JobPriority orders the {@link Job}s waiting to be started by the {@link JobEngine}, highest priority first.
+ *
+ * The priority of a job is the priority of the thread submitting it. Threads default to {@link #USER}; background
+ * threads declare their priority with {@link #setCurrent(JobPriority)}, the same way they declare their user with
+ * SessionUtil. Tasks run with the priority of their job, so jobs submitted by a task inherit it.
+ */
+public enum JobPriority {
+    /**
+     * Jobs submitted on behalf of a user through the REST API or UI.
+     */
+    USER,
+
+    /**
+     * Jobs triggered by notifications from a virtualization connector, like RabbitMQ messages.
+     */
+    NOTIFICATION,
+
+    /**
+     * Jobs started by periodic scheduler runs.
+     */
+    SCHEDULED;
+
+    private static final ThreadLocal<JobPriority> current = new ThreadLocal<JobPriority>();
+
+    public static JobPriority getCurrent() {
+        JobPriority priority = current.get();
+        return priority != null ? priority : USER;
+    }
+
+    public static void setCurrent(JobPriority priority) {
+        current.set(priority);
+    }
+}
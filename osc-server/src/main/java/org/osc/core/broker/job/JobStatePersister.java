@@ -0,0 +1,380 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.persistence.EntityManager;
+
+import org.osc.core.broker.model.entities.job.JobRecord;
+import org.osc.core.broker.model.entities.job.TaskRecord;
+import org.osc.core.broker.service.persistence.OSCEntityManager;
+import org.osc.core.broker.util.StaticRegistry;
+import org.osc.core.broker.util.db.HibernateUtil;
+import org.osc.core.common.job.JobState;
+import org.osc.core.common.job.JobStatus;
+import org.osc.core.common.job.TaskState;
+import org.osc.core.common.job.TaskStatus;
+import org.osgi.service.transaction.control.ScopedWorkException;
+import org.osgi.service.transaction.control.TransactionControl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * JobStatePersister is a write-behind store for {@link Job} and {@link TaskNode} state, status and timestamp
+ * changes. Changes are coalesced per record and written in one transaction per job, either periodically or as
+ * soon as a task reaches a terminal state.
+ * <p>
+ * A flush interval of zero or less restores write-through behavior, in which every change is written by the
+ * calling thread. Changes made while holding the {@link Job} monitor are handed to the background flusher instead,
+ * since writing takes the flush lock of the job before its monitor. Once shut down, changes are written through.
+ */
+final class JobStatePersister {
+
+    private static final Logger log = LoggerFactory.getLogger(JobStatePersister.class);
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 250;
+
+    private static long flushIntervalMs = DEFAULT_FLUSH_INTERVAL_MS;
+
+    private static volatile JobStatePersister persister;
+
+    /**
+     * Writes the pending updates of a job to the database.
+     */
+    interface Writer {
+        void write(Job job, JobRecordUpdate jobUpdate, List<TaskRecordUpdate> taskUpdates);
+    }
+
+    /**
+     * Snapshot of the {@link TaskRecord} fields owned by a {@link TaskNode}.
+     */
+    static final class TaskRecordUpdate {
+        private final Long id;
+        private final String name;
+        private final TaskState state;
+        private final TaskStatus status;
+        private final String failReason;
+        private final Date queuedTimestamp;
+        private final Date startedTimestamp;
+        private final Date completedTimestamp;
+
+        TaskRecordUpdate(Long id, String name, TaskState state, TaskStatus status, String failReason,
+                Date queuedTimestamp, Date startedTimestamp, Date completedTimestamp) {
+            this.id = id;
+            this.name = name;
+            this.state = state;
+            this.status = status;
+            this.failReason = failReason;
+            this.queuedTimestamp = queuedTimestamp;
+            this.startedTimestamp = startedTimestamp;
+            this.completedTimestamp = completedTimestamp;
+        }
+
+        Long getId() {
+            return this.id;
+        }
+
+        TaskState getState() {
+            return this.state;
+        }
+
+        String getFailReason() {
+            return this.failReason;
+        }
+
+        /**
+         * Coalesces this (newer) snapshot with an older pending one. A fail reason is only ever set, never
+         * cleared.
+         */
+        private TaskRecordUpdate mergeWith(TaskRecordUpdate older) {
+            if (this.failReason != null || older.failReason == null) {
+                return this;
+            }
+            return new TaskRecordUpdate(this.id, this.name, this.state, this.status, older.failReason,
+                    this.queuedTimestamp, this.startedTimestamp, this.completedTimestamp);
+        }
+
+        private void applyTo(TaskRecord taskRecord) {
+            taskRecord.setName(this.name);
+            taskRecord.setState(this.state);
+            taskRecord.setStatus(this.status);
+            if (this.failReason != null) {
+                taskRecord.setFailReason(this.failReason);
+            }
+            taskRecord.setQueuedTimestamp(this.queuedTimestamp);
+            taskRecord.setStartedTimestamp(this.startedTimestamp);
+            taskRecord.setCompletedTimestamp(this.completedTimestamp);
+        }
+    }
+
+    /**
+     * Snapshot of the {@link JobRecord} fields owned by a {@link Job}.
+     */
+    static final class JobRecordUpdate {
+        private final Long id;
+        private final JobState state;
+        private final JobStatus status;
+        private final String failureReason;
+        private final Date queuedTimestamp;
+        private final Date startedTimestamp;
+        private final Date completedTimestamp;
+
+        JobRecordUpdate(Long id, JobState state, JobStatus status, String failureReason, Date queuedTimestamp,
+                Date startedTimestamp, Date completedTimestamp) {
+            this.id = id;
+            this.state = state;
+            this.status = status;
+            this.failureReason = failureReason;
+            this.queuedTimestamp = queuedTimestamp;
+            this.startedTimestamp = startedTimestamp;
+            this.completedTimestamp = completedTimestamp;
+        }
+
+        private void applyTo(JobRecord jobRecord) {
+            jobRecord.setState(this.state);
+            jobRecord.setStatus(this.status);
+            jobRecord.setFailureReason(this.failureReason);
+            jobRecord.setQueuedTimestamp(this.queuedTimestamp);
+            jobRecord.setStartedTimestamp(this.startedTimestamp);
+            jobRecord.setCompletedTimestamp(this.completedTimestamp);
+        }
+    }
+
+    private static final class PendingJobUpdates {
+        private JobRecordUpdate jobUpdate;
+        private final Map<Long, TaskRecordUpdate> taskUpdates = new LinkedHashMap<>();
+    }
+
+    /*
+     * Guarded by itself. Holds pending updates grouped by job so that each job is written in a single
+     * transaction while holding the job monitor, the same monitor Job.persistJob() runs under.
+     */
+    private final Map<Job, PendingJobUpdates> pending = new LinkedHashMap<>();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
+    private final long intervalMs;
+    private final Writer writer;
+    private final ScheduledExecutorService flusher;
+    private volatile boolean isShutdown = false;
+
+    JobStatePersister(long intervalMs, Writer writer) {
+        this.intervalMs = intervalMs;
+        this.writer = writer;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                new ThreadFactoryBuilder().setNameFormat("isc-job-persister-%d").setDaemon(true).build());
+        if (intervalMs > 0) {
+            executor.scheduleWithFixedDelay(this::flushAllQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+        this.flusher = executor;
+    }
+
+    static JobStatePersister getPersister() {
+        JobStatePersister current = persister;
+        if (current == null) {
+            synchronized (JobStatePersister.class) {
+                current = persister;
+                if (current == null) {
+                    current = new JobStatePersister(flushIntervalMs, JobStatePersister::writeToDatabase);
+                    persister = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Sets the write-behind flush interval in milliseconds. Takes effect the next time the persister is created.
+     */
+    static void setFlushInterval(String value) {
+        if (value == null) {
+            return;
+        }
+        flushIntervalMs = Long.parseLong(value);
+    }
+
+    boolean isWriteBehind() {
+        return this.intervalMs > 0 && !this.isShutdown;
+    }
+
+    void enqueue(Job job, TaskRecordUpdate update) {
+        synchronized (this.pending) {
+            PendingJobUpdates jobUpdates = this.pending.computeIfAbsent(job, j -> new PendingJobUpdates());
+            jobUpdates.taskUpdates.merge(update.id, update, (older, newer) -> newer.mergeWith(older));
+        }
+
+        if (!isWriteBehind()) {
+            writeThrough(job);
+        } else if (update.state.isTerminalState()) {
+            requestFlush();
+        }
+    }
+
+    void enqueue(Job job, JobRecordUpdate update) {
+        synchronized (this.pending) {
+            this.pending.computeIfAbsent(job, j -> new PendingJobUpdates()).jobUpdate = update;
+        }
+
+        if (!isWriteBehind()) {
+            writeThrough(job);
+        }
+    }
+
+    private void writeThrough(Job job) {
+        if (Thread.holdsLock(job)) {
+            // Flushing takes the flush lock of the job before its monitor, leave the write to the flusher
+            requestFlush();
+        } else {
+            flush(job);
+        }
+    }
+
+    /**
+     * Asks the background flusher to write pending updates as soon as possible, without waiting for the next
+     * interval. Requests made while one is outstanding are collapsed.
+     */
+    private void requestFlush() {
+        if (this.flushRequested.compareAndSet(false, true)) {
+            try {
+                this.flusher.execute(() -> {
+                    this.flushRequested.set(false);
+                    flushAllQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                // Shut down, pending updates are written by the next flush of their job
+                this.flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Synchronously writes every pending update for the given job. On return all changes made to the job and its
+     * tasks before the call are durable.
+     * <p>
+     * Flushes of a job are serialized by its flush lock, so a flush cannot return while a concurrent one still
+     * holds updates of the same job outside of the pending map. Flushes of different jobs run in parallel. Must not
+     * be called while holding the job monitor, which is taken after the flush lock.
+     */
+    void flush(Job job) {
+        synchronized (job.getStateFlushLock()) {
+            PendingJobUpdates jobUpdates;
+            synchronized (this.pending) {
+                jobUpdates = this.pending.remove(job);
+            }
+            if (jobUpdates != null) {
+                write(job, jobUpdates);
+            }
+        }
+    }
+
+    /**
+     * Synchronously writes every pending update for all jobs.
+     */
+    void flushAll() {
+        List<Job> jobs;
+        synchronized (this.pending) {
+            jobs = new ArrayList<>(this.pending.keySet());
+        }
+        for (Job job : jobs) {
+            flush(job);
+        }
+    }
+
+    private void flushAllQuietly() {
+        try {
+            flushAll();
+        } catch (Throwable t) {
+            log.error("Fail to flush pending job and task updates", t);
+        }
+    }
+
+    private void write(Job job, PendingJobUpdates jobUpdates) {
+        List<TaskRecordUpdate> taskUpdates = new ArrayList<>(jobUpdates.taskUpdates.values());
+        // Maybe bug on Pessimistic lock
+        // Tracker issue: https://github.com/opensecuritycontroller/osc-core/issues/400
+        synchronized (job) {
+            this.writer.write(job, jobUpdates.jobUpdate, taskUpdates);
+        }
+    }
+
+    private static void writeToDatabase(Job job, JobRecordUpdate jobUpdate, List<TaskRecordUpdate> taskUpdates) {
+        try {
+            EntityManager em = HibernateUtil.getTransactionalEntityManager();
+            TransactionControl txControl = HibernateUtil.getTransactionControl();
+            // Use a new transaction to persist these updates come what may
+            txControl.requiresNew(() -> {
+                for (TaskRecordUpdate update : taskUpdates) {
+                    TaskRecord taskRecord = em.find(TaskRecord.class, update.id);
+                    if (taskRecord != null) {
+                        update.applyTo(taskRecord);
+                        OSCEntityManager.update(em, taskRecord, StaticRegistry.transactionalBroadcastUtil());
+                    }
+                }
+                if (jobUpdate != null) {
+                    JobRecord jobRecord = em.find(JobRecord.class, jobUpdate.id);
+                    if (jobRecord != null) {
+                        jobUpdate.applyTo(jobRecord);
+                        OSCEntityManager.update(em, jobRecord, StaticRegistry.transactionalBroadcastUtil());
+                    }
+                }
+                return null;
+            });
+        } catch (ScopedWorkException e) {
+            // Unwrap the ScopedWorkException to get the cause from
+            // the scoped work (i.e. the executeTransaction() call.
+            log.error("Fail to update JobRecord/TaskRecords of " + job, e.getCause());
+        } catch (Exception e) {
+            log.error("Fail to update JobRecord/TaskRecords of " + job, e);
+        }
+    }
+
+    /**
+     * Writes all pending updates and stops the background flusher. Changes made afterwards are written through.
+     */
+    static void shutdown() {
+        JobStatePersister current = persister;
+        if (current != null) {
+            current.stop();
+        }
+    }
+
+    void stop() {
+        this.isShutdown = true;
+        this.flusher.shutdownNow();
+        flushAllQuietly();
+    }
+
+    /**
+     * Drops the persister so the next one is created with the current flush interval.
+     */
+    static synchronized void resetForTest() {
+        shutdown();
+        persister = null;
+    }
+}
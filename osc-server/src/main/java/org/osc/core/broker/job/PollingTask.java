@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job;
+
+/**
+ * A {@link Task} that waits for an external condition without holding a task thread while it waits.
+ *
+ * Each call to {@link Task#execute()} performs a single check. Right after it returns, {@link #getPollDelay()} tells
+ * whether the task is done or how long to wait before {@link Task#execute()} is called again. In between checks
+ * the task thread is released, the task stays <tt>RUNNING</tt> and the locks held on behalf of the task are kept.
+ *
+ * Throwing from {@link Task#execute()} fails the task as usual.
+ */
+public interface PollingTask extends Task {
+
+    /**
+     * Returned by {@link #getPollDelay()} once the condition the task waits for is met.
+     */
+    long DONE = 0;
+
+    /**
+     * Gets the delay before the next check, as decided by the last call to {@link Task#execute()}.
+     *
+     * @return the delay in milliseconds before {@link Task#execute()} is called again, or {@link #DONE} (or any
+     *         value not greater than zero) if the task is complete.
+     */
+    long getPollDelay();
+
+}
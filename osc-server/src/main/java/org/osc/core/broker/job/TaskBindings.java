@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * TaskBindings describes the {@link TaskInput} and {@link TaskOutput} fields of a {@link Task} class. Descriptors
+ * are built once per class and their accessors are resolved to method handles, so binding a task's inputs and
+ * collecting its outputs does not scan fields or annotations on every execution.
+ */
+final class TaskBindings {
+
+    private static final ClassValue<TaskBindings> BINDINGS = new ClassValue<TaskBindings>() {
+        @Override
+        protected TaskBindings computeValue(Class<?> taskClass) {
+            return new TaskBindings(taskClass);
+        }
+    };
+
+    static final class Binding {
+        private final String name;
+        private final MethodHandle accessor;
+
+        private Binding(String name, MethodHandle accessor) {
+            this.name = name;
+            this.accessor = accessor;
+        }
+
+        String getName() {
+            return this.name;
+        }
+
+        void set(Task task, Object value) throws Throwable {
+            this.accessor.invoke(task, value);
+        }
+
+        Object get(Task task) throws Throwable {
+            return this.accessor.invoke(task);
+        }
+    }
+
+    private final List<Binding> inputs;
+    private final List<Binding> outputs;
+
+    private TaskBindings(Class<?> taskClass) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Binding> inputs = new ArrayList<>();
+        List<Binding> outputs = new ArrayList<>();
+
+        for (Field field : taskClass.getFields()) {
+            boolean input = field.isAnnotationPresent(TaskInput.class);
+            boolean output = field.isAnnotationPresent(TaskOutput.class);
+            if (!input && !output) {
+                continue;
+            }
+
+            // Public fields of non-public task classes (inner or anonymous tasks) are not accessible otherwise
+            field.setAccessible(true);
+            try {
+                if (input) {
+                    inputs.add(new Binding(field.getName(), lookup.unreflectSetter(field)));
+                }
+                if (output) {
+                    outputs.add(new Binding(field.getName(), lookup.unreflectGetter(field)));
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Fail to bind field " + field + " of Task " + taskClass, e);
+            }
+        }
+
+        this.inputs = Collections.unmodifiableList(inputs);
+        this.outputs = Collections.unmodifiableList(outputs);
+    }
+
+    static TaskBindings of(Task task) {
+        return BINDINGS.get(task.getClass());
+    }
+
+    List<Binding> getInputs() {
+        return this.inputs;
+    }
+
+    List<Binding> getOutputs() {
+        return this.outputs;
+    }
+}
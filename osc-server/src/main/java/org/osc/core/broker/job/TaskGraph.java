@@ -16,8 +16,13 @@
  *******************************************************************************/
 package org.osc.core.broker.job;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Set;
 
+import org.osc.core.broker.service.tasks.conformance.UnlockObjectMetaTask;
+import org.osc.core.broker.service.tasks.conformance.UnlockObjectTask;
 import org.osc.core.common.job.TaskGuard;
 
 /**
@@ -33,6 +38,34 @@ public class TaskGraph {
     private TaskNode endTaskNode;
     private Job job;
 
+    /**
+     * Tasks do not override equals, so their nodes are looked up by identity. Only nodes of the graph are indexed,
+     * see {@link GraphChanges}.
+     */
+    private final Map<Task, TaskNode> taskNodes = Collections.synchronizedMap(new IdentityHashMap<Task, TaskNode>());
+
+    /**
+     * Keeps the {@link TaskNode} scheduling counters in step with the graph edges and drops removed nodes from the
+     * task index.
+     */
+    private final class GraphChanges implements Graph.ChangeListener<TaskNode> {
+
+        @Override
+        public void edgeAdded(TaskNode src, TaskNode dest) {
+            dest.countPredecessor(src, 1);
+        }
+
+        @Override
+        public void edgeRemoved(TaskNode src, TaskNode dest) {
+            dest.countPredecessor(src, -1);
+        }
+
+        @Override
+        public void nodeRemoved(TaskNode node) {
+            TaskGraph.this.taskNodes.remove(node.getTask(), node);
+        }
+    }
+
     public Job getJob() {
         return this.job;
     }
@@ -41,12 +74,34 @@ public class TaskGraph {
         this.startTaskNode = new TaskNode(this, new StartTask(), TaskGuard.ALL_PREDECESSORS_COMPLETED);
         this.endTaskNode = new TaskNode(this, new EndTask(), TaskGuard.ALL_PREDECESSORS_COMPLETED);
         this.graph = new Graph<TaskNode>();
+        this.graph.setChangeListener(new GraphChanges());
 
-        this.graph.addNode(this.startTaskNode);
-        this.graph.addNode(this.endTaskNode);
+        addNode(this.startTaskNode);
+        addNode(this.endTaskNode);
         this.graph.addEdge(this.startTaskNode, this.endTaskNode);
     }
 
+    private void addNode(TaskNode taskNode) {
+        this.taskNodes.put(taskNode.getTask(), taskNode);
+        this.graph.addNode(taskNode);
+        linkLockOwner(taskNode.getTask());
+    }
+
+    /**
+     * Hands the locks released by an unlock task of this graph over to the job of the graph, so they are checked
+     * for deadlocks on behalf of the job even when they were placed before the job existed.
+     */
+    private void linkLockOwner(Task task) {
+        if (this.job == null) {
+            return;
+        }
+        if (task instanceof UnlockObjectTask) {
+            ((UnlockObjectTask) task).setLockOwner(this.job);
+        } else if (task instanceof UnlockObjectMetaTask) {
+            ((UnlockObjectMetaTask) task).setLockOwner(this.job);
+        }
+    }
+
     /**
      * Add to task graph with no dependency, thus practically creating a
      * parallel branch in task graph.
@@ -90,7 +145,7 @@ public class TaskGraph {
      */
     public synchronized void addTask(Task task, TaskGuard taskGuard, Task... predecessors) {
         TaskNode taskNode = new TaskNode(this, task, taskGuard);
-        this.graph.addNode(taskNode);
+        addNode(taskNode);
 
         if (predecessors.length == 0) {
             predecessors = new Task[1];
@@ -120,12 +175,7 @@ public class TaskGraph {
      * @return {@link TaskNode} containing the task.
      */
     public TaskNode getTaskNode(Task task) {
-        for (TaskNode node : this.graph.getNodes()) {
-            if (node.getTask().equals(task)) {
-                return node;
-            }
-        }
-        return null;
+        return this.taskNodes.get(task);
     }
 
     /**
@@ -154,6 +204,7 @@ public class TaskGraph {
     public synchronized void appendTask(Task task, TaskGuard taskGuard) {
         // Add task with current leafs as predecessors
         TaskNode tasknode = new TaskNode(this, task, taskGuard);
+        addNode(tasknode);
         this.graph.addEdges(this.graph.getPredecessors(this.endTaskNode), tasknode);
 
         // Remove end node's predecessor as they are now wired as predecessor to
@@ -212,6 +263,7 @@ public class TaskGraph {
         TaskNode predecessorTaskNode = getTaskNode(predecessor);
 
         copyTaskGraphNodesAndEdges(taskGraph);
+        taskGraph.unindexMergedTaskNodes();
 
         // Set latch-on task as predecessor to imported tasks
         boolean taskAdded = false;
@@ -253,7 +305,7 @@ public class TaskGraph {
             if (node.isStartOrEndTask()) {
                 continue;
             }
-            this.graph.addNode(new TaskNode(this, node));
+            addNode(new TaskNode(this, node));
         }
 
         // Duplicate dependencies with the exception of references to start/end
@@ -276,6 +328,18 @@ public class TaskGraph {
         }
     }
 
+    /**
+     * Drops the tasks of this graph from its index once they are merged into another graph, where they are looked up
+     * from then on. Only the start and end tasks remain indexed.
+     */
+    private void unindexMergedTaskNodes() {
+        for (TaskNode node : this.graph.getNodes()) {
+            if (!node.isStartOrEndTask()) {
+                this.taskNodes.remove(node.getTask(), node);
+            }
+        }
+    }
+
     public void insertTaskGraph(TaskGraph insertedTaskGraph) {
         insertTaskGraph(insertedTaskGraph, this.startTaskNode.getTask());
     }
@@ -352,8 +416,28 @@ public class TaskGraph {
         return "TaskGraph [\n" + this.graph + "\n]";
     }
 
-    void setJob(Job job) {
+    /**
+     * Records that the job processed the completion of a task node, releasing it as a predecessor of its
+     * successors.
+     *
+     * @return the successors of the task node at the time of completion
+     */
+    Set<TaskNode> completeTaskNode(TaskNode taskNode) {
+        synchronized (this.graph) {
+            taskNode.markCompletionProcessed();
+            Set<TaskNode> successors = this.graph.getSuccessors(taskNode);
+            for (TaskNode successor : successors) {
+                successor.predecessorCompleted(taskNode);
+            }
+            return successors;
+        }
+    }
+
+    synchronized void setJob(Job job) {
         this.job = job;
+        for (TaskNode taskNode : this.graph.getNodes()) {
+            linkLockOwner(taskNode.getTask());
+        }
     }
 
     public int getTaskCount() {
@@ -16,23 +16,19 @@
  *******************************************************************************/
 package org.osc.core.broker.job;
 
-import java.lang.reflect.Field;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Future;
 
-import javax.persistence.EntityManager;
-import javax.persistence.LockModeType;
-
 import org.joda.time.DateTime;
 import org.osc.core.broker.job.Job.TaskChangeListener;
+import org.osc.core.broker.job.lock.LockManager;
 import org.osc.core.broker.model.entities.job.TaskRecord;
-import org.osc.core.broker.service.persistence.OSCEntityManager;
 import org.osc.core.broker.util.SessionUtil;
-import org.osc.core.broker.util.StaticRegistry;
-import org.osc.core.broker.util.db.HibernateUtil;
 import org.slf4j.LoggerFactory;
 import org.osc.core.common.job.TaskGuard;
 import org.osc.core.common.job.TaskState;
@@ -40,8 +36,6 @@ import org.osc.core.common.job.TaskStatus;
 import org.osc.sdk.manager.element.TaskElement;
 import org.osc.sdk.manager.element.TaskStateElement;
 import org.osc.sdk.manager.element.TaskStatusElement;
-import org.osgi.service.transaction.control.ScopedWorkException;
-import org.osgi.service.transaction.control.TransactionControl;
 import org.slf4j.Logger;
 
 /**
@@ -68,12 +62,35 @@ public class TaskNode implements Runnable, TaskElement {
 
     private HashMap<String, Object> taskOutputs = new HashMap<String, Object>();
 
+    /*
+     * Outputs of this node's ancestors keyed by field name, resolved once from the predecessors' indexes when the
+     * node runs (or when a skipped node is consulted by a descendant).
+     */
+    private volatile Map<String, Object> ancestorOutputs;
+
     private TaskRecord taskRecord;
     private Set<TaskNode> children = new HashSet<TaskNode>();
     private TaskNode parent;
 
     public Future<?> future;
 
+    /*
+     * Set while a PollingTask waits for its next check, guarded by this node's monitor.
+     */
+    private boolean polling = false;
+
+    /*
+     * Scheduling counters guarded by the monitor of the task graph's Graph. TaskGraph keeps them current as edges
+     * are added or removed and as predecessors complete, so readiness and task guards can be evaluated without
+     * walking predecessors or ancestors.
+     */
+    private boolean completionProcessed = false;
+    private boolean completedSuccessfully;
+    private boolean lineageSucceeded;
+    private int pendingPredecessors;
+    private int failedPredecessors;
+    private int failedLineagePredecessors;
+
     TaskNode(TaskGraph taskGraph, Task task, TaskGuard taskGaurd) {
         this.task = task;
         this.taskGraph = taskGraph;
@@ -124,11 +141,7 @@ public class TaskNode implements Runnable, TaskElement {
         }
 
         if (this.taskRecord != null) {
-            // Maybe bug on Pessimistic lock
-            // Tracker issue: https://github.com/opensecuritycontroller/osc-core/issues/400
-            synchronized (this.taskGraph.getJob()) {
-                persistState();
-            }
+            persist();
         }
 
         // Notify all task state change listeners
@@ -138,33 +151,19 @@ public class TaskNode implements Runnable, TaskElement {
         }
     }
 
-    private void persistState() {
-        try {
-            EntityManager em = HibernateUtil.getTransactionalEntityManager();
-            TransactionControl txControl = HibernateUtil.getTransactionControl();
-            // Use a new transaction to persist this update come what may
-            txControl.requiresNew(() -> {
-                this.taskRecord = em.find(TaskRecord.class, this.taskRecord.getId(),
-                        LockModeType.PESSIMISTIC_WRITE);
-
-                this.taskRecord.setState(this.state);
-                this.taskRecord.setCompletedTimestamp(safeDate(getCompletedTimestamp()));
-                this.taskRecord.setQueuedTimestamp(safeDate(getQueuedTimestamp()));
-                this.taskRecord.setStartedTimestamp(safeDate(getStartedTimestamp()));
-
-                this.taskRecord.setName(getSafeTaskName());
-
-                OSCEntityManager.update(em, this.taskRecord, StaticRegistry.transactionalBroadcastUtil());
-                return null;
-            });
-        } catch (ScopedWorkException e) {
-            // Unwrap the ScopedWorkException to get the cause from
-            // the scoped work (i.e. the executeTransaction() call.
-            log.error("Fail to update TaskRecord " + this, e.getCause());
-        } catch (Exception e) {
-            // TODO: nbartlex - remove when EM and TX are injected
-            log.error("Fail to update TaskRecord " + this, e);
+    private void persist() {
+        JobStatePersister.getPersister().enqueue(this.taskGraph.getJob(), snapshot());
+    }
+
+    private JobStatePersister.TaskRecordUpdate snapshot() {
+        String failReasonMessage = null;
+        if (this.failReason != null) {
+            failReasonMessage = this.failReason.getMessage() != null ? this.failReason.getMessage()
+                    : this.failReason.toString();
         }
+        return new JobStatePersister.TaskRecordUpdate(this.taskRecord.getId(), getSafeTaskName(), this.state,
+                this.status, failReasonMessage, safeDate(getQueuedTimestamp()), safeDate(getStartedTimestamp()),
+                safeDate(getCompletedTimestamp()));
     }
 
     public String getSafeTaskName() {
@@ -198,11 +197,7 @@ public class TaskNode implements Runnable, TaskElement {
         this.failReason = reason;
 
         if (this.taskRecord != null) {
-            // Maybe bug on Pessimistic lock
-            // Tracker issue: https://github.com/opensecuritycontroller/osc-core/issues/400
-            synchronized (this.taskGraph.getJob()) {
-                persistStatus();
-            }
+            persist();
         }
 
         // Notify all task state change listeners
@@ -227,36 +222,6 @@ public class TaskNode implements Runnable, TaskElement {
         }
     }
 
-    private void persistStatus() {
-        try {
-            EntityManager em = HibernateUtil.getTransactionalEntityManager();
-            TransactionControl txControl = HibernateUtil.getTransactionControl();
-            // Use a new transaction to persist this update come what may
-            txControl.requiresNew(() -> {
-                this.taskRecord = em.find(TaskRecord.class, this.taskRecord.getId(),
-                        LockModeType.PESSIMISTIC_WRITE);
-
-                this.taskRecord.setStatus(this.status);
-                if (this.failReason != null) {
-                    if (this.failReason.getMessage() != null) {
-                        this.taskRecord.setFailReason(this.failReason.getMessage());
-                    } else {
-                        this.taskRecord.setFailReason(this.failReason.toString());
-                    }
-                }
-                OSCEntityManager.update(em, this.taskRecord, StaticRegistry.transactionalBroadcastUtil());
-                return null;
-            });
-        } catch (ScopedWorkException e) {
-            // Unwrap the ScopedWorkException to get the cause from
-            // the scoped work (i.e. the executeTransaction() call.
-            log.error("Fail to update TaskRecord " + this, e.getCause());
-        } catch (Exception e) {
-            // TODO: nbartlex - remove when EM and TX are injected
-            log.error("Fail to update TaskRecord " + this, e);
-        }
-    }
-
     @Override
     public TaskStatusElement getStatus() {
         return new TaskStatusElementImpl(this.status);
@@ -287,6 +252,54 @@ public class TaskNode implements Runnable, TaskElement {
         return this.taskGraph.getGraph().getAncestors(this);
     }
 
+    /**
+     * Accounts for an edge from the given predecessor being added (delta 1) or removed (delta -1).
+     */
+    void countPredecessor(TaskNode predecessor, int delta) {
+        if (!predecessor.completionProcessed) {
+            this.pendingPredecessors += delta;
+            return;
+        }
+        if (!predecessor.completedSuccessfully) {
+            this.failedPredecessors += delta;
+        }
+        if (!predecessor.lineageSucceeded) {
+            this.failedLineagePredecessors += delta;
+        }
+    }
+
+    /**
+     * Freezes this node's outcome for its successors. Called once, when the job processes this node's completion.
+     */
+    void markCompletionProcessed() {
+        this.completionProcessed = true;
+        this.completedSuccessfully = this.status.isSuccessful();
+        this.lineageSucceeded = this.completedSuccessfully && this.failedLineagePredecessors == 0;
+    }
+
+    void predecessorCompleted(TaskNode predecessor) {
+        this.pendingPredecessors--;
+        countPredecessor(predecessor, 1);
+    }
+
+    boolean hasPendingPredecessors() {
+        synchronized (this.taskGraph.getGraph()) {
+            return this.pendingPredecessors > 0;
+        }
+    }
+
+    boolean allPredecessorsSucceeded() {
+        synchronized (this.taskGraph.getGraph()) {
+            return this.failedPredecessors == 0;
+        }
+    }
+
+    boolean allAncestorsSucceeded() {
+        synchronized (this.taskGraph.getGraph()) {
+            return this.failedLineagePredecessors == 0;
+        }
+    }
+
     void setTaskGaurd(TaskGuard taskGaurd) {
         this.taskGaurd = taskGaurd;
     }
@@ -300,22 +313,43 @@ public class TaskNode implements Runnable, TaskElement {
 
         try {
 
+            if (this.polling && this.state.isTerminalState()) {
+                // The job was aborted while the task waited for its next check
+                return;
+            }
+
             // Set persistence user in context
             if (this.taskRecord != null) {
                 SessionUtil.getInstance().setUser(this.taskRecord.getCreatedBy());
             }
+            // Jobs submitted by this task run with the priority of its job
+            JobPriority.setCurrent(this.taskGraph.getJob().getPriority());
+            // Locks placed by this task are held and waited for on behalf of its job
+            LockManager.setCurrentOwner(this.taskGraph.getJob());
 
-            this.setStatus(TaskStatus.PASSED);
-            setState(TaskState.RUNNING);
+            if (!this.polling) {
+                this.setStatus(TaskStatus.PASSED);
+                setState(TaskState.RUNNING);
 
-            // Scan all inputs for possible values
-            setTaskInputs();
+                // Scan all inputs for possible values
+                setTaskInputs();
+            }
 
             try {
 
                 log.debug("Executing: " + getTask().getName() + " (Job: " + this.taskGraph.getJob().getName() + ")");
                 this.task.execute();
 
+                if (this.task instanceof PollingTask) {
+                    long pollDelay = ((PollingTask) this.task).getPollDelay();
+                    this.polling = pollDelay > 0;
+                    if (this.polling) {
+                        log.debug("Polling " + getTask().getName() + " again in " + pollDelay + "ms");
+                        this.taskGraph.getJob().schedulePoll(this, pollDelay);
+                        return;
+                    }
+                }
+
                 if (this.task instanceof MetaTask) {
                     this.taskGraph.getJob().mergeMetaTaskTaskGraph(this);
                 }
@@ -332,6 +366,7 @@ public class TaskNode implements Runnable, TaskElement {
                 this.setStatus(TaskStatus.FAILED, t);
             }
 
+            this.polling = false;
             setState(TaskState.COMPLETED);
 
             /*
@@ -346,6 +381,10 @@ public class TaskNode implements Runnable, TaskElement {
 
         } catch (Throwable t) {
             log.error("Fatal error during task execution (" + this + ")", t);
+        } finally {
+            // Pool threads are shared by all jobs, do not leak this job to the next task run on this thread
+            LockManager.setCurrentOwner(null);
+            JobPriority.setCurrent(null);
         }
     }
 
@@ -355,58 +394,51 @@ public class TaskNode implements Runnable, TaskElement {
     }
 
     private void setTaskInputs() {
-        Field[] fields = null;
-        try {
-            fields = Class.forName(this.task.getClass().getName()).getFields();
-        } catch (ClassNotFoundException e) {
-            log.error("Fail to retrieve class fields for Task " + this + ".", e);
-            return;
-        }
-        for (Field field : fields) {
-            TaskInput taskInput = field.getAnnotation(TaskInput.class);
-            if (taskInput != null) {
-                // Scan all predecessors for existing output with this name
-                Object value = searchPredecessorsOutputs(this, field.getName());
-                if (value != null) {
-                    try {
-                        field.set(this.task, value);
-                    } catch (IllegalArgumentException e) {
-                        log.error("Fail to set task field member's value fields for Task " + this + ".", e);
-                    } catch (IllegalAccessException e) {
-                        log.error("Fail to set task field member's value fields for Task " + this + ".", e);
-                    }
+        List<TaskBindings.Binding> inputs = TaskBindings.of(this.task).getInputs();
+        Map<String, Object> outputs = getAncestorOutputs();
+        for (TaskBindings.Binding input : inputs) {
+            Object value = outputs.get(input.getName());
+            if (value != null) {
+                try {
+                    input.set(this.task, value);
+                } catch (Throwable e) {
+                    log.error("Fail to set task field member's value fields for Task " + this + ".", e);
                 }
             }
         }
     }
 
-    private void saveTaskOutputs() throws ClassNotFoundException, IllegalAccessException {
-        Field[] fields = Class.forName(this.task.getClass().getName()).getFields();
-        for (Field field : fields) {
-            TaskOutput taskOutput = field.getAnnotation(TaskOutput.class);
-            if (taskOutput != null) {
-                this.taskOutputs.put(field.getName(), field.get(this.task));
-            }
+    private void saveTaskOutputs() throws Throwable {
+        for (TaskBindings.Binding output : TaskBindings.of(this.task).getOutputs()) {
+            this.taskOutputs.put(output.getName(), output.get(this.task));
         }
     }
 
-    private Object searchPredecessorsOutputs(TaskNode taskNode, String outputFieldName) {
-        // First look at immediate predecessors
-        for (TaskNode predecessorTaskNode : taskNode.getPredecessors()) {
-            for (String output : predecessorTaskNode.taskOutputs.keySet()) {
-                if (output.equals(outputFieldName)) {
-                    return predecessorTaskNode.taskOutputs.get(outputFieldName);
+    /**
+     * Resolves the outputs visible to this node. Outputs of immediate predecessors take precedence over the outputs
+     * those predecessors inherited from their own ancestors.
+     */
+    private Map<String, Object> getAncestorOutputs() {
+        Map<String, Object> outputs = this.ancestorOutputs;
+        if (outputs != null) {
+            return outputs;
+        }
+
+        outputs = new HashMap<>();
+        Set<TaskNode> predecessors = getPredecessors();
+        for (TaskNode predecessorTaskNode : predecessors) {
+            for (Map.Entry<String, Object> output : predecessorTaskNode.getAncestorOutputs().entrySet()) {
+                if (output.getValue() != null) {
+                    outputs.putIfAbsent(output.getKey(), output.getValue());
                 }
             }
         }
-        // If we have not found any, walk up the graph
-        for (TaskNode predecessorTaskNode : taskNode.getPredecessors()) {
-            Object val = searchPredecessorsOutputs(predecessorTaskNode, outputFieldName);
-            if (val != null) {
-                return val;
-            }
+        for (TaskNode predecessorTaskNode : predecessors) {
+            outputs.putAll(predecessorTaskNode.taskOutputs);
         }
-        return null;
+
+        this.ancestorOutputs = outputs;
+        return outputs;
     }
 
     @Override
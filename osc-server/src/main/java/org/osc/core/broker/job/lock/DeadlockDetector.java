@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job.lock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * DeadlockDetector keeps the wait-for graph between {@link LockOwner}s: an owner waiting for a lock waits for the
+ * owners holding it in a conflicting mode and for the owners queued ahead of it in a conflicting mode.
+ * <p>
+ * The graph is checked every time an owner starts waiting. Since a new cycle has to go through the new wait, only
+ * the cycles starting from the waiting owner are looked for. When one is found, the youngest owner in it is aborted,
+ * which releases its locks and lets the others go on. Victims are aborted on a thread of their own, since aborting
+ * waits for their running tasks to stop.
+ */
+final class DeadlockDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadlockDetector.class);
+
+    private final ExecutorService abortExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("isc-lock-deadlock-%d").setDaemon(true).build());
+
+    // All guarded by this
+    private final Map<LockOwner, List<ReadWriteLockRecord>> waits = new HashMap<>();
+    private final Set<LockOwner> victims = new HashSet<>();
+    private long checks = 0;
+    private long totalCheckNanos = 0;
+    private long maxCheckNanos = 0;
+    private long deadlocks = 0;
+
+    /**
+     * Records that an owner started waiting for the lock of a record and breaks the deadlock this may cause.
+     * Must not be called while holding the guard of any record.
+     */
+    void waitStarted(LockOwner owner, ReadWriteLockRecord lockRecord) {
+        LockOwner victim = addWait(owner, lockRecord);
+        if (victim != null) {
+            this.abortExecutor.execute(victim::abortDeadlocked);
+        }
+    }
+
+    /**
+     * Records that an owner stopped waiting for the lock of a record, whether it was granted or not.
+     */
+    synchronized void waitEnded(LockOwner owner, ReadWriteLockRecord lockRecord) {
+        List<ReadWriteLockRecord> lockRecords = this.waits.get(owner);
+        if (lockRecords == null) {
+            return;
+        }
+        lockRecords.remove(lockRecord);
+        if (lockRecords.isEmpty()) {
+            this.waits.remove(owner);
+            this.victims.remove(owner);
+        }
+    }
+
+    private synchronized LockOwner addWait(LockOwner owner, ReadWriteLockRecord lockRecord) {
+        this.waits.computeIfAbsent(owner, o -> new ArrayList<>()).add(lockRecord);
+        if (this.victims.contains(owner)) {
+            return null;
+        }
+
+        long startNanos = System.nanoTime();
+        List<LockOwner> cycle = findCycle(owner);
+        // The graph was read one record at a time, make sure the cycle still holds before acting on it
+        if (cycle != null && !isCycle(cycle)) {
+            cycle = null;
+        }
+        long checkNanos = System.nanoTime() - startNanos;
+        this.checks++;
+        this.totalCheckNanos += checkNanos;
+        this.maxCheckNanos = Math.max(this.maxCheckNanos, checkNanos);
+
+        if (cycle == null) {
+            return null;
+        }
+
+        LockOwner victim = Collections.max(cycle,
+                (o1, o2) -> Long.compare(o1.getLockOwnerSequence(), o2.getLockOwnerSequence()));
+        this.deadlocks++;
+        this.victims.add(victim);
+        log.warn("Deadlock between " + cycle + ", aborting " + victim);
+        return victim;
+    }
+
+    /**
+     * Looks for a path in the wait-for graph leading from the owner back to itself.
+     *
+     * @return the owners on the path, starting with the given owner, or null if there is none.
+     */
+    private List<LockOwner> findCycle(LockOwner owner) {
+        List<LockOwner> path = new ArrayList<>();
+        path.add(owner);
+        return findCycle(owner, path, new HashSet<>()) ? path : null;
+    }
+
+    private boolean findCycle(LockOwner start, List<LockOwner> path, Set<LockOwner> visited) {
+        LockOwner current = path.get(path.size() - 1);
+        for (LockOwner blocker : getBlockers(current)) {
+            if (blocker == start) {
+                return true;
+            }
+            if (this.victims.contains(blocker) || !visited.add(blocker)) {
+                continue;
+            }
+            path.add(blocker);
+            if (findCycle(start, path, visited)) {
+                return true;
+            }
+            path.remove(path.size() - 1);
+        }
+        return false;
+    }
+
+    private boolean isCycle(List<LockOwner> cycle) {
+        for (int i = 0; i < cycle.size(); i++) {
+            if (!getBlockers(cycle.get(i)).contains(cycle.get((i + 1) % cycle.size()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Set<LockOwner> getBlockers(LockOwner owner) {
+        List<ReadWriteLockRecord> lockRecords = this.waits.get(owner);
+        if (lockRecords == null) {
+            return Collections.emptySet();
+        }
+        Set<LockOwner> blockers = new HashSet<>();
+        for (ReadWriteLockRecord lockRecord : lockRecords) {
+            lockRecord.addBlockers(owner, blockers);
+        }
+        return blockers;
+    }
+
+    synchronized long getChecks() {
+        return this.checks;
+    }
+
+    synchronized long getAverageCheckMicros() {
+        return this.checks == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(this.totalCheckNanos / this.checks);
+    }
+
+    synchronized long getMaxCheckMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(this.maxCheckNanos);
+    }
+
+    synchronized long getDeadlocks() {
+        return this.deadlocks;
+    }
+
+    synchronized int getWaitingOwners() {
+        return this.waits.size();
+    }
+}
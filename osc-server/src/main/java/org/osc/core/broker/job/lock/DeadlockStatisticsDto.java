@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job.lock;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+@XmlRootElement(name = "deadlockStatistics")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class DeadlockStatisticsDto {
+
+    private long checks = 0;
+    private long averageCheckUs = 0;
+    private long maxCheckUs = 0;
+    private long deadlocks = 0;
+    private int waitingOwners = 0;
+
+    DeadlockStatisticsDto() {
+    }
+
+    DeadlockStatisticsDto(DeadlockDetector deadlockDetector) {
+        this.checks = deadlockDetector.getChecks();
+        this.averageCheckUs = deadlockDetector.getAverageCheckMicros();
+        this.maxCheckUs = deadlockDetector.getMaxCheckMicros();
+        this.deadlocks = deadlockDetector.getDeadlocks();
+        this.waitingOwners = deadlockDetector.getWaitingOwners();
+    }
+
+    public long getChecks() {
+        return this.checks;
+    }
+
+    public long getAverageCheckUs() {
+        return this.averageCheckUs;
+    }
+
+    public long getMaxCheckUs() {
+        return this.maxCheckUs;
+    }
+
+    public long getDeadlocks() {
+        return this.deadlocks;
+    }
+
+    public int getWaitingOwners() {
+        return this.waitingOwners;
+    }
+
+}
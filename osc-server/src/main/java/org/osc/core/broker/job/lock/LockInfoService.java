@@ -24,7 +24,9 @@ import org.osgi.service.component.annotations.Component;
 public class LockInfoService implements LockInfoServiceApi {
     @Override
     public String getLockInfo() {
-            LockInformationDto lockInfo = new LockInformationDto(LockManager.getLockManager().getLockInformation());
+            LockManager lockManager = LockManager.getLockManager();
+            LockInformationDto lockInfo = new LockInformationDto(lockManager.getLockInformation(),
+                    lockManager.getLockStatistics(), lockManager.getDeadlockDetector());
             return LoggingUtil.pojoToJsonPrettyString(lockInfo);
     }
 }
@@ -30,14 +30,21 @@ import javax.xml.bind.annotation.XmlRootElement;
 public class LockInformationDto {
 
     private List<ReadWriteLockRecordDto> lockRecordInformation = new ArrayList<>();
+    private List<LockStatisticsDto> lockStatistics = new ArrayList<>();
+    private DeadlockStatisticsDto deadlockStatistics;
 
     LockInformationDto() {
     }
 
-    public LockInformationDto(Map<LockObjectReference, ReadWriteLockRecord> lockInformation) {
+    LockInformationDto(Map<LockObjectReference, ReadWriteLockRecord> lockInformation,
+            Map<LockObjectReference, LockStatistics> lockStatistics, DeadlockDetector deadlockDetector) {
         for (Entry<LockObjectReference, ReadWriteLockRecord> entry : lockInformation.entrySet()) {
-            this.lockRecordInformation.add(new ReadWriteLockRecordDto(entry.getValue()));
+            this.lockRecordInformation.add(new ReadWriteLockRecordDto(entry.getKey(), entry.getValue()));
         }
+        for (Entry<LockObjectReference, LockStatistics> entry : lockStatistics.entrySet()) {
+            this.lockStatistics.add(new LockStatisticsDto(entry.getKey(), entry.getValue()));
+        }
+        this.deadlockStatistics = new DeadlockStatisticsDto(deadlockDetector);
     }
 
 }
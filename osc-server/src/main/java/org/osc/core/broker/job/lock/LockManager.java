@@ -16,7 +16,8 @@
  *******************************************************************************/
 package org.osc.core.broker.job.lock;
 
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.osc.core.broker.job.Task;
 import org.osc.core.broker.job.lock.LockRequest.LockType;
@@ -24,14 +25,28 @@ import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
 
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
 
+/**
+ * LockManager places read and write locks on objects on behalf of tasks.
+ * <p>
+ * Each locked object has its own {@link ReadWriteLockRecord}, which only exists while the object is locked or waited
+ * for. Records are looked up without locking and created or removed atomically per map entry, so lock operations on
+ * different objects never contend with each other. Hold and wait times are kept per object in
+ * {@link LockStatistics}, for up to {@link #MAX_STATISTICS_OBJECTS} objects at once.
+ * <p>
+ * Every request which has to wait is checked for deadlocks by the {@link DeadlockDetector}, on behalf of the job its
+ * unlock task is linked into, or of the {@link LockOwner} of the calling thread while the task is not part of a job.
+ */
 public final class LockManager {
 
     private static final Logger log = LoggerFactory.getLogger(LockManager.class);
 
+    static final int MAX_STATISTICS_OBJECTS = 10000;
+
     private static LockManager lockManager = new LockManager();
 
+    private static final ThreadLocal<LockOwner> currentOwner = new ThreadLocal<LockOwner>();
+
     private LockManager() {
     }
 
@@ -39,7 +54,21 @@ public final class LockManager {
         return lockManager;
     }
 
-    private Map<LockObjectReference, ReadWriteLockRecord> lockMap = Maps.newConcurrentMap();
+    private final ConcurrentMap<LockObjectReference, ReadWriteLockRecord> lockMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<LockObjectReference, LockStatistics> statisticsMap = new ConcurrentHashMap<>();
+    private final DeadlockDetector deadlockDetector = new DeadlockDetector();
+
+    /**
+     * Sets the owner of the locks placed, upgraded and waited for by the current thread, null if none. Only used for
+     * requests whose unlock task is not yet linked into the task graph of a job.
+     */
+    public static void setCurrentOwner(LockOwner owner) {
+        currentOwner.set(owner);
+    }
+
+    static LockOwner getCurrentOwner() {
+        return currentOwner.get();
+    }
 
     /**
      * Try to place a lock on an object. Returns immediately if lock was not
@@ -51,8 +80,12 @@ public final class LockManager {
      * @throws InterruptedException
      */
     public boolean tryAcquireLock(final LockRequest lockRequest) throws InterruptedException {
-        ReadWriteLockRecord lockRecord = getOrAddLockRecord(lockRequest.getObjectRef());
-        return lockRecord.tryLock(lockRequest);
+        ReadWriteLockRecord lockRecord = pinLockRecord(lockRequest.getObjectRef(), true);
+        try {
+            return lockRecord.tryLock(lockRequest);
+        } finally {
+            unpinLockRecord(lockRequest.getObjectRef(), lockRecord);
+        }
     }
 
     /**
@@ -68,8 +101,12 @@ public final class LockManager {
      *             if wait operation was interrupted.
      */
     public boolean acquireLock(final LockRequest lockRequest, long timeout) throws InterruptedException {
-        ReadWriteLockRecord lockRecord = getOrAddLockRecord(lockRequest.getObjectRef());
-        return lockRecord.lock(lockRequest, timeout);
+        ReadWriteLockRecord lockRecord = pinLockRecord(lockRequest.getObjectRef(), true);
+        try {
+            return lockRecord.lock(lockRequest, timeout);
+        } finally {
+            unpinLockRecord(lockRequest.getObjectRef(), lockRecord);
+        }
     }
 
     /**
@@ -92,7 +129,7 @@ public final class LockManager {
      * @param lockRequest
      *            The {@link LockRequest}
      */
-    public synchronized void releaseLock(LockRequest lockRequest) {
+    public void releaseLock(LockRequest lockRequest) {
         ReadWriteLockRecord lockRecord = getLockRecord(lockRequest.getObjectRef());
         if (lockRecord == null) {
             log.warn("Release lock requested but no active locks found for object "
@@ -101,10 +138,7 @@ public final class LockManager {
         }
 
         lockRecord.unlock(lockRequest);
-        if (lockRecord.getLockType() == LockType.UNKNOWN_LOCK && lockRecord.getWaitingWriters() == 0
-                && lockRecord.getReadLockCount() == 0 && lockRecord.getWaitingReaders() == 0) {
-            this.lockMap.remove(lockRequest.getObjectRef());
-        }
+        removeIfUnused(lockRequest.getObjectRef(), lockRecord);
     }
 
     /**
@@ -118,14 +152,18 @@ public final class LockManager {
      * @throws InterruptedException
      */
     public boolean upgradeLockWithWait(LockRequest lockRequest) throws InterruptedException {
-        ReadWriteLockRecord lockRecord = getLockRecord(lockRequest.getObjectRef());
+        ReadWriteLockRecord lockRecord = pinLockRecord(lockRequest.getObjectRef(), false);
         if (lockRecord == null) {
             log.info("Upgrade lock requested but no active locks found for object "
                     + lockRequest.getObjectRef().getId());
             return false;
         }
 
-        return lockRecord.upgradeLockWithWait(lockRequest);
+        try {
+            return lockRecord.upgradeLockWithWait(lockRequest);
+        } finally {
+            unpinLockRecord(lockRequest.getObjectRef(), lockRecord);
+        }
     }
 
     /**
@@ -148,21 +186,82 @@ public final class LockManager {
         return lockRecord.downgradeLock(lockRequest);
     }
 
+    /**
+     * Checks whether a lock of the given type would be placed on an object right now, without waiting.
+     *
+     * @param objectRef
+     *            The object to be locked.
+     * @param lockType
+     *            The type of lock to be placed.
+     * @return true, if no conflicting lock is currently held on the object and no one is waiting for it.
+     */
+    public boolean isAvailable(LockObjectReference objectRef, LockType lockType) {
+        ReadWriteLockRecord lockRecord = getLockRecord(objectRef);
+        if (lockRecord == null) {
+            return true;
+        }
+        return lockRecord.isAvailable(lockType);
+    }
+
+    /**
+     * Checks whether anyone is currently waiting to lock an object.
+     *
+     * @param objectRef
+     *            The object in question.
+     * @return true, if at least one reader or writer is waiting for the object.
+     */
+    public boolean hasWaiters(LockObjectReference objectRef) {
+        ReadWriteLockRecord lockRecord = getLockRecord(objectRef);
+        return lockRecord != null && lockRecord.hasWaiters();
+    }
+
     private ReadWriteLockRecord getLockRecord(LockObjectReference objectRef) {
         return this.lockMap.get(objectRef);
     }
 
-    private synchronized ReadWriteLockRecord getOrAddLockRecord(LockObjectReference objectRef) {
-        ReadWriteLockRecord lockRecord = getLockRecord(objectRef);
-        if (lockRecord == null) {
-            /*
-             * Insert a new lock record, if one doesn't already exist for this
-             * object.
-             */
-            lockRecord = new ReadWriteLockRecord();
-            this.lockMap.put(objectRef, lockRecord);
+    /**
+     * Gets the lock record of an object, optionally inserting a new one, and keeps it from being removed until
+     * {@link #unpinLockRecord(LockObjectReference, ReadWriteLockRecord)} is called.
+     */
+    private ReadWriteLockRecord pinLockRecord(LockObjectReference objectRef, boolean create) {
+        LockStatistics statistics = create ? getStatistics(objectRef) : null;
+        return this.lockMap.compute(objectRef, (ref, lockRecord) -> {
+            if (lockRecord == null) {
+                if (!create) {
+                    return null;
+                }
+                lockRecord = new ReadWriteLockRecord(statistics, this.deadlockDetector);
+            }
+            lockRecord.pin();
+            return lockRecord;
+        });
+    }
+
+    private void unpinLockRecord(LockObjectReference objectRef, ReadWriteLockRecord lockRecord) {
+        this.lockMap.computeIfPresent(objectRef, (ref, current) -> {
+            if (current != lockRecord) {
+                return current;
+            }
+            current.unpin();
+            return current.isRemovable() ? null : current;
+        });
+    }
+
+    private void removeIfUnused(LockObjectReference objectRef, ReadWriteLockRecord lockRecord) {
+        this.lockMap.computeIfPresent(objectRef,
+                (ref, current) -> current == lockRecord && current.isRemovable() ? null : current);
+    }
+
+    private LockStatistics getStatistics(LockObjectReference objectRef) {
+        LockStatistics statistics = this.statisticsMap.get(objectRef);
+        if (statistics == null) {
+            if (this.statisticsMap.size() >= MAX_STATISTICS_OBJECTS) {
+                // Make room by forgetting the objects not currently locked
+                this.statisticsMap.keySet().removeIf(ref -> !this.lockMap.containsKey(ref));
+            }
+            statistics = this.statisticsMap.computeIfAbsent(objectRef, ref -> new LockStatistics());
         }
-        return lockRecord;
+        return statistics;
     }
 
     /**
@@ -183,4 +282,12 @@ public final class LockManager {
     public ImmutableMap<LockObjectReference, ReadWriteLockRecord> getLockInformation() {
         return ImmutableMap.copyOf(this.lockMap);
     }
+
+    ImmutableMap<LockObjectReference, LockStatistics> getLockStatistics() {
+        return ImmutableMap.copyOf(this.statisticsMap);
+    }
+
+    DeadlockDetector getDeadlockDetector() {
+        return this.deadlockDetector;
+    }
 }
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job.lock;
+
+/**
+ * The party on whose behalf locks are held and waited for, as seen by deadlock detection: the job whose task graph
+ * the unlock task of a request is linked into, or else the owner of the thread placing the request, see
+ * {@link LockManager#setCurrentOwner(LockOwner)}. Lock requests without either are not checked for deadlocks and
+ * only end by timing out.
+ */
+public interface LockOwner {
+
+    /**
+     * Gets the order in which owners were created. The youngest owner, with the greatest sequence, is the one
+     * aborted to break a deadlock.
+     */
+    long getLockOwnerSequence();
+
+    /**
+     * Aborts the owner to break a deadlock. The owner must stop waiting and release the locks it holds.
+     */
+    void abortDeadlocked();
+}
@@ -67,6 +67,13 @@ public class LockRequest {
         return this.unlockTask;
     }
 
+    /**
+     * @return the job whose task graph the unlock task is linked into, null until then.
+     */
+    LockOwner getLockOwner() {
+        return this.unlockTask.getLockOwner();
+    }
+
     @Override
     public int hashCode() {
         return new HashCodeBuilder().append(this.objectRef).append(this.unlockTask).toHashCode();
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job.lock;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How long locks on one object were waited for and held. Outlives the {@link ReadWriteLockRecord} of the object,
+ * which only exists while the object is locked or waited for.
+ */
+final class LockStatistics {
+
+    private final LockTimeHistogram waitTimes = new LockTimeHistogram();
+    private final LockTimeHistogram holdTimes = new LockTimeHistogram();
+    private final LongAdder timeouts = new LongAdder();
+
+    void recordWait(long nanos) {
+        this.waitTimes.record(nanos);
+    }
+
+    void recordHold(long nanos) {
+        this.holdTimes.record(nanos);
+    }
+
+    void recordTimeout() {
+        this.timeouts.increment();
+    }
+
+    LockTimeHistogram getWaitTimes() {
+        return this.waitTimes;
+    }
+
+    LockTimeHistogram getHoldTimes() {
+        return this.holdTimes;
+    }
+
+    long getTimeouts() {
+        return this.timeouts.sum();
+    }
+}
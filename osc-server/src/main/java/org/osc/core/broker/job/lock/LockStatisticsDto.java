@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job.lock;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+@XmlRootElement(name = "lockStatistics")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class LockStatisticsDto {
+
+    private String object;
+    private long acquired = 0;
+    private long timeouts = 0;
+    private long averageWaitMs = 0;
+    private long maxWaitMs = 0;
+    private Map<String, Long> waitHistogram = new LinkedHashMap<>();
+    private long released = 0;
+    private long averageHoldMs = 0;
+    private long maxHoldMs = 0;
+    private Map<String, Long> holdHistogram = new LinkedHashMap<>();
+
+    LockStatisticsDto() {
+    }
+
+    LockStatisticsDto(LockObjectReference objectRef, LockStatistics statistics) {
+        this.object = objectRef.toString();
+        this.acquired = statistics.getWaitTimes().getCount();
+        this.timeouts = statistics.getTimeouts();
+        this.averageWaitMs = statistics.getWaitTimes().getAverageMillis();
+        this.maxWaitMs = statistics.getWaitTimes().getMaxMillis();
+        this.waitHistogram = statistics.getWaitTimes().getBuckets();
+        this.released = statistics.getHoldTimes().getCount();
+        this.averageHoldMs = statistics.getHoldTimes().getAverageMillis();
+        this.maxHoldMs = statistics.getHoldTimes().getMaxMillis();
+        this.holdHistogram = statistics.getHoldTimes().getBuckets();
+    }
+
+    public String getObject() {
+        return this.object;
+    }
+
+    public long getAcquired() {
+        return this.acquired;
+    }
+
+    public long getTimeouts() {
+        return this.timeouts;
+    }
+
+    public long getAverageWaitMs() {
+        return this.averageWaitMs;
+    }
+
+    public long getMaxWaitMs() {
+        return this.maxWaitMs;
+    }
+
+    public Map<String, Long> getWaitHistogram() {
+        return this.waitHistogram;
+    }
+
+    public long getReleased() {
+        return this.released;
+    }
+
+    public long getAverageHoldMs() {
+        return this.averageHoldMs;
+    }
+
+    public long getMaxHoldMs() {
+        return this.maxHoldMs;
+    }
+
+    public Map<String, Long> getHoldHistogram() {
+        return this.holdHistogram;
+    }
+
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job.lock;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations in a fixed set of exponential buckets, from under a millisecond to over ten minutes. Recording
+ * does not block.
+ */
+final class LockTimeHistogram {
+
+    private static final long[] BUCKET_UPPER_BOUNDS_MS = { 1, 10, 100, 1000, 10000, 60000, 600000 };
+    private static final String[] BUCKET_LABELS = { "<1ms", "<10ms", "<100ms", "<1s", "<10s", "<1m", "<10m",
+            ">=10m" };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_LABELS.length);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < BUCKET_UPPER_BOUNDS_MS.length && millis >= BUCKET_UPPER_BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        this.buckets.incrementAndGet(bucket);
+        this.totalNanos.add(nanos);
+        this.maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    long getCount() {
+        long count = 0;
+        for (int i = 0; i < this.buckets.length(); i++) {
+            count += this.buckets.get(i);
+        }
+        return count;
+    }
+
+    long getAverageMillis() {
+        long count = getCount();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(this.totalNanos.sum() / count);
+    }
+
+    long getMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.maxNanos.get());
+    }
+
+    /**
+     * @return the count of each non empty bucket, in ascending order of duration
+     */
+    Map<String, Long> getBuckets() {
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < this.buckets.length(); i++) {
+            long count = this.buckets.get(i);
+            if (count > 0) {
+                buckets.put(BUCKET_LABELS[i], count);
+            }
+        }
+        return buckets;
+    }
+}
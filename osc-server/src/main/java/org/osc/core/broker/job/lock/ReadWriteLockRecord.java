@@ -16,70 +16,113 @@
  *******************************************************************************/
 package org.osc.core.broker.job.lock;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
-import org.joda.time.DateTime;
 import org.osc.core.broker.job.Task;
 import org.osc.core.broker.job.lock.LockRequest.LockType;
-import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
 
+/**
+ * The read and write locks placed on one object.
+ * <p>
+ * Locks are owned by their {@link LockRequest}, not by a thread: a lock is usually placed by a lock task and released
+ * by the matching unlock task, which may run on another thread. Requests which cannot be granted right away wait in
+ * line in arrival order. Whenever the lock is released, the head of the line is granted the lock, along with the
+ * readers right behind it if it is a reader, and only the waiters granted are woken up. A reader never overtakes a
+ * waiting writer, so writers cannot be starved by a steady flow of readers.
+ * <p>
+ * The {@link LockOwner} of a request is the job its unlock task is linked into. Locks are often placed before that
+ * job exists, by a REST or scheduler thread which then hands the unlock task over to the job, so the owner of a
+ * holder is resolved whenever it is checked and the owner of the placing thread is only a fallback. The owner of a
+ * waiter is resolved when it starts waiting, and is the one reported to the {@link DeadlockDetector}.
+ */
 class ReadWriteLockRecord {
 
     private static final Logger log = LoggerFactory.getLogger(ReadWriteLockRecord.class);
 
-    private LockType lockType = LockType.UNKNOWN_LOCK;
-
-    /*
-     * Hold all locks requests placed on this lock record the object mapped by their unlock task
+    /**
+     * A lock request holding the lock.
      */
-    private Map<Task, LockRequest> lockRequestsMap = Maps.newConcurrentMap();
+    private static final class Holder {
+        private final LockRequest lockRequest;
+        private final LockType lockType;
+        private final LockOwner threadOwner;
+        private final long grantedNanos = System.nanoTime();
+
+        private Holder(LockRequest lockRequest, LockType lockType, LockOwner threadOwner) {
+            this.lockRequest = lockRequest;
+            this.lockType = lockType;
+            this.threadOwner = threadOwner;
+        }
 
-    /*
-     * Count current reader count
+        private LockOwner owner() {
+            return resolveOwner(this.lockRequest, this.threadOwner);
+        }
+    }
+
+    /**
+     * A lock request waiting in line, signaled once it has been granted the lock.
      */
+    private static final class Waiter {
+        private final LockRequest lockRequest;
+        private final LockType lockType;
+        private final LockOwner owner;
+        private final Condition grantedCondition;
+        private final long queuedNanos = System.nanoTime();
+        private boolean granted;
+
+        private Waiter(LockRequest lockRequest, LockType lockType, LockOwner owner, Condition grantedCondition) {
+            this.lockRequest = lockRequest;
+            this.lockType = lockType;
+            this.owner = owner;
+            this.grantedCondition = grantedCondition;
+        }
+    }
+
+    private final ReentrantLock guard = new ReentrantLock();
+    private final LockStatistics statistics;
+    private final DeadlockDetector deadlockDetector;
+
+    // All guarded by guard
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private final Map<Task, Holder> holders = new LinkedHashMap<>();
+    private LockType lockType = LockType.UNKNOWN_LOCK;
     private int readLockCount = 0;
-    /*
-     * Count write lock waiters
-     */
-    private int waitingWriters = 0;
-    /*
-     * Count read lock waiters
-     */
     private int waitingReaders = 0;
+    private int waitingWriters = 0;
 
-    public ReadWriteLockRecord() {
-        // Initially, lock type is unknown till first lock is successfully placed.
-        this.lockType = LockType.UNKNOWN_LOCK;
-        this.readLockCount = 0;
-        this.waitingWriters = 0;
-        this.waitingReaders = 0;
+    // Guarded by the LockManager map entry of this record
+    private int pins = 0;
+
+    ReadWriteLockRecord(LockStatistics statistics, DeadlockDetector deadlockDetector) {
+        this.statistics = statistics;
+        this.deadlockDetector = deadlockDetector;
     }
 
     /**
-     * Try to gain a lock as defined by {@link LockRequest}
+     * Try to gain a lock as defined by {@link LockRequest}. Fails if the lock is held in a conflicting mode or if
+     * others are already waiting for it.
      *
      * @param lockRequest
      *            The {@link LockRequest} lock request.
      * @return true if lock was acquired successfully. False if otherwise.
-     * @throws InterruptedException
      */
-    public synchronized boolean tryLock(LockRequest lockRequest) throws InterruptedException {
-        log.info("tryLock " + lockRequest);
-
-        if (lockRequest.getLockType() == LockType.READ_LOCK) {
-            return getReadLock(lockRequest, true, 0);
-        } else {
-            return getWriteLock(lockRequest, true, 0);
-        }
+    public boolean tryLock(LockRequest lockRequest) throws InterruptedException {
+        return lock(lockRequest, true, 0);
     }
 
-    public synchronized boolean lock(LockRequest lockRequest) throws InterruptedException {
-        return lock(lockRequest, 0);
+    public boolean lock(LockRequest lockRequest) throws InterruptedException {
+        return lock(lockRequest, false, 0);
     }
 
     /**
@@ -87,101 +130,85 @@ class ReadWriteLockRecord {
      *
      * @param lockRequest
      *            The {@link LockRequest} lock request.
+     * @param timeout
+     *            Duration in milliseconds to wait for the lock, 0 to wait forever.
+     * @return true if the lock was acquired, false if the wait timed out.
      * @throws InterruptedException
      */
-    public synchronized boolean lock(LockRequest lockRequest, long timeout) throws InterruptedException {
-        log.info("Lock " + lockRequest);
-
-        if (lockRequest.getLockType() == LockType.READ_LOCK) {
-            return getReadLock(lockRequest, false, timeout);
-        } else {
-            return getWriteLock(lockRequest, false, timeout);
-        }
+    public boolean lock(LockRequest lockRequest, long timeout) throws InterruptedException {
+        return lock(lockRequest, false, timeout);
     }
 
-    private synchronized boolean getReadLock(LockRequest lockRequest, boolean tryLock, long timeout) {
-        log.info("Waiting readers: " + this.waitingReaders);
-        this.waitingReaders++;
-
-        DateTime start = new DateTime();
-        long remainingWait = timeout;
-
-        while (this.lockType == LockType.WRITE_LOCK) {
+    private boolean lock(LockRequest lockRequest, boolean tryLock, long timeout) throws InterruptedException {
+        LockType requestedType = lockRequest.getLockType();
+        LockOwner threadOwner = LockManager.getCurrentOwner();
+        Waiter waiter;
+        this.guard.lock();
+        try {
+            if (this.waiters.isEmpty() && canGrant(requestedType)) {
+                grant(lockRequest, requestedType, threadOwner);
+                this.statistics.recordWait(0);
+                return true;
+            }
             if (tryLock) {
-                this.waitingReaders--;
                 return false;
-            } else if (timeout > 0) {
-                if (new DateTime().getMillis() - start.getMillis() >= timeout) {
-                    this.waitingWriters--;
-                    return false;
-                } else {
-                    remainingWait = timeout - (new DateTime().getMillis() - start.getMillis());
-                }
             }
 
-            try {
-                if (timeout > 0) {
-                    wait(remainingWait);
-                } else {
-                    wait();
-                }
-            } catch (InterruptedException e) {
-                this.waitingReaders--;
-                throw new RuntimeException(e);
-            }
+            waiter = enqueue(lockRequest, requestedType, resolveOwner(lockRequest, threadOwner));
+        } finally {
+            this.guard.unlock();
         }
-
-        this.waitingReaders--;
-        this.readLockCount++;
-
-        log.info("Gained Read lock " + lockRequest);
-        setLockType(LockType.READ_LOCK);
-        this.lockRequestsMap.put(lockRequest.getUnlockTask(), lockRequest);
-        return true;
+        return awaitGrant(waiter, timeout);
     }
 
-    private synchronized boolean getWriteLock(LockRequest lockRequest, boolean tryLock, long timeout)
-            throws InterruptedException {
-        this.waitingWriters++;
-
-        DateTime start = new DateTime();
-        long remainingWait = timeout;
-
-        while (this.lockType == LockType.WRITE_LOCK || this.readLockCount > 0) {
-            log.info("Current read lock count: " + this.readLockCount);
-
-            if (tryLock) {
-                this.waitingWriters--;
-                return false;
-            } else if (timeout > 0) {
-                if (new DateTime().getMillis() - start.getMillis() >= timeout) {
-                    log.info("Waiting for lock " + lockRequest + " timed out.");
-                    this.waitingWriters--;
-                    return false;
-                } else {
-                    remainingWait = timeout - (new DateTime().getMillis() - start.getMillis());
-                }
-            }
+    /**
+     * Waits until a queued request is granted the lock. The wait is checked for deadlocks first, outside of the
+     * guard since the check looks at other records.
+     */
+    private boolean awaitGrant(Waiter waiter, long timeout) throws InterruptedException {
+        if (waiter.owner == null) {
+            return awaitGrantedCondition(waiter, timeout);
+        }
+        this.deadlockDetector.waitStarted(waiter.owner, this);
+        try {
+            return awaitGrantedCondition(waiter, timeout);
+        } finally {
+            this.deadlockDetector.waitEnded(waiter.owner, this);
+        }
+    }
 
+    private boolean awaitGrantedCondition(Waiter waiter, long timeout) throws InterruptedException {
+        LockRequest lockRequest = waiter.lockRequest;
+        this.guard.lock();
+        try {
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
             try {
-                log.info("Waiting for lock " + lockRequest);
-                if (timeout > 0) {
-                    wait(remainingWait);
-                } else {
-                    wait();
+                while (!waiter.granted) {
+                    if (timeout <= 0) {
+                        waiter.grantedCondition.await();
+                    } else if (remainingNanos > 0) {
+                        remainingNanos = waiter.grantedCondition.awaitNanos(remainingNanos);
+                    } else {
+                        log.info("Waiting for lock " + lockRequest + " timed out.");
+                        dequeue(waiter);
+                        this.statistics.recordTimeout();
+                        grantWaiters();
+                        return false;
+                    }
                 }
-                log.info("Notified of lock release " + lockRequest);
             } catch (InterruptedException e) {
-                this.waitingWriters--;
-                throw e;
+                if (!waiter.granted) {
+                    dequeue(waiter);
+                    grantWaiters();
+                    throw e;
+                }
+                // Granted as we were interrupted, keep the lock and let the caller see the interruption
+                Thread.currentThread().interrupt();
             }
+            return true;
+        } finally {
+            this.guard.unlock();
         }
-
-        log.info("Gained Write lock " + lockRequest);
-        this.waitingWriters--;
-        setLockType(LockType.WRITE_LOCK);
-        this.lockRequestsMap.put(lockRequest.getUnlockTask(), lockRequest);
-        return true;
     }
 
     /**
@@ -190,39 +217,23 @@ class ReadWriteLockRecord {
      * @param lockRequest
      *            The {@link LockRequest} used to lock the object
      */
-    public synchronized void unlock(LockRequest lockRequest) {
-        log.info("unlock " + lockRequest);
-
-        /*
-         * Verify this request holds an active lock.
-         */
-        LockRequest currentLockRequest = this.lockRequestsMap.get(lockRequest.getUnlockTask());
-        if (currentLockRequest == null || !currentLockRequest.equals(lockRequest)) {
-            log.warn("unlock " + lockRequest + " has not lock record!!");
-            return;
-        }
-
-        if (this.lockType == LockType.READ_LOCK) {
-            /*
-             * This is a reader lock. Just decrease readers lock count
-             */
-            this.readLockCount--;
-
+    public void unlock(LockRequest lockRequest) {
+        this.guard.lock();
+        try {
             /*
-             * Is last read lock removed?
+             * Verify this request holds an active lock.
              */
-            if (this.readLockCount == 0) {
-                setLockType(LockType.UNKNOWN_LOCK);
+            Holder holder = this.holders.get(lockRequest.getUnlockTask());
+            if (holder == null || !holder.lockRequest.equals(lockRequest)) {
+                log.warn("unlock " + lockRequest + " has not lock record!!");
+                return;
             }
-        } else {
-            /*
-             * This is a write lock. Just reset lock type.
-             */
-            setLockType(LockType.UNKNOWN_LOCK);
-        }
 
-        this.lockRequestsMap.remove(lockRequest.getUnlockTask());
-        notifyAll();
+            release(holder);
+            grantWaiters();
+        } finally {
+            this.guard.unlock();
+        }
     }
 
     /**
@@ -230,100 +241,277 @@ class ReadWriteLockRecord {
      * request should hold at list an active read lock to the object in question
      * before hand. If write lock is already acquired, this will translate to
      * no-op. Waits until it can upgrade the lock.
+     * <p>
+     * The sole reader is upgraded right away. Otherwise the read lock is released and the request waits in line for
+     * the write lock.
      *
      * @param lockRequest
      *            {@link LockRequest} for the object to be upgraded.
-     * @return true, if there are no read locks other then this request and the
-     *         request happen to hold the only read lock, false otherwise. If
-     *         request already poses a write lock, true is returned.
+     * @return true, if the lock request now holds the write lock, false if it held no lock on the object.
      * @throws InterruptedException
      */
-    public synchronized boolean upgradeLockWithWait(LockRequest lockRequest) throws InterruptedException {
-        log.info("Upgrade lock with wait requested " + lockRequest);
-        LockRequest currentLockRequest = this.lockRequestsMap.get(lockRequest.getUnlockTask());
-        /*
-         * If this request does not currently poses an active read lock we
-         * cannot upgrade it.
-         */
-        if (currentLockRequest == null || !currentLockRequest.equals(lockRequest)) {
-            return false;
-        }
-        /*
-         * If this lock request already holds a write lock, no further action
-         * required.
-         */
-        if (this.lockType == LockType.WRITE_LOCK) {
-            return true;
-        }
+    public boolean upgradeLockWithWait(LockRequest lockRequest) throws InterruptedException {
+        Waiter waiter;
+        this.guard.lock();
+        try {
+            log.info("Upgrade lock with wait requested " + lockRequest);
+            Holder holder = this.holders.get(lockRequest.getUnlockTask());
+            /*
+             * If this request does not currently poses an active read lock we
+             * cannot upgrade it.
+             */
+            if (holder == null || !holder.lockRequest.equals(lockRequest)) {
+                return false;
+            }
+            /*
+             * If this lock request already holds a write lock, no further action
+             * required.
+             */
+            if (this.lockType == LockType.WRITE_LOCK) {
+                return true;
+            }
+
+            release(holder);
+            lockRequest.setLockType(LockType.WRITE_LOCK);
+            if (this.readLockCount == 0) {
+                grant(lockRequest, LockType.WRITE_LOCK, holder.threadOwner);
+                this.statistics.recordWait(0);
+                return true;
+            }
 
-        unlock(lockRequest);
-        lockRequest.setLockType(LockType.WRITE_LOCK);
-        return lock(lockRequest);
+            grantWaiters();
+            waiter = enqueue(lockRequest, LockType.WRITE_LOCK,
+                    resolveOwner(lockRequest, LockManager.getCurrentOwner()));
+        } finally {
+            this.guard.unlock();
+        }
+        return awaitGrant(waiter, 0);
     }
 
     /**
      * Converts a write lock on an object to a read lock. This request must hold
-     * an active write lock to the object in question.
+     * an active write lock to the object in question. The readers waiting at the head of the line are let in
+     * along with it.
      *
      * @param lockRequest
      *            {@link LockRequest} for an object whose write lock is to be
      *            downgraded to a read lock.
      * @return true, if the object is write locked by this request, false
      *         otherwise.
-     * @throws InterruptedException
      */
-    public synchronized boolean downgradeLock(LockRequest lockRequest) throws InterruptedException {
-        log.info("downgrade lock requested " + lockRequest);
-
-        /*
-         * Check current lock type. If it is not write lock, no point to
-         * continue.
-         */
-        if (this.lockType != LockType.WRITE_LOCK) {
-            return false;
+    public boolean downgradeLock(LockRequest lockRequest) {
+        this.guard.lock();
+        try {
+            log.info("downgrade lock requested " + lockRequest);
+
+            /*
+             * Check current lock type. If it is not write lock, no point to
+             * continue.
+             */
+            if (this.lockType != LockType.WRITE_LOCK) {
+                return false;
+            }
+
+            Holder holder = this.holders.get(lockRequest.getUnlockTask());
+            /*
+             * Check if this request is the current owner of this write lock. If
+             * not, no point of continuing.
+             */
+            if (holder == null || !holder.lockRequest.equals(lockRequest)) {
+                return false;
+            }
+
+            release(holder);
+            lockRequest.setLockType(LockType.READ_LOCK);
+            grant(lockRequest, LockType.READ_LOCK, holder.threadOwner);
+            grantWaiters();
+            return true;
+        } finally {
+            this.guard.unlock();
         }
+    }
 
-        LockRequest currentlockRequest = this.lockRequestsMap.get(lockRequest.getUnlockTask());
-        /*
-         * Check if this request is the current owner of this write lock. If
-         * not, no point of continuing.
-         */
-        if (currentlockRequest == null || !currentlockRequest.equals(lockRequest)) {
-            return false;
+    private boolean canGrant(LockType requestedType) {
+        if (requestedType == LockType.READ_LOCK) {
+            return this.lockType != LockType.WRITE_LOCK;
         }
+        return this.lockType == LockType.UNKNOWN_LOCK;
+    }
 
-        unlock(lockRequest);
-        lockRequest.setLockType(LockType.READ_LOCK);
-        return tryLock(lockRequest);
+    private void grant(LockRequest lockRequest, LockType grantedType, LockOwner threadOwner) {
+        if (grantedType == LockType.READ_LOCK) {
+            this.readLockCount++;
+        }
+        this.lockType = grantedType;
+        this.holders.put(lockRequest.getUnlockTask(), new Holder(lockRequest, grantedType, threadOwner));
+        log.debug("Gained " + grantedType + " " + lockRequest);
     }
 
-    public final synchronized ImmutableMap<Task, LockRequest> getLockRequests() {
-        return ImmutableMap.copyOf(this.lockRequestsMap);
+    private void release(Holder holder) {
+        this.holders.remove(holder.lockRequest.getUnlockTask());
+        this.statistics.recordHold(System.nanoTime() - holder.grantedNanos);
+        if (holder.lockType == LockType.READ_LOCK) {
+            /*
+             * This is a reader lock. Just decrease readers lock count
+             */
+            this.readLockCount--;
+            if (this.readLockCount == 0) {
+                this.lockType = LockType.UNKNOWN_LOCK;
+            }
+        } else {
+            this.lockType = LockType.UNKNOWN_LOCK;
+        }
+        log.debug("unlock " + holder.lockRequest);
     }
 
     /**
-     * @return the waiting readers count
+     * Grants the lock to the waiters at the head of the line which can have it, and wakes them up.
+     */
+    private void grantWaiters() {
+        while (!this.waiters.isEmpty() && canGrant(this.waiters.peekFirst().lockType)) {
+            Waiter waiter = this.waiters.peekFirst();
+            dequeue(waiter);
+            grant(waiter.lockRequest, waiter.lockType, waiter.owner);
+            this.statistics.recordWait(System.nanoTime() - waiter.queuedNanos);
+            waiter.granted = true;
+            waiter.grantedCondition.signal();
+        }
+    }
+
+    private Waiter enqueue(LockRequest lockRequest, LockType lockType, LockOwner owner) {
+        Waiter waiter = new Waiter(lockRequest, lockType, owner, this.guard.newCondition());
+        this.waiters.addLast(waiter);
+        if (lockType == LockType.READ_LOCK) {
+            this.waitingReaders++;
+        } else {
+            this.waitingWriters++;
+        }
+        log.debug("Waiting for lock " + lockRequest);
+        return waiter;
+    }
+
+    private void dequeue(Waiter waiter) {
+        this.waiters.remove(waiter);
+        if (waiter.lockType == LockType.READ_LOCK) {
+            this.waitingReaders--;
+        } else {
+            this.waitingWriters--;
+        }
+    }
+
+    /**
+     * Adds the other owners the requests of an owner waiting in line here wait for: the holders of a conflicting
+     * lock and the waiters ahead in line for a conflicting lock.
      */
-    public synchronized int getWaitingReaders() {
-        return this.waitingReaders;
+    void addBlockers(LockOwner owner, Set<LockOwner> blockers) {
+        this.guard.lock();
+        try {
+            for (Waiter waiter : this.waiters) {
+                if (waiter.owner != owner) {
+                    continue;
+                }
+                for (Holder holder : this.holders.values()) {
+                    LockOwner holderOwner = holder.owner();
+                    if (holderOwner != null && holderOwner != owner
+                            && isConflicting(waiter.lockType, holder.lockType)) {
+                        blockers.add(holderOwner);
+                    }
+                }
+                for (Waiter ahead : this.waiters) {
+                    if (ahead == waiter) {
+                        break;
+                    }
+                    LockOwner aheadOwner = resolveOwner(ahead.lockRequest, ahead.owner);
+                    if (aheadOwner != null && aheadOwner != owner && isConflicting(waiter.lockType, ahead.lockType)) {
+                        blockers.add(aheadOwner);
+                    }
+                }
+            }
+        } finally {
+            this.guard.unlock();
+        }
     }
 
     /**
-     * @return the waiting writers count
+     * Resolves the owner of a request: the job its unlock task is linked into, or else the owner of the thread which
+     * placed the request.
      */
-    public synchronized int getWaitingWriters() {
-        return this.waitingWriters;
+    private static LockOwner resolveOwner(LockRequest lockRequest, LockOwner threadOwner) {
+        LockOwner owner = lockRequest.getLockOwner();
+        return owner != null ? owner : threadOwner;
     }
 
-    public synchronized void setLockType(LockType lockType) {
-        this.lockType = lockType;
+    private static boolean isConflicting(LockType lockType, LockType otherLockType) {
+        return lockType == LockType.WRITE_LOCK || otherLockType == LockType.WRITE_LOCK;
+    }
+
+    void pin() {
+        this.pins++;
+    }
+
+    void unpin() {
+        this.pins--;
+    }
+
+    /**
+     * @return true if no lock is held or waited for and no LockManager call is using this record.
+     */
+    boolean isRemovable() {
+        this.guard.lock();
+        try {
+            return this.pins == 0 && this.holders.isEmpty() && this.waiters.isEmpty();
+        } finally {
+            this.guard.unlock();
+        }
+    }
+
+    public final ImmutableMap<Task, LockRequest> getLockRequests() {
+        this.guard.lock();
+        try {
+            ImmutableMap.Builder<Task, LockRequest> lockRequests = ImmutableMap.builder();
+            for (Map.Entry<Task, Holder> entry : this.holders.entrySet()) {
+                lockRequests.put(entry.getKey(), entry.getValue().lockRequest);
+            }
+            return lockRequests.build();
+        } finally {
+            this.guard.unlock();
+        }
+    }
+
+    /**
+     * @return the waiting readers count
+     */
+    public int getWaitingReaders() {
+        this.guard.lock();
+        try {
+            return this.waitingReaders;
+        } finally {
+            this.guard.unlock();
+        }
+    }
+
+    /**
+     * @return the waiting writers count
+     */
+    public int getWaitingWriters() {
+        this.guard.lock();
+        try {
+            return this.waitingWriters;
+        } finally {
+            this.guard.unlock();
+        }
     }
 
     /**
      * @return the current lock type
      */
-    public synchronized LockType getLockType() {
-        return this.lockType;
+    public LockType getLockType() {
+        this.guard.lock();
+        try {
+            return this.lockType;
+        } finally {
+            this.guard.unlock();
+        }
     }
 
     /**
@@ -331,34 +519,68 @@ class ReadWriteLockRecord {
      *
      * @return read lock count
      */
-    public synchronized int getReadLockCount() {
-        return this.readLockCount;
+    public int getReadLockCount() {
+        this.guard.lock();
+        try {
+            return this.readLockCount;
+        } finally {
+            this.guard.unlock();
+        }
     }
 
     /**
      * @return true if current lock type is write lock. False if otherwise.
      */
-    public synchronized boolean isWriteLocked() {
-        return this.lockType == LockType.WRITE_LOCK;
+    public boolean isWriteLocked() {
+        return getLockType() == LockType.WRITE_LOCK;
     }
 
     /**
      * @return true if there are any locks placed. False if otherwise.
      */
-    public synchronized boolean isLocked() {
-        return this.lockType != LockType.UNKNOWN_LOCK;
+    public boolean isLocked() {
+        return getLockType() != LockType.UNKNOWN_LOCK;
+    }
+
+    /**
+     * @return true if a lock of the given type would be granted without waiting. False if otherwise.
+     */
+    public boolean isAvailable(LockType lockType) {
+        this.guard.lock();
+        try {
+            return this.waiters.isEmpty() && canGrant(lockType);
+        } finally {
+            this.guard.unlock();
+        }
+    }
+
+    /**
+     * @return true if any reader or writer is waiting for this lock. False if otherwise.
+     */
+    public boolean hasWaiters() {
+        this.guard.lock();
+        try {
+            return !this.waiters.isEmpty();
+        } finally {
+            this.guard.unlock();
+        }
     }
 
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        for (Entry<Task, LockRequest> entry : this.lockRequestsMap.entrySet()) {
-            sb.append(entry.getValue() + "\n");
-        }
+        this.guard.lock();
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (Holder holder : this.holders.values()) {
+                sb.append(holder.lockRequest + "\n");
+            }
 
-        return "ReadWriteLockRecord [lockType=" + this.lockType + ", readLockCount=" + this.readLockCount
-                + ", waitingWriters=" + this.waitingWriters + ", waitingReaders=" + this.waitingReaders + "\nLocks:\n"
-                + sb.toString() + "\n]";
+            return "ReadWriteLockRecord [lockType=" + this.lockType + ", readLockCount=" + this.readLockCount
+                    + ", waitingWriters=" + this.waitingWriters + ", waitingReaders=" + this.waitingReaders
+                    + "\nLocks:\n" + sb.toString() + "\n]";
+        } finally {
+            this.guard.unlock();
+        }
     }
 
 }
@@ -30,6 +30,8 @@ import org.osc.core.broker.job.Task;
 @XmlAccessorType(XmlAccessType.FIELD)
 public class ReadWriteLockRecordDto {
 
+    private String object;
+    private String lockType;
     private List<String> lockRequests = new ArrayList<>();
     private int readLockCount = 0;
     private int waitingWriters = 0;
@@ -38,7 +40,9 @@ public class ReadWriteLockRecordDto {
     ReadWriteLockRecordDto() {
     }
 
-    public ReadWriteLockRecordDto(ReadWriteLockRecord lockRecord) {
+    public ReadWriteLockRecordDto(LockObjectReference objectRef, ReadWriteLockRecord lockRecord) {
+        this.object = objectRef.toString();
+        this.lockType = lockRecord.getLockType().toString();
         for (Entry<Task, LockRequest> lockEntry : lockRecord.getLockRequests().entrySet()) {
             this.lockRequests.add(lockEntry.getKey().toString());
         }
@@ -47,6 +51,14 @@ public class ReadWriteLockRecordDto {
         this.waitingReaders = lockRecord.getWaitingReaders();
     }
 
+    public String getObject() {
+        return this.object;
+    }
+
+    public String getLockType() {
+        return this.lockType;
+    }
+
     public List<String> getLockRequests() {
         return this.lockRequests;
     }
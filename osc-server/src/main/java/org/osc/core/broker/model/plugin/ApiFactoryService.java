@@ -68,6 +68,17 @@ public interface ApiFactoryService {
 
     Boolean providesDeviceStatus(VirtualSystem virtualSystem) throws Exception;
 
+    /**
+     * Gets how many member device tasks may call a manager at once, across all the virtual systems of an appliance
+     * manager connector, as declared by the manager plugin through the
+     * {@link PluginTracker#PROP_MAX_CONCURRENT_DEVICE_TASKS} property.
+     *
+     * @return the limit, 1 if the plugin does not declare it
+     */
+    int getMaxConcurrentDeviceTasks(String managerType) throws Exception;
+
+    int getMaxConcurrentDeviceTasks(VirtualSystem virtualSystem) throws Exception;
+
     String getAuthenticationType(String managerType) throws Exception;
 
     boolean isBasicAuth(String managerType) throws Exception;
@@ -358,6 +358,23 @@ public class ApiFactoryServiceImpl implements ApiFactoryService, PluginService {
         return (Boolean) getManagerPluginProperty(managerType, PROVIDE_DEVICE_STATUS);
     }
 
+    @Override
+    public int getMaxConcurrentDeviceTasks(String managerType) throws Exception {
+        Object value = getManagerPluginProperty(managerType, PluginTracker.PROP_MAX_CONCURRENT_DEVICE_TASKS);
+        if (value == null) {
+            return 1;
+        }
+
+        try {
+            int limit = value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString().trim());
+            return Math.max(limit, 1);
+        } catch (NumberFormatException e) {
+            this.log.warn("Ignoring invalid " + PluginTracker.PROP_MAX_CONCURRENT_DEVICE_TASKS + " '" + value
+                    + "' of manager type " + managerType);
+            return 1;
+        }
+    }
+
     @Override
     public String getAuthenticationType(String managerType) throws Exception {
         return (String) getManagerPluginProperty(managerType, AUTHENTICATION_TYPE);
@@ -507,6 +524,12 @@ public class ApiFactoryServiceImpl implements ApiFactoryService, PluginService {
         return providesDeviceStatus(virtualSystem.getDistributedAppliance().getApplianceManagerConnector().getManagerType());
     }
 
+    @Override
+    public int getMaxConcurrentDeviceTasks(VirtualSystem virtualSystem) throws Exception {
+        return getMaxConcurrentDeviceTasks(
+                virtualSystem.getDistributedAppliance().getApplianceManagerConnector().getManagerType());
+    }
+
     @Override
     public Boolean syncsPolicyMapping(VirtualSystem vs) throws Exception {
         return syncsPolicyMapping(
@@ -67,6 +67,12 @@ public class PluginTracker<T> {
      */
     public static final String PROP_PLUGIN_NAME = "osc.plugin.name";
 
+    /**
+     * Optional property on manager plugin services giving how many member device tasks may call a manager at once,
+     * per appliance manager connector. Plugins not declaring it get their device tasks run one at a time.
+     */
+    public static final String PROP_MAX_CONCURRENT_DEVICE_TASKS = "osc.plugin.max.concurrent.device.tasks";
+
 
     private static final Map<String, Class<?>> REQUIRED_MANAGER_PLUGIN_PROPERTIES = ImmutableMap
             .<String, Class<?>>builder().put(VENDOR_NAME, String.class).put(SERVICE_NAME, String.class)
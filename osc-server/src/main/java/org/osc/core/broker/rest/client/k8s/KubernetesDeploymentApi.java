@@ -192,16 +192,7 @@ public class KubernetesDeploymentApi extends KubernetesApi {
             Deployment deployment = getKubernetesClient().extensions().deployments().inNamespace(namespace).withName(name).get();
 
             if (deployment != null) {
-                resultDeployment = new KubernetesDeployment(
-                        deployment.getMetadata().getName(),
-                        deployment.getMetadata().getNamespace(),
-                        deployment.getMetadata().getUid(),
-                        deployment.getSpec().getReplicas(),
-                        deployment.getSpec().getTemplate().getSpec().getContainers().get(0).getImage(),
-                        deployment.getSpec().getTemplate().getSpec().getContainers().get(0).getImagePullPolicy());
-                resultDeployment.setDeploymentResource(deployment);
-                Integer availableReplicas = deployment.getStatus().getAvailableReplicas();
-                resultDeployment.setAvailableReplicaCount(availableReplicas == null ? 0 : availableReplicas.intValue());
+                resultDeployment = toKubernetesDeployment(deployment);
             }
 
         } catch (KubernetesClientException e) {
@@ -210,4 +201,19 @@ public class KubernetesDeploymentApi extends KubernetesApi {
 
         return resultDeployment;
     }
+
+    static KubernetesDeployment toKubernetesDeployment(Deployment deployment) {
+        KubernetesDeployment resultDeployment = new KubernetesDeployment(
+                deployment.getMetadata().getName(),
+                deployment.getMetadata().getNamespace(),
+                deployment.getMetadata().getUid(),
+                deployment.getSpec().getReplicas(),
+                deployment.getSpec().getTemplate().getSpec().getContainers().get(0).getImage(),
+                deployment.getSpec().getTemplate().getSpec().getContainers().get(0).getImagePullPolicy());
+        resultDeployment.setDeploymentResource(deployment);
+        // A deployment just created through a watch may not have a status yet
+        Integer availableReplicas = deployment.getStatus() == null ? null : deployment.getStatus().getAvailableReplicas();
+        resultDeployment.setAvailableReplicaCount(availableReplicas == null ? 0 : availableReplicas.intValue());
+        return resultDeployment;
+    }
 }
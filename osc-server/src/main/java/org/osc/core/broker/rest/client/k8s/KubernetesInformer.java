@@ -0,0 +1,510 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.k8s;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ListMeta;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodList;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.kubernetes.api.model.extensions.DeploymentList;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+
+/**
+ * KubernetesInformer keeps a local copy of the pods and deployments of a cluster up to date by watching them.
+ * <p>
+ * Each resource type is listed once, then watched from the resource version of the list. When a watch closes, it
+ * resumes from the last resource version seen, or lists again if the cluster no longer has that version. The
+ * changes found by listing again are reported, the objects found by the initial list are not. The local
+ * copy is only trusted while its watches are open, tasks should fall back to querying the cluster through
+ * {@link KubernetesPodApi} and {@link KubernetesDeploymentApi} when {@link #getInformer(Long)} returns null or when
+ * the informer cannot answer.
+ * <p>
+ * The informers of all the Kubernetes virtualization connectors are kept here, the
+ * {@link KubernetesInformerRunner} starts and stops them as the connectors come and go.
+ */
+public class KubernetesInformer implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KubernetesInformer.class);
+
+    private static final int HTTP_GONE = 410;
+    private static final long RETRY_DELAY_MS = 10000;
+
+    private static final Map<Long, KubernetesInformer> informers = new ConcurrentHashMap<>();
+
+    /**
+     * Watches a resource type, keeping the local copy of its objects in sync.
+     */
+    private abstract class ResourceWatcher<T extends HasMetadata> {
+        private final String kind;
+
+        // All guarded by the informer
+        private String resourceVersion;
+        private Connection connection;
+        private boolean synced;
+        private boolean listed;
+
+        /**
+         * A single watch. Events from a watch which has since been replaced are ignored.
+         */
+        private class Connection implements Watcher<T> {
+            private Watch watch;
+
+            @Override
+            public void eventReceived(Action action, T object) {
+                synchronized (KubernetesInformer.this) {
+                    if (!isCurrent()) {
+                        return;
+                    }
+                    if (action == Action.ERROR || object == null || object.getMetadata() == null) {
+                        LOG.warn(String.format("Watch error on the %ss of virtualization connector %s, listing again",
+                                ResourceWatcher.this.kind, KubernetesInformer.this.vcId));
+                        restart(true);
+                        return;
+                    }
+                    update(action, object);
+                    ResourceWatcher.this.resourceVersion = object.getMetadata().getResourceVersion();
+                }
+            }
+
+            @Override
+            public void onClose(KubernetesClientException cause) {
+                synchronized (KubernetesInformer.this) {
+                    if (!isCurrent()) {
+                        return;
+                    }
+                    boolean expired = cause != null && cause.getCode() == HTTP_GONE;
+                    LOG.info(String.format("The watch on the %ss of virtualization connector %s closed%s",
+                            ResourceWatcher.this.kind, KubernetesInformer.this.vcId,
+                            expired ? ", its resource version expired" : ""));
+                    restart(expired);
+                }
+            }
+
+            private boolean isCurrent() {
+                return !KubernetesInformer.this.closed && ResourceWatcher.this.connection == this;
+            }
+        }
+
+        private ResourceWatcher(String kind) {
+            this.kind = kind;
+        }
+
+        /**
+         * Lists the objects of the cluster and replaces the local copy with them, holding the informer lock.
+         *
+         * @param reportChanges  whether to report the changes found, false for the initial list which would report
+         *                       every object of the cluster
+         * @return the resource version of the list
+         */
+        abstract String relist(boolean reportChanges);
+
+        abstract Watch watch(String resourceVersion, Watcher<T> watcher);
+
+        /**
+         * Applies a change to the local copy, holding the informer lock.
+         */
+        abstract void update(Watcher.Action action, T object);
+
+        private void start() {
+            try {
+                String version;
+                boolean reportChanges;
+                synchronized (KubernetesInformer.this) {
+                    if (KubernetesInformer.this.closed) {
+                        return;
+                    }
+                    version = this.resourceVersion;
+                    reportChanges = this.listed;
+                }
+
+                if (version == null) {
+                    version = relist(reportChanges);
+                }
+
+                Connection newConnection = new Connection();
+                synchronized (KubernetesInformer.this) {
+                    this.resourceVersion = version;
+                    this.connection = newConnection;
+                    this.listed = true;
+                }
+
+                Watch watch = watch(version, newConnection);
+                synchronized (KubernetesInformer.this) {
+                    if (!newConnection.isCurrent()) {
+                        // Closed or replaced in the meantime
+                        watch.close();
+                        return;
+                    }
+                    newConnection.watch = watch;
+                    this.synced = true;
+                }
+                LOG.info(String.format("Watching the %ss of virtualization connector %s from version %s", this.kind,
+                        KubernetesInformer.this.vcId, version));
+            } catch (RuntimeException e) {
+                LOG.warn(String.format("Failed to watch the %ss of virtualization connector %s (%s), retrying",
+                        this.kind, KubernetesInformer.this.vcId, e.getMessage()));
+                synchronized (KubernetesInformer.this) {
+                    this.connection = null;
+                }
+                retry();
+            }
+        }
+
+        private void restart(boolean relist) {
+            close();
+            if (relist) {
+                this.resourceVersion = null;
+            }
+            retry();
+        }
+
+        private void retry() {
+            if (!KubernetesInformer.this.executor.isShutdown()) {
+                KubernetesInformer.this.executor.schedule(this::start, KubernetesInformer.this.retryDelayMs,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void close() {
+            Connection oldConnection = this.connection;
+            this.connection = null;
+            this.synced = false;
+            if (oldConnection != null && oldConnection.watch != null) {
+                oldConnection.watch.close();
+            }
+        }
+    }
+
+    private final Long vcId;
+    private final KubernetesClient client;
+    private final KubernetesInformerListener listener;
+    private final long retryDelayMs;
+    private final ScheduledExecutorService executor;
+    // Listeners are called on their own thread, so slow listeners do not hold back the watches
+    private final ExecutorService listenerExecutor;
+
+    // All guarded by this
+    private final KubernetesPodStore pods = new KubernetesPodStore();
+    private final Map<String, KubernetesDeployment> deployments = new HashMap<>();
+    private boolean closed;
+
+    private final ResourceWatcher<Pod> podWatcher = new ResourceWatcher<Pod>("pod") {
+        @Override
+        String relist(boolean reportChanges) {
+            PodList list = KubernetesInformer.this.client.getClient().pods().inAnyNamespace().list();
+            synchronized (KubernetesInformer.this) {
+                Map<String, Pod> listed = new HashMap<>();
+                for (Pod pod : list.getItems()) {
+                    listed.put(pod.getMetadata().getUid(), pod);
+                }
+                List<KubernetesPodChange> changes = new ArrayList<>();
+                for (String uid : KubernetesInformer.this.pods.getUids()) {
+                    if (!listed.containsKey(uid)) {
+                        addChange(changes, removePod(uid));
+                    }
+                }
+                for (Pod pod : listed.values()) {
+                    addChange(changes, putPod(pod));
+                }
+                if (reportChanges) {
+                    notifyPodsChanged(changes);
+                }
+                return getResourceVersion(list.getMetadata());
+            }
+        }
+
+        @Override
+        Watch watch(String resourceVersion, Watcher<Pod> watcher) {
+            return KubernetesInformer.this.client.getClient().pods().inAnyNamespace().watch(resourceVersion,
+                    watcher);
+        }
+
+        @Override
+        void update(Watcher.Action action, Pod pod) {
+            List<KubernetesPodChange> changes = new ArrayList<>(1);
+            if (action == Watcher.Action.DELETED) {
+                addChange(changes, removePod(pod.getMetadata().getUid()));
+            } else {
+                addChange(changes, putPod(pod));
+            }
+            notifyPodsChanged(changes);
+        }
+    };
+
+    private final ResourceWatcher<Deployment> deploymentWatcher = new ResourceWatcher<Deployment>("deployment") {
+        @Override
+        String relist(boolean reportChanges) {
+            DeploymentList list = KubernetesInformer.this.client.getClient().extensions().deployments()
+                    .inAnyNamespace().list();
+            synchronized (KubernetesInformer.this) {
+                Map<String, Deployment> listed = new HashMap<>();
+                for (Deployment deployment : list.getItems()) {
+                    listed.put(deployment.getMetadata().getUid(), deployment);
+                }
+                for (String uid : KubernetesInformer.this.deployments.keySet().toArray(new String[0])) {
+                    if (!listed.containsKey(uid)) {
+                        removeDeployment(uid, reportChanges);
+                    }
+                }
+                for (Deployment deployment : listed.values()) {
+                    putDeployment(deployment, reportChanges);
+                }
+                return getResourceVersion(list.getMetadata());
+            }
+        }
+
+        @Override
+        Watch watch(String resourceVersion, Watcher<Deployment> watcher) {
+            return KubernetesInformer.this.client.getClient().extensions().deployments().inAnyNamespace()
+                    .watch(resourceVersion, watcher);
+        }
+
+        @Override
+        void update(Watcher.Action action, Deployment deployment) {
+            if (action == Watcher.Action.DELETED) {
+                removeDeployment(deployment.getMetadata().getUid(), true);
+            } else {
+                putDeployment(deployment, true);
+            }
+        }
+    };
+
+    private KubernetesInformer(VirtualizationConnector vc, KubernetesInformerListener listener) {
+        this(vc.getId(), new KubernetesClient(vc), listener, RETRY_DELAY_MS);
+    }
+
+    KubernetesInformer(Long vcId, KubernetesClient client, KubernetesInformerListener listener, long retryDelayMs) {
+        this.vcId = vcId;
+        this.client = client;
+        this.listener = listener;
+        this.retryDelayMs = retryDelayMs;
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("isc-k8s-informer-" + vcId + "-%d").setDaemon(true)
+                .build());
+        this.listenerExecutor = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("isc-k8s-informer-listener-" + vcId + "-%d")
+                .setDaemon(true).build());
+    }
+
+    /**
+     * Starts watching the cluster of the given virtualization connector, replacing its current informer if any.
+     */
+    public static KubernetesInformer start(VirtualizationConnector vc, KubernetesInformerListener listener) {
+        KubernetesInformer informer = new KubernetesInformer(vc, listener);
+        KubernetesInformer previous = informers.put(vc.getId(), informer);
+        if (previous != null) {
+            previous.close();
+        }
+        informer.startWatching();
+        return informer;
+    }
+
+    void startWatching() {
+        this.executor.execute(this.podWatcher::start);
+        this.executor.execute(this.deploymentWatcher::start);
+    }
+
+    /**
+     * Stops watching the cluster of the given virtualization connector.
+     */
+    public static void stop(Long vcId) {
+        KubernetesInformer informer = informers.remove(vcId);
+        if (informer != null) {
+            informer.close();
+        }
+    }
+
+    public static void stopAll() {
+        for (Long vcId : informers.keySet()) {
+            stop(vcId);
+        }
+    }
+
+    /**
+     * Gets the informer of the given virtualization connector if its local copy of the cluster is up to date.
+     *
+     * @return the informer, or null if the cluster is not watched or its watches are currently not open
+     */
+    public static KubernetesInformer getInformer(Long vcId) {
+        KubernetesInformer informer = vcId == null ? null : informers.get(vcId);
+        return informer != null && informer.isSynced() ? informer : null;
+    }
+
+    public Long getVirtualizationConnectorId() {
+        return this.vcId;
+    }
+
+    public synchronized boolean isSynced() {
+        return !this.closed && this.podWatcher.synced && this.deploymentWatcher.synced;
+    }
+
+    /**
+     * Gets the pods selected by the given label, as {@link KubernetesPodApi#getPodsByLabel(String)} would.
+     *
+     * @return the pods, or null if the label uses selector requirements which are not supported locally
+     */
+    public List<KubernetesPod> getPodsByLabel(String label) {
+        if (label == null) {
+            throw new IllegalArgumentException("Label should not be null");
+        }
+
+        KubernetesLabelSelector selector = KubernetesLabelSelector.parse(label);
+        if (selector == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            return this.pods.getByLabel(selector);
+        }
+    }
+
+    /**
+     * Gets the pod with the given uid.
+     *
+     * @return the pod, or null if no such pod exists
+     */
+    public synchronized KubernetesPod getPodById(String uid) {
+        return this.pods.get(uid);
+    }
+
+    /**
+     * Gets the deployment with the given uid.
+     *
+     * @return the deployment, or null if no such deployment exists
+     */
+    public synchronized KubernetesDeployment getDeploymentById(String uid) {
+        return this.deployments.get(uid);
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.podWatcher.close();
+            this.deploymentWatcher.close();
+        }
+        this.executor.shutdownNow();
+        this.listenerExecutor.shutdownNow();
+        try {
+            this.client.close();
+        } catch (IOException e) {
+            LOG.warn("Failed to close the Kubernetes client of virtualization connector " + this.vcId, e);
+        }
+    }
+
+    /**
+     * @return the change to report, or null if nothing of interest changed
+     */
+    private KubernetesPodChange putPod(Pod pod) {
+        KubernetesPod kubernetesPod = KubernetesPodApi.toKubernetesPod(pod);
+        KubernetesPod oldPod = this.pods.get(kubernetesPod.getUid());
+        Map<String, String> oldLabels = this.pods.put(kubernetesPod, pod.getMetadata().getLabels());
+        Map<String, String> newLabels = this.pods.getLabels(kubernetesPod.getUid());
+        // Pod status changes are frequent and of no interest, only membership changes and the pod being scheduled
+        // on a node, which pod creation events predate, are reported
+        if (oldLabels == null || !oldLabels.equals(newLabels)
+                || !Objects.equals(oldPod.getNode(), kubernetesPod.getNode())) {
+            return new KubernetesPodChange(kubernetesPod, oldLabels, newLabels);
+        }
+        return null;
+    }
+
+    /**
+     * @return the change to report, or null if the pod is unknown
+     */
+    private KubernetesPodChange removePod(String uid) {
+        KubernetesPod kubernetesPod = this.pods.get(uid);
+        Map<String, String> oldLabels = this.pods.remove(uid);
+        return oldLabels == null ? null : new KubernetesPodChange(kubernetesPod, oldLabels, null);
+    }
+
+    private static void addChange(List<KubernetesPodChange> changes, KubernetesPodChange change) {
+        if (change != null) {
+            changes.add(change);
+        }
+    }
+
+    private void notifyPodsChanged(List<KubernetesPodChange> changes) {
+        if (!changes.isEmpty()) {
+            List<KubernetesPodChange> reported = Collections.unmodifiableList(changes);
+            notifyListener(() -> this.listener.podsChanged(this, reported));
+        }
+    }
+
+    private void putDeployment(Deployment deployment, boolean reportChange) {
+        KubernetesDeployment newDeployment = KubernetesDeploymentApi.toKubernetesDeployment(deployment);
+        KubernetesDeployment oldDeployment = this.deployments.put(newDeployment.getUid(), newDeployment);
+        if (!reportChange) {
+            return;
+        }
+        if (oldDeployment == null
+                || oldDeployment.getDesiredReplicaCount() != newDeployment.getDesiredReplicaCount()
+                || oldDeployment.getAvailableReplicaCount() != newDeployment.getAvailableReplicaCount()) {
+            notifyListener(() -> this.listener.deploymentChanged(this, oldDeployment, newDeployment));
+        }
+    }
+
+    private void removeDeployment(String uid, boolean reportChange) {
+        KubernetesDeployment oldDeployment = this.deployments.remove(uid);
+        if (oldDeployment != null && reportChange) {
+            notifyListener(() -> this.listener.deploymentChanged(this, oldDeployment, null));
+        }
+    }
+
+    private void notifyListener(Runnable notification) {
+        if (this.listener == null || this.listenerExecutor.isShutdown()) {
+            return;
+        }
+        this.listenerExecutor.execute(() -> {
+            try {
+                notification.run();
+            } catch (Exception e) {
+                LOG.error("Failed to process a change of virtualization connector " + this.vcId, e);
+            }
+        });
+    }
+
+    private static String getResourceVersion(ListMeta metadata) {
+        return metadata == null ? null : metadata.getResourceVersion();
+    }
+}
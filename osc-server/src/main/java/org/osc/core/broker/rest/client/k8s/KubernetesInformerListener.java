@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.k8s;
+
+import java.util.List;
+
+/**
+ * Receives the changes a {@link KubernetesInformer} observes, one at a time, on a listener thread of the informer.
+ * The objects found by the initial list of a cluster are not reported.
+ */
+public interface KubernetesInformerListener {
+
+    /**
+     * Called when pods are added, removed, relabeled or bound to a node. The changes found by listing the pods of
+     * the cluster again are reported in a single call.
+     *
+     * @param informer  the informer of the cluster the pods belong to
+     * @param changes  the changes, in no particular order
+     */
+    void podsChanged(KubernetesInformer informer, List<KubernetesPodChange> changes);
+
+    /**
+     * Called when a deployment is added, removed or modified.
+     *
+     * @param informer  the informer of the cluster the deployment belongs to
+     * @param oldDeployment  the deployment before the change, null if the deployment was added
+     * @param newDeployment  the deployment after the change, null if the deployment was removed
+     */
+    void deploymentChanged(KubernetesInformer informer, KubernetesDeployment oldDeployment,
+            KubernetesDeployment newDeployment);
+}
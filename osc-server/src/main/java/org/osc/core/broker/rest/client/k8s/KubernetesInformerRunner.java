@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.k8s;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.osc.core.broker.job.JobPriority;
+import org.osc.core.broker.model.entities.virtualization.SecurityGroup;
+import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector;
+import org.osc.core.broker.model.entities.virtualization.openstack.DeploymentSpec;
+import org.osc.core.broker.service.ConformService;
+import org.osc.core.broker.service.api.RestConstants;
+import org.osc.core.broker.service.broadcast.BroadcastListener;
+import org.osc.core.broker.service.broadcast.BroadcastMessage;
+import org.osc.core.broker.service.broadcast.EventType;
+import org.osc.core.broker.service.persistence.DeploymentSpecEntityMgr;
+import org.osc.core.broker.service.persistence.LabelEntityMgr;
+import org.osc.core.broker.service.persistence.SecurityGroupEntityMgr;
+import org.osc.core.broker.service.persistence.VirtualizationConnectorEntityMgr;
+import org.osc.core.broker.util.SessionUtil;
+import org.osc.core.broker.util.db.DBConnectionManager;
+import org.osc.core.common.virtualization.VirtualizationType;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ServiceScope;
+import org.osgi.service.transaction.control.ScopedWorkException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs a {@link KubernetesInformer} for every Kubernetes virtualization connector from server start until server
+ * shutdown, and syncs what the watched changes affect:
+ * <ul>
+ * <li>a pod joining or leaving a label, or being scheduled on a node, requests a sync of the security groups
+ * protecting the label. The pods found changed when listing a cluster again are matched against the labels in one
+ * transaction</li>
+ * <li>a deployment backing a deployment spec being deleted, scaled or losing available replicas outside of OSC
+ * syncs the deployment spec</li>
+ * </ul>
+ */
+@Component(scope = ServiceScope.PROTOTYPE,
+service = KubernetesInformerRunner.class)
+public class KubernetesInformerRunner implements BroadcastListener, KubernetesInformerListener {
+
+    private static final Logger log = LoggerFactory.getLogger(KubernetesInformerRunner.class);
+
+    // Changes of a deployment come in bursts, wait for them to settle before syncing
+    private static final long DS_SYNC_DELAY_MS = 5000;
+
+    @Reference
+    private DBConnectionManager dbConnectionManager;
+
+    @Reference
+    private ConformService conformService;
+
+    private final Map<Long, String> vcProviderIps = new ConcurrentHashMap<>();
+    private final Set<Long> pendingDsSyncs = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService ses = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("isc-k8s-sync-%d").setDaemon(true).build());
+
+    private ServiceRegistration<BroadcastListener> registration;
+
+    @Activate
+    void start(BundleContext ctx) {
+        // This is not done automatically by DS as we do not want the broadcast whiteboard
+        // to activate another instance of this component, only people getting the runner!
+        this.registration = ctx.registerService(BroadcastListener.class, this, null);
+        try {
+            EntityManager em = this.dbConnectionManager.getTransactionalEntityManager();
+            List<VirtualizationConnector> vcList = this.dbConnectionManager.getTransactionControl().required(() ->
+            VirtualizationConnectorEntityMgr.listByType(em, VirtualizationType.KUBERNETES));
+
+            for (VirtualizationConnector vc : vcList) {
+                startInformer(vc);
+            }
+        } catch (ScopedWorkException e) {
+            log.error("Exception during initializing the Kubernetes informers", e.getCause());
+        } catch (Exception e) {
+            log.error("Exception during initializing the Kubernetes informers", e);
+        }
+    }
+
+    @Deactivate
+    void shutdown() {
+        try {
+            this.registration.unregister();
+        } catch (IllegalStateException ise) {
+            // No problem - this means the service was
+            // already unregistered (e.g. by bundle stop)
+        }
+        this.ses.shutdownNow();
+        KubernetesInformer.stopAll();
+        this.vcProviderIps.clear();
+        log.info("Stopped the Kubernetes informers");
+    }
+
+    @Override
+    public void receiveBroadcast(BroadcastMessage msg) {
+        if (!msg.getReceiver().equals("VirtualizationConnector")) {
+            return;
+        }
+
+        if (msg.getEventType() == EventType.DELETED) {
+            stopInformer(msg.getEntityId());
+            return;
+        }
+
+        try {
+            EntityManager em = this.dbConnectionManager.getTransactionalEntityManager();
+            VirtualizationConnector vc = this.dbConnectionManager.getTransactionControl().required(() ->
+            VirtualizationConnectorEntityMgr.findById(em, msg.getEntityId()));
+
+            if (vc == null || vc.getVirtualizationType() != VirtualizationType.KUBERNETES) {
+                return;
+            }
+
+            // Only a new provider address requires watching again
+            if (msg.getEventType() == EventType.ADDED
+                    || !vc.getProviderIpAddress().equals(this.vcProviderIps.get(vc.getId()))) {
+                startInformer(vc);
+            }
+        } catch (ScopedWorkException e) {
+            log.error("Failed to update the Kubernetes informer of virtualization connector " + msg.getEntityId(),
+                    e.getCause());
+        } catch (Exception e) {
+            log.error("Failed to update the Kubernetes informer of virtualization connector " + msg.getEntityId(), e);
+        }
+    }
+
+    private void startInformer(VirtualizationConnector vc) {
+        this.vcProviderIps.put(vc.getId(), vc.getProviderIpAddress());
+        KubernetesInformer.start(vc, this);
+        log.info("Started the Kubernetes informer of virtualization connector " + vc.getName());
+    }
+
+    private void stopInformer(Long vcId) {
+        if (this.vcProviderIps.remove(vcId) != null) {
+            KubernetesInformer.stop(vcId);
+            log.info("Stopped the Kubernetes informer of virtualization connector " + vcId);
+        }
+    }
+
+    @Override
+    public void podsChanged(KubernetesInformer informer, List<KubernetesPodChange> changes) {
+        setNotificationContext();
+
+        // The pods of a deployment share their labels, each distinct set of labels is matched once
+        Set<Map<String, String>> labelSets = new HashSet<>();
+        for (KubernetesPodChange change : changes) {
+            if (change.getOldLabels() != null) {
+                labelSets.add(change.getOldLabels());
+            }
+            if (change.getNewLabels() != null) {
+                labelSets.add(change.getNewLabels());
+            }
+        }
+
+        try {
+            EntityManager em = this.dbConnectionManager.getTransactionalEntityManager();
+            this.dbConnectionManager.getTransactionControl().required(() -> {
+                Set<Long> sgIds = new HashSet<>();
+                for (Map.Entry<String, Set<Long>> label : LabelEntityMgr
+                        .listSecurityGroupIdsByValue(em, informer.getVirtualizationConnectorId()).entrySet()) {
+                    if (matchesAny(label.getKey(), labelSets)) {
+                        sgIds.addAll(label.getValue());
+                    }
+                }
+
+                for (Long sgId : sgIds) {
+                    SecurityGroup sg = SecurityGroupEntityMgr.findById(em, sgId);
+                    if (sg != null) {
+                        log.info(String.format("%s, syncing Security Group '%s'", describe(changes), sg.getName()));
+                        this.conformService.requestSecurityGroupSync(sg);
+                    }
+                }
+                return null;
+            });
+        } catch (ScopedWorkException e) {
+            log.error("Failed to sync the Security Groups of " + describe(changes), e.getCause());
+        }
+    }
+
+    private static boolean matchesAny(String label, Set<Map<String, String>> labelSets) {
+        KubernetesLabelSelector selector = KubernetesLabelSelector.parse(label);
+        // Selectors which cannot be evaluated here are assumed to match
+        if (selector == null) {
+            return true;
+        }
+        for (Map<String, String> labels : labelSets) {
+            if (selector.matches(labels)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(List<KubernetesPodChange> changes) {
+        if (changes.size() == 1) {
+            KubernetesPod pod = changes.get(0).getPod();
+            return String.format("Pod %s in namespace %s changed", pod.getName(), pod.getNamespace());
+        }
+        return changes.size() + " pods changed";
+    }
+
+    @Override
+    public void deploymentChanged(KubernetesInformer informer, KubernetesDeployment oldDeployment,
+            KubernetesDeployment newDeployment) {
+        if (oldDeployment == null) {
+            // Deployments are created by deployment spec syncs, nothing to fix yet
+            return;
+        }
+        if (newDeployment != null
+                && newDeployment.getDesiredReplicaCount() == oldDeployment.getDesiredReplicaCount()
+                && newDeployment.getAvailableReplicaCount() >= oldDeployment.getAvailableReplicaCount()) {
+            return;
+        }
+
+        try {
+            EntityManager em = this.dbConnectionManager.getTransactionalEntityManager();
+            DeploymentSpec ds = this.dbConnectionManager.getTransactionControl().required(() ->
+            DeploymentSpecEntityMgr.findByExternalId(em, informer.getVirtualizationConnectorId(),
+                    oldDeployment.getUid()));
+
+            if (ds != null && this.pendingDsSyncs.add(ds.getId())) {
+                Long dsId = ds.getId();
+                this.ses.schedule(() -> {
+                    this.pendingDsSyncs.remove(dsId);
+                    startDeploymentSpecSync(dsId);
+                }, DS_SYNC_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (ScopedWorkException e) {
+            log.error("Failed to find the Deployment Specification of the deployment " + oldDeployment.getUid(),
+                    e.getCause());
+        }
+    }
+
+    private void startDeploymentSpecSync(Long dsId) {
+        setNotificationContext();
+        try {
+            EntityManager em = this.dbConnectionManager.getTransactionalEntityManager();
+            this.dbConnectionManager.getTransactionControl().required(() -> {
+                DeploymentSpec ds = DeploymentSpecEntityMgr.findById(em, dsId);
+                if (ds != null && !ds.getMarkedForDeletion()) {
+                    log.info("Deployment of Deployment Specification '" + ds.getName() + "' changed, syncing it");
+                    this.conformService.startDsConformanceJob(em, ds, null);
+                }
+                return null;
+            });
+        } catch (ScopedWorkException e) {
+            // Most likely a sync of the deployment spec is already running
+            log.warn("Failed to sync Deployment Specification " + dsId + " (" + e.getCause().getMessage() + ")");
+        }
+    }
+
+    private static void setNotificationContext() {
+        SessionUtil.getInstance().setUser(RestConstants.OSC_DEFAULT_LOGIN);
+        JobPriority.setCurrent(JobPriority.NOTIFICATION);
+    }
+}
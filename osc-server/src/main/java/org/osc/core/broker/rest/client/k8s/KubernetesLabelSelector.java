@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.k8s;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A label selector made of comma separated equality (<tt>key=value</tt>, <tt>key==value</tt>) and existence
+ * (<tt>key</tt>) requirements, all of which must be met. Set based and inequality requirements are not supported.
+ */
+final class KubernetesLabelSelector {
+    private final Map<String, String> requirements;
+
+    private KubernetesLabelSelector(Map<String, String> requirements) {
+        this.requirements = requirements;
+    }
+
+    /**
+     * Parses a label selector.
+     *
+     * @return the selector, or null if it uses requirements which are not supported
+     */
+    static KubernetesLabelSelector parse(String selector) {
+        Map<String, String> requirements = new LinkedHashMap<>();
+        for (String requirement : selector.split(",")) {
+            requirement = requirement.trim();
+            if (requirement.isEmpty() || requirement.contains("!") || requirement.contains(" ")
+                    || requirement.contains("(")) {
+                return null;
+            }
+
+            int separator = requirement.indexOf('=');
+            if (separator < 0) {
+                requirements.put(requirement, null);
+            } else {
+                String key = requirement.substring(0, separator);
+                String value = requirement.substring(requirement.startsWith("==", separator) ? separator + 2
+                        : separator + 1);
+                if (key.isEmpty() || value.contains("=")) {
+                    return null;
+                }
+                requirements.put(key, value);
+            }
+        }
+        return requirements.isEmpty() ? null : new KubernetesLabelSelector(requirements);
+    }
+
+    /**
+     * Gets the required labels, mapped to null for existence requirements.
+     */
+    Map<String, String> getRequirements() {
+        return this.requirements;
+    }
+
+    boolean matches(Map<String, String> labels) {
+        if (labels == null) {
+            return false;
+        }
+        for (Map.Entry<String, String> requirement : this.requirements.entrySet()) {
+            if (!labels.containsKey(requirement.getKey())) {
+                return false;
+            }
+            if (requirement.getValue() != null && !requirement.getValue().equals(labels.get(requirement.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -40,8 +40,7 @@ public class KubernetesPodApi extends KubernetesApi {
             Pod pod = getKubernetesClient().pods().inNamespace(namespace).withName(name).get();
 
             if (pod != null) {
-                resultPod = new KubernetesPod(pod.getMetadata().getName(), pod.getMetadata().getNamespace(), pod.getMetadata().getUid(),
-                        pod.getSpec().getNodeName());
+                resultPod = toKubernetesPod(pod);
             }
 
         } catch (KubernetesClientException e) {
@@ -72,13 +71,7 @@ public class KubernetesPodApi extends KubernetesApi {
             }
 
             for (Pod pod : pods.getItems()) {
-                resultPodList.add(
-                        new KubernetesPod(
-                                pod.getMetadata().getName(),
-                                pod.getMetadata().getNamespace(),
-                                pod.getMetadata().getUid(),
-                                pod.getSpec().getNodeName())
-                        );
+                resultPodList.add(toKubernetesPod(pod));
             }
 
         } catch (KubernetesClientException e) {
@@ -116,4 +109,12 @@ public class KubernetesPodApi extends KubernetesApi {
         KubernetesPod pod = getPodsByName(namespace, name);
         return (pod == null || !pod.getUid().equals(uid)) ? null : pod;
     }
+
+    static KubernetesPod toKubernetesPod(Pod pod) {
+        return new KubernetesPod(
+                pod.getMetadata().getName(),
+                pod.getMetadata().getNamespace(),
+                pod.getMetadata().getUid(),
+                pod.getSpec().getNodeName());
+    }
 }
\ No newline at end of file
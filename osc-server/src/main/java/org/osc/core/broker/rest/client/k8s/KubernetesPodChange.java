@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.k8s;
+
+import java.util.Map;
+
+/**
+ * A pod added, removed, relabeled or bound to a node, as observed by a {@link KubernetesInformer}.
+ */
+public final class KubernetesPodChange {
+    private final KubernetesPod pod;
+    private final Map<String, String> oldLabels;
+    private final Map<String, String> newLabels;
+
+    KubernetesPodChange(KubernetesPod pod, Map<String, String> oldLabels, Map<String, String> newLabels) {
+        this.pod = pod;
+        this.oldLabels = oldLabels;
+        this.newLabels = newLabels;
+    }
+
+    /**
+     * @return the pod after the change, or before it if the pod was removed
+     */
+    public KubernetesPod getPod() {
+        return this.pod;
+    }
+
+    /**
+     * @return the labels of the pod before the change, null if the pod was added
+     */
+    public Map<String, String> getOldLabels() {
+        return this.oldLabels;
+    }
+
+    /**
+     * @return the labels of the pod after the change, null if the pod was removed
+     */
+    public Map<String, String> getNewLabels() {
+        return this.newLabels;
+    }
+
+    @Override
+    public String toString() {
+        return "KubernetesPodChange [pod=" + this.pod + ", oldLabels=" + this.oldLabels + ", newLabels="
+                + this.newLabels + "]";
+    }
+}
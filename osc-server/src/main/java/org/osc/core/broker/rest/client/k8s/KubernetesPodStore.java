@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.k8s;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A local copy of the pods of a cluster, indexed by uid and by label. Not thread safe.
+ */
+final class KubernetesPodStore {
+
+    private static final class Entry {
+        private final KubernetesPod pod;
+        private final Map<String, String> labels;
+
+        private Entry(KubernetesPod pod, Map<String, String> labels) {
+            this.pod = pod;
+            this.labels = labels;
+        }
+    }
+
+    private final Map<String, Entry> podsByUid = new HashMap<>();
+
+    // Pod uids by label key, and by label key and value
+    private final Map<String, Set<String>> uidsByLabelKey = new HashMap<>();
+    private final Map<String, Set<String>> uidsByLabel = new HashMap<>();
+
+    /**
+     * Adds or replaces a pod.
+     *
+     * @return the labels of the replaced pod, or null if the pod is new
+     */
+    Map<String, String> put(KubernetesPod pod, Map<String, String> labels) {
+        Map<String, String> podLabels = labels == null ? Collections.emptyMap() : new HashMap<>(labels);
+        Entry previous = this.podsByUid.put(pod.getUid(), new Entry(pod, podLabels));
+        if (previous != null) {
+            unindex(pod.getUid(), previous.labels);
+        }
+        index(pod.getUid(), podLabels);
+        return previous == null ? null : previous.labels;
+    }
+
+    /**
+     * Removes a pod.
+     *
+     * @return the labels of the removed pod, or null if the pod is unknown
+     */
+    Map<String, String> remove(String uid) {
+        Entry previous = this.podsByUid.remove(uid);
+        if (previous == null) {
+            return null;
+        }
+        unindex(uid, previous.labels);
+        return previous.labels;
+    }
+
+    Set<String> getUids() {
+        return new HashSet<>(this.podsByUid.keySet());
+    }
+
+    KubernetesPod get(String uid) {
+        Entry entry = this.podsByUid.get(uid);
+        return entry == null ? null : entry.pod;
+    }
+
+    Map<String, String> getLabels(String uid) {
+        Entry entry = this.podsByUid.get(uid);
+        return entry == null ? null : entry.labels;
+    }
+
+    /**
+     * Gets the pods matching the given selector.
+     */
+    List<KubernetesPod> getByLabel(KubernetesLabelSelector selector) {
+        // Start from the most selective requirement and check the others on its pods
+        Set<String> candidates = null;
+        for (Map.Entry<String, String> requirement : selector.getRequirements().entrySet()) {
+            Set<String> uids = requirement.getValue() == null ? this.uidsByLabelKey.get(requirement.getKey())
+                    : this.uidsByLabel.get(labelIndexKey(requirement.getKey(), requirement.getValue()));
+            if (uids == null) {
+                return new ArrayList<>();
+            }
+            if (candidates == null || uids.size() < candidates.size()) {
+                candidates = uids;
+            }
+        }
+
+        List<KubernetesPod> pods = new ArrayList<>();
+        for (String uid : candidates) {
+            Entry entry = this.podsByUid.get(uid);
+            if (selector.matches(entry.labels)) {
+                pods.add(entry.pod);
+            }
+        }
+        return pods;
+    }
+
+    private void index(String uid, Map<String, String> labels) {
+        for (Map.Entry<String, String> label : labels.entrySet()) {
+            this.uidsByLabelKey.computeIfAbsent(label.getKey(), k -> new HashSet<>()).add(uid);
+            this.uidsByLabel.computeIfAbsent(labelIndexKey(label.getKey(), label.getValue()), k -> new HashSet<>())
+                    .add(uid);
+        }
+    }
+
+    private void unindex(String uid, Map<String, String> labels) {
+        for (Map.Entry<String, String> label : labels.entrySet()) {
+            removeFromIndex(this.uidsByLabelKey, label.getKey(), uid);
+            removeFromIndex(this.uidsByLabel, labelIndexKey(label.getKey(), label.getValue()), uid);
+        }
+    }
+
+    private static void removeFromIndex(Map<String, Set<String>> index, String key, String uid) {
+        Set<String> uids = index.get(key);
+        if (uids != null && uids.remove(uid) && uids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static String labelIndexKey(String key, String value) {
+        return key + "=" + value;
+    }
+}
@@ -0,0 +1,321 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.openstack.discovery;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openstack4j.model.network.Network;
+import org.openstack4j.model.network.Subnet;
+import org.osc.core.broker.rest.client.openstack.discovery.VmDiscoveryCache.PortInfo;
+import org.osc.core.broker.rest.client.openstack.discovery.VmDiscoveryCache.VmInfo;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationKeyType;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationObjectType;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.ParsedNotification;
+
+/**
+ * The VMs, networks and subnets discovered on one Virtualization Connector, shared by the jobs syncing it.
+ * <p>
+ * Entries are invalidated by the OpenStack notifications received for the Virtualization Connector and expire after
+ * a time to live regardless, in case notifications were missed. A lookup returning null only means the object is not
+ * cached, callers ask OpenStack then.
+ * <p>
+ * Callers read the clock with {@link #now()} before asking OpenStack and pass it along when caching the answer. An
+ * answer is dropped if the object was invalidated since, as it may predate the change notified.
+ */
+public class OpenstackInventoryCache {
+
+    public static final long DEFAULT_TTL_MS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final String MAC_ADDRESS_KEY = "mac_address";
+
+    private static volatile long ttlMs = DEFAULT_TTL_MS;
+
+    private static final ConcurrentMap<Long, OpenstackInventoryCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Objects of one kind by id, with the time each was last invalidated.
+     */
+    private final class Entries<V> {
+        private final ConcurrentMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Long> invalidations = new ConcurrentHashMap<>();
+        private volatile long invalidatedAll;
+
+        /*
+         * Answers loaded before the cache was created may predate notifications received by a previous cache of the
+         * Virtualization Connector. Clock values are only compared by difference, so there is no smallest value to
+         * start from.
+         */
+        private Entries(long created) {
+            this.invalidatedAll = created - 1;
+        }
+
+        private V get(String id, long now) {
+            Entry<V> entry = this.entries.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.expires >= 0) {
+                this.entries.remove(id, entry);
+                return null;
+            }
+            return entry.value;
+        }
+
+        private boolean put(String id, V value, long loadedSince, long now) {
+            if (isInvalidatedSince(id, loadedSince)) {
+                return false;
+            }
+            Entry<V> entry = new Entry<>(value, now + OpenstackInventoryCache.this.ttlNanos);
+            this.entries.put(id, entry);
+            // An invalidation racing with the put may have missed the entry
+            if (isInvalidatedSince(id, loadedSince)) {
+                this.entries.remove(id, entry);
+                return false;
+            }
+            return true;
+        }
+
+        private boolean isInvalidatedSince(String id, long since) {
+            if (this.invalidatedAll - since >= 0) {
+                return true;
+            }
+            Long invalidated = this.invalidations.get(id);
+            return invalidated != null && invalidated - since >= 0;
+        }
+
+        private V invalidate(String id, long now) {
+            this.invalidations.put(id, now);
+            Entry<V> entry = this.entries.remove(id);
+            return entry != null ? entry.value : null;
+        }
+
+        private void invalidateAll(long now) {
+            this.invalidatedAll = now;
+            this.entries.clear();
+        }
+
+        /*
+         * Answers loaded before the time to live are dropped anyway, older invalidations no longer matter.
+         */
+        private void prune(long now) {
+            this.entries.values().removeIf(entry -> now - entry.expires >= 0);
+            long ttl = OpenstackInventoryCache.this.ttlNanos;
+            this.invalidations.values().removeIf(invalidated -> now - invalidated > ttl);
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expires;
+
+        private Entry(V value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+
+    private final LongSupplier clock;
+    private final long ttlNanos;
+
+    private final Entries<VmInfo> vms;
+    private final Entries<Network> networks;
+    private final Entries<Subnet> subnets;
+
+    // Port id and mac address to the id of the VM the port is attached to, for the cached VMs
+    private final ConcurrentMap<String, String> portIdToVmId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> macAddressToVmId = new ConcurrentHashMap<>();
+
+    private volatile long lastPruned;
+
+    OpenstackInventoryCache(LongSupplier clock, long ttlMs) {
+        this.clock = clock;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        long created = clock.getAsLong();
+        this.vms = new Entries<>(created);
+        this.networks = new Entries<>(created);
+        this.subnets = new Entries<>(created);
+        this.lastPruned = created;
+    }
+
+    /**
+     * Gets the cache shared by the jobs of the given Virtualization Connector.
+     */
+    public static OpenstackInventoryCache getInventoryCache(Long vcId) {
+        return caches.computeIfAbsent(vcId, id -> new OpenstackInventoryCache(System::nanoTime, ttlMs));
+    }
+
+    /**
+     * Drops the cache of a Virtualization Connector, once its notifications are no longer received.
+     */
+    public static void removeInventoryCache(Long vcId) {
+        caches.remove(vcId);
+    }
+
+    /**
+     * Sets the time to live of the cached objects, in milliseconds. A value of zero or less disables caching.
+     */
+    public static void setTtl(String value) {
+        if (value == null) {
+            return;
+        }
+        ttlMs = Long.parseLong(value);
+        caches.clear();
+    }
+
+    public long now() {
+        return this.clock.getAsLong();
+    }
+
+    public VmInfo getVm(String vmId) {
+        return this.vms.get(vmId, now());
+    }
+
+    public void putVm(String vmId, VmInfo vmInfo, long loadedSince) {
+        if (!isEnabled()) {
+            return;
+        }
+        long now = prune();
+        if (this.vms.put(vmId, vmInfo, loadedSince, now)) {
+            for (PortInfo port : vmInfo.getMacAddressToPortMap().values()) {
+                this.portIdToVmId.put(port.getElementId(), vmId);
+                this.macAddressToVmId.put(port.getMacAddress(), vmId);
+            }
+        }
+    }
+
+    public Network getNetwork(String networkId) {
+        return this.networks.get(networkId, now());
+    }
+
+    public void putNetwork(Network network, long loadedSince) {
+        if (isEnabled()) {
+            this.networks.put(network.getId(), network, loadedSince, prune());
+        }
+    }
+
+    public Subnet getSubnet(String subnetId) {
+        return this.subnets.get(subnetId, now());
+    }
+
+    public void putSubnet(Subnet subnet, long loadedSince) {
+        if (isEnabled()) {
+            this.subnets.put(subnet.getId(), subnet, loadedSince, prune());
+        }
+    }
+
+    /**
+     * Invalidates the objects a notification may have changed.
+     */
+    public void onNotification(OsNotificationObjectType objectType, ParsedNotification notification) {
+        long now = now();
+        switch (objectType) {
+        case VM:
+            invalidateVm(notification.getProperty(OsNotificationKeyType.INSTANCE_ID), now);
+            break;
+        case PORT:
+            // The VM the port is attached to, or was attached to according to the cache
+            invalidateVm(notification.getProperty(OsNotificationKeyType.DEVICE_ID), now);
+            invalidateVm(getVmId(this.portIdToVmId, notification.getProperty(OsNotificationKeyType.PORT_ID)), now);
+            invalidateVm(getVmId(this.macAddressToVmId, notification.getProperty(MAC_ADDRESS_KEY)), now);
+            break;
+        case NETWORK:
+            // Updates refer to the network as 'id', which cannot be told apart from other ids in the message
+            String networkId = notification.getProperty(OsNotificationKeyType.NETWORK_ID);
+            if (networkId != null) {
+                this.networks.invalidate(networkId, now);
+            } else {
+                this.networks.invalidateAll(now);
+            }
+            break;
+        case SUBNET:
+            this.subnets.invalidateAll(now);
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * @return whether notifications of the given type may invalidate cached objects or answers being loaded
+     */
+    public boolean isAffectedBy(OsNotificationObjectType objectType) {
+        switch (objectType) {
+        case VM:
+        case PORT:
+        case NETWORK:
+        case SUBNET:
+            return isEnabled();
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Invalidates everything, for instance after notifications may have been missed.
+     */
+    public void invalidateAll() {
+        long now = now();
+        this.vms.invalidateAll(now);
+        this.networks.invalidateAll(now);
+        this.subnets.invalidateAll(now);
+        this.portIdToVmId.clear();
+        this.macAddressToVmId.clear();
+    }
+
+    private void invalidateVm(String vmId, long now) {
+        if (vmId == null) {
+            return;
+        }
+        VmInfo vmInfo = this.vms.invalidate(vmId, now);
+        if (vmInfo != null) {
+            for (PortInfo port : vmInfo.getMacAddressToPortMap().values()) {
+                this.portIdToVmId.remove(port.getElementId(), vmId);
+                this.macAddressToVmId.remove(port.getMacAddress(), vmId);
+            }
+        }
+    }
+
+    private static String getVmId(ConcurrentMap<String, String> index, String key) {
+        return key != null ? index.get(key) : null;
+    }
+
+    private boolean isEnabled() {
+        return this.ttlNanos > 0;
+    }
+
+    private long prune() {
+        long now = now();
+        if (now - this.lastPruned > this.ttlNanos) {
+            this.lastPruned = now;
+            this.vms.prune(now);
+            this.networks.prune(now);
+            this.subnets.prune(now);
+            this.portIdToVmId.values().removeIf(vmId -> !this.vms.entries.containsKey(vmId));
+            this.macAddressToVmId.values().removeIf(vmId -> !this.vms.entries.containsKey(vmId));
+        }
+        return now;
+    }
+
+    @Override
+    public String toString() {
+        return "OpenstackInventoryCache [vms=" + this.vms.entries.size() + ", networks="
+                + this.networks.entries.size() + ", subnets=" + this.subnets.entries.size() + "]";
+    }
+}
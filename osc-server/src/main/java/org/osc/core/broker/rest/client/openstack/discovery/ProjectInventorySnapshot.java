@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.openstack.discovery;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstack4j.model.compute.Server;
+import org.openstack4j.model.network.Network;
+import org.openstack4j.model.network.Port;
+import org.openstack4j.model.network.Subnet;
+import org.osc.core.broker.rest.client.openstack.openstack4j.Openstack4JNeutron;
+import org.osc.core.broker.rest.client.openstack.openstack4j.Openstack4JNova;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+
+/**
+ * The servers, ports, networks and subnets of one project in one region, listed at once so that checking many
+ * objects costs a few list calls rather than a call per object.
+ *
+ * A snapshot is only as recent as its listing. An object missing from it may have been created since, callers look
+ * it up individually before concluding it does not exist.
+ */
+public class ProjectInventorySnapshot {
+
+    private final Map<String, Server> serversById = new HashMap<>();
+    private final ListMultimap<String, Port> portsByDeviceId = ArrayListMultimap.create();
+    private final Map<String, Network> networksById = new HashMap<>();
+    private final Map<String, Subnet> subnetsById = new HashMap<>();
+
+    ProjectInventorySnapshot(List<? extends Server> servers, List<? extends Port> ports,
+            List<? extends Network> networks, List<? extends Subnet> subnets) {
+        servers.forEach(server -> this.serversById.put(server.getId(), server));
+        for (Port port : ports) {
+            if (port.getDeviceId() != null) {
+                this.portsByDeviceId.put(port.getDeviceId(), port);
+            }
+        }
+        networks.forEach(network -> this.networksById.put(network.getId(), network));
+        subnets.forEach(subnet -> this.subnetsById.put(subnet.getId(), subnet));
+    }
+
+    static ProjectInventorySnapshot load(Openstack4JNova nova, Openstack4JNeutron neutron, String region,
+            String projectId) {
+        return new ProjectInventorySnapshot(nova.listServersByProject(region, projectId),
+                neutron.listPortsByProject(region, projectId), neutron.listNetworkByProject(region, projectId),
+                neutron.listSubnetByProject(region, projectId));
+    }
+
+    public Server getServer(String serverId) {
+        return this.serversById.get(serverId);
+    }
+
+    /**
+     * @return the ports attached to the server
+     */
+    public List<Port> getServerPorts(String serverId) {
+        return Collections.unmodifiableList(this.portsByDeviceId.get(serverId));
+    }
+
+    public Network getNetwork(String networkId) {
+        return this.networksById.get(networkId);
+    }
+
+    public Subnet getSubnet(String subnetId) {
+        return this.subnetsById.get(subnetId);
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectInventorySnapshot [servers=" + this.serversById.size() + ", ports=" + this.portsByDeviceId.size()
+                + ", networks=" + this.networksById.size() + ", subnets=" + this.subnetsById.size() + "]";
+    }
+}
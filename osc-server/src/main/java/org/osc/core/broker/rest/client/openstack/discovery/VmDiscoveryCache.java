@@ -24,18 +24,28 @@ import java.util.Map;
 
 import org.openstack4j.model.compute.InterfaceAttachment;
 import org.openstack4j.model.compute.Server;
+import org.openstack4j.model.network.IP;
+import org.openstack4j.model.network.Network;
+import org.openstack4j.model.network.Port;
+import org.openstack4j.model.network.Subnet;
 import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector;
 import org.osc.core.broker.rest.client.openstack.openstack4j.Endpoint;
+import org.osc.core.broker.rest.client.openstack.openstack4j.Openstack4JNeutron;
 import org.osc.core.broker.rest.client.openstack.openstack4j.Openstack4JNova;
 import org.osc.core.broker.service.api.server.EncryptionException;
 import org.osc.sdk.controller.element.NetworkElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.Maps;
 
 public class VmDiscoveryCache {
 
+    private static final Logger log = LoggerFactory.getLogger(VmDiscoveryCache.class);
+
     private VirtualizationConnector vc;
     private String project;
+    private String snapshotProjectId;
 
     public static class PortInfo implements NetworkElement {
         private VmInfo vm;
@@ -82,7 +92,7 @@ public class VmDiscoveryCache {
         }
     }
 
-    public class VmInfo {
+    public static class VmInfo {
         private String vmId;
         private String projectId;
         private String name;
@@ -110,14 +120,40 @@ public class VmDiscoveryCache {
     }
 
     private Map<String, VmInfo> vmIdToVmMap = Maps.newConcurrentMap();
-    private Map<String, PortInfo> osPortIdToPortMap = new HashMap<>();
-    private Map<String, PortInfo> macAddressToPortMap = new HashMap<>();
+    private Map<String, PortInfo> osPortIdToPortMap = Maps.newConcurrentMap();
+    private Map<String, PortInfo> macAddressToPortMap = Maps.newConcurrentMap();
+
+    // Region to snapshot of the snapshot project, null if the region could not be listed
+    private final Map<String, ProjectInventorySnapshot> regionToSnapshotMap = new HashMap<>();
+    private final Map<String, Long> regionToSnapshotTimeMap = new HashMap<>();
+
+    private final OpenstackInventoryCache inventoryCache;
 
     private Openstack4JNova novaApi;
 
     public VmDiscoveryCache(VirtualizationConnector vc, String project) throws IOException, EncryptionException {
+        this(vc, project, null, null);
+    }
+
+    /**
+     * Creates a cache sharing the objects it discovers with the other jobs of the Virtualization Connector through
+     * its {@link OpenstackInventoryCache}.
+     *
+     * @param snapshotProjectId
+     *            if not null, the servers, ports, networks and subnets of this project are listed once per region
+     *            on first use and looked up from there. Worthwhile when many objects of the project are discovered.
+     */
+    public VmDiscoveryCache(VirtualizationConnector vc, String project, String snapshotProjectId)
+            throws IOException, EncryptionException {
+        this(vc, project, snapshotProjectId, OpenstackInventoryCache.getInventoryCache(vc.getId()));
+    }
+
+    private VmDiscoveryCache(VirtualizationConnector vc, String project, String snapshotProjectId,
+            OpenstackInventoryCache inventoryCache) throws IOException, EncryptionException {
         this.vc = vc;
         this.project = project;
+        this.snapshotProjectId = snapshotProjectId;
+        this.inventoryCache = inventoryCache;
         this.novaApi = new Openstack4JNova(new Endpoint(vc, project));
     }
 
@@ -130,9 +166,43 @@ public class VmDiscoveryCache {
             return vmInfo;
         }
 
+        vmInfo = this.inventoryCache != null ? this.inventoryCache.getVm(vmId) : null;
+        if (vmInfo != null) {
+            for (PortInfo portInfo : vmInfo.macAddressToPortMap.values()) {
+                this.osPortIdToPortMap.put(portInfo.osPortId, portInfo);
+                this.macAddressToPortMap.put(portInfo.macAddress, portInfo);
+            }
+            this.vmIdToVmMap.put(vmId, vmInfo);
+            return vmInfo;
+        }
+
         vmInfo = new VmInfo();
         vmInfo.vmId = vmId;
 
+        ProjectInventorySnapshot snapshot = getSnapshot(region);
+        Server server = snapshot != null ? snapshot.getServer(vmId) : null;
+        if (server != null) {
+            vmInfo.projectId = server.getTenantId();
+            vmInfo.name = server.getName();
+            vmInfo.host = server.getHypervisorHostname();
+            for (Port port : snapshot.getServerPorts(vmId)) {
+                if (port.getMacAddress() == null) {
+                    continue;
+                }
+
+                PortInfo portInfo = addPort(vmInfo, port.getMacAddress(), port.getNetworkId(), port.getId());
+                for (IP ip : port.getFixedIps()) {
+                    portInfo.portIPs.add(ip.getIpAddress());
+                }
+            }
+            this.vmIdToVmMap.put(vmId, vmInfo);
+            if (this.inventoryCache != null) {
+                this.inventoryCache.putVm(vmId, vmInfo, getSnapshotTime(region));
+            }
+            return vmInfo;
+        }
+
+        long loadedSince = now();
         try {
             Server vm = this.novaApi.getServer(region, vmId);
             if (vm == null) {
@@ -148,21 +218,15 @@ public class VmDiscoveryCache {
                     continue;
                 }
 
-                PortInfo portInfo = new PortInfo();
-                portInfo.vm = vmInfo;
-                portInfo.macAddress = infs.getMacAddr();
-                portInfo.osNetworkId = infs.getNetId();
-                portInfo.osPortId = infs.getPortId();
+                PortInfo portInfo = addPort(vmInfo, infs.getMacAddr(), infs.getNetId(), infs.getPortId());
 
                 // add IP addresses for give port
                 infs.getFixedIps().forEach(ip -> portInfo.portIPs.add(ip.getIpAddress()));
-
-                vmInfo.macAddressToPortMap.put(infs.getMacAddr(), portInfo);
-
-                this.osPortIdToPortMap.put(portInfo.osPortId, portInfo);
-                this.macAddressToPortMap.put(portInfo.macAddress, portInfo);
             }
             this.vmIdToVmMap.put(vmId, vmInfo);
+            if (this.inventoryCache != null) {
+                this.inventoryCache.putVm(vmId, vmInfo, loadedSince);
+            }
         } finally {
             this.novaApi.close();
         }
@@ -170,6 +234,106 @@ public class VmDiscoveryCache {
         return vmInfo;
     }
 
+    private PortInfo addPort(VmInfo vmInfo, String macAddress, String osNetworkId, String osPortId) {
+        PortInfo portInfo = new PortInfo();
+        portInfo.vm = vmInfo;
+        portInfo.macAddress = macAddress;
+        portInfo.osNetworkId = osNetworkId;
+        portInfo.osPortId = osPortId;
+
+        vmInfo.macAddressToPortMap.put(macAddress, portInfo);
+
+        this.osPortIdToPortMap.put(portInfo.osPortId, portInfo);
+        this.macAddressToPortMap.put(portInfo.macAddress, portInfo);
+        return portInfo;
+    }
+
+    /**
+     * Looks up a network in the shared cache, then in the snapshot of the snapshot project if any, then asks Neutron
+     * on behalf of the given project.
+     *
+     * @return the network, or null if it does not exist
+     */
+    public Network getNetwork(String region, String networkId, String projectName) throws Exception {
+        Network network = this.inventoryCache != null ? this.inventoryCache.getNetwork(networkId) : null;
+        if (network != null) {
+            return network;
+        }
+
+        ProjectInventorySnapshot snapshot = getSnapshot(region);
+        network = snapshot != null ? snapshot.getNetwork(networkId) : null;
+        long loadedSince = network != null ? getSnapshotTime(region) : now();
+        if (network == null) {
+            try (Openstack4JNeutron neutron = new Openstack4JNeutron(new Endpoint(this.vc, projectName))) {
+                network = neutron.getNetworkById(region, networkId);
+            }
+        }
+        if (network != null && this.inventoryCache != null) {
+            this.inventoryCache.putNetwork(network, loadedSince);
+        }
+        return network;
+    }
+
+    /**
+     * Looks up a subnet in the shared cache, then in the snapshot of the snapshot project if any, then asks Neutron
+     * on behalf of the given project.
+     *
+     * @return the subnet, or null if it does not exist
+     */
+    public Subnet getSubnet(String region, String subnetId, String projectName) throws Exception {
+        Subnet subnet = this.inventoryCache != null ? this.inventoryCache.getSubnet(subnetId) : null;
+        if (subnet != null) {
+            return subnet;
+        }
+
+        ProjectInventorySnapshot snapshot = getSnapshot(region);
+        subnet = snapshot != null ? snapshot.getSubnet(subnetId) : null;
+        long loadedSince = subnet != null ? getSnapshotTime(region) : now();
+        if (subnet == null) {
+            try (Openstack4JNeutron neutron = new Openstack4JNeutron(new Endpoint(this.vc, projectName))) {
+                subnet = neutron.getSubnetById(region, subnetId);
+            }
+        }
+        if (subnet != null && this.inventoryCache != null) {
+            this.inventoryCache.putSubnet(subnet, loadedSince);
+        }
+        return subnet;
+    }
+
+    private long now() {
+        return this.inventoryCache != null ? this.inventoryCache.now() : 0;
+    }
+
+    private synchronized long getSnapshotTime(String region) {
+        return this.regionToSnapshotTimeMap.get(region);
+    }
+
+    /*
+     * Loading holds the lock, tasks needing the same region wait for the listing rather than fetching objects one by
+     * one meanwhile.
+     */
+    private synchronized ProjectInventorySnapshot getSnapshot(String region) {
+        if (this.snapshotProjectId == null || region == null) {
+            return null;
+        }
+        if (this.regionToSnapshotMap.containsKey(region)) {
+            return this.regionToSnapshotMap.get(region);
+        }
+
+        ProjectInventorySnapshot snapshot = null;
+        this.regionToSnapshotTimeMap.put(region, now());
+        try (Openstack4JNova nova = new Openstack4JNova(new Endpoint(this.vc, this.project));
+                Openstack4JNeutron neutron = new Openstack4JNeutron(new Endpoint(this.vc, this.project))) {
+            snapshot = ProjectInventorySnapshot.load(nova, neutron, region, this.snapshotProjectId);
+            log.info("Listed project " + this.snapshotProjectId + " in region " + region + ": " + snapshot);
+        } catch (Exception e) {
+            log.warn("Failed to list project " + this.snapshotProjectId + " in region " + region
+                    + ", objects are discovered one by one", e);
+        }
+        this.regionToSnapshotMap.put(region, snapshot);
+        return snapshot;
+    }
+
     @Override
     public String toString() {
         return "VmDiscoveryCache [vc=" + this.vc + ", project=" + this.project + ", vmMap=" + this.vmIdToVmMap + "]";
@@ -177,6 +341,8 @@ public class VmDiscoveryCache {
 
     public synchronized void clear() {
         this.vmIdToVmMap.clear();
+        this.regionToSnapshotMap.clear();
+        this.regionToSnapshotTimeMap.clear();
     }
 
 }
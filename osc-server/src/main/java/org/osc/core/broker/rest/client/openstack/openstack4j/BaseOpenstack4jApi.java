@@ -20,6 +20,7 @@ import java.io.Closeable;
 import java.io.IOException;
 
 import org.openstack4j.api.OSClient;
+import org.openstack4j.model.identity.v3.Token;
 
 /**
  * Designed to be a base class for all openstack4j API wrappers in the code.
@@ -29,17 +30,36 @@ public abstract class BaseOpenstack4jApi implements Closeable {
     protected Endpoint endPoint;
     KeystoneProvider keystoneProvider;
 
+    private OSClient.OSClientV3 session;
+    private Token sessionToken;
+
     BaseOpenstack4jApi(Endpoint endPoint) {
         this.endPoint = endPoint;
         this.keystoneProvider = KeystoneProvider.getInstance();
     }
 
     public OSClient.OSClientV3 getOs() {
-        return this.keystoneProvider.getAvailableSession(this.endPoint);
+        checkSessionToken();
+        this.session = this.keystoneProvider.getAvailableSession(this.endPoint);
+        this.sessionToken = this.session.getToken();
+        return this.session;
     }
 
+    /**
+     * Releases this API. The Keystone token stays cached for the next API using the same endpoint.
+     */
     @Override
     public void close() throws IOException {
-        this.keystoneProvider.clearConnectionMap(this.endPoint);
+        checkSessionToken();
+        this.session = null;
+    }
+
+    /*
+     * openstack4j authenticates again when Keystone rejects a token, the cached token must not be handed out again
+     */
+    private void checkSessionToken() {
+        if (this.session != null && this.session.getToken() != this.sessionToken) {
+            this.keystoneProvider.invalidateToken(this.endPoint, this.sessionToken);
+        }
     }
 }
@@ -19,7 +19,8 @@ package org.osc.core.broker.rest.client.openstack.openstack4j;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.openstack4j.api.OSClient;
 import org.openstack4j.api.client.IOSClientBuilder;
@@ -31,55 +32,62 @@ import org.openstack4j.openstack.OSFactory;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Provides authenticated openstack4j clients. Tokens are cached per endpoint, that is per Virtualization Connector,
+ * project and credentials, and reused across threads until shortly before they expire.
+ */
 public final class KeystoneProvider {
 
     private static final Logger log = LoggerFactory.getLogger(KeystoneProvider.class);
 
     private static final String KEYSTONE_VERSION = "v3";
 
-    private static KeystoneProvider instance = null;
-    private static HashMap<Endpoint, Token> connectionsMap = new HashMap<>();
+    private static final KeystoneProvider instance = new KeystoneProvider();
+
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("isc-keystone-token-refresh-%d").setDaemon(true).build());
+
+    private final KeystoneTokenCache<Endpoint> tokenCache = new KeystoneTokenCache<>(this::authenticate,
+            this.refreshExecutor, System::currentTimeMillis);
 
     private KeystoneProvider() {
     }
 
     public static KeystoneProvider getInstance() {
-        if (instance == null) {
-            instance = new KeystoneProvider();
-        }
         return instance;
     }
 
     OSClient.OSClientV3 getAvailableSession(Endpoint endpoint) {
+        Token token = this.tokenCache.get(endpoint);
+        return OSFactory.clientFromToken(token, Facing.PUBLIC, getConfig(endpoint));
+    }
 
-        OSClient.OSClientV3 localOs;
-        Config config = Config.newConfig().withSSLContext(endpoint.getSslContext()).withHostnameVerifier((hostname, session) -> true);
-        if (connectionsMap.containsKey(endpoint)) {
-            localOs = OSFactory.clientFromToken(connectionsMap.get(endpoint), Facing.PUBLIC, config);
-        } else {
-            String endpointURL;
-            try {
-                endpointURL = prepareEndpointURL(endpoint);
-            } catch (URISyntaxException | MalformedURLException e) {
-                throw new RuntimeException(e.getMessage(), e);
-            }
-
-            // LOGGER
-            OSFactory.enableHttpLoggingFilter(log.isDebugEnabled() || log.isInfoEnabled());
-
-            Identifier domainIdentifier = Identifier.byId(endpoint.getDomainId());
-
-            IOSClientBuilder.V3 keystoneV3Builder = OSFactory.builderV3().perspective(Facing.PUBLIC)
-                    .endpoint(endpointURL)
-                    .credentials(endpoint.getUser(), endpoint.getPassword(), domainIdentifier)
-                    .scopeToProject(Identifier.byName(endpoint.getProject()), domainIdentifier)
-                    .withConfig(config);
-
-            localOs = keystoneV3Builder.authenticate();
-            connectionsMap.put(endpoint, localOs.getToken());
+    private Token authenticate(Endpoint endpoint) {
+        String endpointURL;
+        try {
+            endpointURL = prepareEndpointURL(endpoint);
+        } catch (URISyntaxException | MalformedURLException e) {
+            throw new RuntimeException(e.getMessage(), e);
         }
 
-        return localOs;
+        // LOGGER
+        OSFactory.enableHttpLoggingFilter(log.isDebugEnabled() || log.isInfoEnabled());
+
+        Identifier domainIdentifier = Identifier.byId(endpoint.getDomainId());
+
+        IOSClientBuilder.V3 keystoneV3Builder = OSFactory.builderV3().perspective(Facing.PUBLIC)
+                .endpoint(endpointURL)
+                .credentials(endpoint.getUser(), endpoint.getPassword(), domainIdentifier)
+                .scopeToProject(Identifier.byName(endpoint.getProject()), domainIdentifier)
+                .withConfig(getConfig(endpoint));
+
+        return keystoneV3Builder.authenticate().getToken();
+    }
+
+    private static Config getConfig(Endpoint endpoint) {
+        return Config.newConfig().withSSLContext(endpoint.getSslContext()).withHostnameVerifier((hostname, session) -> true);
     }
 
     private String prepareEndpointURL(Endpoint endPoint) throws URISyntaxException, MalformedURLException {
@@ -88,8 +96,12 @@ public final class KeystoneProvider {
         return uri.toURL().toString();
     }
 
-    void clearConnectionMap(Endpoint endpoint) {
-        connectionsMap.remove(endpoint);
+    /**
+     * Drops the cached token of the endpoint if it is still the given one, for instance when Keystone rejected it.
+     * The next session authenticates again.
+     */
+    void invalidateToken(Endpoint endpoint, Token token) {
+        this.tokenCache.invalidate(endpoint, token);
     }
 
 }
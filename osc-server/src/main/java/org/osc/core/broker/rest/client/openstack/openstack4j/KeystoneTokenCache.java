@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.openstack.openstack4j;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.openstack4j.model.identity.v3.Token;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches Keystone tokens until shortly before they expire.
+ * <p>
+ * Concurrent requests for a key without a usable token share a single authentication. A token close to its expiry
+ * is still handed out while a new one is requested in the background, so busy keys do not wait on Keystone.
+ * <p>
+ * The lifetime of a token is taken from its <tt>issued_at</tt> and <tt>expires_at</tt> and counted from when it
+ * was received, so the clock of the Keystone server does not need to agree with ours.
+ */
+final class KeystoneTokenCache<K> {
+
+    private static final Logger log = LoggerFactory.getLogger(KeystoneTokenCache.class);
+
+    // Tokens are not used this close to their expiry
+    static final long EXPIRY_MARGIN_MS = TimeUnit.MINUTES.toMillis(1);
+    // Tokens are refreshed in the background this close to their expiry
+    static final long REFRESH_MARGIN_MS = TimeUnit.MINUTES.toMillis(5);
+    // For tokens which do not tell when they expire
+    static final long DEFAULT_LIFETIME_MS = TimeUnit.MINUTES.toMillis(30);
+
+    private static final class CachedToken {
+        private final Token token;
+        private final long expiresAtMs;
+
+        private CachedToken(Token token, long receivedAtMs) {
+            this.token = token;
+            Date issuedAt = token.getIssuedAt();
+            Date expires = token.getExpires();
+            long lifetimeMs = issuedAt != null && expires != null ? expires.getTime() - issuedAt.getTime()
+                    : DEFAULT_LIFETIME_MS;
+            this.expiresAtMs = receivedAtMs + lifetimeMs;
+        }
+    }
+
+    private final Function<K, Token> authenticator;
+    private final Executor refreshExecutor;
+    private final LongSupplier clock;
+
+    private final ConcurrentMap<K, CompletableFuture<CachedToken>> tokens = new ConcurrentHashMap<>();
+    private final Set<K> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param authenticator
+     *            obtains a new token for a key
+     * @param refreshExecutor
+     *            runs background refreshes
+     * @param clock
+     *            the current time in milliseconds
+     */
+    KeystoneTokenCache(Function<K, Token> authenticator, Executor refreshExecutor, LongSupplier clock) {
+        this.authenticator = authenticator;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+    }
+
+    /**
+     * Gets a usable token for the key, authenticating if there is none.
+     *
+     * @throws RuntimeException
+     *             if the authentication fails. Callers waiting on the same authentication all get the failure,
+     *             the next request tries again.
+     */
+    Token get(K key) {
+        while (true) {
+            CompletableFuture<CachedToken> future = this.tokens.get(key);
+            if (future == null) {
+                CompletableFuture<CachedToken> authentication = new CompletableFuture<>();
+                future = this.tokens.putIfAbsent(key, authentication);
+                if (future == null) {
+                    future = authentication;
+                    authenticate(key, authentication);
+                }
+            }
+
+            CachedToken cachedToken;
+            try {
+                cachedToken = future.join();
+            } catch (CompletionException e) {
+                this.tokens.remove(key, future);
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+
+            long remainingMs = cachedToken.expiresAtMs - this.clock.getAsLong();
+            if (remainingMs > EXPIRY_MARGIN_MS) {
+                if (remainingMs <= REFRESH_MARGIN_MS) {
+                    refreshInBackground(key, future);
+                }
+                return cachedToken.token;
+            }
+
+            // Expired, the first caller to get here authenticates again
+            this.tokens.remove(key, future);
+        }
+    }
+
+    /**
+     * Drops the token of a key if it is still the given one, the next request authenticates again.
+     */
+    void invalidate(K key, Token token) {
+        CompletableFuture<CachedToken> future = this.tokens.get(key);
+        if (future != null && future.isDone() && !future.isCompletedExceptionally()
+                && future.join().token == token) {
+            this.tokens.remove(key, future);
+        }
+    }
+
+    int size() {
+        return this.tokens.size();
+    }
+
+    private void authenticate(K key, CompletableFuture<CachedToken> authentication) {
+        try {
+            authentication.complete(new CachedToken(this.authenticator.apply(key), this.clock.getAsLong()));
+        } catch (RuntimeException e) {
+            authentication.completeExceptionally(e);
+        }
+        removeExpired();
+    }
+
+    private void refreshInBackground(K key, CompletableFuture<CachedToken> current) {
+        if (!this.refreshing.add(key)) {
+            return;
+        }
+
+        try {
+            this.refreshExecutor.execute(() -> {
+                try {
+                    CachedToken refreshed = new CachedToken(this.authenticator.apply(key), this.clock.getAsLong());
+                    // Unless invalidated or replaced in the meantime
+                    this.tokens.replace(key, current, CompletableFuture.completedFuture(refreshed));
+                } catch (RuntimeException e) {
+                    log.warn("Failed to refresh Keystone token ahead of its expiry, the current one is kept", e);
+                } finally {
+                    this.refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.refreshing.remove(key);
+        }
+    }
+
+    /*
+     * Keys whose credentials changed are never asked for again, their tokens are dropped once expired.
+     */
+    private void removeExpired() {
+        long now = this.clock.getAsLong();
+        this.tokens.entrySet().removeIf(entry -> {
+            CompletableFuture<CachedToken> future = entry.getValue();
+            return future.isDone() && !future.isCompletedExceptionally()
+                    && future.join().expiresAtMs - now <= EXPIRY_MARGIN_MS;
+        });
+    }
+}
@@ -168,6 +168,15 @@ public class Openstack4JNeutron extends BaseOpenstack4jApi {
         return portList;
     }
 
+    public List<Port> listPortsByProject(String region, String projectId) {
+        getOs().useRegion(region);
+        List<? extends Port> portList = getOs().networking().port().list(PortListOptions.create().tenantId(projectId));
+        if (CollectionUtils.isEmpty(portList)) {
+            log.info(String.format("No ports found for project: %s in region: %s", projectId, region));
+        }
+        return ImmutableList.<Port>builder().addAll(portList).build();
+    }
+
     private Port getPortByMacAddress(String region, String macAddress) {
         getOs().useRegion(region);
         List<? extends Port> portList = getOs().networking().port().list(PortListOptions.create().macAddress(macAddress));
@@ -17,6 +17,7 @@
 package org.osc.core.broker.rest.client.openstack.openstack4j;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -51,6 +52,11 @@ public class Openstack4JNova extends BaseOpenstack4jApi {
 
     private Set<String> regions;
     private static final String OPENSTACK_NAME_PROPERTY = "name";
+    private static final String OPENSTACK_ALL_TENANTS_PROPERTY = "all_tenants";
+    private static final String OPENSTACK_PROJECT_PROPERTY = "tenant_id";
+    private static final String OPENSTACK_LIMIT_PROPERTY = "limit";
+    private static final String OPENSTACK_MARKER_PROPERTY = "marker";
+    private static final int SERVER_PAGE_SIZE = 500;
 
     public static final class CreatedServerDetails {
 
@@ -181,6 +187,36 @@ public class Openstack4JNova extends BaseOpenstack4jApi {
         return serverList;
     }
 
+    /**
+     * Lists the servers of the given project with their details, one page at a time
+     */
+    public List<Server> listServersByProject(String region, String projectId) {
+        getOs().useRegion(region);
+        List<Server> serverList = new ArrayList<>();
+        String marker = null;
+        while (true) {
+            Map<String, String> filter = Maps.newHashMap();
+            filter.put(OPENSTACK_ALL_TENANTS_PROPERTY, "1");
+            filter.put(OPENSTACK_PROJECT_PROPERTY, projectId);
+            filter.put(OPENSTACK_LIMIT_PROPERTY, String.valueOf(SERVER_PAGE_SIZE));
+            if (marker != null) {
+                filter.put(OPENSTACK_MARKER_PROPERTY, marker);
+            }
+
+            List<? extends Server> page = getOs().compute().servers().list(filter);
+            serverList.addAll(page);
+            if (page.size() < SERVER_PAGE_SIZE) {
+                break;
+            }
+            marker = page.get(page.size() - 1).getId();
+        }
+
+        if (serverList.isEmpty()) {
+            log.info(String.format("No servers found in region: %s for project: %s", region, projectId));
+        }
+        return serverList;
+    }
+
     public boolean startServer(String region, String serverId) {
         getOs().useRegion(region);
         ActionResponse action = getOs().compute().servers().action(serverId, Action.START);
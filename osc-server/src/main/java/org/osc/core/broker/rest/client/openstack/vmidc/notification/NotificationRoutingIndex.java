@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.openstack.vmidc.notification;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.listener.NotificationListener;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.listener.OsNotificationEventState;
+
+/**
+ * Inverted index from the ids found in notification messages (network, subnet, device, project id etc.) to the
+ * listeners registered for them, per object type. Routing a message costs one lookup per routing key of its object
+ * type, however many listeners are registered.
+ *
+ * The index keeps its own copy of the routing ids of every listener, {@link #update} has to be called whenever they
+ * change. Not thread safe, the owning client synchronizes access.
+ */
+final class NotificationRoutingIndex {
+
+    private static final class ObjectTypeRoutes {
+        private final Set<OsNotificationKeyType> keys = EnumSet.noneOf(OsNotificationKeyType.class);
+        private final Map<String, Set<NotificationListener>> listenersById = new HashMap<>();
+        private final Map<OsNotificationEventState, Set<NotificationListener>> listenersByUnroutedState = new EnumMap<>(
+                OsNotificationEventState.class);
+        // Listeners receiving every message of the object type
+        private final Set<NotificationListener> unindexedListeners = new LinkedHashSet<>();
+        private final Map<NotificationListener, Set<String>> indexedIds = new HashMap<>();
+    }
+
+    private final Map<OsNotificationObjectType, ObjectTypeRoutes> routes = new EnumMap<>(
+            OsNotificationObjectType.class);
+
+    void add(OsNotificationObjectType objectType, NotificationListener listener) {
+        ObjectTypeRoutes typeRoutes = this.routes.computeIfAbsent(objectType, t -> new ObjectTypeRoutes());
+        if (typeRoutes.indexedIds.containsKey(listener) || typeRoutes.unindexedListeners.contains(listener)) {
+            update(objectType, listener);
+            return;
+        }
+
+        for (OsNotificationEventState state : listener.getUnroutedEventStates()) {
+            typeRoutes.listenersByUnroutedState.computeIfAbsent(state, s -> new LinkedHashSet<>()).add(listener);
+        }
+
+        Set<String> ids = listener.getRoutingIds();
+        if (ids == null) {
+            typeRoutes.unindexedListeners.add(listener);
+            return;
+        }
+        typeRoutes.keys.addAll(listener.getRoutingKeys());
+        Set<String> indexedIds = new HashSet<>(ids);
+        typeRoutes.indexedIds.put(listener, indexedIds);
+        for (String id : indexedIds) {
+            typeRoutes.listenersById.computeIfAbsent(id, i -> new LinkedHashSet<>()).add(listener);
+        }
+    }
+
+    /**
+     * Brings the index in line with the current routing ids of a registered listener.
+     */
+    void update(OsNotificationObjectType objectType, NotificationListener listener) {
+        ObjectTypeRoutes typeRoutes = this.routes.get(objectType);
+        Set<String> indexedIds = typeRoutes == null ? null : typeRoutes.indexedIds.get(listener);
+        Set<String> ids = listener.getRoutingIds();
+        if (indexedIds == null || ids == null) {
+            return;
+        }
+
+        Set<String> currentIds = new HashSet<>(ids);
+        for (String id : indexedIds) {
+            if (!currentIds.contains(id)) {
+                removeRoute(typeRoutes, id, listener);
+            }
+        }
+        for (String id : currentIds) {
+            if (!indexedIds.contains(id)) {
+                typeRoutes.listenersById.computeIfAbsent(id, i -> new LinkedHashSet<>()).add(listener);
+            }
+        }
+        typeRoutes.indexedIds.put(listener, currentIds);
+    }
+
+    void remove(OsNotificationObjectType objectType, NotificationListener listener) {
+        ObjectTypeRoutes typeRoutes = this.routes.get(objectType);
+        if (typeRoutes == null) {
+            return;
+        }
+
+        typeRoutes.unindexedListeners.remove(listener);
+        for (Iterator<Set<NotificationListener>> it = typeRoutes.listenersByUnroutedState.values().iterator(); it
+                .hasNext();) {
+            Set<NotificationListener> listeners = it.next();
+            if (listeners.remove(listener) && listeners.isEmpty()) {
+                it.remove();
+            }
+        }
+        Set<String> indexedIds = typeRoutes.indexedIds.remove(listener);
+        if (indexedIds != null) {
+            for (String id : indexedIds) {
+                removeRoute(typeRoutes, id, listener);
+            }
+        }
+    }
+
+    private static void removeRoute(ObjectTypeRoutes typeRoutes, String id, NotificationListener listener) {
+        Set<NotificationListener> listeners = typeRoutes.listenersById.get(id);
+        if (listeners != null && listeners.remove(listener) && listeners.isEmpty()) {
+            typeRoutes.listenersById.remove(id);
+        }
+    }
+
+    boolean hasListeners(OsNotificationObjectType objectType) {
+        ObjectTypeRoutes typeRoutes = this.routes.get(objectType);
+        return typeRoutes != null && !(typeRoutes.indexedIds.isEmpty() && typeRoutes.unindexedListeners.isEmpty());
+    }
+
+    /**
+     * @return the listeners the message is relevant to, each one once
+     */
+    Set<NotificationListener> route(OsNotificationObjectType objectType, ParsedNotification notification) {
+        ObjectTypeRoutes typeRoutes = this.routes.get(objectType);
+        if (typeRoutes == null) {
+            return Collections.emptySet();
+        }
+
+        Set<NotificationListener> listeners = new LinkedHashSet<>(typeRoutes.unindexedListeners);
+        for (OsNotificationKeyType key : typeRoutes.keys) {
+            String id = notification.getProperty(key);
+            if (id != null) {
+                listeners.addAll(typeRoutes.listenersById.getOrDefault(id, Collections.emptySet()));
+            }
+        }
+        for (Map.Entry<OsNotificationEventState, Set<NotificationListener>> entry : typeRoutes.listenersByUnroutedState
+                .entrySet()) {
+            if (notification.getEventType().contains(entry.getKey().toString())) {
+                listeners.addAll(entry.getValue());
+            }
+        }
+        return listeners;
+    }
+
+    void clear() {
+        this.routes.clear();
+    }
+}
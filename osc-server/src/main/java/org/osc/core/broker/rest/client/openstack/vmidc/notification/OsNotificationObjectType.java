@@ -28,6 +28,7 @@ public enum OsNotificationObjectType {
     VM("compute"),
     PORT("port"),
     NETWORK("network"),
+    SUBNET("subnet"),
     HOST_AGGREGRATE("aggregate"),
     FLOATING_IP("floatingip"),
     SCHEDULER("scheduler"),
@@ -24,7 +24,6 @@ import org.apache.commons.lang.StringUtils;
 import org.osc.core.broker.model.entities.BaseEntity;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.listener.OsNotificationListener;
 
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
@@ -50,28 +49,58 @@ public class OsNotificationUtil {
      *         Value of the provided Json Key as String or null if the key id not present in the given message
      */
     public static String getPropertyFromNotificationMessage(String message, String key) {
-        String value = null;
+        return getPropertyFromNotificationObject(parseNotificationMessage(message), key);
+    }
+
+    /**
+     * Parses the given Json message, unwrapping the payload of oslo messages
+     * 
+     * @param message
+     *            Json Message received from OpenStack Server
+     * @return
+     *         the parsed message
+     */
+    static JsonObject parseNotificationMessage(String message) {
         // If message have oslo in it then get the payload..
         if (message.contains("oslo.message")) {
             message = getOsloPayload(message);
         }
+        return parser.parse(message).getAsJsonObject();
+    }
 
-        JsonObject object = parser.parse(message).getAsJsonObject();
-        if (object != null) {
-            if (key.equals(OsNotificationKeyType.SUBNET_ID.toString())) {
-                object = getSubnetIdFromFixedIpElement(object);
+    /**
+     * This method returns value the given property as String from the provided parsed Json message
+     * 
+     * @param object
+     *            Parsed Json Message received from OpenStack Server
+     * @param key
+     *            Json Element Key
+     * @return
+     *         Value of the provided Json Key as String or null if the key is not present in the given message or its
+     *         value is not a primitive
+     */
+    static String getPropertyFromNotificationObject(JsonObject object, String key) {
+        if (object == null) {
+            return null;
+        }
+        if (key.equals(OsNotificationKeyType.SUBNET_ID.toString())) {
+            object = getSubnetIdFromFixedIpElement(object);
+            if (object == null) {
+                return null;
             }
-            JsonElement element = getProperty(key, object);
-            value = element.getAsString();
         }
-        return value;
+        JsonElement element = getProperty(key, object);
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
     }
 
     private static JsonObject getSubnetIdFromFixedIpElement(JsonObject object) {
         // get Fixed IP element to find Subnet from it..
-        JsonArray fixedIpArray = getProperty(OsNotificationKeyType.FIXED_IPS.toString(), object).getAsJsonArray();
-        JsonObject obj = fixedIpArray.get(0).getAsJsonObject();
-        return obj;
+        JsonElement fixedIps = getProperty(OsNotificationKeyType.FIXED_IPS.toString(), object);
+        if (fixedIps == null || !fixedIps.isJsonArray() || fixedIps.getAsJsonArray().size() == 0
+                || !fixedIps.getAsJsonArray().get(0).isJsonObject()) {
+            return null;
+        }
+        return fixedIps.getAsJsonArray().get(0).getAsJsonObject();
     }
 
     /**
@@ -95,33 +124,6 @@ public class OsNotificationUtil {
         }
     }
 
-    /**
-     * 
-     * This method iterates over the given list of objectIds and verified that the given messaged contains any of the
-     * ids we are interested in it.
-     * 
-     * @param message
-     *            Json Message received from OpenStack Server
-     * 
-     * @param objectIdList
-     *            List of objecyID (UUID) which were registered while creating Notification Listener
-     * 
-     * @param key
-     *            Json Element Key
-     * @return
-     * 
-     *         relevant Object ID from the message else return null
-     */
-    public static String isMessageRelevant(String message, List<String> objectIdList, String property) {
-        for (String objectId : objectIdList) {
-            String value = getPropertyFromNotificationMessage(message, property);
-            if (value != null && objectId.equals(value)) {
-                return objectId;
-            }
-        }
-        return null;
-    }
-
     /**
      * This method performs a top-down recursion on a json tree to find given key
      * 
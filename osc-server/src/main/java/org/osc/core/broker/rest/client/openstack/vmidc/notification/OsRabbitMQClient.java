@@ -18,13 +18,20 @@ package org.osc.core.broker.rest.client.openstack.vmidc.notification;
 
 import static org.osc.core.common.virtualization.VirtualizationConnectorProperties.*;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.osc.core.broker.job.JobPriority;
 import org.osc.core.broker.job.lock.LockObjectReference;
+import org.osc.core.broker.model.entities.BaseEntity;
 import org.osc.core.broker.model.entities.events.SystemFailureType;
 import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector;
+import org.osc.core.broker.rest.client.openstack.discovery.OpenstackInventoryCache;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.listener.NotificationListener;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.listener.OsNotificationListener;
 import org.osc.core.broker.service.api.RestConstants;
 import org.osc.core.broker.service.api.server.EncryptionException;
 import org.osc.core.broker.util.SessionUtil;
@@ -32,9 +39,6 @@ import org.osc.core.broker.util.StaticRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.ListMultimap;
-
 /**
  *
  * This class instantiates a Rabbit MQ connection with given Server and receives all the notifications which server
@@ -46,27 +50,42 @@ public class OsRabbitMQClient extends RabbitMQClient {
 
     private static final Logger log = LoggerFactory.getLogger(OsRabbitMQClient.class);
 
+    public static final int DEFAULT_DISPATCH_THREADS = 4;
+
+    private static int dispatchThreads = DEFAULT_DISPATCH_THREADS;
+
     private VirtualizationConnector vc;
 
     /*
-     * A Map between ObjectType and List of Listeners (One Object type can have multiple listeners to perform different
-     * operations on the same type of notifications)
+     * Routes messages to the listeners they are relevant to, by object type and by the ids the listeners are registered
+     * for (One Object type can have multiple listeners to perform different operations on the same type of
+     * notifications)
      */
-
-    private final ListMultimap<OsNotificationObjectType, NotificationListener> listenersMap = ArrayListMultimap
-            .create();
+    private final NotificationRoutingIndex routingIndex = new NotificationRoutingIndex();
 
     /*
-     * Singleton for delegating messages to specific listeners
+     * Delegates messages to specific listeners. Messages for the same entity are handled in order, messages for
+     * different entities in parallel.
      */
-    private final ExecutorService messageListenerService = Executors.newSingleThreadExecutor();
+    private final PartitionedDispatcher messageDispatcher;
 
     public OsRabbitMQClient(VirtualizationConnector vc) throws EncryptionException {
         super();
         this.vc = vc;
+        this.messageDispatcher = new PartitionedDispatcher(dispatchThreads, "isc-os-notification-" + vc.getName());
         init(this.vc);
     }
 
+    /**
+     * Sets the number of threads dispatching the notifications of each Virtualization Connector to listeners.
+     */
+    public static void setDispatchThreads(String value) {
+        if (value == null) {
+            return;
+        }
+        dispatchThreads = Integer.parseInt(value);
+    }
+
     public void init(VirtualizationConnector vc) throws EncryptionException {
         this.vc = vc;
         String rabbitMQIP = this.vc.getRabbitMQIP();
@@ -95,7 +114,20 @@ public class OsRabbitMQClient extends RabbitMQClient {
      */
 
     public synchronized void registerListener(NotificationListener listener, OsNotificationObjectType objectType) {
-        this.listenersMap.put(objectType, listener);
+        this.routingIndex.add(objectType, listener);
+    }
+
+    /**
+     * Updates the routing of a registered listener after its routing ids changed
+     *
+     * @param listener
+     *            Listener whose ids changed
+     * @param objectType
+     *            Event Type of the listener
+     */
+
+    public synchronized void updateListener(NotificationListener listener, OsNotificationObjectType objectType) {
+        this.routingIndex.update(objectType, listener);
     }
 
     /**
@@ -108,44 +140,124 @@ public class OsRabbitMQClient extends RabbitMQClient {
      */
 
     public synchronized void removeListener(NotificationListener listener, OsNotificationObjectType objectType) {
-        this.listenersMap.remove(objectType, listener);
+        this.routingIndex.remove(objectType, listener);
     }
 
     /**
      * @param message
      *            Received Json message from Open stack Server
-     * @param objectType
+     * @param eventType
      *            Event Type of the incoming message
+     * @param objectType
+     *            Object Type of the incoming message
+     * @param ack
+     *            Acknowledges the message once all listeners are done with it
+     */
+    private void notifyListeners(final String message, final String eventType,
+            final OsNotificationObjectType objectType, Runnable ack) {
+        OpenstackInventoryCache inventoryCache = OpenstackInventoryCache.getInventoryCache(this.vc.getId());
+        boolean affectsInventory = inventoryCache.isAffectedBy(objectType);
+        if (!affectsInventory && !hasListeners(objectType)) {
+            ack.run();
+            return;
+        }
+
+        // Parse once for the inventory cache and all listeners
+        final ParsedNotification notification = new ParsedNotification(message, eventType);
+
+        // Before the listeners run, so the jobs they start do not see what the message changed
+        if (affectsInventory) {
+            inventoryCache.onNotification(objectType, notification);
+        }
+
+        List<NotificationListener> listeners = getListeners(objectType, notification);
+        if (listeners.isEmpty()) {
+            ack.run();
+            return;
+        }
+
+        AtomicInteger pendingListeners = new AtomicInteger(listeners.size());
+        for (final NotificationListener listener : listeners) {
+            Runnable listenerDone = () -> {
+                if (pendingListeners.decrementAndGet() == 0) {
+                    ack.run();
+                }
+            };
+            try {
+                this.messageDispatcher.execute(getPartitionKey(listener), () -> {
+                    try {
+                        JobPriority.setCurrent(JobPriority.NOTIFICATION);
+                        listener.onMessage(notification);
+                    } catch (RuntimeException e) {
+                        log.error("Listener failed to process notification message", e);
+                    } finally {
+                        listenerDone.run();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Client is being destroyed
+                listenerDone.run();
+            }
+        }
+    }
+
+    private synchronized boolean hasListeners(OsNotificationObjectType objectType) {
+        return this.routingIndex.hasListeners(objectType);
+    }
+
+    private synchronized List<NotificationListener> getListeners(OsNotificationObjectType objectType,
+            ParsedNotification notification) {
+        return new ArrayList<>(this.routingIndex.route(objectType, notification));
+    }
+
+    /*
+     * Listeners act on behalf of a Security Group or Deployment Spec. Dispatching on the entity id keeps the messages
+     * of one entity in order across its listeners; Security Groups and Deployment Specs sharing an id merely share a
+     * thread.
      */
-    private synchronized void notifyListeners(final String message, final OsNotificationObjectType objectType) {
-        if (this.listenersMap.get(objectType) != null) {
-            for (final NotificationListener listener : this.listenersMap.get(objectType)) {
-                this.messageListenerService.execute(() -> listener.onMessage(message));
+    private static Object getPartitionKey(NotificationListener listener) {
+        if (listener instanceof OsNotificationListener) {
+            BaseEntity entity = ((OsNotificationListener) listener).getEntity();
+            if (entity != null && entity.getId() != null) {
+                return entity.getId();
             }
         }
+        return listener;
+    }
+
+    @Override
+    public void connect() throws IOException {
+        super.connect();
+        // Changes made while disconnected were not notified
+        OpenstackInventoryCache.getInventoryCache(this.vc.getId()).invalidateAll();
     }
 
     public void destroy() {
         // Shutdown executor service for this instance
-        this.messageListenerService.shutdown();
-        // cleaning up listener map upon client close
-        this.listenersMap.clear();
+        this.messageDispatcher.shutdown();
+        OpenstackInventoryCache.removeInventoryCache(this.vc.getId());
+        // cleaning up listener routes upon client close
+        synchronized (this) {
+            this.routingIndex.clear();
+        }
     }
 
     @Override
-    protected final void receiveMessage(String message) {
+    protected final void receiveMessage(String message, Runnable ack) {
         SessionUtil.getInstance().setUser(RestConstants.OSC_DEFAULT_LOGIN);
         log.debug(" [RabbitMQ Client Message Received ]  - " + message);
         String eventType = OsNotificationUtil.getEventTypeFromMessage(message);
 
         // delegate message to object specific listener
-        if (!this.listenersMap.isEmpty()) {
-            try {
-                notifyListeners(message, OsNotificationObjectType.getType(eventType));
-            } catch (IllegalArgumentException e) {
-                log.error("Disregarding notification message with unknown object type" + eventType);
-            }
+        OsNotificationObjectType objectType;
+        try {
+            objectType = OsNotificationObjectType.getType(eventType);
+        } catch (IllegalArgumentException e) {
+            log.error("Disregarding notification message with unknown object type" + eventType);
+            ack.run();
+            return;
         }
+        notifyListeners(message, eventType, objectType, ack);
     }
 
     @Override
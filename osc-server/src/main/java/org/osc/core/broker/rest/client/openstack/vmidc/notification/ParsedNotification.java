@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.openstack.vmidc.notification;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.JsonObject;
+
+/**
+ * A notification message received from OpenStack, parsed once on delivery and shared by all listeners it is
+ * dispatched to.
+ *
+ * The event type and the value of every {@link OsNotificationKeyType} present in the message are extracted up front,
+ * so checking whether the message is relevant to a listener does not parse the message again.
+ */
+public final class ParsedNotification {
+
+    private final String message;
+    private final String eventType;
+    private final JsonObject payload;
+    private final Map<OsNotificationKeyType, String> properties;
+
+    public ParsedNotification(String message, String eventType) {
+        this.message = message;
+        this.eventType = eventType;
+        this.payload = OsNotificationUtil.parseNotificationMessage(message);
+
+        Map<OsNotificationKeyType, String> properties = new EnumMap<>(OsNotificationKeyType.class);
+        for (OsNotificationKeyType key : OsNotificationKeyType.values()) {
+            String value = OsNotificationUtil.getPropertyFromNotificationObject(this.payload, key.toString());
+            if (value != null) {
+                properties.put(key, value);
+            }
+        }
+        this.properties = Collections.unmodifiableMap(properties);
+    }
+
+    public ParsedNotification(String message) {
+        this(message, OsNotificationUtil.getEventTypeFromMessage(message));
+    }
+
+    /**
+     * @return the raw Json message
+     */
+    public String getMessage() {
+        return this.message;
+    }
+
+    public String getEventType() {
+        return this.eventType;
+    }
+
+    /**
+     * @return the value of the key or null if the message does not contain it
+     */
+    public String getProperty(OsNotificationKeyType key) {
+        return this.properties.get(key);
+    }
+
+    /**
+     * Looks up a key which is not one of the {@link OsNotificationKeyType}s in the parsed message.
+     *
+     * @return the value of the key or null if the message does not contain it
+     */
+    public String getProperty(String key) {
+        return OsNotificationUtil.getPropertyFromNotificationObject(this.payload, key);
+    }
+
+    /**
+     * Checks whether the message refers to one of the given object ids through the given key.
+     *
+     * @return the id referred to by the message if it is one of the given ids, null otherwise
+     */
+    public String getRelevantId(OsNotificationKeyType key, Set<String> objectIds) {
+        String value = this.properties.get(key);
+        return value != null && objectIds.contains(value) ? value : null;
+    }
+
+    @Override
+    public String toString() {
+        return this.message;
+    }
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.openstack.vmidc.notification;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs notification work on a fixed number of single threaded partitions. Work submitted with the same key always
+ * runs on the same partition, in submission order, while work for different keys runs in parallel.
+ */
+final class PartitionedDispatcher {
+
+    private final ExecutorService[] partitions;
+
+    PartitionedDispatcher(int partitionCount, String threadNamePrefix) {
+        this.partitions = new ExecutorService[Math.max(partitionCount, 1)];
+        for (int i = 0; i < this.partitions.length; i++) {
+            // Threads are started on first use, clients only used to test a connection never start any
+            this.partitions[i] = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat(threadNamePrefix.replace("%", "%%") + "-" + i).build());
+        }
+    }
+
+    void execute(Object key, Runnable work) {
+        this.partitions[Math.floorMod(key.hashCode(), this.partitions.length)].execute(work);
+    }
+
+    void shutdown() {
+        for (ExecutorService partition : this.partitions) {
+            partition.shutdown();
+        }
+    }
+}
@@ -19,6 +19,7 @@ package org.osc.core.broker.rest.client.openstack.vmidc.notification;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,6 +39,11 @@ public abstract class RabbitMQClient {
 
     private static final int RECONNECT_DELAY = 60 * 1000;
 
+    public static final int DEFAULT_PREFETCH_COUNT = 100;
+
+    // Maximum number of delivered messages not acknowledged yet, beyond which the server stops delivering
+    private static int prefetchCount = DEFAULT_PREFETCH_COUNT;
+
     private static final String NEUTRON_EXCHANGE = "neutron";
     private static final String KEYSTONE_EXCHANGE = "keystone";
 
@@ -114,11 +120,26 @@ public abstract class RabbitMQClient {
                     public void handleDelivery(String consumerTag, Envelope envelope, BasicProperties properties,
                             byte[] body) throws IOException {
                         super.handleDelivery(consumerTag, envelope, properties, body);
-                        receiveMessage(new String(body));
+                        final Channel channel = getChannel();
+                        final long deliveryTag = envelope.getDeliveryTag();
+                        // Acknowledging twice closes the channel
+                        final AtomicBoolean acked = new AtomicBoolean();
+                        Runnable ack = () -> {
+                            if (acked.compareAndSet(false, true)) {
+                                ack(channel, deliveryTag);
+                            }
+                        };
+                        try {
+                            receiveMessage(new String(body), ack);
+                        } catch (RuntimeException e) {
+                            log.error("Failed to process message from RabbitMQ server '"
+                                    + RabbitMQClient.this.serverIP + "'", e);
+                            ack.run();
+                        }
                     }
 
                 };
-                this.consumerTag = this.channel.basicConsume(this.queue, true, consumer);
+                this.consumerTag = this.channel.basicConsume(this.queue, false, consumer);
                 log.info("Successfully connected to RabbitMQ Server :- " + this.serverIP);
                 return;
             } catch (Exception e) {
@@ -203,8 +224,18 @@ public abstract class RabbitMQClient {
         return factory;
     }
 
+    /**
+     * Sets the maximum number of messages delivered but not processed yet.
+     */
+    public static void setPrefetchCount(String value) {
+        if (value == null) {
+            return;
+        }
+        prefetchCount = Integer.parseInt(value);
+    }
+
     private void initChannel(Channel channel) throws IOException {
-        channel.basicQos(1);
+        channel.basicQos(prefetchCount);
         // this.channel.exchangeDeclare(this.exchange, TOPIC);
         Map<String, Object> args = new HashMap<>();
         args.put("x-expires", 180000); // Three minutes
@@ -236,7 +267,25 @@ public abstract class RabbitMQClient {
         }
     }
 
-    protected abstract void receiveMessage(String message);
+    private void ack(Channel channel, long deliveryTag) {
+        try {
+            if (channel.isOpen()) {
+                channel.basicAck(deliveryTag, false);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to acknowledge message from RabbitMQ server '" + this.serverIP + "' Error:"
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Handles a message received. The message may be processed asynchronously, the server does not deliver more
+     * than the prefetch count of messages until they are acknowledged.
+     *
+     * @param ack
+     *            acknowledges the message, must be run exactly once when done processing the message
+     */
+    protected abstract void receiveMessage(String message, Runnable ack);
 
     protected abstract void generateConnectionFailureAlert();
 
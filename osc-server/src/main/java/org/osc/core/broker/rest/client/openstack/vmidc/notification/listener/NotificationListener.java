@@ -16,8 +16,12 @@
  *******************************************************************************/
 package org.osc.core.broker.rest.client.openstack.vmidc.notification.listener;
 
+import java.util.Set;
+
 import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationKeyType;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationObjectType;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.ParsedNotification;
 
 public interface NotificationListener {
 
@@ -56,7 +60,27 @@ public interface NotificationListener {
      * Listener will be receiving messages of interest via this method. User will Post Notification add Business Logic
      * here
      *
-     * @param message
+     * @param notification
+     *            the received message, parsed once and shared by all listeners it is dispatched to
+     */
+    void onMessage(ParsedNotification notification);
+
+    /**
+     * The ids of the objects this listener is interested in. Messages are only delivered to the listener when the
+     * value of one of its {@link #getRoutingKeys()} is one of these ids.
+     *
+     * @return the ids, or null if the listener must receive every message of the object type it is registered for
+     */
+    Set<String> getRoutingIds();
+
+    /**
+     * @return the keys under which messages refer to the {@link #getRoutingIds()}
+     */
+    Set<OsNotificationKeyType> getRoutingKeys();
+
+    /**
+     * Event states of messages whose relevance cannot be told from their ids alone, like a deleted port which is
+     * only known by its own id. Such messages are delivered to the listener regardless of its routing ids.
      */
-    void onMessage(String message);
+    Set<OsNotificationEventState> getUnroutedEventStates();
 }
@@ -16,7 +16,9 @@
  *******************************************************************************/
 package org.osc.core.broker.rest.client.openstack.vmidc.notification.listener;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.osc.core.broker.job.lock.LockObjectReference;
 import org.osc.core.broker.model.entities.BaseEntity;
@@ -25,7 +27,7 @@ import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector
 import org.osc.core.broker.model.entities.virtualization.openstack.DeploymentSpec;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationKeyType;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationObjectType;
-import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationUtil;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.ParsedNotification;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.runner.RabbitMQRunner;
 import org.osc.core.broker.service.ConformService;
 import org.osc.core.broker.service.alert.AlertGenerator;
@@ -37,6 +39,8 @@ public class OsHostAggregrateNotificationListener extends OsNotificationListener
 
     private static final Logger log = LoggerFactory.getLogger(OsHostAggregrateNotificationListener.class);
 
+    private static final Set<OsNotificationKeyType> ROUTING_KEYS = EnumSet.of(OsNotificationKeyType.AGGREGRATE_ID);
+
     private final ConformService conformService;
 
     private final AlertGenerator alertGenerator;
@@ -54,16 +58,20 @@ public class OsHostAggregrateNotificationListener extends OsNotificationListener
     }
 
     @Override
-    public void onMessage(String message) {
-        String eventType = OsNotificationUtil.getEventTypeFromMessage(message);
+    public Set<OsNotificationKeyType> getRoutingKeys() {
+        return ROUTING_KEYS;
+    }
+
+    @Override
+    public void onMessage(ParsedNotification notification) {
+        String eventType = notification.getEventType();
         if (eventType.contains(OsNotificationEventState.UPDATE_PROP.toString())
                 || eventType.contains(OsNotificationEventState.ADD_HOST.toString())
                 || eventType.contains(OsNotificationEventState.REMOVE_HOST.toString())) {
 
-            String keyValue = OsNotificationUtil.isMessageRelevant(message, this.objectIdList,
-                    OsNotificationKeyType.AGGREGRATE_ID.toString());
+            String keyValue = notification.getRelevantId(OsNotificationKeyType.AGGREGRATE_ID, this.objectIds);
             if (keyValue != null) {
-                log.info(" [Aggregrate] : message received - " + message);
+                log.info(" [Aggregrate] : message received - " + notification);
                 try {
                     this.txControl.required(() -> {
                         // Trigger Sync for the related Deployment Spec
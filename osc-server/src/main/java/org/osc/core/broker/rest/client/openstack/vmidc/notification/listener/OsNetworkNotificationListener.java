@@ -16,7 +16,9 @@
  *******************************************************************************/
 package org.osc.core.broker.rest.client.openstack.vmidc.notification.listener;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.osc.core.broker.job.lock.LockObjectReference;
 import org.osc.core.broker.model.entities.BaseEntity;
@@ -26,7 +28,7 @@ import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector
 import org.osc.core.broker.model.entities.virtualization.openstack.DeploymentSpec;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationKeyType;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationObjectType;
-import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationUtil;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.ParsedNotification;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.runner.RabbitMQRunner;
 import org.osc.core.broker.service.ConformService;
 import org.osc.core.broker.service.alert.AlertGenerator;
@@ -38,6 +40,8 @@ public class OsNetworkNotificationListener extends OsNotificationListener {
 
     private static final Logger log = LoggerFactory.getLogger(OsNetworkNotificationListener.class);
 
+    private static final Set<OsNotificationKeyType> ROUTING_KEYS = EnumSet.of(OsNotificationKeyType.NETWORK_ID);
+
     private final ConformService conformService;
 
     private final AlertGenerator alertGenerator;
@@ -56,19 +60,23 @@ public class OsNetworkNotificationListener extends OsNotificationListener {
     }
 
     @Override
-    public void onMessage(String message) {
-        String eventType = OsNotificationUtil.getEventTypeFromMessage(message);
+    public Set<OsNotificationKeyType> getRoutingKeys() {
+        return ROUTING_KEYS;
+    }
+
+    @Override
+    public void onMessage(ParsedNotification notification) {
+        String eventType = notification.getEventType();
 
         // Listen to Network deleted events
         if (eventType.contains(OsNotificationEventState.DELETE.toString())) {
-            String keyValue = OsNotificationUtil.isMessageRelevant(message, this.objectIdList,
-                    OsNotificationKeyType.NETWORK_ID.toString());
+            String keyValue = notification.getRelevantId(OsNotificationKeyType.NETWORK_ID, this.objectIds);
             if (keyValue != null) {
-                log.info(" [Network] : message received - " + message);
+                log.info(" [Network] : message received - " + notification);
                 try {
                     this.txControl.required(() -> {
                         if (this.entity instanceof SecurityGroup) {
-                            this.conformService.startSecurityGroupConformanceJob((SecurityGroup) this.entity);
+                            this.conformService.requestSecurityGroupSync((SecurityGroup) this.entity);
                         }
 
                         if (this.entity instanceof DeploymentSpec) {
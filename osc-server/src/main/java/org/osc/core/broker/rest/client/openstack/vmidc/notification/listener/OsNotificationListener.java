@@ -16,7 +16,11 @@
  *******************************************************************************/
 package org.osc.core.broker.rest.client.openstack.vmidc.notification.listener;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.osc.core.broker.model.entities.BaseEntity;
 import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector;
@@ -35,16 +39,56 @@ public abstract class OsNotificationListener implements NotificationListener {
 
     protected VirtualizationConnector vc;
     protected OsNotificationObjectType objectType;
-    protected List<String> objectIdList;
+    // Read by the notification dispatch threads while the runners update it
+    protected volatile Set<String> objectIds;
     protected BaseEntity entity;
     private RabbitMQRunner activeRunner;
 
     public List<String> getObjectIdList() {
-        return this.objectIdList;
+        return new ArrayList<>(this.objectIds);
     }
 
     public void setObjectIdList(List<String> objectIdList) {
-        this.objectIdList = objectIdList;
+        this.objectIds = toObjectIdSet(objectIdList);
+        updateRouting();
+    }
+
+    public void addObjectId(String objectId) {
+        if (this.objectIds.add(objectId)) {
+            updateRouting();
+        }
+    }
+
+    public void removeObjectId(String objectId) {
+        if (this.objectIds.remove(objectId)) {
+            updateRouting();
+        }
+    }
+
+    @Override
+    public Set<String> getRoutingIds() {
+        return this.objectIds;
+    }
+
+    @Override
+    public Set<OsNotificationEventState> getUnroutedEventStates() {
+        return Collections.emptySet();
+    }
+
+    /*
+     * Messages are routed to this listener by its object ids, so the client must learn about every change to them
+     */
+    private void updateRouting() {
+        OsRabbitMQClient client = this.activeRunner.getVcToRabbitMQClientMap().get(this.vc.getId());
+        if (client != null) {
+            client.updateListener(this, this.objectType);
+        }
+    }
+
+    private static Set<String> toObjectIdSet(List<String> objectIdList) {
+        Set<String> objectIds = ConcurrentHashMap.newKeySet();
+        objectIds.addAll(objectIdList);
+        return objectIds;
     }
 
     public OsNotificationListener(VirtualizationConnector vc, OsNotificationObjectType objectType,
@@ -52,7 +96,7 @@ public abstract class OsNotificationListener implements NotificationListener {
         super();
         this.vc = vc;
         this.objectType = objectType;
-        this.objectIdList = objectIdList;
+        this.objectIds = toObjectIdSet(objectIdList);
         this.entity = entity;
         this.activeRunner = activeRunner;
     }
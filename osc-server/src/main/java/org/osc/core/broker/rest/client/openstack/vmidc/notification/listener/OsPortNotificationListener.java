@@ -16,7 +16,9 @@
  *******************************************************************************/
 package org.osc.core.broker.rest.client.openstack.vmidc.notification.listener;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.persistence.EntityManager;
 
@@ -28,7 +30,7 @@ import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector
 import org.osc.core.broker.model.entities.virtualization.openstack.VMPort;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationKeyType;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationObjectType;
-import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationUtil;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.ParsedNotification;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.runner.RabbitMQRunner;
 import org.osc.core.broker.service.ConformService;
 import org.osc.core.broker.service.alert.AlertGenerator;
@@ -43,6 +45,13 @@ public class OsPortNotificationListener extends OsNotificationListener {
 
     private static final Logger log = LoggerFactory.getLogger(OsPortNotificationListener.class);
 
+    private static final Set<OsNotificationKeyType> ROUTING_KEYS = EnumSet.of(OsNotificationKeyType.PROJECT_ID,
+            OsNotificationKeyType.NETWORK_ID, OsNotificationKeyType.DEVICE_ID, OsNotificationKeyType.SUBNET_ID);
+
+    // Deleted ports are only known by their own id, their network, VM and subnet are looked up in the DB
+    private static final Set<OsNotificationEventState> UNROUTED_EVENT_STATES = EnumSet
+            .of(OsNotificationEventState.DELETE, OsNotificationEventState.INTERFACE_DELETE);
+
     private final ConformService conformService;
 
     private final AlertGenerator alertGenerator;
@@ -60,16 +69,26 @@ public class OsPortNotificationListener extends OsNotificationListener {
     }
 
     @Override
-    public void onMessage(final String message) {
-        final String eventType = OsNotificationUtil.getEventTypeFromMessage(message);
+    public Set<OsNotificationKeyType> getRoutingKeys() {
+        return ROUTING_KEYS;
+    }
+
+    @Override
+    public Set<OsNotificationEventState> getUnroutedEventStates() {
+        return UNROUTED_EVENT_STATES;
+    }
+
+    @Override
+    public void onMessage(final ParsedNotification notification) {
+        final String eventType = notification.getEventType();
         if (eventType.contains(OsNotificationEventState.CREATE.toString())
                 || eventType.contains(OsNotificationEventState.DELETE.toString())
                 || eventType.contains(OsNotificationEventState.INTERFACE_DELETE.toString())) {
-            log.info(" [Port] : message received - " + message);
+            log.info(" [Port] : message received - " + notification);
             if (this.entity instanceof SecurityGroup) {
 
                 try {
-                    doTranscationalAction(eventType, message);
+                    doTranscationalAction(eventType, notification);
                 } catch (ScopedWorkException e) {
                     handleError(e.getCause());
                 } catch (Exception e) {
@@ -79,14 +98,15 @@ public class OsPortNotificationListener extends OsNotificationListener {
         }
     }
 
-    private void doTranscationalAction(final String eventType, final String message) throws Exception {
+    private void doTranscationalAction(final String eventType, final ParsedNotification notification)
+            throws Exception {
         EntityManager em = this.dbMgr.getTransactionalEntityManager();
         this.dbMgr.getTransactionControl().required(() -> {
             if (eventType.contains(OsNotificationEventState.DELETE.toString())
                     || eventType.contains(OsNotificationEventState.INTERFACE_DELETE.toString())) {
-                handleSGPortDeletionMessages(em, message);
+                handleSGPortDeletionMessages(em, notification);
             } else {
-                handleSGPortMessages(em, message);
+                handleSGPortMessages(em, notification);
             }
             return null;
         });
@@ -99,7 +119,7 @@ public class OsPortNotificationListener extends OsNotificationListener {
                 "Fail to process Openstack Port notification (" + e.getMessage() + ")");
     }
 
-    private void handleSGPortMessages(EntityManager em, String message) throws Exception {
+    private void handleSGPortMessages(EntityManager em, ParsedNotification notification) throws Exception {
         SecurityGroup sg = (SecurityGroup) this.entity;
         String keyValue;
 
@@ -108,24 +128,20 @@ public class OsPortNotificationListener extends OsNotificationListener {
 
         if (sg.isProtectAll()) {
             // If protect all then check Project id in context
-            keyValue = OsNotificationUtil.isMessageRelevant(message, this.objectIdList,
-                    OsNotificationKeyType.PROJECT_ID.toString());
+            keyValue = notification.getRelevantId(OsNotificationKeyType.PROJECT_ID, this.objectIds);
 
         } else {
             // check network id in context
 
-            keyValue = OsNotificationUtil.isMessageRelevant(message, this.objectIdList,
-                    OsNotificationKeyType.NETWORK_ID.toString());
+            keyValue = notification.getRelevantId(OsNotificationKeyType.NETWORK_ID, this.objectIds);
 
             if (keyValue == null) {
                 // If no match on network id then check if the register ID is of VM in context
-                keyValue = OsNotificationUtil.isMessageRelevant(message, this.objectIdList,
-                        OsNotificationKeyType.DEVICE_ID.toString());
+                keyValue = notification.getRelevantId(OsNotificationKeyType.DEVICE_ID, this.objectIds);
             }
 
             if (keyValue == null) {
-                keyValue = OsNotificationUtil.isMessageRelevant(message, this.objectIdList,
-                        OsNotificationKeyType.SUBNET_ID.toString());
+                keyValue = notification.getRelevantId(OsNotificationKeyType.SUBNET_ID, this.objectIds);
                 // Add subnet notification snippet back when the OpenStack device_owner issue is fixed.
                 // Related OSC issue: https://github.com/opensecuritycontroller/osc-core/issues/462
             }
@@ -138,24 +154,23 @@ public class OsPortNotificationListener extends OsNotificationListener {
 
     }
 
-    private void handleSGPortDeletionMessages(EntityManager em, String message) throws Exception {
+    private void handleSGPortDeletionMessages(EntityManager em, ParsedNotification notification) throws Exception {
         SecurityGroup sg = em.find(SecurityGroup.class, this.entity.getId());
-        if (!this.objectIdList.isEmpty()) {
+        Set<String> objectIds = this.objectIds;
+        if (!objectIds.isEmpty()) {
             if (!sg.isProtectAll()) {
-                String portId = OsNotificationUtil.getPropertyFromNotificationMessage(message,
-                        OsNotificationKeyType.PORT_ID.toString());
+                String portId = notification.getProperty(OsNotificationKeyType.PORT_ID);
                 VMPort port = VMPortEntityManager.findByOpenstackId(em, portId);
                 if (port != null &&
-                        ((port.getNetwork() != null && this.objectIdList.contains(port.getNetwork().getOpenstackId()))
-                                || (port.getVm() != null && this.objectIdList.contains(port.getVm().getOpenstackId()))
-                                || (port.getSubnet() != null && this.objectIdList.contains(port.getSubnet().getOpenstackId())))) {
+                        ((port.getNetwork() != null && objectIds.contains(port.getNetwork().getOpenstackId()))
+                                || (port.getVm() != null && objectIds.contains(port.getVm().getOpenstackId()))
+                                || (port.getSubnet() != null && objectIds.contains(port.getSubnet().getOpenstackId())))) {
                     triggerSGSync(sg, em);
                 }
 
             } else {
-                String projectId = OsNotificationUtil.getPropertyFromNotificationMessage(message,
-                        OsNotificationKeyType.CONTEXT_PROJECT_ID.toString());
-                if (this.objectIdList.contains(projectId)) {
+                String projectId = notification.getProperty(OsNotificationKeyType.CONTEXT_PROJECT_ID);
+                if (projectId != null && objectIds.contains(projectId)) {
                     triggerSGSync(sg, em);
                 }
             }
@@ -164,8 +179,8 @@ public class OsPortNotificationListener extends OsNotificationListener {
     }
 
     private void triggerSGSync(SecurityGroup sg, EntityManager em) throws Exception {
-        log.info("Running SG sync based on OS Port notification received.");
+        log.info("Requesting SG sync based on OS Port notification received.");
         // Message is related to registered Security Group. Trigger sync
-        this.conformService.startSecurityGroupConformanceJob(sg);
+        this.conformService.requestSecurityGroupSync(sg);
     }
 }
@@ -16,7 +16,9 @@
  *******************************************************************************/
 package org.osc.core.broker.rest.client.openstack.vmidc.notification.listener;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.persistence.EntityManager;
 
@@ -28,7 +30,7 @@ import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector
 import org.osc.core.broker.model.entities.virtualization.openstack.DeploymentSpec;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationKeyType;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationObjectType;
-import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationUtil;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.ParsedNotification;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.runner.RabbitMQRunner;
 import org.osc.core.broker.service.ConformService;
 import org.osc.core.broker.service.alert.AlertGenerator;
@@ -43,6 +45,8 @@ public class OsProjectNotificationListener extends OsNotificationListener {
 
     private static final Logger log = LoggerFactory.getLogger(OsProjectNotificationListener.class);
 
+    private static final Set<OsNotificationKeyType> ROUTING_KEYS = EnumSet.of(OsNotificationKeyType.RESOURCE_INFO);
+
     private final ConformService conformService;
 
     private final AlertGenerator alertGenerator;
@@ -60,13 +64,17 @@ public class OsProjectNotificationListener extends OsNotificationListener {
     }
 
     @Override
-    public void onMessage(String message) {
-        String eventType = OsNotificationUtil.getEventTypeFromMessage(message);
+    public Set<OsNotificationKeyType> getRoutingKeys() {
+        return ROUTING_KEYS;
+    }
+
+    @Override
+    public void onMessage(ParsedNotification notification) {
+        String eventType = notification.getEventType();
         if (eventType.contains(OsNotificationEventState.PROJECT_DELETED.toString())) {
-            String keyValue = OsNotificationUtil.isMessageRelevant(message, this.objectIdList,
-                    OsNotificationKeyType.RESOURCE_INFO.toString());
+            String keyValue = notification.getRelevantId(OsNotificationKeyType.RESOURCE_INFO, this.objectIds);
             if (keyValue != null) {
-                log.info(" [Identity] : message received - " + message);
+                log.info(" [Identity] : message received - " + notification);
                 try {
                     EntityManager em = this.dbMgr.getTransactionalEntityManager();
 
@@ -103,7 +111,7 @@ public class OsProjectNotificationListener extends OsNotificationListener {
         for (SecurityGroup securityGroup : SecurityGroupEntityMgr.listByProjectId(em, keyValue)) {
             // trigger sync job for that SG
             if (securityGroup.getId().equals(((SecurityGroup) this.entity).getId())) {
-                this.conformService.startSecurityGroupConformanceJob(securityGroup);
+                this.conformService.requestSecurityGroupSync(securityGroup);
             }
         }
     }
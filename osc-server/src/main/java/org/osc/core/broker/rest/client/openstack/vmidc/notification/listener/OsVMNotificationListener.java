@@ -16,7 +16,9 @@
  *******************************************************************************/
 package org.osc.core.broker.rest.client.openstack.vmidc.notification.listener;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.persistence.EntityManager;
 
@@ -31,7 +33,7 @@ import org.osc.core.broker.rest.client.openstack.discovery.VmDiscoveryCache;
 import org.osc.core.broker.rest.client.openstack.discovery.VmDiscoveryCache.VmInfo;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationKeyType;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationObjectType;
-import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationUtil;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.ParsedNotification;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.runner.RabbitMQRunner;
 import org.osc.core.broker.service.ConformService;
 import org.osc.core.broker.service.alert.AlertGenerator;
@@ -47,6 +49,8 @@ import org.slf4j.LoggerFactory;
 public class OsVMNotificationListener extends OsNotificationListener {
 
     private static final Logger log = LoggerFactory.getLogger(OsVMNotificationListener.class);
+
+    private static final Set<OsNotificationKeyType> ROUTING_KEYS = EnumSet.of(OsNotificationKeyType.INSTANCE_ID);
     private static final String REGION_NOTIFICATION_KEY = "region";
 
     private final ConformService conformService;
@@ -66,34 +70,38 @@ public class OsVMNotificationListener extends OsNotificationListener {
     }
 
     @Override
-    public void onMessage(String message) {
+    public Set<OsNotificationKeyType> getRoutingKeys() {
+        return ROUTING_KEYS;
+    }
+
+    @Override
+    public void onMessage(ParsedNotification notification) {
 
-        String eventType = OsNotificationUtil.getEventTypeFromMessage(message);
+        String eventType = notification.getEventType();
         if (eventType.contains(OsNotificationEventState.CREATE.toString())
                 || eventType.contains(OsNotificationEventState.DELETE.toString())
                 || eventType.contains(OsNotificationEventState.POWER_OFF.toString())
                 || eventType.contains(OsNotificationEventState.RESIZE_CONFIRM_END.toString())) {
 
-            String vmOpenstackId = OsNotificationUtil.isMessageRelevant(message, this.objectIdList,
-                    OsNotificationKeyType.INSTANCE_ID.toString());
+            String vmOpenstackId = notification.getRelevantId(OsNotificationKeyType.INSTANCE_ID, this.objectIds);
             if (vmOpenstackId != null) {
                 SessionUtil.getInstance().setUser(RestConstants.OSC_DEFAULT_LOGIN);
 
-                log.info(" [Instance] : message received - " + message);
+                log.info(" [Instance] : message received - " + notification);
                 try {
                     this.dbMgr.getTransactionControl().required(() -> {
                         if (this.entity instanceof SecurityGroup) {
 
                             if (!eventType.contains(OsNotificationEventState.POWER_OFF.toString())) {
                                 // if the listener is tied to SG then handle SG messages
-                                handleSGMessages(vmOpenstackId, message);
+                                handleSGMessages(vmOpenstackId, notification);
                             }
 
                         } else if (this.entity instanceof DeploymentSpec) {
                             // / if the listener is tied to DAI which belongs to a DS then handle DAI messages
                             if (!eventType.contains(OsNotificationEventState.CREATE.toString())) {
                                 // If DAI/SVA is migrated, deleted or powered off then trigger DS sync
-                                handleDAIMessages(vmOpenstackId, eventType, message);
+                                handleDAIMessages(vmOpenstackId, eventType, notification);
                             }
                         }
                         return null;
@@ -111,15 +119,15 @@ public class OsVMNotificationListener extends OsNotificationListener {
         }
     }
 
-    private void handleSGMessages(String vmOpenstackId, String message) throws Exception {
+    private void handleSGMessages(String vmOpenstackId, ParsedNotification notification) throws Exception {
         SecurityGroup securityGroup = (SecurityGroup) this.entity;
         // if the VM changes is part of Security Group
-        if (!isVmMigrated(vmOpenstackId, message)) {
+        if (!isVmMigrated(vmOpenstackId, notification)) {
 
             /*
              * If VM is not migrated then it is deleted we must trigger a SG Sync
              */
-            this.conformService.startSecurityGroupConformanceJob(securityGroup);
+            this.conformService.requestSecurityGroupSync(securityGroup);
         } else {
 
             /*
@@ -150,10 +158,11 @@ public class OsVMNotificationListener extends OsNotificationListener {
         }
     }
 
-    private void handleDAIMessages(String vmOpenstackId, String eventType, String message) throws Exception {
+    private void handleDAIMessages(String vmOpenstackId, String eventType, ParsedNotification notification)
+            throws Exception {
 
         if (eventType.contains(OsNotificationEventState.RESIZE_CONFIRM_END.toString())) {
-            if (isVmMigrated(vmOpenstackId, message)) {
+            if (isVmMigrated(vmOpenstackId, notification)) {
                 // When some one migrate DAI then we trigger sync Job to fix this issue
                 this.conformService.startDsConformanceJob((DeploymentSpec) this.entity, null);
             }
@@ -175,7 +184,7 @@ public class OsVMNotificationListener extends OsNotificationListener {
      *         False: if both IDs are same i.e. VM is not migrated it is just resized
      * @throws Exception
      */
-    private boolean isVmMigrated(String vmOpenstackId, String message) throws Exception {
+    private boolean isVmMigrated(String vmOpenstackId, ParsedNotification notification) throws Exception {
         /*
          * To verify a VM is migrated we perform the following checks
          * 1. Get Host Id from the VM in context
@@ -190,7 +199,7 @@ public class OsVMNotificationListener extends OsNotificationListener {
             VmDiscoveryCache vmCache = new VmDiscoveryCache(this.vc, this.vc.getProviderAdminProjectName());
 
             // parse Region from incoming Notification message
-            String region = OsNotificationUtil.getPropertyFromNotificationMessage(message, REGION_NOTIFICATION_KEY);
+            String region = notification.getProperty(REGION_NOTIFICATION_KEY);
 
             VmInfo vmInfo = vmCache.discover(region, vmOpenstackId);
             if (vmInfo == null) {
@@ -199,7 +199,7 @@ public class OsDeploymentSpecNotificationRunner implements BroadcastListener {
         return svaIdList;
     }
 
-    private void addListener(DeploymentSpec ds) {
+    private synchronized void addListener(DeploymentSpec ds) {
         try {
 
             // Add HA listener
@@ -273,9 +273,10 @@ public class OsDeploymentSpecNotificationRunner implements BroadcastListener {
         this.dsToListenerMap.put(ds.getId(), daiChangeListener);
     }
 
-    private void removeListener(Long dsId) {
-        for (OsNotificationListener listener : this.dsToListenerMap.get(dsId)) {
-            listener.unRegister(this.dsToVCMap.get(dsId), listener.getObjectType());
+    private synchronized void removeListener(Long dsId) {
+        VirtualizationConnector vc = this.dsToVCMap.remove(dsId);
+        for (OsNotificationListener listener : this.dsToListenerMap.removeAll(dsId)) {
+            listener.unRegister(vc, listener.getObjectType());
         }
     }
 
@@ -294,11 +295,8 @@ public class OsDeploymentSpecNotificationRunner implements BroadcastListener {
     public synchronized void removeIdFromListener(Long dsId, String daiId) {
         for (OsNotificationListener listener : this.dsToListenerMap.get(dsId)) {
             if (listener.getObjectType() == OsNotificationObjectType.VM) {
-                List<String> idList = listener.getObjectIdList();
-                if (!idList.isEmpty() || idList.contains(daiId)) {
-                    idList.remove(daiId);
-                    break;
-                }
+                listener.removeObjectId(daiId);
+                break;
             }
         }
     }
@@ -312,11 +310,8 @@ public class OsDeploymentSpecNotificationRunner implements BroadcastListener {
     public synchronized void addSVAIdToListener(Long dsId, String daiId) {
         for (OsNotificationListener listener : this.dsToListenerMap.get(dsId)) {
             if (listener.getObjectType() == OsNotificationObjectType.VM) {
-                List<String> idList = listener.getObjectIdList();
-                if (!idList.contains(daiId)) {
-                    idList.add(daiId);
-                    break;
-                }
+                listener.addObjectId(daiId);
+                break;
             }
         }
     }
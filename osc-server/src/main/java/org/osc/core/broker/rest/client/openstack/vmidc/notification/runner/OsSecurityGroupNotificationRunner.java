@@ -307,9 +307,9 @@ public class OsSecurityGroupNotificationRunner implements BroadcastListener {
     }
 
     private void removeListener(Long sgId) {
-
-        for (OsNotificationListener listener : this.sgToListenerMap.get(sgId)) {
-            listener.unRegister(this.sgToVCMap.get(sgId), listener.getObjectType());
+        VirtualizationConnector vc = this.sgToVCMap.remove(sgId);
+        for (OsNotificationListener listener : this.sgToListenerMap.removeAll(sgId)) {
+            listener.unRegister(vc, listener.getObjectType());
         }
     }
 }
@@ -24,6 +24,7 @@ import javax.persistence.EntityManager;
 import org.osc.core.broker.job.Job;
 import org.osc.core.broker.job.Job.JobCompletionListener;
 import org.osc.core.broker.job.JobEngine;
+import org.osc.core.broker.job.JobPriority;
 import org.osc.core.broker.job.JobQueuer;
 import org.osc.core.broker.job.JobQueuer.JobRequest;
 import org.osc.core.broker.job.Task;
@@ -40,6 +41,7 @@ import org.osc.core.broker.model.entities.virtualization.openstack.DeploymentSpe
 import org.osc.core.broker.model.plugin.ApiFactoryService;
 import org.osc.core.broker.rest.client.openstack.openstack4j.Endpoint;
 import org.osc.core.broker.service.api.ConformServiceApi;
+import org.osc.core.broker.service.api.RestConstants;
 import org.osc.core.broker.service.exceptions.VmidcBrokerValidationException;
 import org.osc.core.broker.service.persistence.DeploymentSpecEntityMgr;
 import org.osc.core.broker.service.persistence.OSCEntityManager;
@@ -58,8 +60,10 @@ import org.osc.core.broker.service.tasks.conformance.securitygroupinterface.MgrS
 import org.osc.core.broker.service.tasks.conformance.virtualizationconnector.CheckSSLConnectivityVcTask;
 import org.osc.core.broker.service.transactions.CompleteJobTransaction;
 import org.osc.core.broker.service.transactions.CompleteJobTransactionInput;
+import org.osc.core.broker.util.SessionUtil;
 import org.slf4j.LoggerFactory;
 import org.osc.core.common.job.TaskGuard;
+import org.osc.core.server.scheduler.SyncSchedule;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.component.annotations.Activate;
@@ -118,6 +122,8 @@ public class ConformService extends ServiceDispatcher<ConformRequest, BaseJobRes
 
     private BundleContext context;
 
+    private SecurityGroupSyncCoalescer securityGroupSyncCoalescer;
+
     private void delayedInit() {
         if (this.initDone.compareAndSet(false, true)) {
             this.dsConformanceCheckMetaTask = this.context.getService(this.dsConformanceCheckMetaTaskSR);
@@ -127,10 +133,12 @@ public class ConformService extends ServiceDispatcher<ConformRequest, BaseJobRes
     @Activate
     private void activate(BundleContext context) {
         this.context = context;
+        this.securityGroupSyncCoalescer = new SecurityGroupSyncCoalescer(this::startCoalescedSecurityGroupSync);
     }
 
     @Deactivate
     private void deactivate(BundleContext context) {
+        this.securityGroupSyncCoalescer.shutdown();
         if (this.initDone.get()) {
             context.ungetService(this.dsConformanceCheckMetaTaskSR);
         }
@@ -151,6 +159,7 @@ public class ConformService extends ServiceDispatcher<ConformRequest, BaseJobRes
 
     public Long startDAConformJob(EntityManager em, DistributedAppliance da, UnlockObjectMetaTask daMcUnlockTask,
             boolean trylock) throws Exception {
+        SyncSchedule.DISTRIBUTED_APPLIANCES.markDirty(da.getId());
         if (!da.getMarkedForDeletion()) {
             return startDASyncJob(em, da, daMcUnlockTask, trylock).getId();
         } else {
@@ -470,6 +479,13 @@ public class ConformService extends ServiceDispatcher<ConformRequest, BaseJobRes
      */
     public Job startSecurityGroupConformanceJob(EntityManager em, final SecurityGroup sg,
             UnlockObjectMetaTask sgUnlockTask, boolean queueThisJob) throws Exception {
+        return startSecurityGroupConformanceJob(em, sg, sgUnlockTask, queueThisJob, null);
+    }
+
+    private Job startSecurityGroupConformanceJob(EntityManager em, final SecurityGroup sg,
+            UnlockObjectMetaTask sgUnlockTask, boolean queueThisJob, Runnable onCompletion) throws Exception {
+        // Still dirty if the job fails to start, the scheduled sync then picks it up
+        SyncSchedule.SECURITY_GROUPS.markDirty(sg.getId());
         TaskGraph tg = new TaskGraph();
         try {
             if (sgUnlockTask == null) {
@@ -484,11 +500,12 @@ public class ConformService extends ServiceDispatcher<ConformRequest, BaseJobRes
             }
             if (queueThisJob) {
                 JobQueuer.getInstance().putJob(new JobRequest(jobName + " '" + sg.getName() + "'", tg,
-                        LockObjectReference.getObjectReferences(sg), getSecurityGroupJobCompletionListener(sg)));
+                        LockObjectReference.getObjectReferences(sg),
+                        getSecurityGroupJobCompletionListener(sg, onCompletion)));
                 return null;
             }
             Job job = JobEngine.getEngine().submit(jobName + " '" + sg.getName() + "'", tg,
-                    LockObjectReference.getObjectReferences(sg), getSecurityGroupJobCompletionListener(sg));
+                    LockObjectReference.getObjectReferences(sg), getSecurityGroupJobCompletionListener(sg, onCompletion));
 
             updateSGJob(em, sg, job);
 
@@ -503,6 +520,7 @@ public class ConformService extends ServiceDispatcher<ConformRequest, BaseJobRes
     public Job startBindSecurityGroupConformanceJob(EntityManager em, final SecurityGroup sg,
             UnlockObjectMetaTask sgUnlockTask)
                     throws Exception {
+        SyncSchedule.SECURITY_GROUPS.markDirty(sg.getId());
 
         TaskGraph tg = new TaskGraph();
 
@@ -532,10 +550,21 @@ public class ConformService extends ServiceDispatcher<ConformRequest, BaseJobRes
     }
 
     private JobCompletionListener getSecurityGroupJobCompletionListener(final SecurityGroup sg) {
+        return getSecurityGroupJobCompletionListener(sg, null);
+    }
+
+    private JobCompletionListener getSecurityGroupJobCompletionListener(final SecurityGroup sg,
+            Runnable onCompletion) {
         return new JobCompletionListener() {
             @Override
             public void completed(Job job) {
-                ConformService.this.updateSGJob(null, sg, job);
+                try {
+                    ConformService.this.updateSGJob(null, sg, job);
+                } finally {
+                    if (onCompletion != null) {
+                        onCompletion.run();
+                    }
+                }
             }
         };
     }
@@ -579,4 +608,47 @@ public class ConformService extends ServiceDispatcher<ConformRequest, BaseJobRes
     public Job startSecurityGroupConformanceJob(SecurityGroup sg) throws Exception {
         return startSecurityGroupConformanceJob(sg, null);
     }
+
+    /**
+     * Requests a Security Group sync on behalf of a notification. Requests for the same Security Group made
+     * within the sync window, or while a sync requested this way is running, are collapsed into a single sync.
+     */
+    public void requestSecurityGroupSync(SecurityGroup sg) {
+        SyncSchedule.SECURITY_GROUPS.markDirty(sg.getId());
+        this.securityGroupSyncCoalescer.request(sg.getId(), sg.getName());
+    }
+
+    /**
+     * Describes the pending and running notification triggered Security Group syncs and the number of requests
+     * suppressed and merged so far.
+     */
+    public String getSecurityGroupSyncStatus() {
+        return this.securityGroupSyncCoalescer.getStatus();
+    }
+
+    /**
+     * Sets the window, in milliseconds, within which notification triggered sync requests of a Security Group
+     * are collapsed into one.
+     */
+    public static void setSecurityGroupSyncWindow(String value) {
+        SecurityGroupSyncCoalescer.setSyncWindow(value);
+    }
+
+    private boolean startCoalescedSecurityGroupSync(Long sgId, Runnable onCompletion) throws Exception {
+        SessionUtil.getInstance().setUser(RestConstants.OSC_DEFAULT_LOGIN);
+        JobPriority.setCurrent(JobPriority.NOTIFICATION);
+        try {
+            EntityManager em = this.dbConnectionManager.getTransactionalEntityManager();
+            return this.dbConnectionManager.getTransactionControl().required(() -> {
+                SecurityGroup sg = SecurityGroupEntityMgr.findById(em, sgId);
+                if (sg == null) {
+                    return false;
+                }
+                startSecurityGroupConformanceJob(em, sg, null, false, onCompletion);
+                return true;
+            });
+        } catch (ScopedWorkException e) {
+            throw e.as(Exception.class);
+        }
+    }
 }
@@ -26,7 +26,6 @@ import org.osc.core.broker.model.entities.job.JobRecord;
 import org.osc.core.broker.service.api.ListJobServiceApi;
 import org.osc.core.broker.service.dto.JobRecordDto;
 import org.osc.core.broker.service.persistence.JobEntityManager;
-import org.osc.core.broker.service.persistence.OSCEntityManager;
 import org.osc.core.broker.service.request.ListJobRequest;
 import org.osc.core.broker.service.response.ListResponse;
 import org.osgi.service.component.annotations.Component;
@@ -40,14 +39,10 @@ public class ListJobService extends ServiceDispatcher<ListJobRequest, ListRespon
     public ListResponse<JobRecordDto> exec(ListJobRequest request, EntityManager em) throws Exception {
         ListResponse<JobRecordDto> response = new ListResponse<JobRecordDto>();
 
-        // Initializing Entity Manager
-        OSCEntityManager<JobRecord> emgr = new OSCEntityManager<JobRecord>(JobRecord.class, em, this.txBroadcastUtil);
-        // to do mapping
-
         List<JobRecordDto> dtoList = new ArrayList<JobRecordDto>();
 
-        // mapping all the job objects to job dto objects
-        for (JobRecord j : emgr.listAll(false, "id")) {
+        // A null request lists all jobs
+        for (JobRecord j : JobEntityManager.listJobs(em, request != null ? request : new ListJobRequest())) {
             JobRecordDto dto = new JobRecordDto();
             JobEntityManager.fromEntity(j, dto);
             dtoList.add(dto);
@@ -39,7 +39,7 @@ public class ListTaskService extends ServiceDispatcher<ListTaskRequest, ListResp
         List<TaskRecordDto> dtoList = new ArrayList<TaskRecordDto>();
         TaskEntityMgr emgr = new TaskEntityMgr(em, this.txBroadcastUtil);
 
-        for (TaskRecord tr : emgr.getTasksByJobId(request.getJobId())) {
+        for (TaskRecord tr : emgr.listTasks(request)) {
             TaskRecordDto dto = new TaskRecordDto();
             TaskEntityMgr.fromEntity(tr, dto);
             dtoList.add(dto);
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.osc.core.broker.job.lock.LockManager;
+import org.osc.core.broker.job.lock.LockObjectReference;
+import org.osc.core.broker.job.lock.LockObjectReference.ObjectType;
+import org.osc.core.broker.job.lock.LockRequest.LockType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Collapses bursts of Security Group sync requests into as few syncs as possible.
+ * <p>
+ * A requested sync starts once the sync window has passed; further requests for the same Security Group within the
+ * window are suppressed. Requests made while a sync started here is running are merged into a single follow-up sync,
+ * started one window after the running one completes. A sync is also held back while the Security Group is locked,
+ * since it would fail to lock it.
+ */
+final class SecurityGroupSyncCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(SecurityGroupSyncCoalescer.class);
+
+    public static final long DEFAULT_SYNC_WINDOW_MS = 2000;
+
+    private static volatile long syncWindowMs = DEFAULT_SYNC_WINDOW_MS;
+
+    /**
+     * Starts the sync of a Security Group.
+     */
+    interface SyncStarter {
+        /**
+         * @param onCompletion
+         *            to be run once the started sync completes
+         * @return false if no sync was started, in which case onCompletion is never run
+         */
+        boolean start(Long sgId, Runnable onCompletion) throws Exception;
+    }
+
+    private enum SyncState {
+        PENDING, RUNNING, RUNNING_WITH_FOLLOW_UP
+    }
+
+    private final SyncStarter starter;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    // All guarded by this
+    private final Map<Long, SyncState> syncs = new HashMap<>();
+    private long requested;
+    private long started;
+    private long suppressed;
+    private long merged;
+    private long deferred;
+
+    SecurityGroupSyncCoalescer(SyncStarter starter) {
+        this.starter = starter;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+                .setNameFormat("isc-sg-sync-coalescer-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Sets the sync window, in milliseconds. A value of zero or less starts syncs right away, but still merges requests
+     * made while a sync is running.
+     */
+    static void setSyncWindow(String value) {
+        if (value == null) {
+            return;
+        }
+        syncWindowMs = Long.parseLong(value);
+    }
+
+    synchronized void request(Long sgId, String sgName) {
+        this.requested++;
+        SyncState state = this.syncs.get(sgId);
+        if (state == null) {
+            this.syncs.put(sgId, SyncState.PENDING);
+            schedule(sgId, sgName);
+        } else if (state == SyncState.RUNNING) {
+            this.syncs.put(sgId, SyncState.RUNNING_WITH_FOLLOW_UP);
+            this.merged++;
+        } else {
+            this.suppressed++;
+        }
+    }
+
+    private void schedule(Long sgId, String sgName) {
+        this.scheduler.schedule(() -> startSync(sgId, sgName), Math.max(syncWindowMs, 0), TimeUnit.MILLISECONDS);
+    }
+
+    private void startSync(Long sgId, String sgName) {
+        synchronized (this) {
+            LockObjectReference sgRef = new LockObjectReference(sgId, sgName, ObjectType.SECURITY_GROUP);
+            if (!LockManager.getLockManager().isAvailable(sgRef, LockType.WRITE_LOCK)) {
+                this.deferred++;
+                schedule(sgId, sgName);
+                return;
+            }
+            this.syncs.put(sgId, SyncState.RUNNING);
+            this.started++;
+        }
+
+        AtomicBoolean completed = new AtomicBoolean();
+        Runnable onCompletion = () -> {
+            if (completed.compareAndSet(false, true)) {
+                completed(sgId, sgName);
+            }
+        };
+        try {
+            if (!this.starter.start(sgId, onCompletion)) {
+                onCompletion.run();
+            }
+        } catch (Exception e) {
+            log.error("Fail to start sync of Security Group '" + sgName + "'", e);
+            onCompletion.run();
+        }
+    }
+
+    private synchronized void completed(Long sgId, String sgName) {
+        if (this.syncs.remove(sgId) == SyncState.RUNNING_WITH_FOLLOW_UP) {
+            this.syncs.put(sgId, SyncState.PENDING);
+            schedule(sgId, sgName);
+        }
+    }
+
+    /**
+     * Describes the syncs pending and running and the number of requests collapsed so far.
+     */
+    synchronized String getStatus() {
+        long pending = this.syncs.values().stream().filter(s -> s == SyncState.PENDING).count();
+        return String.format(
+                "[sg sync coalescing] Window: %dms, Pending: %d, Running: %d, Requested: %d, Started: %d, Suppressed: %d, Merged: %d, Deferred: %d",
+                syncWindowMs, pending, this.syncs.size() - pending, this.requested, this.started, this.suppressed,
+                this.merged, this.deferred);
+    }
+
+    void shutdown() {
+        this.scheduler.shutdownNow();
+    }
+}
@@ -175,6 +175,24 @@ public class DeploymentSpecEntityMgr {
         return em.find(DeploymentSpec.class, id);
     }
 
+    /**
+     * Finds the deployment spec of a Kubernetes virtualization connector backed by the given deployment.
+     */
+    public static DeploymentSpec findByExternalId(EntityManager em, Long vcId, String externalId) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        CriteriaQuery<DeploymentSpec> query = cb.createQuery(DeploymentSpec.class);
+
+        Root<DeploymentSpec> root = query.from(DeploymentSpec.class);
+
+        query = query.select(root)
+                .where(cb.equal(root.get("externalId"), externalId),
+                        cb.equal(root.join("virtualSystem").join("virtualizationConnector").get("id"), vcId));
+
+        List<DeploymentSpec> dsList = em.createQuery(query).setMaxResults(1).getResultList();
+        return dsList.isEmpty() ? null : dsList.get(0);
+    }
+
     public static List<DeploymentSpec> listDeploymentSpecByProjectId(EntityManager em, String projectId) {
         CriteriaBuilder cb = em.getCriteriaBuilder();
 
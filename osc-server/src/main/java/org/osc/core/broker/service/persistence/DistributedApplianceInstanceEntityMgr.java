@@ -17,12 +17,21 @@
 package org.osc.core.broker.service.persistence;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
 import org.osc.core.broker.model.entities.appliance.DistributedAppliance;
@@ -93,6 +102,59 @@ public class DistributedApplianceInstanceEntityMgr {
         return true;
     }
 
+    /**
+     * Lists the id and name of the instances which have not reported their status since the given time.
+     */
+    public static Map<Long, String> listTimedOut(EntityManager em, Date lastStatusBefore) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+
+        Root<DistributedApplianceInstance> from = query.from(DistributedApplianceInstance.class);
+
+        query = query.multiselect(from.get("id"), from.get("name")).where(
+                isTimedOut(cb, from, lastStatusBefore));
+
+        Map<Long, String> dais = new HashMap<>();
+        for (Object[] dai : em.createQuery(query).getResultList()) {
+            dais.put((Long) dai[0], (String) dai[1]);
+        }
+        return dais;
+    }
+
+    /**
+     * Clears the discovered and inspection ready flags of the instances which have not reported their status since
+     * the given time, in a single update.
+     *
+     * @return the number of instances updated
+     */
+    public static int resetTimedOut(EntityManager em, Date lastStatusBefore) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        CriteriaUpdate<DistributedApplianceInstance> update = cb
+                .createCriteriaUpdate(DistributedApplianceInstance.class);
+
+        Root<DistributedApplianceInstance> from = update.from(DistributedApplianceInstance.class);
+        Path<Boolean> discovered = from.get("discovered");
+        Path<Boolean> inspectionReady = from.get("inspectionReady");
+        Path<Long> version = from.get("version");
+
+        // Bulk updates bypass the optimistic locking, bump the version by hand
+        update.set(discovered, cb.nullLiteral(Boolean.class))
+                .set(inspectionReady, cb.nullLiteral(Boolean.class))
+                .set(version, cb.sum(version, 1L))
+                .where(isTimedOut(cb, from, lastStatusBefore),
+                        cb.or(cb.isNotNull(discovered), cb.isNotNull(inspectionReady)));
+
+        return em.createQuery(update).executeUpdate();
+    }
+
+    private static Predicate isTimedOut(CriteriaBuilder cb, Root<DistributedApplianceInstance> from,
+            Date lastStatusBefore) {
+        Path<Date> lastStatus = from.get("lastStatus");
+        return cb.or(cb.isNull(lastStatus), cb.lessThan(lastStatus, lastStatusBefore));
+    }
+
     public static List<DistributedApplianceInstance> listByVsId(EntityManager em, Long vsId) {
         CriteriaBuilder cb = em.getCriteriaBuilder();
 
@@ -222,6 +284,24 @@ public class DistributedApplianceInstanceEntityMgr {
         return emgr.findByFieldName("name", name);
     }
 
+    /**
+     * Gets which of the given names are names of existing DAIs, in a single query.
+     */
+    public static Set<String> listExistingNames(EntityManager em, Collection<String> names) {
+        if (names.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        CriteriaQuery<String> query = cb.createQuery(String.class);
+
+        Root<DistributedApplianceInstance> root = query.from(DistributedApplianceInstance.class);
+        query = query.select(root.get("name")).where(root.get("name").in(names));
+
+        return new HashSet<>(em.createQuery(query).getResultList());
+    }
+
     public static DistributedApplianceInstance findByIpAddress(EntityManager em, String ipAddress) {
         CriteriaBuilder cb = em.getCriteriaBuilder();
 
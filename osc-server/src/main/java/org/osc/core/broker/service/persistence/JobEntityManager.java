@@ -19,6 +19,8 @@ package org.osc.core.broker.service.persistence;
 import static org.osc.core.common.job.JobState.COMPLETED;
 import static org.osc.core.common.job.JobStatus.FAILED;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -27,18 +29,26 @@ import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 
+import org.osc.core.broker.model.entities.ObjectType;
 import org.osc.core.broker.model.entities.job.JobObject;
 import org.osc.core.broker.model.entities.job.JobRecord;
 import org.osc.core.broker.service.api.JobEntityManagerApi;
 import org.osc.core.broker.service.dto.JobRecordDto;
 import org.osc.core.broker.service.dto.job.LockObjectDto;
 import org.osc.core.broker.service.dto.job.ObjectTypeDto;
+import org.osc.core.broker.service.exceptions.VmidcBrokerValidationException;
 import org.osc.core.broker.service.exceptions.VmidcException;
+import org.osc.core.broker.service.request.ListJobRequest;
 import org.osc.core.broker.util.db.DBConnectionManager;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
+import org.osc.core.common.job.JobState;
+import org.osc.core.common.job.JobStatus;
 import org.osgi.service.transaction.control.ScopedWorkException;
 
 @Component
@@ -143,6 +153,89 @@ public class JobEntityManager implements JobEntityManagerApi {
         return totalJobFailCount;
     }
 
+    /**
+     * Lists the jobs matching the request filters, most recent first, along with their objects.
+     * <p>
+     * A page is listed in two queries, the ids of the page are selected first so the fetch of the objects does not
+     * defeat the page limit.
+     */
+    public static List<JobRecord> listJobs(EntityManager em, ListJobRequest request)
+            throws VmidcBrokerValidationException {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        List<Long> pageIds = null;
+        if (request.getPageSize() > 0) {
+            CriteriaQuery<Long> idQuery = cb.createQuery(Long.class);
+            Root<JobRecord> from = idQuery.from(JobRecord.class);
+            idQuery = idQuery.select(from.get("id"))
+                    .where(getJobFilters(cb, idQuery, from, request))
+                    .orderBy(cb.desc(from.get("id")));
+
+            pageIds = em.createQuery(idQuery).setMaxResults(request.getPageSize()).getResultList();
+            if (pageIds.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        CriteriaQuery<JobRecord> query = cb.createQuery(JobRecord.class);
+        Root<JobRecord> from = query.from(JobRecord.class);
+        from.fetch("objects", JoinType.LEFT);
+        query = query.select(from).distinct(true)
+                .where(pageIds != null ? new Predicate[] { from.get("id").in(pageIds) }
+                        : getJobFilters(cb, query, from, request))
+                .orderBy(cb.desc(from.get("id")));
+
+        return em.createQuery(query).getResultList();
+    }
+
+    private static Predicate[] getJobFilters(CriteriaBuilder cb, CriteriaQuery<?> query, Root<JobRecord> from,
+            ListJobRequest request) throws VmidcBrokerValidationException {
+        List<Predicate> predicates = new ArrayList<>();
+        if (request.getBeforeId() != null) {
+            predicates.add(cb.lessThan(from.get("id"), request.getBeforeId()));
+        }
+        if (request.getState() != null) {
+            predicates.add(cb.equal(from.get("state"), parse(JobState.class, request.getState(), "job state")));
+        }
+        if (request.getStatus() != null) {
+            predicates.add(cb.equal(from.get("status"), parse(JobStatus.class, request.getStatus(), "job status")));
+        }
+        if (request.getCompletedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(from.get("completedTimestamp"), request.getCompletedFrom()));
+        }
+        if (request.getCompletedTo() != null) {
+            predicates.add(cb.lessThan(from.get("completedTimestamp"), request.getCompletedTo()));
+        }
+        if (request.getSubmittedBy() != null) {
+            predicates.add(cb.equal(from.get("submittedBy"), request.getSubmittedBy()));
+        }
+        if (request.getObjectType() != null || request.getObjectId() != null) {
+            Subquery<Long> objectQuery = query.subquery(Long.class);
+            Root<JobObject> object = objectQuery.from(JobObject.class);
+            List<Predicate> objectPredicates = new ArrayList<>();
+            objectPredicates.add(cb.equal(object.get("job"), from));
+            if (request.getObjectType() != null) {
+                objectPredicates.add(cb.equal(object.get("objectType"),
+                        parse(ObjectType.class, request.getObjectType(), "object type")));
+            }
+            if (request.getObjectId() != null) {
+                objectPredicates.add(cb.equal(object.get("objectId"), request.getObjectId()));
+            }
+            objectQuery.select(object.get("id")).where(objectPredicates.toArray(new Predicate[0]));
+            predicates.add(cb.exists(objectQuery));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    static <E extends Enum<E>> E parse(Class<E> type, String value, String description)
+            throws VmidcBrokerValidationException {
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            throw new VmidcBrokerValidationException("Invalid " + description + ": '" + value + "'");
+        }
+    }
+
     public List<JobRecord> getUncompletedJobs(EntityManager em) {
         CriteriaBuilder cb = em.getCriteriaBuilder();
 
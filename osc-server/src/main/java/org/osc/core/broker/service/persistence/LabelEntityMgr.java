@@ -16,12 +16,20 @@
  *******************************************************************************/
 package org.osc.core.broker.service.persistence;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
+import javax.persistence.Tuple;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Root;
 
+import org.osc.core.broker.model.entities.virtualization.SecurityGroupMember;
 import org.osc.core.broker.model.entities.virtualization.k8s.Label;
 
 public class LabelEntityMgr {
@@ -43,4 +51,28 @@ public class LabelEntityMgr {
             return null;
         }
     }
+
+    /**
+     * Lists the ids of the security groups of a virtualization connector protecting each label value. Members and
+     * security groups marked for deletion are left out.
+     */
+    public static Map<String, Set<Long>> listSecurityGroupIdsByValue(EntityManager em, Long vcId) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+
+        Root<Label> root = query.from(Label.class);
+        Join<Label, SecurityGroupMember> sgm = root.join("securityGroupMembers");
+
+        query = query.multiselect(root.get("value"), sgm.get("securityGroup").get("id"))
+                .where(cb.equal(sgm.get("securityGroup").get("virtualizationConnector").get("id"), vcId),
+                        cb.isFalse(sgm.get("markedForDeletion")),
+                        cb.isFalse(sgm.get("securityGroup").get("markedForDeletion")));
+
+        Map<String, Set<Long>> sgIdsByValue = new HashMap<>();
+        for (Tuple tuple : em.createQuery(query).getResultList()) {
+            sgIdsByValue.computeIfAbsent(tuple.get(0, String.class), v -> new HashSet<>()).add(tuple.get(1, Long.class));
+        }
+        return sgIdsByValue;
+    }
 }
@@ -16,10 +16,15 @@
  *******************************************************************************/
 package org.osc.core.broker.service.persistence;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Root;
 
 import org.osc.core.broker.model.entities.virtualization.k8s.Pod;
@@ -42,4 +47,31 @@ public class PodEntityMgr {
             return null;
         }
     }
+
+    /**
+     * Loads the pods with the given external ids along with their labels, in a single query.
+     *
+     * @return the pods found keyed by external id
+     */
+    public static Map<String, Pod> findByExternalIds(EntityManager em, Collection<String> externalIds) {
+        Map<String, Pod> pods = new HashMap<>();
+        if (externalIds.isEmpty()) {
+            return pods;
+        }
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        CriteriaQuery<Pod> query = cb.createQuery(Pod.class);
+
+        Root<Pod> root = query.from(Pod.class);
+        root.fetch("labels", JoinType.LEFT);
+
+        query = query.select(root).distinct(true)
+                .where(root.get("externalId").in(externalIds));
+
+        for (Pod pod : em.createQuery(query).getResultList()) {
+            pods.put(pod.getExternalId(), pod);
+        }
+        return pods;
+    }
 }
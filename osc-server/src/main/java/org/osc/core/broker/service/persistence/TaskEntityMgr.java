@@ -19,6 +19,7 @@ package org.osc.core.broker.service.persistence;
 import static org.osc.core.common.job.TaskState.COMPLETED;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -28,6 +29,7 @@ import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
@@ -37,7 +39,11 @@ import org.osc.core.broker.service.dto.TaskFailureRecordDto;
 import org.osc.core.broker.service.dto.TaskRecordDto;
 import org.osc.core.broker.service.dto.job.LockObjectDto;
 import org.osc.core.broker.service.dto.job.ObjectTypeDto;
+import org.osc.core.broker.service.exceptions.VmidcBrokerValidationException;
+import org.osc.core.broker.service.request.ListTaskRequest;
 import org.osc.core.broker.util.TransactionalBroadcastUtil;
+import org.osc.core.common.job.TaskState;
+import org.osc.core.common.job.TaskStatus;
 
 public class TaskEntityMgr extends OSCEntityManager<TaskRecord> {
 
@@ -102,6 +108,60 @@ public class TaskEntityMgr extends OSCEntityManager<TaskRecord> {
         return this.em.createQuery(query).getResultList();
     }
 
+    /**
+     * Lists the tasks of a job matching the request filters, in dependency order, along with their objects and
+     * predecessors.
+     * <p>
+     * A page is listed in two queries, the ids of the page are selected first so the fetch of the collections does
+     * not defeat the page limit.
+     */
+    public List<TaskRecord> listTasks(ListTaskRequest request) throws VmidcBrokerValidationException {
+        CriteriaBuilder cb = this.em.getCriteriaBuilder();
+
+        List<Long> pageIds = null;
+        if (request.getPageSize() > 0) {
+            CriteriaQuery<Long> idQuery = cb.createQuery(Long.class);
+            Root<TaskRecord> from = idQuery.from(TaskRecord.class);
+            idQuery = idQuery.select(from.get("id"))
+                    .where(getTaskFilters(cb, from, request))
+                    .orderBy(cb.asc(from.get("dependencyOrder")), cb.asc(from.get("id")));
+
+            pageIds = this.em.createQuery(idQuery).setMaxResults(request.getPageSize()).getResultList();
+            if (pageIds.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        CriteriaQuery<TaskRecord> query = cb.createQuery(TaskRecord.class);
+        Root<TaskRecord> from = query.from(TaskRecord.class);
+        from.fetch("objects", JoinType.LEFT);
+        from.fetch("predecessors", JoinType.LEFT);
+        query = query.select(from).distinct(true)
+                .where(pageIds != null ? new Predicate[] { from.get("id").in(pageIds) }
+                        : getTaskFilters(cb, from, request))
+                .orderBy(cb.asc(from.get("dependencyOrder")), cb.asc(from.get("id")));
+
+        return this.em.createQuery(query).getResultList();
+    }
+
+    private static Predicate[] getTaskFilters(CriteriaBuilder cb, Root<TaskRecord> from, ListTaskRequest request)
+            throws VmidcBrokerValidationException {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(from.get("job").get("id"), request.getJobId()));
+        if (request.getAfterDependencyOrder() != null) {
+            predicates.add(cb.greaterThan(from.get("dependencyOrder"), request.getAfterDependencyOrder()));
+        }
+        if (request.getState() != null) {
+            predicates.add(cb.equal(from.get("state"),
+                    JobEntityManager.parse(TaskState.class, request.getState(), "task state")));
+        }
+        if (request.getStatus() != null) {
+            predicates.add(cb.equal(from.get("status"),
+                    JobEntityManager.parse(TaskStatus.class, request.getStatus(), "task status")));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
     /**
      * Gets all the unique Task failures encountered since the from date.
      *
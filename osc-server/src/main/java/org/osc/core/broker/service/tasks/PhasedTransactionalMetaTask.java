@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.service.tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.OptimisticLockException;
+
+import org.hibernate.Hibernate;
+import org.osc.core.broker.model.entities.BaseEntity;
+import org.osgi.service.transaction.control.ScopedWorkException;
+import org.osgi.service.transaction.control.TransactionControl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link TransactionalMetaTask} which keeps its remote calls out of the database transaction.
+ * <p>
+ * The task runs in three phases: a short read transaction which loads the entities and captures what the remote
+ * calls need, the remote calls with no transaction open, and a short write transaction which applies the results
+ * and builds the task graph. Entities passed to {@link #validate(BaseEntity)} during the read phase are checked
+ * again at the start of the write phase; if any of them was changed or deleted in between, the phases are run
+ * again, up to {@link #MAX_ATTEMPTS} times.
+ * <p>
+ * The remote phase must only use the values captured during the read phase, entities loaded by the read
+ * transaction are detached by then and their lazy associations cannot be loaded.
+ */
+public abstract class PhasedTransactionalMetaTask extends TransactionalMetaTask {
+
+    private static final Logger log = LoggerFactory.getLogger(PhasedTransactionalMetaTask.class);
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private static final class ReadVersion {
+        private final Class<? extends BaseEntity> type;
+        private final Long id;
+        private final Long version;
+
+        @SuppressWarnings("unchecked")
+        private ReadVersion(BaseEntity entity) {
+            // The entity may be a lazy loading proxy
+            this.type = Hibernate.getClass(entity);
+            this.id = entity.getId();
+            this.version = entity.getVersion();
+        }
+    }
+
+    private final List<ReadVersion> readVersions = new ArrayList<>();
+
+    @Override
+    public void execute() throws Exception {
+        delayedInit();
+        EntityManager em = this.dbConnectionManager.getTransactionalEntityManager();
+        TransactionControl txControl = this.dbConnectionManager.getTransactionControl();
+        try {
+            for (int attempt = 1;; attempt++) {
+                this.readVersions.clear();
+                txControl.required(() -> {
+                    executeReadTransaction(em);
+                    return null;
+                });
+
+                executeRemoteCalls();
+
+                boolean written = txControl.required(() -> {
+                    if (!isUnchanged(em)) {
+                        return false;
+                    }
+                    executeWriteTransaction(em);
+                    return true;
+                });
+                if (written) {
+                    return;
+                }
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw new OptimisticLockException(
+                            String.format("Task '%s' gave up after the data it read changed %d times", this.name,
+                                    attempt));
+                }
+                log.info("Data read by task '" + this.name + "' changed during remote calls, retrying");
+            }
+        } catch (ScopedWorkException e) {
+            // Unwrap the ScopedWorkException to get the cause from
+            // the scoped work (i.e. the phase calls).
+            throw e.as(Exception.class);
+        }
+    }
+
+    /**
+     * Runs all phases within the caller's transaction.
+     */
+    @Override
+    public void executeTransaction(EntityManager em) throws Exception {
+        delayedInit();
+        this.readVersions.clear();
+        executeReadTransaction(em);
+        executeRemoteCalls();
+        executeWriteTransaction(em);
+    }
+
+    /**
+     * Loads the entities and captures the values needed by {@link #executeRemoteCalls()}.
+     */
+    protected abstract void executeReadTransaction(EntityManager em) throws Exception;
+
+    /**
+     * Performs the remote calls, with no transaction open.
+     */
+    protected abstract void executeRemoteCalls() throws Exception;
+
+    /**
+     * Reloads the entities, applies the results of the remote calls and builds the task graph.
+     */
+    protected abstract void executeWriteTransaction(EntityManager em) throws Exception;
+
+    /**
+     * Records the version of an entity loaded in the read phase, to be checked before the write phase.
+     */
+    protected void validate(BaseEntity entity) {
+        this.readVersions.add(new ReadVersion(entity));
+    }
+
+    private boolean isUnchanged(EntityManager em) {
+        for (ReadVersion read : this.readVersions) {
+            BaseEntity current = em.find(read.type, read.id);
+            if (current == null || !read.version.equals(current.getVersion())) {
+                log.info(String.format("%s %d changed since it was read by task '%s'", read.type.getSimpleName(),
+                        read.id, this.name));
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.service.tasks;
+
+import org.osc.core.broker.job.PollingTask;
+
+/**
+ * A {@link TransactionalTask} which waits for a condition by polling. Every call to
+ * {@link #executeTransaction(javax.persistence.EntityManager)} runs in its own transaction and performs one check.
+ * The task is done unless the check calls {@link #pollAgain(long)}.
+ */
+public abstract class TransactionalPollingTask extends TransactionalTask implements PollingTask {
+
+    private long pollDelay = DONE;
+    private int pollCount = 0;
+
+    @Override
+    public void execute() throws Exception {
+        this.pollDelay = DONE;
+        this.pollCount++;
+        super.execute();
+    }
+
+    @Override
+    public long getPollDelay() {
+        return this.pollDelay;
+    }
+
+    /**
+     * Requests another check after the given delay, in milliseconds.
+     */
+    protected void pollAgain(long delayMs) {
+        this.pollDelay = delayMs;
+    }
+
+    /**
+     * Gets the number of checks performed so far, including the current one.
+     */
+    protected int getPollCount() {
+        return this.pollCount;
+    }
+
+}
@@ -24,6 +24,7 @@ import org.osc.core.broker.job.MetaTask;
 import org.osc.core.broker.job.TaskGraph;
 import org.osc.core.broker.job.lock.LockObjectReference;
 import org.osc.core.broker.job.lock.LockObjectReference.ObjectType;
+import org.osc.core.broker.job.lock.LockOwner;
 import org.osc.core.common.job.TaskGuard;
 
 import com.google.common.base.Function;
@@ -33,6 +34,7 @@ public class UnlockObjectMetaTask implements MetaTask {
 
     private List<UnlockObjectTask> unlockTasks;
     private TaskGraph tg;
+    private volatile LockOwner lockOwner;
 
 
     public UnlockObjectMetaTask(List<UnlockObjectTask> unlockTasks) {
@@ -89,9 +91,23 @@ public class UnlockObjectMetaTask implements MetaTask {
     }
 
     public void addUnlockTask(UnlockObjectTask unlockTask) {
+        if (this.lockOwner != null) {
+            unlockTask.setLockOwner(this.lockOwner);
+        }
         this.unlockTasks.add(unlockTask);
     }
 
+    /**
+     * Sets the owner the locks released by the tasks within this meta task are held on behalf of, including the
+     * tasks added later on.
+     */
+    public void setLockOwner(LockOwner lockOwner) {
+        this.lockOwner = lockOwner;
+        for (UnlockObjectTask unlockTask : this.unlockTasks) {
+            unlockTask.setLockOwner(lockOwner);
+        }
+    }
+
     @Override
     public Set<LockObjectReference> getObjects() {
         return null;
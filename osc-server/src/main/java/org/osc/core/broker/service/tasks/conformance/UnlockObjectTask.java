@@ -20,6 +20,7 @@ import java.util.Set;
 
 import org.osc.core.broker.job.lock.LockManager;
 import org.osc.core.broker.job.lock.LockObjectReference;
+import org.osc.core.broker.job.lock.LockOwner;
 import org.osc.core.broker.job.lock.LockRequest;
 import org.osc.core.broker.job.lock.LockRequest.LockType;
 import org.osc.core.broker.service.tasks.BaseTask;
@@ -28,6 +29,7 @@ public class UnlockObjectTask extends BaseTask {
 
     private LockObjectReference objectRef;
     private LockType lockType = LockType.UNKNOWN_LOCK;
+    private volatile LockOwner lockOwner;
 
     public UnlockObjectTask(LockObjectReference objectRef, LockType lockType) {
         super(getName(objectRef, lockType));
@@ -47,6 +49,18 @@ public class UnlockObjectTask extends BaseTask {
         this.lockType = lockType;
     }
 
+    /**
+     * Gets the owner the lock released by this task is held on behalf of: the job whose task graph this task is
+     * linked into, null until then.
+     */
+    public LockOwner getLockOwner() {
+        return this.lockOwner;
+    }
+
+    public void setLockOwner(LockOwner lockOwner) {
+        this.lockOwner = lockOwner;
+    }
+
     private static String getName(LockObjectReference objectRef, LockType lockType) {
         return "Unlock object '" + objectRef.getName() + "' (" + lockType + ":" + objectRef.getType() + ")";
     }
@@ -25,15 +25,16 @@ import org.osc.core.broker.model.entities.virtualization.openstack.DeploymentSpe
 import org.osc.core.broker.rest.client.k8s.KubernetesClient;
 import org.osc.core.broker.rest.client.k8s.KubernetesDeployment;
 import org.osc.core.broker.rest.client.k8s.KubernetesDeploymentApi;
+import org.osc.core.broker.rest.client.k8s.KubernetesInformer;
 import org.osc.core.broker.service.exceptions.VmidcException;
 import org.osc.core.broker.service.persistence.OSCEntityManager;
-import org.osc.core.broker.service.tasks.TransactionalTask;
+import org.osc.core.broker.service.tasks.TransactionalPollingTask;
 import org.slf4j.LoggerFactory;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 
 @Component(service = CheckK8sDeploymentStateTask.class)
-public class CheckK8sDeploymentStateTask extends TransactionalTask {
+public class CheckK8sDeploymentStateTask extends TransactionalPollingTask {
     private static final Logger LOG = LoggerFactory.getLogger(CheckK8sDeploymentStateTask.class);
 
     private DeploymentSpec ds;
@@ -63,45 +64,51 @@ public class CheckK8sDeploymentStateTask extends TransactionalTask {
         OSCEntityManager<DeploymentSpec> dsEmgr = new OSCEntityManager<DeploymentSpec>(DeploymentSpec.class, em, this.txBroadcastUtil);
         this.ds = dsEmgr.findByPrimaryKey(this.ds.getId());
 
-        try (KubernetesClient client = new KubernetesClient(this.ds.getVirtualSystem().getVirtualizationConnector())) {
-            if (this.k8sDeploymentApi == null) {
-                this.k8sDeploymentApi = new KubernetesDeploymentApi(client);
-            } else {
-                this.k8sDeploymentApi.setKubernetesClient(client);
-            }
+        // Read the deployment from the watched copy of the cluster when it is up to date. A deployment just created
+        // may not have been seen yet.
+        KubernetesDeployment k8sDeployment = null;
+        KubernetesInformer informer = KubernetesInformer
+                .getInformer(this.ds.getVirtualSystem().getVirtualizationConnector().getId());
+        if (informer != null) {
+            k8sDeployment = informer.getDeploymentById(this.ds.getExternalId());
+        }
 
-            int attemptCount = 0;
-            for (; attemptCount < this.MAX_RETRIES; attemptCount++) {
-                KubernetesDeployment k8sDeployment = this.k8sDeploymentApi.getDeploymentById(
+        if (k8sDeployment == null) {
+            try (KubernetesClient client = new KubernetesClient(this.ds.getVirtualSystem().getVirtualizationConnector())) {
+                if (this.k8sDeploymentApi == null) {
+                    this.k8sDeploymentApi = new KubernetesDeploymentApi(client);
+                } else {
+                    this.k8sDeploymentApi.setKubernetesClient(client);
+                }
+
+                k8sDeployment = this.k8sDeploymentApi.getDeploymentById(
                         this.ds.getExternalId(),
                         this.ds.getNamespace(),
                         K8sUtil.getK8sName(this.ds));
+            }
+        }
 
-                if (k8sDeployment == null) {
-                    throw new VmidcException(String.format(
-                            "Kubernetes returned a null deployment for id %s, name %s, namespace %s",
-                            this.ds.getExternalId(),
-                            this.ds.getNamespace(),
-                            K8sUtil.getK8sName(this.ds)));
-                }
-
-                if (k8sDeployment.getAvailableReplicaCount() != this.ds.getInstanceCount()) {
-                    LOG.info(String.format("Kubernetes returned the deployment id %s, namespace %s and name %s with %s available count, the desired count is %s",
-                            this.ds.getExternalId(),
-                            this.ds.getNamespace(),
-                            K8sUtil.getK8sName(this.ds),
-                            k8sDeployment.getAvailableReplicaCount(),
-                            this.ds.getInstanceCount()));
-                } else {
-                    break;
-                }
+        if (k8sDeployment == null) {
+            throw new VmidcException(String.format(
+                    "Kubernetes returned a null deployment for id %s, name %s, namespace %s",
+                    this.ds.getExternalId(),
+                    this.ds.getNamespace(),
+                    K8sUtil.getK8sName(this.ds)));
+        }
 
-                Thread.sleep(this.RETRY_INTERVAL__MILLISECONDS);
-            }
+        if (k8sDeployment.getAvailableReplicaCount() != this.ds.getInstanceCount()) {
+            LOG.info(String.format("Kubernetes returned the deployment id %s, namespace %s and name %s with %s available count, the desired count is %s",
+                    this.ds.getExternalId(),
+                    this.ds.getNamespace(),
+                    K8sUtil.getK8sName(this.ds),
+                    k8sDeployment.getAvailableReplicaCount(),
+                    this.ds.getInstanceCount()));
 
-            if (attemptCount == this.MAX_RETRIES) {
+            if (getPollCount() >= this.MAX_RETRIES) {
                 throw new VmidcException("The Kubernetes deployment failed to reach the desired replica count.");
             }
+
+            pollAgain(this.RETRY_INTERVAL__MILLISECONDS);
         }
     }
 
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.service.tasks.conformance.k8s.securitygroup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.osc.core.broker.job.lock.LockObjectReference;
+import org.osc.core.broker.model.entities.virtualization.k8s.Label;
+import org.osc.core.broker.model.entities.virtualization.k8s.Pod;
+import org.osc.core.broker.model.entities.virtualization.k8s.PodPort;
+import org.osc.core.broker.rest.client.k8s.KubernetesPod;
+import org.osc.core.broker.service.persistence.OSCEntityManager;
+import org.osc.core.broker.service.persistence.PodEntityMgr;
+import org.osc.core.broker.service.tasks.TransactionalTask;
+import org.osgi.service.component.annotations.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This task applies the pod membership changes of a label in a single transaction: it adds the
+ * pods newly matching the label, whose ports were looked up by the {@link ResolveK8sLabelPodPortTask}s
+ * preceding it, and removes the pods no longer matching it. A removed pod is deleted along with its
+ * port unless it still belongs to another label.
+ * <p>
+ * Pods whose port could not be looked up are left out, they are picked up again on the next sync.
+ * The label membership rows and the deletes are sent to the database in JDBC batches of {@link #BATCH_SIZE}.
+ * The new pods and ports are still inserted one at a time: their ids are generated by the database
+ * ({@code IDENTITY}), so Hibernate inserts each of them as soon as it is persisted.
+ */
+@Component(service = ReconcileK8sLabelPodsTask.class)
+public class ReconcileK8sLabelPodsTask extends TransactionalTask {
+    private static final Logger LOG = LoggerFactory.getLogger(ReconcileK8sLabelPodsTask.class);
+
+    static final int BATCH_SIZE = 50;
+
+    private Label label;
+    private List<KubernetesPod> k8sPodsToCreate;
+    private List<Pod> dbPodsToDelete;
+
+    // Filled in concurrently by the port look up tasks
+    private final Map<String, PodPort> podPorts = new ConcurrentHashMap<>();
+
+    @Override
+    public void executeTransaction(EntityManager em) throws Exception {
+        // Does not apply to the pod and port inserts, which Hibernate never batches for IDENTITY ids
+        em.unwrap(Session.class).setJdbcBatchSize(BATCH_SIZE);
+
+        this.label = em.find(Label.class, this.label.getId());
+        Set<String> labelPodIds = this.label.getPods().stream().map(Pod::getExternalId).collect(Collectors.toSet());
+
+        List<KubernetesPod> resolvedK8sPods = this.k8sPodsToCreate.stream()
+                .filter(p -> this.podPorts.containsKey(p.getUid()) && !labelPodIds.contains(p.getUid()))
+                .collect(Collectors.toList());
+        Map<String, Pod> existingPods = PodEntityMgr.findByExternalIds(em,
+                resolvedK8sPods.stream().map(KubernetesPod::getUid).collect(Collectors.toList()));
+
+        int count = 0;
+        int created = 0;
+        for (KubernetesPod k8sPod : resolvedK8sPods) {
+            Pod pod = existingPods.get(k8sPod.getUid());
+            if (pod == null) {
+                PodPort podPort = this.podPorts.get(k8sPod.getUid());
+                pod = new Pod(k8sPod.getName(), k8sPod.getNamespace(), k8sPod.getNode(), k8sPod.getUid());
+
+                pod.getPorts().add(podPort);
+                podPort.setPod(pod);
+
+                OSCEntityManager.create(em, podPort, this.txBroadcastUtil);
+                OSCEntityManager.create(em, pod, this.txBroadcastUtil);
+                created++;
+            }
+
+            this.label.getPods().add(pod);
+            pod.getLabels().add(this.label);
+            flushBatch(em, ++count);
+        }
+
+        int deleted = 0;
+        Map<String, Pod> podsToDelete = PodEntityMgr.findByExternalIds(em,
+                this.dbPodsToDelete.stream().map(Pod::getExternalId).collect(Collectors.toList()));
+        for (Pod pod : podsToDelete.values()) {
+
+            this.label.getPods().remove(pod);
+            pod.getLabels().remove(this.label);
+
+            // The pod is still protected through another label, only leave this one
+            if (pod.getLabels().isEmpty()) {
+                for (PodPort podPort : new ArrayList<>(pod.getPorts())) {
+                    OSCEntityManager.delete(em, podPort, this.txBroadcastUtil);
+                }
+                OSCEntityManager.delete(em, pod, this.txBroadcastUtil);
+                deleted++;
+            }
+            flushBatch(em, ++count);
+        }
+
+        OSCEntityManager.update(em, this.label, this.txBroadcastUtil);
+
+        LOG.info(String.format("Label '%s': added %d pods (%d created), removed %d pods (%d deleted), %d pods left out",
+                this.label.getValue(), resolvedK8sPods.size(), created, podsToDelete.size(), deleted,
+                this.k8sPodsToCreate.size() - resolvedK8sPods.size()));
+    }
+
+    private static void flushBatch(EntityManager em, int count) {
+        if (count % BATCH_SIZE == 0) {
+            em.flush();
+        }
+    }
+
+    /**
+     * Records the port of a pod to add to the label.
+     */
+    void addPodPort(KubernetesPod k8sPod, PodPort podPort) {
+        this.podPorts.put(k8sPod.getUid(), podPort);
+    }
+
+    public ReconcileK8sLabelPodsTask create(Label label, Collection<KubernetesPod> k8sPodsToCreate, Collection<Pod> dbPodsToDelete) {
+        ReconcileK8sLabelPodsTask task = new ReconcileK8sLabelPodsTask();
+        task.label = label;
+        task.k8sPodsToCreate = new ArrayList<>(k8sPodsToCreate);
+        task.dbPodsToDelete = new ArrayList<>(dbPodsToDelete);
+        task.dbConnectionManager = this.dbConnectionManager;
+        task.txBroadcastUtil = this.txBroadcastUtil;
+        return task;
+    }
+
+    @Override
+    public String getName() {
+        return String.format("Updating the pods of the member '%s': %d to add, %d to remove", this.label.getValue(),
+                this.k8sPodsToCreate.size(), this.dbPodsToDelete.size());
+    }
+
+    @Override
+    public Set<LockObjectReference> getObjects() {
+        return LockObjectReference.getObjectReferences(this.label);
+    }
+}
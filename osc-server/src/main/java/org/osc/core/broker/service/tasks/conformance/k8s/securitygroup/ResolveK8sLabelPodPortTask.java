@@ -29,34 +29,37 @@ import org.osc.core.broker.model.entities.virtualization.k8s.PodPort;
 import org.osc.core.broker.model.plugin.ApiFactoryService;
 import org.osc.core.broker.rest.client.k8s.KubernetesPod;
 import org.osc.core.broker.service.exceptions.VmidcException;
-import org.osc.core.broker.service.persistence.OSCEntityManager;
 import org.osc.core.broker.service.persistence.PodEntityMgr;
 import org.osc.core.broker.service.tasks.TransactionalTask;
-import org.slf4j.LoggerFactory;
 import org.osc.sdk.controller.api.SdnRedirectionApi;
 import org.osc.sdk.controller.element.NetworkElement;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
-import org.slf4j.Logger;
 
-@Component(service = CreateK8sLabelPodTask.class)
-public class CreateK8sLabelPodTask extends TransactionalTask{
-    private static final Logger LOG = LoggerFactory.getLogger(CreateK8sLabelPodTask.class);
+/**
+ * This task looks up the SDN port of a pod newly matching a label and hands it to the
+ * {@link ReconcileK8sLabelPodsTask} of the label, which persists it. It does not write to the
+ * database so the tasks of all the pods of a label can run in parallel.
+ * <p>
+ * The task fails if the pod is already protected by another security group or if the SDN
+ * controller does not know the pod port, the pod is then left out of the label until the next sync.
+ */
+@Component(service = ResolveK8sLabelPodPortTask.class)
+public class ResolveK8sLabelPodPortTask extends TransactionalTask {
 
     private KubernetesPod k8sPod;
     private Label label;
+    private ReconcileK8sLabelPodsTask reconcileTask;
 
     @Reference
     private ApiFactoryService apiFactoryService;
 
     @Override
     public void executeTransaction(EntityManager em) throws Exception {
-        OSCEntityManager<Label> dsEmgr = new OSCEntityManager<Label>(Label.class, em, this.txBroadcastUtil);
-        this.label = dsEmgr.findByPrimaryKey(this.label.getId());
+        Label label = em.find(Label.class, this.label.getId());
+        SecurityGroup thisSG = label.getSecurityGroupMembers().iterator().next().getSecurityGroup();
 
         Pod existingPod = PodEntityMgr.findExternalId(em, this.k8sPod.getUid());
-        SecurityGroup thisSG = this.label.getSecurityGroupMembers().iterator().next().getSecurityGroup();
-
         if (existingPod != null) {
             for (Label existingPodLabel : existingPod.getLabels()) {
                 if (existingPodLabel.getMarkedForDeletion()) {
@@ -86,38 +89,18 @@ public class CreateK8sLabelPodTask extends TransactionalTask{
             }
         }
 
-        if (existingPod == null) {
-            PodPort podPort = new PodPort(
-                    portElement.getElementId(),
-                    portElement.getMacAddresses().get(0),
-                    portElement.getPortIPs().get(0),
-                    portElement.getParentId());
-
-            Pod newPod = new Pod(
-                    this.k8sPod.getName(),
-                    this.k8sPod.getNamespace(),
-                    this.k8sPod.getNode(),
-                    this.k8sPod.getUid());
-
-            newPod.getPorts().add(podPort);
-            podPort.setPod(newPod);
-
-            OSCEntityManager.create(em, podPort, this.txBroadcastUtil);
-            OSCEntityManager.create(em, newPod, this.txBroadcastUtil);
-            existingPod = newPod;
-        }
-
-        this.label.getPods().add(existingPod);
-
-        OSCEntityManager.update(em, this.label, this.txBroadcastUtil);
-
-        LOG.info(String.format("Created pod entity for %s", this.k8sPod.getName()));
+        this.reconcileTask.addPodPort(this.k8sPod, new PodPort(
+                portElement.getElementId(),
+                portElement.getMacAddresses().get(0),
+                portElement.getPortIPs().get(0),
+                portElement.getParentId()));
     }
 
-    public CreateK8sLabelPodTask create(KubernetesPod k8sPod, Label label) {
-        CreateK8sLabelPodTask task = new CreateK8sLabelPodTask();
+    public ResolveK8sLabelPodPortTask create(KubernetesPod k8sPod, Label label, ReconcileK8sLabelPodsTask reconcileTask) {
+        ResolveK8sLabelPodPortTask task = new ResolveK8sLabelPodPortTask();
         task.k8sPod = k8sPod;
         task.label = label;
+        task.reconcileTask = reconcileTask;
         task.apiFactoryService = this.apiFactoryService;
         task.dbConnectionManager = this.dbConnectionManager;
         task.txBroadcastUtil = this.txBroadcastUtil;
@@ -126,7 +109,7 @@ public class CreateK8sLabelPodTask extends TransactionalTask{
 
     @Override
     public String getName() {
-        return String.format("Persisting the pod name '%s', id '%s' under the member '%s'", this.k8sPod.getName(), this.k8sPod.getUid(), this.label.getValue());
+        return String.format("Looking up the port of the pod name '%s', id '%s' for the member '%s'", this.k8sPod.getName(), this.k8sPod.getUid(), this.label.getValue());
     }
 
     @Override
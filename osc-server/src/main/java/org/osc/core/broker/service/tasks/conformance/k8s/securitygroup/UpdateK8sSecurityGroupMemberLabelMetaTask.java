@@ -18,7 +18,7 @@ package org.osc.core.broker.service.tasks.conformance.k8s.securitygroup;
 
 import static org.apache.commons.collections4.CollectionUtils.emptyIfNull;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -26,15 +26,18 @@ import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
 
+import org.osc.core.broker.job.Task;
 import org.osc.core.broker.job.TaskGraph;
 import org.osc.core.broker.job.lock.LockObjectReference;
 import org.osc.core.broker.model.entities.virtualization.SecurityGroupMember;
 import org.osc.core.broker.model.entities.virtualization.k8s.Label;
 import org.osc.core.broker.model.entities.virtualization.k8s.Pod;
 import org.osc.core.broker.rest.client.k8s.KubernetesClient;
+import org.osc.core.broker.rest.client.k8s.KubernetesInformer;
 import org.osc.core.broker.rest.client.k8s.KubernetesPod;
 import org.osc.core.broker.rest.client.k8s.KubernetesPodApi;
 import org.osc.core.broker.service.tasks.TransactionalMetaTask;
+import org.osc.core.common.job.TaskGuard;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 
@@ -43,10 +46,10 @@ public class UpdateK8sSecurityGroupMemberLabelMetaTask extends TransactionalMeta
     private SecurityGroupMember sgm;
 
     @Reference
-    CreateK8sLabelPodTask labelPodCreateTask;
+    ResolveK8sLabelPodPortTask labelPodPortResolveTask;
 
     @Reference
-    DeleteK8sLabelPodTask labelPodDeleteTask;
+    ReconcileK8sLabelPodsTask labelPodsReconcileTask;
 
     private TaskGraph tg;
 
@@ -68,14 +71,23 @@ public class UpdateK8sSecurityGroupMemberLabelMetaTask extends TransactionalMeta
         Label label = this.sgm.getLabel();
         label = em.find(Label.class, label.getId());
 
-        List<KubernetesPod> k8sPods = Collections.emptyList();
-        try (KubernetesClient client = new KubernetesClient(this.sgm.getSecurityGroup().getVirtualizationConnector())) {
-            if (this.k8sPodApi == null) {
-                this.k8sPodApi = new KubernetesPodApi(client);
-            } else {
-                this.k8sPodApi.setKubernetesClient(client);
+        // Read the pods from the watched copy of the cluster when it is up to date
+        List<KubernetesPod> k8sPods = null;
+        KubernetesInformer informer = KubernetesInformer
+                .getInformer(this.sgm.getSecurityGroup().getVirtualizationConnector().getId());
+        if (informer != null) {
+            k8sPods = informer.getPodsByLabel(this.sgm.getLabel().getValue());
+        }
+
+        if (k8sPods == null) {
+            try (KubernetesClient client = new KubernetesClient(this.sgm.getSecurityGroup().getVirtualizationConnector())) {
+                if (this.k8sPodApi == null) {
+                    this.k8sPodApi = new KubernetesPodApi(client);
+                } else {
+                    this.k8sPodApi.setKubernetesClient(client);
+                }
+                k8sPods = this.k8sPodApi.getPodsByLabel(this.sgm.getLabel().getValue());
             }
-            k8sPods = this.k8sPodApi.getPodsByLabel(this.sgm.getLabel().getValue());
         }
 
         Set<String> existingPodIdsInOSC = emptyIfNull(label.getPods()).stream().map(Pod::getExternalId)
@@ -90,17 +102,28 @@ public class UpdateK8sSecurityGroupMemberLabelMetaTask extends TransactionalMeta
         Set<Pod> dbPodsToDelete = emptyIfNull(label.getPods()).stream()
                 .filter(p -> !existingPodIdsInK8s.contains(p.getExternalId())).collect(Collectors.toCollection(LinkedHashSet::new));
 
-        // TODO emanoel: Using append instead of adding here because of a transactional issue updating multiple
-        // pods in the same label concurrently. An alternative to this might be locking the label member entity.
-        k8sPodsToCreate.forEach(p -> this.tg.appendTask(this.labelPodCreateTask.create(p, this.sgm.getLabel())));
-        dbPodsToDelete.forEach(p -> this.tg.addTask(this.labelPodDeleteTask.create(p, this.sgm.getLabel())));
+        if (k8sPodsToCreate.isEmpty() && dbPodsToDelete.isEmpty()) {
+            return;
+        }
+
+        // The port look ups run in parallel, the label membership is then updated by a single task
+        // so concurrent updates of the label cannot conflict.
+        ReconcileK8sLabelPodsTask reconcileTask = this.labelPodsReconcileTask.create(this.sgm.getLabel(),
+                k8sPodsToCreate, dbPodsToDelete);
+        List<Task> resolveTasks = new ArrayList<>();
+        for (KubernetesPod k8sPod : k8sPodsToCreate) {
+            Task resolveTask = this.labelPodPortResolveTask.create(k8sPod, this.sgm.getLabel(), reconcileTask);
+            this.tg.addTask(resolveTask);
+            resolveTasks.add(resolveTask);
+        }
+        this.tg.addTask(reconcileTask, TaskGuard.ALL_PREDECESSORS_COMPLETED, resolveTasks.toArray(new Task[0]));
     }
 
     UpdateK8sSecurityGroupMemberLabelMetaTask create(SecurityGroupMember sgm, KubernetesPodApi k8sPodApi) {
         UpdateK8sSecurityGroupMemberLabelMetaTask task = new UpdateK8sSecurityGroupMemberLabelMetaTask();
         task.sgm = sgm;
-        task.labelPodCreateTask = this.labelPodCreateTask;
-        task.labelPodDeleteTask = this.labelPodDeleteTask;
+        task.labelPodPortResolveTask = this.labelPodPortResolveTask;
+        task.labelPodsReconcileTask = this.labelPodsReconcileTask;
         task.dbConnectionManager = this.dbConnectionManager;
         task.txBroadcastUtil = this.txBroadcastUtil;
         task.k8sPodApi = this.k8sPodApi;
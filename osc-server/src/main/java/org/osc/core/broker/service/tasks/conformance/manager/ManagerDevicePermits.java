@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.service.tasks.conformance.manager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits how many member device tasks call a manager at once. The limit applies per appliance manager connector,
+ * across the virtual systems of all the distributed appliances syncing against it at the same time.
+ */
+final class ManagerDevicePermits {
+
+    private static final class Permits {
+        private final int limit;
+        private final Semaphore semaphore;
+
+        private Permits(int limit) {
+            this.limit = limit;
+            this.semaphore = new Semaphore(limit, true);
+        }
+    }
+
+    private static final ConcurrentMap<Long, Permits> permitsByManager = new ConcurrentHashMap<>();
+
+    private ManagerDevicePermits() {
+    }
+
+    /**
+     * Gets the permits of a manager connector. A changed limit takes effect for the permits handed out from now on.
+     *
+     * @param mcId
+     *            the id of the appliance manager connector
+     * @param limit
+     *            the number of member device tasks allowed to call the manager at once
+     */
+    static Semaphore forManager(Long mcId, int limit) {
+        return permitsByManager.compute(mcId,
+                (id, permits) -> permits != null && permits.limit == limit ? permits : new Permits(limit)).semaphore;
+    }
+
+    /**
+     * Waits for a permit, if the task runs under a limit.
+     */
+    static void acquire(Semaphore permits) throws InterruptedException {
+        if (permits != null) {
+            permits.acquire();
+        }
+    }
+
+    static void release(Semaphore permits) {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+}
@@ -16,11 +16,16 @@
  *******************************************************************************/
 package org.osc.core.broker.service.tasks.conformance.manager;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
 
 import org.apache.commons.lang.StringUtils;
+import org.osc.core.broker.job.Task;
 import org.osc.core.broker.job.TaskGraph;
 import org.osc.core.broker.job.lock.LockObjectReference;
 import org.osc.core.broker.model.entities.appliance.DistributedApplianceInstance;
@@ -84,64 +89,90 @@ public class MgrCheckDevicesMetaTask extends TransactionalMetaTask {
 
         try (ManagerDeviceApi mgrApi = this.apiFactoryService.createManagerDeviceApi(this.vs)) {
 
-            // Check Container Appliance first
-            if (mgrApi.isDeviceGroupSupported()) {
-                checkVSSDevice(this.vs, mgrApi, em);
+            // If device grouping not supported, then skip the container and the members on manager
+            if (!mgrApi.isDeviceGroupSupported()) {
+                this.tg.appendTask(this.updateDAISManagerDeviceId.create(this.vs));
+                return;
             }
 
+            // Check Container Appliance first
+            Task vssDeviceTask = checkVSSDevice(this.vs);
+
+            // The member tasks are spread over as many parallel chains as the manager plugin allows. The member tasks
+            // of all the virtual systems of the manager connector share its permits, so the manager sees no more
+            // calls at once than the limit however many virtual systems sync.
+            int maxConcurrentDeviceTasks = Math.max(this.apiFactoryService.getMaxConcurrentDeviceTasks(this.vs), 1);
+            Semaphore managerPermits = ManagerDevicePermits.forManager(
+                    this.vs.getDistributedAppliance().getApplianceManagerConnector().getId(), maxConcurrentDeviceTasks);
+            List<Task> memberDeviceTasks = new ArrayList<>();
+
             // TODO: Future. If deleting members tasks fails, we may still want to continue with member device checks
             // Remove dangling members
-
-            // If device grouping not supported, then skip deleting the members on manager
-            if (mgrApi.isDeviceGroupSupported() && this.vs.getMgrId() != null) {
-                for (ManagerDeviceMemberElement device : mgrApi.listDeviceMembers()) {
-                    DistributedApplianceInstance dai = DistributedApplianceInstanceEntityMgr.findByName(em,
-                            device.getName(), this.txBroadcastUtil);
-                    if (dai == null) {
-                        this.tg.appendTask(this.mgrDeleteMemberDeviceTask.create(this.vs, device));
+            if (this.vs.getMgrId() != null) {
+                List<? extends ManagerDeviceMemberElement> devices = mgrApi.listDeviceMembers();
+                Set<String> daiNames = DistributedApplianceInstanceEntityMgr.listExistingNames(em,
+                        devices.stream().map(ManagerDeviceMemberElement::getName).collect(Collectors.toSet()));
+                for (ManagerDeviceMemberElement device : devices) {
+                    if (!daiNames.contains(device.getName())) {
+                        MgrDeleteMemberDeviceTask deleteTask = this.mgrDeleteMemberDeviceTask.create(this.vs, device);
+                        deleteTask.managerPermits = managerPermits;
+                        memberDeviceTasks.add(deleteTask);
                     }
                 }
             }
 
             // Check DAIs
-            if (mgrApi.isDeviceGroupSupported()) {
-                for (DistributedApplianceInstance dai : this.vs.getDistributedApplianceInstances()) {
-                    checkMemberDevice(em, dai, mgrApi, this.tg);
+            for (DistributedApplianceInstance dai : this.vs.getDistributedApplianceInstances()) {
+                Task memberDeviceTask = checkMemberDevice(dai, managerPermits);
+                if (memberDeviceTask != null) {
+                    memberDeviceTasks.add(memberDeviceTask);
                 }
-            } else {
-                this.tg.appendTask(this.updateDAISManagerDeviceId.create(this.vs));
             }
 
+            Task[] chainTails = new Task[maxConcurrentDeviceTasks];
+            for (int i = 0; i < memberDeviceTasks.size(); i++) {
+                int chain = i % chainTails.length;
+                Task predecessor = chainTails[chain] != null ? chainTails[chain] : vssDeviceTask;
+                this.tg.addTask(memberDeviceTasks.get(i), predecessor);
+                chainTails[chain] = memberDeviceTasks.get(i);
+            }
         }
     }
 
-    private void checkVSSDevice(VirtualSystem vs, ManagerDeviceApi mgrApi, EntityManager em) throws Exception {
+    private Task checkVSSDevice(VirtualSystem vs) throws Exception {
+        Task task;
 
         // Check if already been created in Manager
         if (vs.getMgrId() != null) {
-            this.tg.appendTask(this.mgrUpdateVSSDeviceTask.create(vs));
+            task = this.mgrUpdateVSSDeviceTask.create(vs);
         } else {
             // Add device to Manager if not yet added.
-            this.tg.appendTask(this.mgrCreateVSSDeviceTask.create(vs));
+            task = this.mgrCreateVSSDeviceTask.create(vs);
         }
 
+        this.tg.appendTask(task);
+        return task;
     }
 
-    private void checkMemberDevice(EntityManager em, DistributedApplianceInstance dai, ManagerDeviceApi mgrApi,
-            TaskGraph tg) throws Exception {
+    private Task checkMemberDevice(DistributedApplianceInstance dai, Semaphore managerPermits) throws Exception {
 
         // Check if already been created in Manager
         if (dai.getMgrDeviceId() != null) {
 
             // Verify existence in Manager.
-            tg.appendTask(this.mgrUpdateMemberDeviceTask.create(dai));
+            MgrUpdateMemberDeviceTask task = this.mgrUpdateMemberDeviceTask.create(dai);
+            task.managerPermits = managerPermits;
+            return task;
         } else {
             // Add device to Manager if not yet added.
             if (!StringUtils.isEmpty(dai.getIpAddress())) {
-                tg.appendTask(this.mgrCreateMemberDeviceTask.create(dai));
+                MgrCreateMemberDeviceTask task = this.mgrCreateMemberDeviceTask.create(dai);
+                task.managerPermits = managerPermits;
+                return task;
             }
         }
 
+        return null;
     }
 
     @Override
@@ -17,6 +17,7 @@
 package org.osc.core.broker.service.tasks.conformance.manager;
 
 import java.util.Set;
+import java.util.concurrent.Semaphore;
 
 import javax.persistence.EntityManager;
 
@@ -24,6 +25,7 @@ import org.osc.core.broker.job.lock.LockObjectReference;
 import org.osc.core.broker.model.entities.appliance.DistributedApplianceInstance;
 import org.osc.core.broker.model.plugin.ApiFactoryService;
 import org.osc.core.broker.service.persistence.OSCEntityManager;
+import org.osc.core.broker.service.tasks.IgnoreCompare;
 import org.osc.core.broker.service.tasks.TransactionalTask;
 import org.slf4j.LoggerFactory;
 import org.osc.sdk.manager.api.ManagerDeviceApi;
@@ -39,6 +41,10 @@ public class MgrCreateMemberDeviceTask extends TransactionalTask {
     @Reference
     private ApiFactoryService apiFactoryService;
 
+    // The permits of the manager when run by MgrCheckDevicesMetaTask, see ManagerDevicePermits
+    @IgnoreCompare
+    Semaphore managerPermits;
+
     private DistributedApplianceInstance dai;
 
     public MgrCreateMemberDeviceTask create(DistributedApplianceInstance dai) {
@@ -52,6 +58,16 @@ public class MgrCreateMemberDeviceTask extends TransactionalTask {
         return task;
     }
 
+    @Override
+    public void execute() throws Exception {
+        ManagerDevicePermits.acquire(this.managerPermits);
+        try {
+            super.execute();
+        } finally {
+            ManagerDevicePermits.release(this.managerPermits);
+        }
+    }
+
     @Override
     public void executeTransaction(EntityManager em) throws Exception {
 
@@ -16,11 +16,14 @@
  *******************************************************************************/
 package org.osc.core.broker.service.tasks.conformance.manager;
 
+import java.util.concurrent.Semaphore;
+
 import javax.persistence.EntityManager;
 
 import org.osc.core.broker.model.entities.appliance.DistributedApplianceInstance;
 import org.osc.core.broker.model.entities.appliance.VirtualSystem;
 import org.osc.core.broker.model.plugin.ApiFactoryService;
+import org.osc.core.broker.service.tasks.IgnoreCompare;
 import org.osc.core.broker.service.tasks.TransactionalTask;
 import org.slf4j.LoggerFactory;
 import org.osc.sdk.manager.api.ManagerDeviceApi;
@@ -36,6 +39,9 @@ public class MgrDeleteMemberDeviceTask extends TransactionalTask {
     @Reference
     private ApiFactoryService apiFactoryService;
 
+    @IgnoreCompare
+    Semaphore managerPermits;
+
     private ManagerDeviceMemberElement device;
     private VirtualSystem vs;
     private String deviceName;
@@ -52,6 +58,16 @@ public class MgrDeleteMemberDeviceTask extends TransactionalTask {
         return task;
     }
 
+    @Override
+    public void execute() throws Exception {
+        ManagerDevicePermits.acquire(this.managerPermits);
+        try {
+            super.execute();
+        } finally {
+            ManagerDevicePermits.release(this.managerPermits);
+        }
+    }
+
     @Override
     public void executeTransaction(EntityManager em) throws Exception {
         deleteMemberDevice(this.vs, this.device);
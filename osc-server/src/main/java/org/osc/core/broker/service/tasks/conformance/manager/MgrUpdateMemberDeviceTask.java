@@ -17,6 +17,7 @@
 package org.osc.core.broker.service.tasks.conformance.manager;
 
 import java.util.Set;
+import java.util.concurrent.Semaphore;
 
 import javax.persistence.EntityManager;
 
@@ -24,6 +25,7 @@ import org.osc.core.broker.job.lock.LockObjectReference;
 import org.osc.core.broker.model.entities.appliance.DistributedApplianceInstance;
 import org.osc.core.broker.model.plugin.ApiFactoryService;
 import org.osc.core.broker.service.persistence.OSCEntityManager;
+import org.osc.core.broker.service.tasks.IgnoreCompare;
 import org.osc.core.broker.service.tasks.TransactionalTask;
 import org.slf4j.LoggerFactory;
 import org.osc.sdk.manager.api.ManagerDeviceApi;
@@ -42,6 +44,9 @@ public class MgrUpdateMemberDeviceTask extends TransactionalTask {
     @Reference
     private ApiFactoryService apiFactoryService;
 
+    @IgnoreCompare
+    Semaphore managerPermits;
+
     private DistributedApplianceInstance dai;
 
     public MgrUpdateMemberDeviceTask create(DistributedApplianceInstance dai) {
@@ -55,6 +60,16 @@ public class MgrUpdateMemberDeviceTask extends TransactionalTask {
         return task;
     }
 
+    @Override
+    public void execute() throws Exception {
+        ManagerDevicePermits.acquire(this.managerPermits);
+        try {
+            super.execute();
+        } finally {
+            ManagerDevicePermits.release(this.managerPermits);
+        }
+    }
+
     @Override
     public void executeTransaction(EntityManager em) throws Exception {
 
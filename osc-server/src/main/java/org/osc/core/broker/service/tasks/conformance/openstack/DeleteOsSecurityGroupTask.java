@@ -25,13 +25,13 @@ import org.osc.core.broker.rest.client.openstack.openstack4j.Endpoint;
 import org.osc.core.broker.rest.client.openstack.openstack4j.Openstack4JNeutron;
 import org.osc.core.broker.service.persistence.DeploymentSpecEntityMgr;
 import org.osc.core.broker.service.persistence.OSCEntityManager;
-import org.osc.core.broker.service.tasks.TransactionalTask;
+import org.osc.core.broker.service.tasks.TransactionalPollingTask;
 import org.slf4j.LoggerFactory;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 
 @Component(service = DeleteOsSecurityGroupTask.class)
-public class DeleteOsSecurityGroupTask extends TransactionalTask {
+public class DeleteOsSecurityGroupTask extends TransactionalPollingTask {
 
     private final Logger log = LoggerFactory.getLogger(DeleteOsSecurityGroupTask.class);
 
@@ -54,8 +54,6 @@ public class DeleteOsSecurityGroupTask extends TransactionalTask {
     @Override
     public void executeTransaction(EntityManager em) throws Exception {
 
-        int count = MAX_ATTEMPTS;
-
         boolean osSgCanBeDeleted = DeploymentSpecEntityMgr.findDeploymentSpecsByVirtualSystemProjectAndRegion(em,
                 this.ds.getVirtualSystem(), this.ds.getProjectId(), this.ds.getRegion()).size() <= 1;
 
@@ -68,25 +66,26 @@ public class DeleteOsSecurityGroupTask extends TransactionalTask {
 
             Endpoint endPoint = new Endpoint(this.ds);
             try (Openstack4JNeutron neutron = new Openstack4JNeutron(endPoint)) {
-                boolean success = false;
                 // check if the security group exist on Openstack
                 SecurityGroup osSg = neutron.getSecurityGroupById(this.ds.getRegion(), this.sgReference.getSgRefId());
                 if (osSg != null) {
-                    while (!success) {
-                        String errorMsg = "";
-                        try {
-                            success = neutron.deleteSecurityGroupById(this.ds.getRegion(), this.sgReference.getSgRefId());
-                        } catch (IllegalStateException ex) {
-                            this.log.info("Failed to remove openstack Security Group: " + ex.getMessage());
-                            errorMsg = ex.getMessage();
-                            Thread.sleep(SLEEP_RETRIES);
-                        } finally {
-                            if (--count <= 0) {
-                                throw new Exception(
-                                        String.format("Unable to delete the Openstack Security Group id: %s. Error: %s",
-                                                this.sgReference.getSgRefId(), errorMsg));
-                            }
+                    boolean success = false;
+                    String errorMsg = "";
+                    try {
+                        success = neutron.deleteSecurityGroupById(this.ds.getRegion(), this.sgReference.getSgRefId());
+                    } catch (IllegalStateException ex) {
+                        this.log.info("Failed to remove openstack Security Group: " + ex.getMessage());
+                        errorMsg = ex.getMessage();
+                    }
+
+                    if (!success) {
+                        if (getPollCount() >= MAX_ATTEMPTS) {
+                            throw new Exception(
+                                    String.format("Unable to delete the Openstack Security Group id: %s. Error: %s",
+                                            this.sgReference.getSgRefId(), errorMsg));
                         }
+                        pollAgain(SLEEP_RETRIES);
+                        return;
                     }
                 }
             }
@@ -19,9 +19,11 @@ package org.osc.core.broker.service.tasks.conformance.openstack.deploymentspec;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -46,7 +48,7 @@ import org.osc.core.broker.service.persistence.DistributedApplianceInstanceEntit
 import org.osc.core.broker.service.persistence.OSCEntityManager;
 import org.osc.core.broker.service.tasks.FailedWithObjectInfoTask;
 import org.osc.core.broker.service.tasks.IgnoreCompare;
-import org.osc.core.broker.service.tasks.TransactionalMetaTask;
+import org.osc.core.broker.service.tasks.PhasedTransactionalMetaTask;
 import org.osc.core.broker.service.tasks.conformance.manager.MgrCheckDevicesMetaTask;
 import org.osc.core.broker.service.tasks.conformance.openstack.DeleteOsSecurityGroupTask;
 import org.osgi.service.component.ComponentServiceObjects;
@@ -59,7 +61,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Component(service = DSUpdateOrDeleteMetaTask.class)
-public class DSUpdateOrDeleteMetaTask extends TransactionalMetaTask {
+public class DSUpdateOrDeleteMetaTask extends PhasedTransactionalMetaTask {
 
     private static final Logger log = LoggerFactory.getLogger(DSUpdateOrDeleteMetaTask.class);
 
@@ -91,6 +93,16 @@ public class DSUpdateOrDeleteMetaTask extends TransactionalMetaTask {
     private Endpoint endPoint;
     private TaskGraph tg;
     private Openstack4JNova novaApi;
+
+    // Captured by the read phase
+    private boolean isDeleteTg;
+    private String region;
+    private Map<Long, String> hostAggregateOpenstackIds;
+
+    // Results of the remote phase
+    private List<? extends org.openstack4j.model.compute.ext.AvailabilityZone> osAvailabilityZones;
+    private Collection<String> osHostSet;
+    private Map<Long, org.openstack4j.model.compute.HostAggregate> osHostAggregates;
     @IgnoreCompare
     private DSUpdateOrDeleteMetaTask factory;
     @IgnoreCompare
@@ -142,14 +154,56 @@ public class DSUpdateOrDeleteMetaTask extends TransactionalMetaTask {
     }
 
     @Override
-    public void executeTransaction(EntityManager em) throws Exception {
-        delayedInit();
+    protected void executeReadTransaction(EntityManager em) throws Exception {
+        OSCEntityManager<DeploymentSpec> emgr = new OSCEntityManager<DeploymentSpec>(DeploymentSpec.class, em, this.txBroadcastUtil);
+        this.ds = emgr.findByPrimaryKey(this.ds.getId());
+        validate(this.ds);
+
+        VirtualSystem virtualSystem = this.ds.getVirtualSystem();
+        this.isDeleteTg = this.ds.getMarkedForDeletion() || virtualSystem.getMarkedForDeletion()
+                || virtualSystem.getDistributedAppliance().getMarkedForDeletion();
+        this.region = this.ds.getRegion();
+
+        // Host aggregates are only looked up when the DS is deployed based on them
+        this.hostAggregateOpenstackIds = new HashMap<>();
+        if (!this.isDeleteTg && this.ds.getHosts().isEmpty() && this.ds.getAvailabilityZones().isEmpty()) {
+            for (HostAggregate hostAggr : this.ds.getHostAggregates()) {
+                this.hostAggregateOpenstackIds.put(hostAggr.getId(), hostAggr.getOpenstackId());
+            }
+        }
+    }
+
+    @Override
+    protected void executeRemoteCalls() throws Exception {
+        this.osAvailabilityZones = null;
+        this.osHostSet = null;
+        this.osHostAggregates = new HashMap<>();
+        if (this.isDeleteTg) {
+            return;
+        }
+
+        this.novaApi = this.novaApi == null ? new Openstack4JNova(this.endPoint) : this.novaApi;
+
+        this.osAvailabilityZones = this.novaApi.getAvailabilityZonesDetail(this.region);
+
+        // Openstack hosts are only the hypervisor compute hosts. Ignore hosts from the availability zone api because
+        // that would include controller hosts as well.
+        this.osHostSet = this.novaApi.getComputeHosts(this.region);
+
+        for (Map.Entry<Long, String> hostAggr : this.hostAggregateOpenstackIds.entrySet()) {
+            this.osHostAggregates.put(hostAggr.getKey(),
+                    this.novaApi.getHostAggregateById(this.region, hostAggr.getValue()));
+        }
+    }
+
+    @Override
+    protected void executeWriteTransaction(EntityManager em) throws Exception {
         this.tg = new TaskGraph();
+        this.firstCreatePGTask = null;
         OSCEntityManager<DeploymentSpec> emgr = new OSCEntityManager<DeploymentSpec>(DeploymentSpec.class, em, this.txBroadcastUtil);
         this.ds = emgr.findByPrimaryKey(this.ds.getId());
         VirtualSystem virtualSystem = this.ds.getVirtualSystem();
-        if (this.ds.getMarkedForDeletion() || virtualSystem.getMarkedForDeletion()
-                || virtualSystem.getDistributedAppliance().getMarkedForDeletion()) {
+        if (this.isDeleteTg) {
             log.info("DS " + this.ds.getName() + " marked for deletion, deleting DS");
 
             // No need to schedule dsClearPortGroupTask after these, since ds itself will be gone
@@ -177,15 +231,8 @@ public class DSUpdateOrDeleteMetaTask extends TransactionalMetaTask {
             selectedHosts.add(host.getName());
         }
 
-        this.novaApi = this.novaApi == null ? new Openstack4JNova(this.endPoint) : this.novaApi;
-
-        List<? extends org.openstack4j.model.compute.ext.AvailabilityZone> osAvailabilityZones =
-                this.novaApi.getAvailabilityZonesDetail(this.ds.getRegion());
-        HostAvailabilityZoneMapping hostAvailabilityZoneMap = Openstack4JNova.getMapping(osAvailabilityZones);
-
-        // Openstack hosts are only the hypervisor compute hosts. Ignore hosts from the availability zone api because
-        // that would include controller hosts as well.
-        Collection<String> osHostSet = this.novaApi.getComputeHosts(this.ds.getRegion());
+        HostAvailabilityZoneMapping hostAvailabilityZoneMap = Openstack4JNova.getMapping(this.osAvailabilityZones);
+        Collection<String> osHostSet = this.osHostSet;
 
         if (DeploymentSpecEntityMgr.isDeploymentSpecAllHostInRegion(this.ds)) {
             log.info("Deploying based on region:" + this.ds.getRegion());
@@ -196,7 +243,7 @@ public class DSUpdateOrDeleteMetaTask extends TransactionalMetaTask {
         } else if (selectedHosts.isEmpty() && !selectedAvailabilityZones.isEmpty()) {
             log.info("Deploying based on availabilityZones");
 
-            conformToAzSelection(em, selectedAvailabilityZones, osAvailabilityZones, osHostSet);
+            conformToAzSelection(em, selectedAvailabilityZones, this.osAvailabilityZones, osHostSet);
 
         } else if ((!selectedHosts.isEmpty())) {
             log.info("Deploying based on hosts");
@@ -205,21 +252,24 @@ public class DSUpdateOrDeleteMetaTask extends TransactionalMetaTask {
         } else if (!selectedHostAggr.isEmpty()) {
             log.info("Deploying based on host Aggregate selection");
             // Get selected host set from host aggregates
-            Set<String> hostsToDeployTo = getHostsFromHostAggregateSelection(em, this.novaApi, selectedHostAggr);
+            Set<String> hostsToDeployTo = getHostsFromHostAggregateSelection(em, selectedHostAggr);
 
             // deploy to selected hosts
             conformToHostsSelection(hostsToDeployTo, hostAvailabilityZoneMap, osHostSet);
         }
     }
 
-    private Set<String> getHostsFromHostAggregateSelection(EntityManager em, Openstack4JNova novaApi,
-                                                           Set<HostAggregate> dsHostAggr) throws IOException {
+    private Set<String> getHostsFromHostAggregateSelection(EntityManager em, Set<HostAggregate> dsHostAggr) {
         Set<String> hostsToDeployTo = new HashSet<>();
         Iterator<HostAggregate> dsHostAggrIter = dsHostAggr.iterator();
         while (dsHostAggrIter.hasNext()) {
             HostAggregate dsHostAggrInstance = dsHostAggrIter.next();
-            org.openstack4j.model.compute.HostAggregate osHostAggr = novaApi.getHostAggregateById(this.ds.getRegion(),
-                    dsHostAggrInstance.getOpenstackId());
+            if (!this.osHostAggregates.containsKey(dsHostAggrInstance.getId())) {
+                // Selected after the lookups were made, the next sync will pick it up
+                continue;
+            }
+            org.openstack4j.model.compute.HostAggregate osHostAggr = this.osHostAggregates
+                    .get(dsHostAggrInstance.getId());
 
             if (osHostAggr != null) {
                 hostsToDeployTo.addAll(osHostAggr.getHosts());
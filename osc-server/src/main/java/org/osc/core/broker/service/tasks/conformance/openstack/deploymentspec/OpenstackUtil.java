@@ -68,8 +68,8 @@ public class OpenstackUtil {
 
     private static final Logger LOG = LoggerFactory.getLogger(OpenstackUtil.class);
 
-    private static final int SLEEP_DISCOVERY_RETRIES = 10 * 1000; // 10 seconds
-    private static final int MAX_DISCOVERY_RETRIES = 40;
+    static final int SLEEP_DISCOVERY_RETRIES = 10 * 1000; // 10 seconds
+    static final int MAX_DISCOVERY_RETRIES = 40;
 
     // TODO Sridhar: pass in just the IDs of the protectedports and remove break outerloop
 
@@ -115,59 +115,44 @@ public class OpenstackUtil {
     }
 
     /**
-     * Waits until the VM state becomes active. If the VM enters a terminal state, throws a VmidcException
+     * Checks once whether the VM state is active. If the VM does not exist or entered a terminal state, throws a
+     * VmidcException
      */
-    public static void ensureVmActive(VirtualizationConnector vc, String project, String region, String vmId)
-            throws Exception {
-
-        try (Openstack4JNova nova = new Openstack4JNova(new Endpoint(vc, project))) {
-            Server server = null;
-            int i = MAX_DISCOVERY_RETRIES;
-            while (i > 0) {
-                server = nova.getServer(region, vmId);
-                if (server == null) {
-                    throw new VmidcException("VM with id: '" + vmId + "' does not exist");
-                }
-                if (server.getStatus() == Server.Status.ACTIVE) {
-                    break;
-                } else if (isVmStatusTerminal(server.getStatus())) {
-                    throw new VmidcException("VM is in bad state (" + server.getStatus() + ")");
-                }
+    static boolean isVmActive(Openstack4JNova nova, String region, String vmId) throws Exception {
+        Server server = nova.getServer(region, vmId);
+        if (server == null) {
+            throw new VmidcException("VM with id: '" + vmId + "' does not exist");
+        }
+        if (server.getStatus() == Server.Status.ACTIVE) {
+            return true;
+        } else if (isVmStatusTerminal(server.getStatus())) {
+            throw new VmidcException("VM is in bad state (" + server.getStatus() + ")");
+        }
 
-                LOG.info("Retry VM discovery (" + i + "/" + MAX_DISCOVERY_RETRIES + ") of VM '" + vmId + "' Status: "
-                        + server.getStatus());
-                Thread.sleep(SLEEP_DISCOVERY_RETRIES);
-                i--;
-            }
-            if (server.getStatus() != Server.Status.ACTIVE) {
-                throw new VmidcException("VM with id: '" + vmId + "' is not in ready state (" + server.getStatus()
-                        + ")");
-            }
+        LOG.info("VM '" + vmId + "' is not active yet. Status: " + server.getStatus());
+        return false;
+    }
 
-            i = MAX_DISCOVERY_RETRIES;
-            int activePorts = 0;
-            while (i > 0) {
-                List<? extends InterfaceAttachment> interfaces = nova.getVmAttachedNetworks(region, vmId);
+    /**
+     * Checks once whether the network of an active VM is ready, that is the VM has at least two fixed IPs on active
+     * ports.
+     */
+    static boolean isVmNetworkReady(Openstack4JNova nova, String region, String vmId) throws Exception {
+        List<? extends InterfaceAttachment> interfaces = nova.getVmAttachedNetworks(region, vmId);
 
-                activePorts = 0;
-                for (InterfaceAttachment infs : interfaces) {
-                    if (infs.getPortState().equals(PortState.ACTIVE) && infs.getFixedIps() != null) {
-                        activePorts += infs.getFixedIps().size();
-                    }
-                }
-                if (activePorts >= 2) {
-                    LOG.info("VM network discovery (interfaces: " + interfaces + ")");
-                    break;
-                }
-                LOG.info("Retry VM network discovery (" + i + "/" + MAX_DISCOVERY_RETRIES + ") of VM '"
-                        + server.getName() + "' (interfaces: " + interfaces + ")");
-                Thread.sleep(SLEEP_DISCOVERY_RETRIES);
-                i--;
-            }
-            if (activePorts < 2) {
-                throw new VmidcException("VM '" + server.getName() + "' network is not ready.");
+        int activePorts = 0;
+        for (InterfaceAttachment infs : interfaces) {
+            if (infs.getPortState().equals(PortState.ACTIVE) && infs.getFixedIps() != null) {
+                activePorts += infs.getFixedIps().size();
             }
         }
+        if (activePorts >= 2) {
+            LOG.info("VM network discovery (interfaces: " + interfaces + ")");
+            return true;
+        }
+
+        LOG.info("Network of VM '" + vmId + "' is not ready yet (interfaces: " + interfaces + ")");
+        return false;
     }
 
     /**
@@ -24,20 +24,27 @@ import org.osc.core.broker.job.lock.LockObjectReference;
 import org.osc.core.broker.model.entities.appliance.DistributedApplianceInstance;
 import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector;
 import org.osc.core.broker.model.entities.virtualization.openstack.DeploymentSpec;
+import org.osc.core.broker.rest.client.openstack.openstack4j.Endpoint;
+import org.osc.core.broker.rest.client.openstack.openstack4j.Openstack4JNova;
+import org.osc.core.broker.service.exceptions.VmidcException;
 import org.osc.core.broker.service.persistence.DistributedApplianceInstanceEntityMgr;
-import org.osc.core.broker.service.tasks.TransactionalTask;
+import org.osc.core.broker.service.tasks.TransactionalPollingTask;
 import org.osgi.service.component.annotations.Component;
 
 /**
  * Ensures the SVA vm is active. Basically waits until the SVA is active for us to
  * follow up with other tasks which rely on the server being active and ready.
- * This is a transactional task but does not updates on the enities so should be safe from conflicts
+ * This is a transactional task but does not updates on the enities so should be safe from conflicts.
+ * The SVA is checked periodically without holding a task thread in between checks.
  */
 @Component(service=OsSvaEnsureActiveTask.class)
-public class OsSvaEnsureActiveTask extends TransactionalTask {
+public class OsSvaEnsureActiveTask extends TransactionalPollingTask {
 
     private DistributedApplianceInstance dai;
 
+    private boolean vmActive = false;
+    private int attempts = 0;
+
     public OsSvaEnsureActiveTask create(DistributedApplianceInstance dai) {
         OsSvaEnsureActiveTask task = new OsSvaEnsureActiveTask();
         task.dai = dai;
@@ -57,7 +64,28 @@ public class OsSvaEnsureActiveTask extends TransactionalTask {
 
         String projectName = ds.getProjectName();
         String region = ds.getRegion();
-        OpenstackUtil.ensureVmActive(vc, projectName, region, osServerId);
+
+        try (Openstack4JNova nova = new Openstack4JNova(new Endpoint(vc, projectName))) {
+            if (!this.vmActive) {
+                this.vmActive = OpenstackUtil.isVmActive(nova, region, osServerId);
+                if (!this.vmActive) {
+                    retry("VM with id: '" + osServerId + "' is not in ready state");
+                    return;
+                }
+                this.attempts = 0;
+            }
+
+            if (!OpenstackUtil.isVmNetworkReady(nova, region, osServerId)) {
+                retry("VM '" + this.dai.getName() + "' network is not ready.");
+            }
+        }
+    }
+
+    private void retry(String failureMessage) throws VmidcException {
+        if (++this.attempts >= OpenstackUtil.MAX_DISCOVERY_RETRIES) {
+            throw new VmidcException(failureMessage);
+        }
+        pollAgain(OpenstackUtil.SLEEP_DISCOVERY_RETRIES);
     }
 
     @Override
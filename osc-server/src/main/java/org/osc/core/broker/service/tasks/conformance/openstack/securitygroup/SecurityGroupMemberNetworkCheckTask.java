@@ -24,14 +24,12 @@ import org.osc.core.broker.model.entities.virtualization.SecurityGroupMember;
 import org.osc.core.broker.model.entities.virtualization.openstack.Network;
 import org.osc.core.broker.model.plugin.ApiFactoryService;
 import org.osc.core.broker.rest.client.openstack.discovery.VmDiscoveryCache;
-import org.osc.core.broker.rest.client.openstack.openstack4j.Endpoint;
-import org.osc.core.broker.rest.client.openstack.openstack4j.Openstack4JNeutron;
-import org.osc.core.broker.service.tasks.TransactionalMetaTask;
+import org.osc.core.broker.service.tasks.PhasedTransactionalMetaTask;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 
 @Component(service = SecurityGroupMemberNetworkCheckTask.class)
-public class SecurityGroupMemberNetworkCheckTask extends TransactionalMetaTask {
+public class SecurityGroupMemberNetworkCheckTask extends PhasedTransactionalMetaTask {
 
     @Reference
     SecurityGroupMemberAllHooksRemoveTask securityGroupMemberAllHooksRemoveTask;
@@ -53,6 +51,16 @@ public class SecurityGroupMemberNetworkCheckTask extends TransactionalMetaTask {
     private Network network;
     private VmDiscoveryCache vdc;
 
+    // Captured by the read phase
+    private boolean shouldHandleHooks;
+    private boolean isMarkedForDeletion;
+    private String region;
+    private String openstackId;
+    private String projectName;
+
+    // Result of the remote phase
+    private org.openstack4j.model.network.Network neutronNetwork;
+
     /**
      * Checks the security group member and updates the associated flows
      */
@@ -73,31 +81,43 @@ public class SecurityGroupMemberNetworkCheckTask extends TransactionalMetaTask {
     }
 
     @Override
-    public void executeTransaction(EntityManager em) throws Exception {
-        this.tg = new TaskGraph();
+    protected void executeReadTransaction(EntityManager em) throws Exception {
         this.sgm = em.find(SecurityGroupMember.class, this.sgm.getId());
+        validate(this.sgm);
         this.network = this.sgm.getNetwork();
 
         SecurityGroup sg = this.sgm.getSecurityGroup();
 
         // If port grouping is supported, adding/removing hooks is done at the port group level.
-        boolean shouldHandleHooks = sg.getVirtualizationConnector().isControllerDefined()
+        this.shouldHandleHooks = sg.getVirtualizationConnector().isControllerDefined()
                 && !this.apiFactoryService.supportsPortGroup(sg);
+        this.isMarkedForDeletion = this.sgm.getMarkedForDeletion();
+        this.region = this.network.getRegion();
+        this.openstackId = this.network.getOpenstackId();
+        this.projectName = sg.getProjectName();
+    }
+
+    @Override
+    protected void executeRemoteCalls() throws Exception {
+        // A member marked for deletion is deleted whatever openstack says
+        this.neutronNetwork = this.isMarkedForDeletion ? null : this.vdc.getNetwork(this.region, this.openstackId, this.projectName);
+    }
 
-        Endpoint endPoint = new Endpoint(sg.getVirtualizationConnector(), sg.getProjectName());
-        try (Openstack4JNeutron neutron = new Openstack4JNeutron(endPoint)) {
-            org.openstack4j.model.network.Network neutronNetwork = neutron.getNetworkById(this.network.getRegion(),
-                    this.network.getOpenstackId());
-            if (neutronNetwork == null || this.sgm.getMarkedForDeletion()) {
-                if (shouldHandleHooks) {
-                    this.tg.addTask(this.securityGroupMemberAllHooksRemoveTask.create(this.sgm));
-                }
-                this.tg.appendTask(this.securityGroupMemberDeleteTask.create(this.sgm));
-            } else {
-                this.tg.addTask(this.securityGroupMemberNetworkUpdateTask.create(this.sgm, neutronNetwork.getName()));
-                if (shouldHandleHooks) {
-                    this.tg.appendTask(this.securityGroupMemberHookCheckTask.create(this.sgm, this.vdc));
-                }
+    @Override
+    protected void executeWriteTransaction(EntityManager em) throws Exception {
+        this.tg = new TaskGraph();
+        this.sgm = em.find(SecurityGroupMember.class, this.sgm.getId());
+        this.network = this.sgm.getNetwork();
+
+        if (this.neutronNetwork == null || this.isMarkedForDeletion) {
+            if (this.shouldHandleHooks) {
+                this.tg.addTask(this.securityGroupMemberAllHooksRemoveTask.create(this.sgm));
+            }
+            this.tg.appendTask(this.securityGroupMemberDeleteTask.create(this.sgm));
+        } else {
+            this.tg.addTask(this.securityGroupMemberNetworkUpdateTask.create(this.sgm, this.neutronNetwork.getName()));
+            if (this.shouldHandleHooks) {
+                this.tg.appendTask(this.securityGroupMemberHookCheckTask.create(this.sgm, this.vdc));
             }
         }
     }
@@ -24,14 +24,12 @@ import org.osc.core.broker.model.entities.virtualization.SecurityGroupMember;
 import org.osc.core.broker.model.entities.virtualization.openstack.Subnet;
 import org.osc.core.broker.model.plugin.ApiFactoryService;
 import org.osc.core.broker.rest.client.openstack.discovery.VmDiscoveryCache;
-import org.osc.core.broker.rest.client.openstack.openstack4j.Endpoint;
-import org.osc.core.broker.rest.client.openstack.openstack4j.Openstack4JNeutron;
-import org.osc.core.broker.service.tasks.TransactionalMetaTask;
+import org.osc.core.broker.service.tasks.PhasedTransactionalMetaTask;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 
 @Component(service = SecurityGroupMemberSubnetCheckTask.class)
-public class SecurityGroupMemberSubnetCheckTask extends TransactionalMetaTask {
+public class SecurityGroupMemberSubnetCheckTask extends PhasedTransactionalMetaTask {
 
     @Reference
     SecurityGroupMemberAllHooksRemoveTask securityGroupMemberAllHooksRemoveTask;
@@ -53,6 +51,16 @@ public class SecurityGroupMemberSubnetCheckTask extends TransactionalMetaTask {
     private Subnet subnet;
     private VmDiscoveryCache vdc;
 
+    // Captured by the read phase
+    private boolean shouldHandleHooks;
+    private boolean isMarkedForDeletion;
+    private String region;
+    private String openstackId;
+    private String projectName;
+
+    // Result of the remote phase
+    private org.openstack4j.model.network.Subnet neutronSubnet;
+
     /**
      * Checks the security group member and updates the associated flows
      */
@@ -73,33 +81,43 @@ public class SecurityGroupMemberSubnetCheckTask extends TransactionalMetaTask {
     }
 
     @Override
-    public void executeTransaction(EntityManager em) throws Exception {
-        this.tg = new TaskGraph();
+    protected void executeReadTransaction(EntityManager em) throws Exception {
         this.sgm = em.find(SecurityGroupMember.class, this.sgm.getId());
+        validate(this.sgm);
         this.subnet = this.sgm.getSubnet();
 
         SecurityGroup sg = this.sgm.getSecurityGroup();
 
         // If port grouping is supported, adding/removing hooks is done at the port group level.
-        boolean shouldHandleHooks = sg.getVirtualizationConnector().isControllerDefined()
+        this.shouldHandleHooks = sg.getVirtualizationConnector().isControllerDefined()
                 && !this.apiFactoryService.supportsPortGroup(sg);
+        this.isMarkedForDeletion = this.sgm.getMarkedForDeletion();
+        this.region = this.subnet.getRegion();
+        this.openstackId = this.subnet.getOpenstackId();
+        this.projectName = sg.getProjectName();
+    }
+
+    @Override
+    protected void executeRemoteCalls() throws Exception {
+        // A member marked for deletion is deleted whatever openstack says
+        this.neutronSubnet = this.isMarkedForDeletion ? null : this.vdc.getSubnet(this.region, this.openstackId, this.projectName);
+    }
 
+    @Override
+    protected void executeWriteTransaction(EntityManager em) throws Exception {
+        this.tg = new TaskGraph();
+        this.sgm = em.find(SecurityGroupMember.class, this.sgm.getId());
+        this.subnet = this.sgm.getSubnet();
 
-        Endpoint endPoint = new Endpoint(sg.getVirtualizationConnector(), sg.getProjectName());
-        try (Openstack4JNeutron neutron = new Openstack4JNeutron(endPoint)) {
-            org.openstack4j.model.network.Subnet subnet = neutron.getSubnetById(this.subnet.getRegion(),
-                    this.subnet.getOpenstackId());
-
-            if (subnet == null || this.sgm.getMarkedForDeletion()) {
-                if (shouldHandleHooks) {
-                    this.tg.addTask(this.securityGroupMemberAllHooksRemoveTask.create(this.sgm));
-                }
-                this.tg.appendTask(this.securityGroupMemberDeleteTask.create(this.sgm));
-            } else {
-                this.tg.addTask(this.securityGroupMemberSubnetUpdateTask.create(this.sgm, this.subnet.getName()));
-                if (shouldHandleHooks) {
-                    this.tg.appendTask(this.securityGroupMemberHookCheckTask.create(this.sgm, this.vdc));
-                }
+        if (this.neutronSubnet == null || this.isMarkedForDeletion) {
+            if (this.shouldHandleHooks) {
+                this.tg.addTask(this.securityGroupMemberAllHooksRemoveTask.create(this.sgm));
+            }
+            this.tg.appendTask(this.securityGroupMemberDeleteTask.create(this.sgm));
+        } else {
+            this.tg.addTask(this.securityGroupMemberSubnetUpdateTask.create(this.sgm, this.subnet.getName()));
+            if (this.shouldHandleHooks) {
+                this.tg.appendTask(this.securityGroupMemberHookCheckTask.create(this.sgm, this.vdc));
             }
         }
     }
@@ -25,7 +25,7 @@ import org.osc.core.broker.model.entities.virtualization.openstack.VM;
 import org.osc.core.broker.model.plugin.ApiFactoryService;
 import org.osc.core.broker.rest.client.openstack.discovery.VmDiscoveryCache;
 import org.osc.core.broker.rest.client.openstack.discovery.VmDiscoveryCache.VmInfo;
-import org.osc.core.broker.service.tasks.TransactionalMetaTask;
+import org.osc.core.broker.service.tasks.PhasedTransactionalMetaTask;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 
@@ -34,7 +34,7 @@ import org.osgi.service.component.annotations.Reference;
  * else it updates the member information and updates the hooks. Does not handle deleting of hooks.
  */
 @Component(service = SecurityGroupMemberVmCheckTask.class)
-public class SecurityGroupMemberVmCheckTask extends TransactionalMetaTask {
+public class SecurityGroupMemberVmCheckTask extends PhasedTransactionalMetaTask {
 
     @Reference
     SecurityGroupMemberAllHooksRemoveTask securityGroupMemberAllHooksRemoveTask;
@@ -56,6 +56,15 @@ public class SecurityGroupMemberVmCheckTask extends TransactionalMetaTask {
     private VM vm;
     private VmDiscoveryCache vdc;
 
+    // Captured by the read phase
+    private boolean shouldHandleHooks;
+    private boolean isMarkedForDeletion;
+    private String region;
+    private String openstackId;
+
+    // Result of the remote phase
+    private VmInfo vmInfo;
+
     /**
      * Checks the security group member and updates the associated flows
      */
@@ -76,26 +85,41 @@ public class SecurityGroupMemberVmCheckTask extends TransactionalMetaTask {
     }
 
     @Override
-    public void executeTransaction(EntityManager em) throws Exception {
-        this.tg = new TaskGraph();
+    protected void executeReadTransaction(EntityManager em) throws Exception {
         this.sgm = em.find(SecurityGroupMember.class, this.sgm.getId());
+        validate(this.sgm);
         this.vm = this.sgm.getVm();
 
         SecurityGroup sg = this.sgm.getSecurityGroup();
 
         // If port grouping is supported, adding/removing hooks is done at the port group level.
-        boolean shouldHandleHooks = sg.getVirtualizationConnector().isControllerDefined()
+        this.shouldHandleHooks = sg.getVirtualizationConnector().isControllerDefined()
                 && !this.apiFactoryService.supportsPortGroup(sg);
+        this.isMarkedForDeletion = this.sgm.getMarkedForDeletion();
+        this.region = this.vm.getRegion();
+        this.openstackId = this.vm.getOpenstackId();
+    }
+
+    @Override
+    protected void executeRemoteCalls() throws Exception {
+        // A member marked for deletion is deleted whatever openstack says
+        this.vmInfo = this.isMarkedForDeletion ? null : this.vdc.discover(this.region, this.openstackId);
+    }
+
+    @Override
+    protected void executeWriteTransaction(EntityManager em) throws Exception {
+        this.tg = new TaskGraph();
+        this.sgm = em.find(SecurityGroupMember.class, this.sgm.getId());
+        this.vm = this.sgm.getVm();
 
-        VmInfo vmInfo = this.vdc.discover(this.vm.getRegion(), this.vm.getOpenstackId());
-        if (vmInfo == null || this.sgm.getMarkedForDeletion()) {
-            if (shouldHandleHooks) {
+        if (this.vmInfo == null || this.isMarkedForDeletion) {
+            if (this.shouldHandleHooks) {
                 this.tg.addTask(this.securityGroupMemberAllHooksRemoveTask.create(this.sgm));
             }
             this.tg.appendTask(this.securityGroupMemberDeleteTask.create(this.sgm));
         } else {
-            this.tg.addTask(this.securityGroupMemberVmUpdateTask.create(this.sgm, vmInfo));
-            if (shouldHandleHooks) {
+            this.tg.addTask(this.securityGroupMemberVmUpdateTask.create(this.sgm, this.vmInfo));
+            if (this.shouldHandleHooks) {
                 this.tg.appendTask(this.securityGroupMemberHookCheckTask.create(this.sgm, this.vdc));
             }
         }
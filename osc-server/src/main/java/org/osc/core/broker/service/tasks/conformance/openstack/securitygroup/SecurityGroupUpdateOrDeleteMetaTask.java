@@ -18,7 +18,9 @@ package org.osc.core.broker.service.tasks.conformance.openstack.securitygroup;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -34,6 +36,7 @@ import org.osc.core.broker.model.entities.virtualization.SecurityGroup;
 import org.osc.core.broker.model.entities.virtualization.SecurityGroupInterface;
 import org.osc.core.broker.model.entities.virtualization.SecurityGroupMember;
 import org.osc.core.broker.model.entities.virtualization.SecurityGroupMemberType;
+import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector;
 import org.osc.core.broker.model.entities.virtualization.openstack.VMPort;
 import org.osc.core.broker.model.plugin.ApiFactoryService;
 import org.osc.core.broker.model.sdn.NetworkElementImpl;
@@ -48,7 +51,7 @@ import org.osc.core.broker.service.securitygroup.AddSecurityGroupService;
 import org.osc.core.broker.service.securitygroup.exception.SecurityGroupMemberPartOfAnotherSecurityGroupException;
 import org.osc.core.broker.service.tasks.FailedWithObjectInfoTask;
 import org.osc.core.broker.service.tasks.IgnoreCompare;
-import org.osc.core.broker.service.tasks.TransactionalMetaTask;
+import org.osc.core.broker.service.tasks.PhasedTransactionalMetaTask;
 import org.osc.core.broker.service.tasks.conformance.openstack.deploymentspec.OpenstackUtil;
 import org.osc.core.broker.service.tasks.conformance.openstack.sfc.CheckServiceFunctionChainMetaTask;
 import org.osc.core.broker.service.tasks.conformance.securitygroup.DeleteMgrSecurityGroupTask;
@@ -71,7 +74,9 @@ import org.slf4j.LoggerFactory;
  * Validates the Security Group members and syncs them if needed
  */
 @Component(service = SecurityGroupUpdateOrDeleteMetaTask.class)
-public class SecurityGroupUpdateOrDeleteMetaTask extends TransactionalMetaTask {
+public class SecurityGroupUpdateOrDeleteMetaTask extends PhasedTransactionalMetaTask {
+
+    private static final int PROJECT_SNAPSHOT_MIN_MEMBERS = 10;
 
     @Reference
     PortGroupCheckMetaTask portGroupCheckMetaTask;
@@ -119,6 +124,18 @@ public class SecurityGroupUpdateOrDeleteMetaTask extends TransactionalMetaTask {
     private SecurityGroup sg;
     private TaskGraph tg;
 
+    // Captured by the read phase
+    private boolean isDeleteTg;
+    private VirtualizationConnector vc;
+    private String projectId;
+    private NetworkElementImpl domainPort;
+    private String domainPortDescription;
+    private Endpoint protectAllEndPoint;
+
+    // Results of the remote phase
+    private String domainId;
+    private Map<String, List<? extends Server>> protectAllServers;
+
     @IgnoreCompare
     private SecurityGroupUpdateOrDeleteMetaTask factory;
     @IgnoreCompare
@@ -170,35 +187,68 @@ public class SecurityGroupUpdateOrDeleteMetaTask extends TransactionalMetaTask {
     }
 
     @Override
-    public void executeTransaction(EntityManager em) throws Exception {
-        delayedInit();
+    protected void executeReadTransaction(EntityManager em) throws Exception {
         this.sg = em.find(SecurityGroup.class, this.sg.getId());
+        validate(this.sg);
 
-        this.tg = new TaskGraph();
+        this.isDeleteTg = this.sg.getMarkedForDeletion();
+        this.vc = this.sg.getVirtualizationConnector();
+        this.projectId = this.sg.getProjectId();
+        this.domainPort = null;
+        this.domainPortDescription = null;
+        this.protectAllEndPoint = null;
 
-        if (this.sg.getMarkedForDeletion()) {
-            this.log.info("Security Group " + this.sg.getName() + " marked for deletion, deleting Endpoint Group");
+        if (this.isDeleteTg) {
             // If the SDN supports PG hook we need to retrieve the domainId before
             // the members are deleted.
-            String domainId = null;
             if (this.apiFactoryService.supportsPortGroup(this.sg)) {
                 VMPort sgMemberPort = OpenstackUtil.getAnyProtectedPort(this.sg);
+                this.domainPort = new NetworkElementImpl(sgMemberPort);
+                this.domainPortDescription = String.valueOf(sgMemberPort);
+            }
+        } else if (this.sg.isProtectAll()) {
+            this.protectAllEndPoint = new Endpoint(this.vc, this.sg.getProjectName());
+        }
+    }
 
-                domainId = OpenstackUtil.extractDomainId(this.sg.getProjectId(),
-                        this.sg.getVirtualizationConnector().getProviderAdminProjectName(),
-                        this.sg.getVirtualizationConnector(), Arrays.asList(new NetworkElementImpl(sgMemberPort)));
+    @Override
+    protected void executeRemoteCalls() throws Exception {
+        this.domainId = null;
+        this.protectAllServers = null;
 
-                if (domainId == null) {
-                    throw new VmidcBrokerValidationException(
-                            String.format("No domain found for port %s.", sgMemberPort));
+        if (this.domainPort != null) {
+            this.domainId = OpenstackUtil.extractDomainId(this.projectId, this.vc.getProviderAdminProjectName(),
+                    this.vc, Arrays.asList(this.domainPort));
+
+            if (this.domainId == null) {
+                throw new VmidcBrokerValidationException(
+                        String.format("No domain found for port %s.", this.domainPortDescription));
+            }
+        }
+
+        if (this.protectAllEndPoint != null) {
+            this.protectAllServers = new LinkedHashMap<>();
+            try (Openstack4JNova nova = new Openstack4JNova(this.protectAllEndPoint)) {
+                for (String region : nova.listRegions()) {
+                    this.protectAllServers.put(region, nova.listServers(region));
                 }
             }
+        }
+    }
+
+    @Override
+    protected void executeWriteTransaction(EntityManager em) throws Exception {
+        this.sg = em.find(SecurityGroup.class, this.sg.getId());
 
-            buildTaskGraph(em, true, domainId);
+        this.tg = new TaskGraph();
+
+        if (this.isDeleteTg) {
+            this.log.info("Security Group " + this.sg.getName() + " marked for deletion, deleting Endpoint Group");
+            buildTaskGraph(em, true, this.domainId);
         } else {
             this.log.info("Checking Security Group " + this.sg.getName());
 
-            if (this.sg.isProtectAll()) {
+            if (this.protectAllServers != null) {
                 // Mark all current entities as deleted, as we read them they will get unmarked for deletion.
                 for (SecurityGroupMember sgm : this.sg.getSecurityGroupMembers()) {
                     OSCEntityManager.markDeleted(em, sgm, this.txBroadcastUtil);
@@ -206,27 +256,23 @@ public class SecurityGroupUpdateOrDeleteMetaTask extends TransactionalMetaTask {
                 List<String> excludedMembers = DistributedApplianceInstanceEntityMgr.listOsServerIdByVcId(em,
                         this.sg.getVirtualizationConnector().getId());
 
-                Endpoint endPoint = new Endpoint(this.sg.getVirtualizationConnector(), this.sg.getProjectName());
-                try (Openstack4JNova nova = new Openstack4JNova(endPoint)) {
-                    Set<String> regions = nova.listRegions();
-                    for (String region : regions) {
-                        List<? extends Server> servers = nova.listServers(region);
-                        for (Server server : servers) {
-                            if (!excludedMembers.contains(server.getId())) {
-                                try {
-                                    this.addSecurityGroupService.addSecurityGroupMember(em, this.sg,
-                                            new SecurityGroupMemberItemDto(region, server.getName(), server.getId(),
-                                                    SecurityGroupMemberType.VM.toString(), false));
-                                    // Once the VM is part of the security group, dont try to add it again.
-                                    excludedMembers.add(server.getId());
-                                } catch (SecurityGroupMemberPartOfAnotherSecurityGroupException e) {
-                                    this.log.warn(String.format(
-                                            "Member '%s' belonging to Security Group '%s' with protect all results in a conflict",
-                                            e.getMemberName(), this.sg.getName()), e);
-                                    this.tg.addTask(new FailedWithObjectInfoTask(
-                                            String.format("Validating Security Group Member '%s'", e.getMemberName()),
-                                            e, LockObjectReference.getObjectReferences(this.sg)));
-                                }
+                for (Map.Entry<String, List<? extends Server>> regionServers : this.protectAllServers.entrySet()) {
+                    String region = regionServers.getKey();
+                    for (Server server : regionServers.getValue()) {
+                        if (!excludedMembers.contains(server.getId())) {
+                            try {
+                                this.addSecurityGroupService.addSecurityGroupMember(em, this.sg,
+                                        new SecurityGroupMemberItemDto(region, server.getName(), server.getId(),
+                                                SecurityGroupMemberType.VM.toString(), false));
+                                // Once the VM is part of the security group, dont try to add it again.
+                                excludedMembers.add(server.getId());
+                            } catch (SecurityGroupMemberPartOfAnotherSecurityGroupException e) {
+                                this.log.warn(String.format(
+                                        "Member '%s' belonging to Security Group '%s' with protect all results in a conflict",
+                                        e.getMemberName(), this.sg.getName()), e);
+                                this.tg.addTask(new FailedWithObjectInfoTask(
+                                        String.format("Validating Security Group Member '%s'", e.getMemberName()),
+                                        e, LockObjectReference.getObjectReferences(this.sg)));
                             }
                         }
                     }
@@ -238,8 +284,11 @@ public class SecurityGroupUpdateOrDeleteMetaTask extends TransactionalMetaTask {
     }
 
     private void buildTaskGraph(EntityManager em, boolean isDeleteTg, String domainId) throws Exception {
+        // Listing the whole project pays off once there are enough members to look up
+        String snapshotProjectId = this.sg.getSecurityGroupMembers().size() >= PROJECT_SNAPSHOT_MIN_MEMBERS
+                ? this.sg.getProjectId() : null;
         VmDiscoveryCache vdc = new VmDiscoveryCache(this.sg.getVirtualizationConnector(),
-                this.sg.getVirtualizationConnector().getProviderAdminProjectName());
+                this.sg.getVirtualizationConnector().getProviderAdminProjectName(), snapshotProjectId);
 
 		if (this.apiFactoryService.supportsNeutronSFC(this.sg.getVirtualizationConnector().getControllerType())) {
 
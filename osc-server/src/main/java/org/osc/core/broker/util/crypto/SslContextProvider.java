@@ -19,8 +19,12 @@ package org.osc.core.broker.util.crypto;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.TrustManager;
 
 import org.slf4j.LoggerFactory;
@@ -30,26 +34,41 @@ public final class SslContextProvider {
 
     private static final Logger LOG = LoggerFactory.getLogger(SslContextProvider.class);
 
+    static final int SESSION_CACHE_SIZE = 1000;
+    static final int SESSION_TIMEOUT_SECONDS = (int) TimeUnit.HOURS.toSeconds(1);
+
     private SSLContext sslContext;
 
+    // Generation of the trust store the cached sessions were verified against
+    volatile long truststoreGeneration;
+
     private SslContextProvider() {
+        this(X509TrustManagerFactory.getInstance());
+    }
+
+    SslContextProvider(X509TrustManagerFactory trustManagerFactory) {
         // load SSL context
-        TrustManager[] trustManager = new TrustManager[]{X509TrustManagerFactory.getInstance()};
+        TrustManager[] trustManager = new TrustManager[]{trustManagerFactory};
         try {
+            this.truststoreGeneration = X509TrustManagerFactory.getTruststoreGeneration();
             this.sslContext = SSLContext.getInstance("TLSv1.2");
             this.sslContext.init(null, trustManager, new SecureRandom());
 
-            // disable SSL session caching - we load SSL certificates dinamically so we need to ensure
-            // that we have up to date cached certificates list
-            this.sslContext.getClientSessionContext().setSessionCacheSize(1);
-            this.sslContext.getClientSessionContext().setSessionTimeout(1);
-            this.sslContext.getServerSessionContext().setSessionCacheSize(1);
-            this.sslContext.getServerSessionContext().setSessionTimeout(1);
+            // keep sessions for resumption - we load SSL certificates dynamically so cached sessions
+            // are invalidated whenever the trust store changes, see invalidateSessions()
+            this.sslContext.getClientSessionContext().setSessionCacheSize(SESSION_CACHE_SIZE);
+            this.sslContext.getClientSessionContext().setSessionTimeout(SESSION_TIMEOUT_SECONDS);
+            this.sslContext.getServerSessionContext().setSessionCacheSize(SESSION_CACHE_SIZE);
+            this.sslContext.getServerSessionContext().setSessionTimeout(SESSION_TIMEOUT_SECONDS);
 
         } catch (NoSuchAlgorithmException | KeyManagementException e) {
             LOG.error("Encountering security exception in SSL context", e);
             throw new RuntimeException("Internal error with SSL context", e);
         }
+
+        // Holders of the context, like plugin elements and the WebSocket client, keep it for their lifetime and
+        // never call getSSLContext() again
+        trustManagerFactory.addTruststoreChangedListener(this::invalidateSessions);
     }
 
     private static volatile SslContextProvider instance;
@@ -72,6 +91,38 @@ public final class SslContextProvider {
      * @return SSLContext
      */
     public SSLContext getSSLContext() {
+        if (this.truststoreGeneration != X509TrustManagerFactory.getTruststoreGeneration()) {
+            invalidateSessions();
+        }
         return this.sslContext;
     }
+
+    /*
+     * A resumed session skips certificate verification, so sessions established before the trust store changed
+     * must not be resumed. New handshakes already use the reloaded trust store.
+     */
+    private synchronized void invalidateSessions() {
+        long generation = X509TrustManagerFactory.getTruststoreGeneration();
+        if (this.truststoreGeneration == generation) {
+            return;
+        }
+
+        int invalidated = invalidateSessions(this.sslContext.getClientSessionContext())
+                + invalidateSessions(this.sslContext.getServerSessionContext());
+        this.truststoreGeneration = generation;
+        LOG.info("Trust store changed, invalidated " + invalidated + " cached SSL sessions");
+    }
+
+    static int invalidateSessions(SSLSessionContext sessionContext) {
+        int invalidated = 0;
+        Enumeration<byte[]> ids = sessionContext.getIds();
+        while (ids.hasMoreElements()) {
+            SSLSession session = sessionContext.getSession(ids.nextElement());
+            if (session != null) {
+                session.invalidate();
+                invalidated++;
+            }
+        }
+        return invalidated;
+    }
 }
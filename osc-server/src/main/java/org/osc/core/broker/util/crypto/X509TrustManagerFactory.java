@@ -37,6 +37,7 @@ import java.util.Enumeration;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
@@ -78,6 +79,9 @@ public final class X509TrustManagerFactory implements X509TrustManager, X509Trus
     private KeyStore keyStore;
     private CertificateInterceptor listener = null;
 
+    /** Incremented on every change to the trust store, shared by all instances */
+    private static final AtomicLong truststoreGeneration = new AtomicLong();
+
     /** Listeners for trust store changes (adding/removing/modifying trust store) */
     private LinkedHashSet<TruststoreChangedListener> truststoreChangedListeners = new LinkedHashSet<>();
 
@@ -291,6 +295,7 @@ public final class X509TrustManagerFactory implements X509TrustManager, X509Trus
         try (FileOutputStream outputStream = new FileOutputStream(TRUSTSTORE_FILE)) {
             this.keyStore.store(outputStream, getTruststorePassword());
         }
+        reloadTrustManager();
         notifyTruststoreChanged();
 
     }
@@ -355,7 +360,16 @@ public final class X509TrustManagerFactory implements X509TrustManager, X509Trus
         return property;
     }
 
-    private void notifyTruststoreChanged() {
+    /**
+     * Gets the generation of the trust store. It changes whenever certificates are added, removed or renamed, so
+     * that holders of state derived from the trust store, like cached TLS sessions, can tell it is stale.
+     */
+    public static long getTruststoreGeneration() {
+        return truststoreGeneration.get();
+    }
+
+    void notifyTruststoreChanged() {
+        truststoreGeneration.incrementAndGet();
         List<TruststoreChangedListener> toCall;
         synchronized (this) {
             toCall = new ArrayList<>(this.truststoreChangedListeners);
@@ -256,6 +256,10 @@ public class ReleaseUpgradeMgr {
             	upgrade92to93(stmt);
             case 93:
             	upgrade93to94(stmt);
+            case 94:
+                upgrade94to95(stmt);
+            case 95:
+                upgrade95to96(stmt);
             case TARGET_DB_VERSION:
                 if (curDbVer < TARGET_DB_VERSION) {
                     execSql(stmt, "UPDATE RELEASE_INFO SET db_version = " + TARGET_DB_VERSION + " WHERE id = 1;");
@@ -267,6 +271,16 @@ public class ReleaseUpgradeMgr {
         }
     }
 
+    private static void upgrade95to96(Statement stmt) throws SQLException {
+        execSql(stmt, "create index IDX_JOB_COMPLETED_TIMESTAMP on JOB (completed_timestamp);");
+        execSql(stmt, "create index IDX_JOB_STATE on JOB (state);");
+        execSql(stmt, "create index IDX_TASK_JOB on TASK (job_fk);");
+    }
+
+    private static void upgrade94to95(Statement stmt) throws SQLException {
+        execSql(stmt, "create index IDX_DAI_LAST_STATUS on DISTRIBUTED_APPLIANCE_INSTANCE (last_status);");
+    }
+
     private static void upgrade93to94(Statement stmt) throws SQLException {
         execSql(stmt, "create table DISTRIBUTED_APPLIANCE_INSTANCE_POD_PORT (" +
                     "dai_fk bigint not null, " +
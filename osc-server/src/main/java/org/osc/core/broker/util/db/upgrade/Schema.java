@@ -1263,6 +1263,14 @@ public class Schema {
                 "foreign key (policy_fk) " +
                 "references POLICY;",
 
+            "create index IDX_DAI_LAST_STATUS on DISTRIBUTED_APPLIANCE_INSTANCE (last_status);",
+
+            "create index IDX_JOB_COMPLETED_TIMESTAMP on JOB (completed_timestamp);",
+
+            "create index IDX_JOB_STATE on JOB (state);",
+
+            "create index IDX_TASK_JOB on TASK (job_fk);",
+
         }; // end of schema array
     // @formatter:on
 
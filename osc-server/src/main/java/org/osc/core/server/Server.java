@@ -28,6 +28,7 @@ import java.util.Hashtable;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -38,8 +39,12 @@ import org.osc.core.broker.job.JobEngine;
 import org.osc.core.broker.model.entities.events.SystemFailureType;
 import org.osc.core.broker.model.plugin.ApiFactoryService;
 import org.osc.core.broker.rest.client.RestBaseClient;
+import org.osc.core.broker.rest.client.openstack.discovery.OpenstackInventoryCache;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsRabbitMQClient;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.RabbitMQClient;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.runner.OsDeploymentSpecNotificationRunner;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.runner.OsSecurityGroupNotificationRunner;
+import org.osc.core.broker.rest.client.k8s.KubernetesInformerRunner;
 import org.osc.core.broker.rest.client.openstack.vmidc.notification.runner.RabbitMQRunner;
 import org.osc.core.broker.service.ConformService;
 import org.osc.core.broker.service.alert.AlertGenerator;
@@ -62,7 +67,10 @@ import org.osc.core.broker.util.db.DBConnectionParameters;
 import org.osc.core.broker.util.db.upgrade.ReleaseUpgradeMgr;
 import org.osc.core.broker.util.log.LogUtil;
 import org.osc.core.broker.util.network.NetworkSettingsApi;
+import org.osc.core.server.scheduler.ApplianceAgentsJob;
+import org.osc.core.server.scheduler.ScheduledSyncDispatcher;
 import org.osc.core.server.scheduler.SyncDistributedApplianceJob;
+import org.osc.core.server.scheduler.SyncSchedule;
 import org.osc.core.server.scheduler.SyncSecurityGroupJob;
 import org.osc.core.server.websocket.WebSocketRunner;
 import org.osgi.framework.BundleContext;
@@ -119,12 +127,14 @@ public class Server implements ServerApi {
 
     private WebSocketRunner wsRunner = null;
     private RabbitMQRunner rabbitMQRunner = null;
+    private KubernetesInformerRunner k8sInformerRunner = null;
 
     // static to avoid many trivial references
     private static Integer apiPort = DEFAULT_API_PORT;
     private static volatile boolean inMaintenance = false;
 
     private int scheduledSyncInterval = 60; // 60 minutes
+    private int scheduledSyncCheckInterval = 5; // 5 minutes
     private boolean devMode = false;
 
     @Reference
@@ -150,6 +160,10 @@ public class Server implements ServerApi {
             scope=ReferenceScope.PROTOTYPE_REQUIRED)
     private ComponentServiceObjects<RabbitMQRunner> rabbitRunnerFactory;
 
+    @Reference(service=KubernetesInformerRunner.class,
+            scope=ReferenceScope.PROTOTYPE_REQUIRED)
+    private ComponentServiceObjects<KubernetesInformerRunner> k8sInformerRunnerFactory;
+
     @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
     private volatile ComponentServiceObjects<OsSecurityGroupNotificationRunner> securityGroupRunnerCSO;
     @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
@@ -236,6 +250,7 @@ public class Server implements ServerApi {
 
             startRabbitMq();
             startWebsocket();
+            startKubernetesInformers();
 
             addShutdownHook();
             startScheduler();
@@ -355,13 +370,18 @@ public class Server implements ServerApi {
 
 		// TODO: Remove the delay, once plugin state listener is implemented.
         // Related issue: https://github.com/opensecuritycontroller/osc-core/issues/545
+        // The jobs run every check interval and pick the entities due, each is synced at least every sync interval
+        int checkInterval = Math.min(this.scheduledSyncCheckInterval, this.scheduledSyncInterval);
+        SyncSchedule.setIntervals(TimeUnit.MINUTES.toMillis(checkInterval),
+                TimeUnit.MINUTES.toMillis(this.scheduledSyncInterval));
+
 		Trigger syncDaJobTrigger = TriggerBuilder.newTrigger()
 				.startAt(Date.from(Instant.now().plusSeconds(SERVER_SYNC_DELAY))).withSchedule(SimpleScheduleBuilder
-				.simpleSchedule().withIntervalInMinutes(this.scheduledSyncInterval).repeatForever()).build();
+				.simpleSchedule().withIntervalInMinutes(checkInterval).repeatForever()).build();
 
 		Trigger syncSgJobTrigger = TriggerBuilder.newTrigger()
 				.startAt(Date.from(Instant.now().plusSeconds(SERVER_SYNC_DELAY))).withSchedule(SimpleScheduleBuilder
-				.simpleSchedule().withIntervalInMinutes(this.scheduledSyncInterval).repeatForever()).build();
+				.simpleSchedule().withIntervalInMinutes(checkInterval).repeatForever()).build();
 
         scheduler.scheduleJob(syncDaJob, syncDaJobTrigger);
         scheduler.scheduleJob(syncSgJob, syncSgJobTrigger);
@@ -377,6 +397,7 @@ public class Server implements ServerApi {
 
             // and start it off
             scheduler.shutdown();
+            ScheduledSyncDispatcher.shutdown();
 
         } catch (SchedulerException se) {
             log.error("Scheduler fail to stop", se);
@@ -395,11 +416,23 @@ public class Server implements ServerApi {
         try {
             setApiPort(Integer.valueOf(prop.getProperty("server.port", DEFAULT_API_PORT.toString())));
             this.scheduledSyncInterval = Integer.parseInt(prop.getProperty("server.syncJobport", "60"));
+            this.scheduledSyncCheckInterval = Integer.parseInt(prop.getProperty("server.syncCheckInterval", "5"));
             this.devMode = Boolean.valueOf(prop.getProperty(DEV_MODE_PROPERTY_KEY, "false"));
             //set ISC public IP in Server Util
             ServerUtil.setServerIP(prop.getProperty(ISC_PUBLIC_IP, ""));
             JobEngine.setJobThreadPoolSize(prop.getProperty("server.jobThreadPoolSize"));
             JobEngine.setTaskThreadPoolSize(prop.getProperty("server.taskThreadPoolSize"));
+            JobEngine.setJobQueueCapacity(prop.getProperty("server.jobQueueCapacity"));
+            JobEngine.setJobOverflowThreadPoolSize(prop.getProperty("server.jobOverflowThreadPoolSize"));
+            JobEngine.setStatePersistenceInterval(prop.getProperty("server.jobStatePersistenceInterval"));
+            ConformService.setSecurityGroupSyncWindow(prop.getProperty("server.sgSyncNotificationWindow"));
+            RabbitMQClient.setPrefetchCount(prop.getProperty("server.notificationPrefetchCount"));
+            OsRabbitMQClient.setDispatchThreads(prop.getProperty("server.notificationDispatchThreads"));
+            OpenstackInventoryCache.setTtl(prop.getProperty("server.openstackInventoryTtl"));
+            ScheduledSyncDispatcher.setThreads(prop.getProperty("server.scheduledSyncThreads"));
+            ScheduledSyncDispatcher.setSpreadPercent(prop.getProperty("server.scheduledSyncSpread"));
+            ApplianceAgentsJob.setThreads(prop.getProperty("server.applianceAgentsThreads"));
+            ApplianceAgentsJob.setManagerConcurrency(prop.getProperty("server.applianceAgentsPerManager"));
         } catch (Exception e) {
             log.error("Warning: Parsing file failed " + Server.CONFIG_PROPERTIES_FILE + " (Error:" + e.getMessage()
                     + ")");
@@ -494,6 +527,9 @@ public class Server implements ServerApi {
         // Gracefully closing all web socket clients before shutting down server
         shutdownWebsocket();
 
+        // Closing all Kubernetes watches before shutting down server
+        shutdownKubernetesInformers();
+
         // invalidate all Vaadin sessions
         this.terminationListeners.forEach(ServerTerminationListener::serverStopping);
 	}
@@ -598,6 +634,21 @@ public class Server implements ServerApi {
         this.wsRunner = null;
     }
 
+    public void startKubernetesInformers() {
+        /*
+         * The Kubernetes Informer Runner watches the pods and deployments of all existing Kubernetes
+         * virtualization connectors upon server start/restart
+         */
+        this.k8sInformerRunner = this.k8sInformerRunnerFactory.getService();
+        log.info("Started Kubernetes Informer Runner");
+    }
+
+    public void shutdownKubernetesInformers() {
+        this.k8sInformerRunnerFactory.ungetService(this.k8sInformerRunner);
+        log.info("Shutdown of Kubernetes Informers succeeded");
+        this.k8sInformerRunner = null;
+    }
+
     @Override
     public boolean isUnderMaintenance() {
         return Server.inMaintenance;
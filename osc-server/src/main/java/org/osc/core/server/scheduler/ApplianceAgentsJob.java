@@ -16,9 +16,17 @@
  *******************************************************************************/
 package org.osc.core.server.scheduler;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 import javax.persistence.EntityManager;
 
@@ -28,24 +36,111 @@ import org.osc.core.broker.model.entities.appliance.VirtualSystem;
 import org.osc.core.broker.model.entities.management.ApplianceManagerConnector;
 import org.osc.core.broker.model.plugin.ApiFactoryService;
 import org.osc.core.broker.model.plugin.manager.DistributedApplianceInstanceElementImpl;
+import org.osc.core.broker.service.persistence.DistributedApplianceInstanceEntityMgr;
 import org.osc.core.broker.service.persistence.OSCEntityManager;
 import org.osc.core.broker.util.StaticRegistry;
 import org.osc.core.broker.util.db.HibernateUtil;
-import org.slf4j.LoggerFactory;
 import org.osc.sdk.manager.api.ManagerDeviceMemberApi;
+import org.osc.sdk.manager.element.DistributedApplianceInstanceElement;
 import org.osc.sdk.manager.element.ManagerDeviceMemberStatusElement;
 import org.osgi.service.transaction.control.ScopedWorkException;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Collects the status of the appliance instances from their managers.
+ * <p>
+ * The virtual systems are queried concurrently, with at most a few queries running against the same manager at
+ * once. The statuses returned for a virtual system are written in a single transaction.
+ */
 public class ApplianceAgentsJob implements Job {
 
     private static final Logger log = LoggerFactory.getLogger(ApplianceAgentsJob.class);
 
+    public static final int DEFAULT_THREADS = 8;
+    public static final int DEFAULT_MANAGER_CONCURRENCY = 2;
+
+    private static int threads = DEFAULT_THREADS;
+    private static int managerConcurrency = DEFAULT_MANAGER_CONCURRENCY;
+
+    /**
+     * The status query of one virtual system, captured within the listing transaction.
+     */
+    static final class VirtualSystemQuery {
+        private final Long vsId;
+        private final String vsName;
+        private final Long mcId;
+        private final ManagerDeviceMemberApi agentApi;
+        private final List<DistributedApplianceInstanceElement> daiElements;
+        private final Set<Long> daiIds = new HashSet<>();
+
+        private VirtualSystemQuery(VirtualSystem vs, ManagerDeviceMemberApi agentApi) {
+            this(vs.getId(), vs.getName(), vs.getDistributedAppliance().getApplianceManagerConnector().getId(),
+                    agentApi, toElements(vs.getDistributedApplianceInstances()));
+        }
+
+        VirtualSystemQuery(Long vsId, String vsName, Long mcId, ManagerDeviceMemberApi agentApi,
+                List<DistributedApplianceInstanceElement> daiElements) {
+            this.vsId = vsId;
+            this.vsName = vsName;
+            this.mcId = mcId;
+            this.agentApi = agentApi;
+            this.daiElements = daiElements;
+            for (DistributedApplianceInstanceElement daiElement : daiElements) {
+                this.daiIds.add(daiElement.getId());
+            }
+        }
+
+        private static List<DistributedApplianceInstanceElement> toElements(
+                Set<DistributedApplianceInstance> dais) {
+            List<DistributedApplianceInstanceElement> daiElements = new ArrayList<>();
+            for (DistributedApplianceInstance dai : dais) {
+                daiElements.add(new DistributedApplianceInstanceElementImpl(dai));
+            }
+            return daiElements;
+        }
+    }
+
+    /**
+     * Saves the statuses returned for the appliance instances of a virtual system.
+     */
+    interface StatusWriter {
+        void write(Long vsId, Map<Long, ManagerDeviceMemberStatusElement> statusByDaiId) throws Exception;
+    }
+
+    private final StatusWriter statusWriter;
+
     public ApplianceAgentsJob() {
+        this(ApplianceAgentsJob::writeStatuses);
+    }
+
+    ApplianceAgentsJob(StatusWriter statusWriter) {
+        this.statusWriter = statusWriter;
+    }
 
+    /**
+     * Sets the number of virtual systems queried at once.
+     */
+    public static void setThreads(String value) {
+        if (value == null) {
+            return;
+        }
+        threads = Math.max(1, Integer.parseInt(value));
+    }
+
+    /**
+     * Sets the number of virtual systems queried at once against the same manager.
+     */
+    public static void setManagerConcurrency(String value) {
+        if (value == null) {
+            return;
+        }
+        managerConcurrency = Math.max(1, Integer.parseInt(value));
     }
 
     @Override
@@ -54,67 +149,120 @@ public class ApplianceAgentsJob implements Job {
 
         try {
             EntityManager em = HibernateUtil.getTransactionalEntityManager();
-            List<DistributedAppliance> das = HibernateUtil.getTransactionControl().required(() -> {
+            List<VirtualSystemQuery> queries = HibernateUtil.getTransactionControl().required(() -> {
                 OSCEntityManager<DistributedAppliance> emgr = new OSCEntityManager<DistributedAppliance>(
                         DistributedAppliance.class, em, StaticRegistry.transactionalBroadcastUtil());
 
-                return emgr.listAll();
-            });
-
-            for (DistributedAppliance da : das) {
-                for (VirtualSystem vs : da.getVirtualSystems()) {
-
-                    ApplianceManagerConnector apmc = vs.getDistributedAppliance().getApplianceManagerConnector();
-                    ManagerDeviceMemberApi agentApi =  apiFactoryService.createManagerDeviceMemberApi(apmc, vs);
-
-                    if (apiFactoryService.providesDeviceStatus(vs)) {
-                        List<ManagerDeviceMemberStatusElement> agentElems = agentApi.getFullStatus(
-                                vs.getDistributedApplianceInstances().stream()
-                                .map(DistributedApplianceInstanceElementImpl::new)
-                                .collect(Collectors.toList()));
-                        for (DistributedApplianceInstance dai : vs.getDistributedApplianceInstances()) {
-                            getAgentFullStatus(dai, agentElems);
+                List<VirtualSystemQuery> vsQueries = new ArrayList<>();
+                for (DistributedAppliance da : emgr.listAll()) {
+                    for (VirtualSystem vs : da.getVirtualSystems()) {
+                        if (apiFactoryService.providesDeviceStatus(vs)) {
+                            ApplianceManagerConnector apmc = da.getApplianceManagerConnector();
+                            vsQueries.add(new VirtualSystemQuery(vs,
+                                    apiFactoryService.createManagerDeviceMemberApi(apmc, vs)));
                         }
                     }
                 }
-            }
+                return vsQueries;
+            });
+
+            queryAll(queries, threads, managerConcurrency);
 
         } catch (Exception ex) {
             log.error("Fail to sync DAs", ex);
         }
     }
 
-    private void getAgentFullStatus(DistributedApplianceInstance dai, List<ManagerDeviceMemberStatusElement> statusList) throws Exception {
+    /**
+     * Runs the given queries and saves their statuses, returning once all of them are done. A failing query is
+     * logged and does not affect the others.
+     */
+    void queryAll(List<VirtualSystemQuery> queries, int threads, int managerConcurrency) throws Exception {
+        if (queries.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Semaphore> managerPermits = new HashMap<>();
+        for (VirtualSystemQuery query : queries) {
+            managerPermits.computeIfAbsent(query.mcId, k -> new Semaphore(managerConcurrency, true));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, queries.size()),
+                new ThreadFactoryBuilder().setNameFormat("isc-appliance-agents-%d").setDaemon(true).build());
         try {
-            EntityManager em = HibernateUtil.getTransactionalEntityManager();
-            HibernateUtil.getTransactionControl().required(() -> {
-                ManagerDeviceMemberStatusElement memberStatus = findDeviceMemberStatus(dai, statusList);
+            List<Future<?>> futures = new ArrayList<>();
+            for (VirtualSystemQuery query : queries) {
+                futures.add(executor.submit(() -> getAgentFullStatus(query, managerPermits.get(query.mcId))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-                if (memberStatus != null) {
-                    dai.setLastStatus(new Date());
-                    if (memberStatus.getRx() != null) {
-                        dai.setPackets(memberStatus.getRx());
-                    }
-                }
+    private void getAgentFullStatus(VirtualSystemQuery query, Semaphore permits) {
+        try {
+            List<ManagerDeviceMemberStatusElement> agentElems;
+            permits.acquire();
+            try {
+                agentElems = query.agentApi.getFullStatus(query.daiElements);
+            } finally {
+                permits.release();
+            }
 
-                OSCEntityManager.update(em, dai, StaticRegistry.transactionalBroadcastUtil());
-                return null;
-            });
+            Map<Long, ManagerDeviceMemberStatusElement> statusByDaiId = indexByDaiId(agentElems, query.daiIds);
+            if (statusByDaiId.isEmpty()) {
+                return;
+            }
 
+            this.statusWriter.write(query.vsId, statusByDaiId);
+
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
         } catch (ScopedWorkException ex) {
-            log.error("Fail to get full status for dai '" + dai.getName() + "'. " + ex.getCause().getMessage());
+            log.error("Fail to get full status for virtual system '" + query.vsName + "'. "
+                    + ex.getCause().getMessage());
         } catch (Exception ex) {
-            log.error("Fail to get full status for dai '" + dai.getName() + "'. " + ex.getMessage());
+            log.error("Fail to get full status for virtual system '" + query.vsName + "'. " + ex.getMessage());
         }
     }
 
-    private ManagerDeviceMemberStatusElement findDeviceMemberStatus(DistributedApplianceInstance dai, List<ManagerDeviceMemberStatusElement> statusList) {
+    private static void writeStatuses(Long vsId, Map<Long, ManagerDeviceMemberStatusElement> statusByDaiId)
+            throws Exception {
+        EntityManager em = HibernateUtil.getTransactionalEntityManager();
+        HibernateUtil.getTransactionControl().required(() -> {
+            Date now = new Date();
+            for (DistributedApplianceInstance dai : DistributedApplianceInstanceEntityMgr.listByVsId(em, vsId)) {
+                ManagerDeviceMemberStatusElement memberStatus = statusByDaiId.get(dai.getId());
+                if (memberStatus != null) {
+                    dai.setLastStatus(now);
+                    if (memberStatus.getRx() != null) {
+                        dai.setPackets(memberStatus.getRx());
+                    }
+                    OSCEntityManager.update(em, dai, StaticRegistry.transactionalBroadcastUtil());
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Indexes the statuses of the given appliance instances by instance id, the first status of an instance wins.
+     */
+    private static Map<Long, ManagerDeviceMemberStatusElement> indexByDaiId(
+            List<ManagerDeviceMemberStatusElement> statusList, Set<Long> daiIds) {
+        Map<Long, ManagerDeviceMemberStatusElement> statusByDaiId = new HashMap<>();
+        if (statusList == null) {
+            return statusByDaiId;
+        }
         for (ManagerDeviceMemberStatusElement memberStatus : statusList) {
-            if (memberStatus.getDistributedApplianceInstanceElement().getId().equals(dai.getId())) {
-                return memberStatus;
+            DistributedApplianceInstanceElement daiElement = memberStatus.getDistributedApplianceInstanceElement();
+            if (daiElement != null && daiIds.contains(daiElement.getId())) {
+                statusByDaiId.putIfAbsent(daiElement.getId(), memberStatus);
             }
         }
-
-        return null;
+        return statusByDaiId;
     }
 }
@@ -17,15 +17,17 @@
 package org.osc.core.server.scheduler;
 
 import java.util.Date;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.persistence.EntityManager;
 
 import org.osc.core.broker.job.lock.LockObjectReference;
 import org.osc.core.broker.job.lock.LockObjectReference.ObjectType;
-import org.osc.core.broker.model.entities.appliance.DistributedApplianceInstance;
 import org.osc.core.broker.model.entities.events.DaiFailureType;
-import org.osc.core.broker.service.persistence.OSCEntityManager;
+import org.osc.core.broker.service.persistence.DistributedApplianceInstanceEntityMgr;
 import org.osc.core.broker.util.StaticRegistry;
 import org.osc.core.broker.util.db.HibernateUtil;
 import org.slf4j.LoggerFactory;
@@ -40,6 +42,9 @@ public class MonitorDistributedApplianceInstanceJob implements Job {
 
     private static final Logger log = LoggerFactory.getLogger(MonitorDistributedApplianceInstanceJob.class);
 
+    // The instances found out of date by the previous runs, alerted on once until they report again
+    private static final Set<Long> timedOutDaiIds = ConcurrentHashMap.newKeySet();
+
     public MonitorDistributedApplianceInstanceJob() {
 
     }
@@ -49,36 +54,46 @@ public class MonitorDistributedApplianceInstanceJob implements Job {
 
         try {
             EntityManager em = HibernateUtil.getTransactionalEntityManager();
-            HibernateUtil.getTransactionControl().required(() -> {
-                OSCEntityManager<DistributedApplianceInstance> emgr = new OSCEntityManager<DistributedApplianceInstance>(
-                        DistributedApplianceInstance.class, em, StaticRegistry.transactionalBroadcastUtil());
-                List<DistributedApplianceInstance> dais = emgr.listAll();
-
-                for (DistributedApplianceInstance dai : dais) {
-                    Date date = null;
-                    if (dai.getLastStatus() != null) {
-                        date = new Date(dai.getLastStatus().getTime() + AGENT_UPDATE_THRESHOLD);
-                    }
-                    // Generate an alert if it has been more than 4 minutes since we last heard from the DAI
-                    if (date == null || new Date().compareTo(date) > 0) {
-                        log.warn("Generate an alert for DAI '" + dai.getName()
-                        + "' since we have not receive expected registration request (every 3 minutes)");
-                        StaticRegistry.alertGenerator().processDaiFailureEvent(DaiFailureType.DAI_TIMEOUT,
-                                new LockObjectReference(dai.getId(), dai.getName(),
-                                        ObjectType.DISTRIBUTED_APPLIANCE_INSTANCE),
-                                "Health status information for Appliance Instance '" + dai.getName()
-                                + "' not timely reported and is out of date");
-
-                        dai.setDiscovered(null);
-                        dai.setInspectionReady(null);
-                    }
+            Map<Long, String> timedOutDais = HibernateUtil.getTransactionControl().required(() -> {
+                Date lastStatusBefore = new Date(System.currentTimeMillis() - AGENT_UPDATE_THRESHOLD);
+                Map<Long, String> dais = DistributedApplianceInstanceEntityMgr.listTimedOut(em, lastStatusBefore);
+                if (!dais.isEmpty()) {
+                    DistributedApplianceInstanceEntityMgr.resetTimedOut(em, lastStatusBefore);
                 }
-                return null;
+                return dais;
             });
 
+            for (Map.Entry<Long, String> dai : newlyTimedOut(timedOutDaiIds, timedOutDais).entrySet()) {
+                // Generate an alert if it has been more than 4 minutes since we last heard from the DAI
+                log.warn("Generate an alert for DAI '" + dai.getValue()
+                + "' since we have not receive expected registration request (every 3 minutes)");
+                StaticRegistry.alertGenerator().processDaiFailureEvent(DaiFailureType.DAI_TIMEOUT,
+                        new LockObjectReference(dai.getKey(), dai.getValue(),
+                                ObjectType.DISTRIBUTED_APPLIANCE_INSTANCE),
+                        "Health status information for Appliance Instance '" + dai.getValue()
+                        + "' not timely reported and is out of date");
+            }
+
         } catch (Exception ex) {
             log.error("Exception iterating over DAIs", ex);
 
         }
     }
+
+    /**
+     * Records the instances found out of date by this run in the given ids of the previous runs and returns the ones
+     * which were not already out of date. Instances which reported since are forgotten, so they are returned again if
+     * they time out again.
+     */
+    static Map<Long, String> newlyTimedOut(Set<Long> timedOutDaiIds, Map<Long, String> timedOutDais) {
+        timedOutDaiIds.retainAll(timedOutDais.keySet());
+
+        Map<Long, String> newlyTimedOutDais = new HashMap<>();
+        for (Map.Entry<Long, String> dai : timedOutDais.entrySet()) {
+            if (timedOutDaiIds.add(dai.getKey())) {
+                newlyTimedOutDais.put(dai.getKey(), dai.getValue());
+            }
+        }
+        return newlyTimedOutDais;
+    }
 }
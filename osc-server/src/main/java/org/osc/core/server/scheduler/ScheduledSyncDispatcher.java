@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.server.scheduler;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.SimpleTrigger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs the entity syncs started by the scheduled sync jobs on a small shared pool of threads.
+ * <p>
+ * The syncs of one run are spread over part of the sync interval rather than started at once: the window is cut in
+ * as many slots as there are entities and each sync starts at a random time within its slot. An entity whose sync
+ * from an earlier run has not started yet is left out of the next run.
+ */
+public final class ScheduledSyncDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledSyncDispatcher.class);
+
+    public static final int DEFAULT_THREADS = 4;
+    public static final int DEFAULT_SPREAD_PERCENT = 50;
+
+    private static int threads = DEFAULT_THREADS;
+    private static int spreadPercent = DEFAULT_SPREAD_PERCENT;
+
+    private static ScheduledSyncDispatcher dispatcher;
+
+    private final ScheduledExecutorService executor;
+    private final DoubleSupplier random;
+
+    // The entities whose sync is scheduled but not started yet
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    ScheduledSyncDispatcher(ScheduledExecutorService executor, DoubleSupplier random) {
+        this.executor = executor;
+        this.random = random;
+    }
+
+    static synchronized ScheduledSyncDispatcher getDispatcher() {
+        if (dispatcher == null) {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads,
+                    new ThreadFactoryBuilder().setNameFormat("isc-scheduled-sync-%d").setDaemon(true).build());
+            executor.setRemoveOnCancelPolicy(true);
+            dispatcher = new ScheduledSyncDispatcher(executor, () -> ThreadLocalRandom.current().nextDouble());
+        }
+        return dispatcher;
+    }
+
+    /**
+     * Drops the syncs which have not started yet, along with the threads. Syncs in progress are not interrupted.
+     */
+    public static synchronized void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.executor.shutdownNow();
+            dispatcher = null;
+        }
+    }
+
+    /**
+     * Sets the number of threads starting scheduled syncs.
+     */
+    public static void setThreads(String value) {
+        if (value == null) {
+            return;
+        }
+        threads = Integer.parseInt(value);
+    }
+
+    /**
+     * Sets the part of the sync interval, in percent, over which the syncs of a run are spread. Zero starts them all
+     * right away.
+     */
+    public static void setSpreadPercent(String value) {
+        if (value == null) {
+            return;
+        }
+        spreadPercent = Math.max(0, Math.min(100, Integer.parseInt(value)));
+    }
+
+    /**
+     * Gets the time the syncs of a run of the given job are spread over.
+     */
+    static long getSpread(JobExecutionContext context) {
+        if (!(context.getTrigger() instanceof SimpleTrigger)) {
+            return 0;
+        }
+        return ((SimpleTrigger) context.getTrigger()).getRepeatInterval() * spreadPercent / 100;
+    }
+
+    /**
+     * Schedules the sync of each entity at a jittered time within the spread.
+     *
+     * @param type
+     *            the kind of entities synced, telling entities of different kinds apart
+     * @param ids
+     *            the ids of the entities to sync
+     * @param spreadMs
+     *            the time the syncs are spread over
+     * @param sync
+     *            syncs the entity with the given id
+     * @return the number of syncs scheduled, short of the entities whose previous sync has not started yet
+     */
+    <K> int dispatch(String type, List<K> ids, long spreadMs, Consumer<K> sync) {
+        double slotMs = ids.isEmpty() ? 0 : (double) spreadMs / ids.size();
+        int scheduled = 0;
+        int skipped = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            K id = ids.get(i);
+            String key = type + ":" + id;
+            if (!this.pending.add(key)) {
+                skipped++;
+                continue;
+            }
+
+            long delayMs = (long) ((i + this.random.getAsDouble()) * slotMs);
+            this.executor.schedule(() -> {
+                this.pending.remove(key);
+                try {
+                    sync.accept(id);
+                } catch (RuntimeException e) {
+                    log.error("Fail to sync " + type + " " + id, e);
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+            scheduled++;
+        }
+
+        log.info("Scheduled " + scheduled + " " + type + " syncs over " + spreadMs + "ms, skipped " + skipped
+                + " still waiting from an earlier run");
+        return scheduled;
+    }
+}
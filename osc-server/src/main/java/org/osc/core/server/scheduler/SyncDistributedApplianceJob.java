@@ -17,9 +17,11 @@
 package org.osc.core.server.scheduler;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
 
+import org.osc.core.broker.job.JobPriority;
 import org.osc.core.broker.job.lock.LockObjectReference;
 import org.osc.core.broker.model.entities.appliance.DistributedAppliance;
 import org.osc.core.broker.model.entities.events.SystemFailureType;
@@ -51,44 +53,22 @@ public class SyncDistributedApplianceJob implements Job {
         try {
             EntityManager em = HibernateUtil.getTransactionalEntityManager();
 
-            List<DistributedAppliance> das = HibernateUtil.getTransactionControl().required(() -> {
+            long now = System.currentTimeMillis();
+            List<Long> daIds = HibernateUtil.getTransactionControl().required(() -> {
                 OSCEntityManager<DistributedAppliance> emgr = new OSCEntityManager<DistributedAppliance>(
                         DistributedAppliance.class, em, StaticRegistry.transactionalBroadcastUtil());
-                return emgr.listAll();
+                List<DistributedAppliance> das = emgr.listAll();
+                SyncSchedule.DISTRIBUTED_APPLIANCES
+                        .retainAll(das.stream().map(DistributedAppliance::getId).collect(Collectors.toList()));
+                return das.stream()
+                        .filter(da -> SyncSchedule.DISTRIBUTED_APPLIANCES.isDue(da.getId(), da.getLastJob(), now))
+                        .map(DistributedAppliance::getId)
+                        .collect(Collectors.toList());
             });
 
-            // Iterate on all DAs and execute a sync on a separate thread as we are placing lock and want to avoid
-            // delays for following DAs
-            for (final DistributedAppliance da : das) {
-                Thread daSync = new Thread(new Runnable() {
-                    @Override
-                    public void run() {
-                        try {
-                            HibernateUtil.getTransactionControl().required(() -> {
-                                SessionUtil.getInstance().setUser(RestConstants.OSC_DEFAULT_LOGIN);
-                                EntityManager em = HibernateUtil.getTransactionalEntityManager();
-                                try {
-                                    DistributedAppliance found = em.find(DistributedAppliance.class, da.getId());
-                                    conformService.startDAConformJob(em, found, null, false);
-                                } catch (Exception ex) {
-                                    StaticRegistry.alertGenerator().processSystemFailureEvent(
-                                            SystemFailureType.SCHEDULER_FAILURE,
-                                            new LockObjectReference(da),
-                                            "Failure during scheduling of Distributed Appliance Sync. "
-                                                    + ex.getMessage());
-                                    log.error("Fail to sync DA " + da.getName(), ex);
-                                }
-                                return null;
-                            });
-                        } catch (Exception e) {
-                            // Just let the thread finish
-                        }
-                    }
-                }, "Scheduled-DA-Sync-runner-Thread-" + System.currentTimeMillis());
-
-                daSync.start();
-
-            }
+            // Syncs are spread over the interval as we are placing locks and want to avoid delays for following DAs
+            ScheduledSyncDispatcher.getDispatcher().dispatch("Distributed Appliance", daIds,
+                    ScheduledSyncDispatcher.getSpread(context), daId -> sync(conformService, daId));
 
         } catch (ScopedWorkException ex) {
             StaticRegistry.alertGenerator().processSystemFailureEvent(SystemFailureType.SCHEDULER_FAILURE, null,
@@ -101,4 +81,36 @@ public class SyncDistributedApplianceJob implements Job {
 
         }
     }
+
+    private static void sync(ConformService conformService, Long daId) {
+        try {
+            JobPriority.setCurrent(JobPriority.SCHEDULED);
+            HibernateUtil.getTransactionControl().required(() -> {
+                SessionUtil.getInstance().setUser(RestConstants.OSC_DEFAULT_LOGIN);
+                EntityManager em = HibernateUtil.getTransactionalEntityManager();
+                DistributedAppliance da = em.find(DistributedAppliance.class, daId);
+                if (da == null) {
+                    return null;
+                }
+                if (da.getLastJob() != null && !da.getLastJob().getState().isTerminalState()) {
+                    log.info("Skipping sync of DA " + da.getName() + ", job " + da.getLastJob().getId()
+                            + " is not completed yet");
+                    return null;
+                }
+                try {
+                    conformService.startDAConformJob(em, da, null, false);
+                } catch (Exception ex) {
+                    StaticRegistry.alertGenerator().processSystemFailureEvent(
+                            SystemFailureType.SCHEDULER_FAILURE,
+                            new LockObjectReference(da),
+                            "Failure during scheduling of Distributed Appliance Sync. "
+                                    + ex.getMessage());
+                    log.error("Fail to sync DA " + da.getName(), ex);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Fail to sync DA " + daId, e);
+        }
+    }
 }
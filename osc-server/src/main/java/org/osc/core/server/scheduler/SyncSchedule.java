@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.server.scheduler;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.osc.core.broker.model.entities.job.JobRecord;
+
+/**
+ * Decides which entities of one kind the scheduled sync jobs sync on each run.
+ * <p>
+ * The scheduled sync jobs run every check interval. An entity is synced on the next run when it is marked dirty,
+ * that is when a change was notified or made through the API, since its last job started. Otherwise it is synced
+ * again after an interval depending on its recent history: the interval doubles from the check interval with every
+ * consecutive successful job, and with every consecutive failed job but the first, up to the sync interval. Whatever
+ * happens, an entity is synced at least once per sync interval.
+ * <p>
+ * The history is kept in memory, after a restart every entity is considered recently changed.
+ */
+public final class SyncSchedule {
+
+    public static final long DEFAULT_CHECK_INTERVAL_MS = TimeUnit.MINUTES.toMillis(5);
+    public static final long DEFAULT_SYNC_INTERVAL_MS = TimeUnit.MINUTES.toMillis(60);
+
+    public static final SyncSchedule SECURITY_GROUPS = new SyncSchedule();
+    public static final SyncSchedule DISTRIBUTED_APPLIANCES = new SyncSchedule();
+
+    private static volatile long checkIntervalMs = DEFAULT_CHECK_INTERVAL_MS;
+    private static volatile long syncIntervalMs = DEFAULT_SYNC_INTERVAL_MS;
+
+    private static final class EntityState {
+        // All guarded by this
+        private long dirtySince = Long.MIN_VALUE;
+        private Long lastJobId;
+        private int successes;
+        private int failures;
+    }
+
+    private final ConcurrentMap<Long, EntityState> states = new ConcurrentHashMap<>();
+
+    SyncSchedule() {
+    }
+
+    /**
+     * Sets how often the scheduled sync jobs run and the maximum time between two syncs of an entity.
+     */
+    public static void setIntervals(long checkIntervalMs, long syncIntervalMs) {
+        SyncSchedule.checkIntervalMs = Math.min(checkIntervalMs, syncIntervalMs);
+        SyncSchedule.syncIntervalMs = syncIntervalMs;
+    }
+
+    /**
+     * Records that the entity may have changed and needs to be synced on the next run, unless a job started
+     * afterwards syncs it.
+     */
+    public void markDirty(Long id) {
+        markDirty(id, System.currentTimeMillis());
+    }
+
+    void markDirty(Long id, long now) {
+        if (id == null) {
+            return;
+        }
+        EntityState state = getState(id);
+        synchronized (state) {
+            state.dirtySince = now;
+        }
+    }
+
+    /**
+     * Forgets the entities which no longer exist.
+     */
+    public void retainAll(Collection<Long> ids) {
+        this.states.keySet().retainAll(ids);
+    }
+
+    /**
+     * Decides whether to sync an entity on this run.
+     *
+     * @param lastJob
+     *            the last job of the entity, or null if it never had one
+     */
+    public boolean isDue(Long id, JobRecord lastJob, long now) {
+        if (lastJob == null) {
+            return true;
+        }
+        if (!lastJob.getState().isTerminalState()) {
+            return false;
+        }
+
+        long completed = getTime(lastJob.getCompletedTimestamp(), Long.MIN_VALUE);
+        long started = getTime(lastJob.getStartedTimestamp(), completed);
+        EntityState state = getState(id);
+        synchronized (state) {
+            if (!lastJob.getId().equals(state.lastJobId)) {
+                state.lastJobId = lastJob.getId();
+                if (lastJob.getStatus() != null && lastJob.getStatus().isSuccessful()) {
+                    state.successes = state.dirtySince >= started ? 0 : state.successes + 1;
+                    state.failures = 0;
+                } else {
+                    state.successes = 0;
+                    state.failures++;
+                }
+            }
+
+            if (state.dirtySince >= started || completed == Long.MIN_VALUE) {
+                return true;
+            }
+
+            // Due when waiting for the next run would exceed the interval
+            long interval = getInterval(state.failures > 0 ? state.failures - 1 : state.successes);
+            return now - completed + checkIntervalMs > interval;
+        }
+    }
+
+    /**
+     * @return the check interval doubled the given number of times, up to the sync interval
+     */
+    static long getInterval(int doublings) {
+        long interval = checkIntervalMs;
+        for (int i = 0; i < doublings && interval < syncIntervalMs; i++) {
+            interval *= 2;
+        }
+        return Math.min(interval, syncIntervalMs);
+    }
+
+    private EntityState getState(Long id) {
+        return this.states.computeIfAbsent(id, k -> new EntityState());
+    }
+
+    private static long getTime(Date date, long defaultTime) {
+        return date != null ? date.getTime() : defaultTime;
+    }
+}
@@ -17,9 +17,11 @@
 package org.osc.core.server.scheduler;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
 
+import org.osc.core.broker.job.JobPriority;
 import org.osc.core.broker.job.lock.LockObjectReference;
 import org.osc.core.broker.model.entities.events.SystemFailureType;
 import org.osc.core.broker.model.entities.virtualization.SecurityGroup;
@@ -50,44 +52,22 @@ public class SyncSecurityGroupJob implements Job {
         ConformService conformService = (ConformService) context.getMergedJobDataMap().get(ConformService.class.getName());
         try {
             EntityManager em = HibernateUtil.getTransactionalEntityManager();
-            List<SecurityGroup> sgs = HibernateUtil.getTransactionControl().required(() -> {
+            long now = System.currentTimeMillis();
+            List<Long> sgIds = HibernateUtil.getTransactionControl().required(() -> {
                 OSCEntityManager<SecurityGroup> emgr = new OSCEntityManager<SecurityGroup>(SecurityGroup.class, em, StaticRegistry.transactionalBroadcastUtil());
-                return emgr.listAll();
+                List<SecurityGroup> sgs = emgr.listAll();
+                SyncSchedule.SECURITY_GROUPS.retainAll(sgs.stream().map(SecurityGroup::getId).collect(Collectors.toList()));
+                return sgs.stream()
+                        // TODO emanoel: remove this condition once SG sync is implemented.
+                        .filter(sg -> !sg.getVirtualizationConnector().getVirtualizationType().isKubernetes())
+                        .filter(sg -> SyncSchedule.SECURITY_GROUPS.isDue(sg.getId(), sg.getLastJob(), now))
+                        .map(SecurityGroup::getId)
+                        .collect(Collectors.toList());
             });
 
-            for (final SecurityGroup sg : sgs) {
-                // TODO emanoel: remove this condition once SG sync is implemented.
-                if (sg.getVirtualizationConnector().getVirtualizationType().isKubernetes()) {
-                    continue;
-                }
-
-                Thread sgSync = new Thread(new Runnable() {
-                    @Override
-                    public void run() {
-                        try {
-                            HibernateUtil.getTransactionControl().required(() -> {
-                                SessionUtil.getInstance().setUser(RestConstants.OSC_DEFAULT_LOGIN);
-                                EntityManager em = HibernateUtil.getTransactionalEntityManager();
-                                try {
-                                    SecurityGroup found = em.find(SecurityGroup.class, sg.getId());
-                                    conformService.startSecurityGroupConformanceJob(found);
-                                } catch (Exception ex) {
-                                    StaticRegistry.alertGenerator().processSystemFailureEvent(SystemFailureType.SCHEDULER_FAILURE,
-                                            new LockObjectReference(sg),
-                                            "Failure during scheduling of Security Group Sync. " + ex.getMessage());
-                                    log.error("Fail to sync SG " + sg.getName(), ex);
-                                }
-                                return null;
-
-                            });
-                        } catch (Exception e) {
-                            // Just let the thread finish
-                        }
-                    }
-                }, "Scheduled-SG-Sync-runner-Thread-" + System.currentTimeMillis());
-
-                sgSync.start();
-            }
+            // Syncs are spread over the interval as we are placing locks and do not want all of them at once
+            ScheduledSyncDispatcher.getDispatcher().dispatch("Security Group", sgIds,
+                    ScheduledSyncDispatcher.getSpread(context), sgId -> sync(conformService, sgId));
         } catch (ScopedWorkException ex) {
             StaticRegistry.alertGenerator().processSystemFailureEvent(SystemFailureType.SCHEDULER_FAILURE, null,
                     "Failure during scheduling of Security Groups Sync. " + ex.getCause().getMessage());
@@ -99,4 +79,34 @@ public class SyncSecurityGroupJob implements Job {
         }
     }
 
+    private static void sync(ConformService conformService, Long sgId) {
+        try {
+            JobPriority.setCurrent(JobPriority.SCHEDULED);
+            HibernateUtil.getTransactionControl().required(() -> {
+                SessionUtil.getInstance().setUser(RestConstants.OSC_DEFAULT_LOGIN);
+                EntityManager em = HibernateUtil.getTransactionalEntityManager();
+                SecurityGroup sg = em.find(SecurityGroup.class, sgId);
+                if (sg == null) {
+                    return null;
+                }
+                if (sg.getLastJob() != null && !sg.getLastJob().getState().isTerminalState()) {
+                    log.info("Skipping sync of SG " + sg.getName() + ", job " + sg.getLastJob().getId()
+                            + " is not completed yet");
+                    return null;
+                }
+                try {
+                    conformService.startSecurityGroupConformanceJob(sg);
+                } catch (Exception ex) {
+                    StaticRegistry.alertGenerator().processSystemFailureEvent(SystemFailureType.SCHEDULER_FAILURE,
+                            new LockObjectReference(sg),
+                            "Failure during scheduling of Security Group Sync. " + ex.getMessage());
+                    log.error("Fail to sync SG " + sg.getName(), ex);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Fail to sync SG " + sgId, e);
+        }
+    }
+
 }
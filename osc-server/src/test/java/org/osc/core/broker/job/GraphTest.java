@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+public class GraphTest {
+
+    private static final int LAYER_WIDTH = 10;
+    private static final int NODE_COUNT = 10000;
+    private static final int MAX_HASHES_PER_NODE = 50;
+
+    private final AtomicLong hashes = new AtomicLong();
+
+    @Test
+    public void testPredecessorsFollowEdgeChanges() {
+        Graph<String> graph = new Graph<>();
+        graph.addEdges("A", "B", "C");
+        graph.addEdge("B", "D");
+        graph.addEdge("C", "D");
+
+        assertEquals(ImmutableSet.of("B", "C"), graph.getPredecessors("D"));
+        assertEquals(ImmutableSet.of("A"), graph.getSources());
+        assertEquals(ImmutableSet.of("D"), graph.getSinks());
+
+        graph.removeEdge("C", "D");
+        assertEquals(ImmutableSet.of("B"), graph.getPredecessors("D"));
+
+        graph.replace("B", "E");
+        assertEquals(ImmutableSet.of("E"), graph.getPredecessors("D"));
+        assertEquals(ImmutableSet.of("A"), graph.getPredecessors("E"));
+        assertEquals(ImmutableSet.of("C", "E"), graph.getSuccessors("A"));
+
+        graph.removeNode("E");
+        assertTrue(graph.getPredecessors("D").isEmpty());
+        assertEquals(ImmutableSet.of("C"), graph.getSuccessors("A"));
+    }
+
+    @Test
+    public void testReverseSwapsSuccessorsAndPredecessors() {
+        Graph<String> graph = new Graph<>();
+        graph.addEdges("A", "B", "C");
+        graph.addEdge("B", "D");
+
+        Graph<String> reversed = graph.reverse();
+
+        assertEquals(ImmutableSet.of("A"), reversed.getSuccessors("B"));
+        assertEquals(ImmutableSet.of("B", "C"), reversed.getPredecessors("A"));
+        assertEquals(ImmutableSet.of("A", "B"), reversed.getDescendants("D"));
+        assertEquals(ImmutableSet.of("A", "B"), graph.getAncestors("D"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotIsImmutable() {
+        Graph<String> graph = new Graph<>();
+        graph.addEdge("A", "B");
+
+        Graph<String> snapshot = graph.snapshot();
+        graph.addEdge("B", "C");
+
+        assertEquals(ImmutableSet.of("A", "B"), snapshot.getNodes());
+        snapshot.addEdge("B", "C");
+    }
+
+    @Test
+    public void testSchedulingLooksUpAdjacencyOfEachEdgeInConstantTime() {
+        Graph<CountingNode> graph = layeredGraph(NODE_COUNT);
+        this.hashes.set(0);
+
+        assertEquals(NODE_COUNT, schedule(graph));
+
+        // Each node is hashed a few times per edge, scanning the adjacency of the graph per lookup would hash
+        // every node per lookup
+        assertTrue("Scheduling " + NODE_COUNT + " nodes hashed nodes " + this.hashes + " times",
+                this.hashes.get() < MAX_HASHES_PER_NODE * NODE_COUNT);
+    }
+
+    /**
+     * Builds layers of {@link #LAYER_WIDTH} nodes where each node has edges to three nodes of the next layer.
+     */
+    private Graph<CountingNode> layeredGraph(int nodeCount) {
+        CountingNode[] nodes = new CountingNode[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            nodes[node] = new CountingNode(node, this.hashes);
+        }
+
+        Graph<CountingNode> graph = new Graph<>();
+        for (int node = 0; node < nodeCount; node++) {
+            graph.addNode(nodes[node]);
+            int nextLayer = (node / LAYER_WIDTH + 1) * LAYER_WIDTH;
+            for (int i = 0; i < 3; i++) {
+                int successor = nextLayer + (node + i) % LAYER_WIDTH;
+                if (successor < nodeCount) {
+                    graph.addEdge(nodes[node], nodes[successor]);
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Completes the graph the way the job scheduler does: once a node completes each of its successors is
+     * dispatched if all of that successor's predecessors completed.
+     *
+     * @return the number of nodes completed
+     */
+    private static int schedule(Graph<CountingNode> graph) {
+        Set<CountingNode> completed = new HashSet<>();
+        Deque<CountingNode> ready = new ArrayDeque<>(graph.getSources());
+
+        while (!ready.isEmpty()) {
+            CountingNode node = ready.pop();
+            completed.add(node);
+            for (CountingNode successor : graph.getSuccessors(node)) {
+                if (!completed.contains(successor) && completed.containsAll(graph.getPredecessors(successor))
+                        && !ready.contains(successor)) {
+                    ready.push(successor);
+                }
+            }
+        }
+        return completed.size();
+    }
+
+    /**
+     * A graph node counting how many times nodes are hashed, each adjacency or set look up hashes the node once.
+     */
+    private static final class CountingNode {
+        private final int id;
+        private final AtomicLong hashes;
+
+        CountingNode(int id, AtomicLong hashes) {
+            this.id = id;
+            this.hashes = hashes;
+        }
+
+        @Override
+        public int hashCode() {
+            this.hashes.incrementAndGet();
+            return this.id;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CountingNode && ((CountingNode) obj).id == this.id;
+        }
+
+        @Override
+        public String toString() {
+            return Integer.toString(this.id);
+        }
+    }
+}
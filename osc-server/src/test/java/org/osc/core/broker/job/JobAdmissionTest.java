@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.osc.core.broker.job.JobEngineTest.EmptyTask;
+import org.osc.core.broker.job.lock.LockManager;
+import org.osc.core.broker.job.lock.LockObjectReference;
+import org.osc.core.broker.job.lock.LockObjectReference.ObjectType;
+import org.osc.core.broker.job.lock.LockRequest;
+import org.osc.core.broker.job.lock.LockRequest.LockType;
+import org.osc.core.broker.service.tasks.conformance.UnlockObjectTask;
+
+public class JobAdmissionTest {
+
+    private final List<Job> started = new ArrayList<>();
+
+    @Test
+    public void testOffer_WhenAtRunningLimit_StartsWaitingJobsInPriorityOrder() {
+        JobAdmission admission = new JobAdmission(1, 0, 10, this.started::add);
+        Job running = newJob("running", JobPriority.SCHEDULED);
+        Job scheduled = newJob("scheduled", JobPriority.SCHEDULED);
+        Job notification = newJob("notification", JobPriority.NOTIFICATION);
+        Job user = newJob("user", JobPriority.USER);
+
+        admission.offer(running, running.getPriority());
+        admission.offer(scheduled, scheduled.getPriority());
+        admission.offer(notification, notification.getPriority());
+        admission.offer(user, user.getPriority());
+
+        assertEquals(Arrays.asList(running), this.started);
+        assertEquals(3, admission.getQueueDepth());
+
+        admission.completed(running);
+        admission.completed(user);
+        admission.completed(notification);
+
+        assertEquals(Arrays.asList(running, user, notification, scheduled), this.started);
+        assertEquals(0, admission.getQueueDepth());
+    }
+
+    @Test
+    public void testOffer_WhenQueueIsFull_ShedsLowerPriorityJob() {
+        JobAdmission admission = new JobAdmission(1, 0, 1, this.started::add);
+        Job running = newJob("running", JobPriority.USER);
+        Job scheduled = newJob("scheduled", JobPriority.SCHEDULED);
+        Job user = newJob("user", JobPriority.USER);
+
+        assertNull(admission.offer(running, running.getPriority()));
+        assertNull(admission.offer(scheduled, scheduled.getPriority()));
+
+        assertSame(scheduled, admission.offer(user, user.getPriority()));
+        assertEquals(1, admission.getQueueDepth());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testOffer_WhenQueueIsFullOfSamePriority_Rejects() {
+        JobAdmission admission = new JobAdmission(1, 0, 1, this.started::add);
+        admission.offer(newJob("running", JobPriority.USER), JobPriority.USER);
+        admission.offer(newJob("waiting", JobPriority.USER), JobPriority.USER);
+
+        admission.offer(newJob("rejected", JobPriority.USER), JobPriority.USER);
+    }
+
+    @Test
+    public void testDispatch_WhenJobHoldsAwaitedLock_StartsItBeyondRunningLimitUpToOverflow() throws Exception {
+        LockObjectReference objectRef = new LockObjectReference(1000L, "sg", ObjectType.SECURITY_GROUP);
+        UnlockObjectTask heldUnlockTask = new UnlockObjectTask(objectRef, LockType.WRITE_LOCK);
+        LockRequest heldLock = new LockRequest(heldUnlockTask);
+        LockRequest awaitedLock = new LockRequest(new UnlockObjectTask(objectRef, LockType.WRITE_LOCK));
+        assertTrue(LockManager.getLockManager().tryAcquireLock(heldLock));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Boolean> waiting = executor.submit(() -> LockManager.getLockManager().acquireLock(awaitedLock));
+
+        try {
+            while (!LockManager.getLockManager().hasWaiters(objectRef)) {
+                Thread.sleep(5);
+            }
+
+            JobAdmission admission = new JobAdmission(1, 1, 10, this.started::add);
+            Job running = newJob("running", JobPriority.USER);
+            Job holding = newJob("holding", JobPriority.SCHEDULED, heldUnlockTask);
+            Job otherHolding = newJob("other holding", JobPriority.SCHEDULED,
+                    new UnlockObjectTask(objectRef, LockType.READ_LOCK));
+            Job other = newJob("other", JobPriority.USER);
+
+            admission.offer(running, running.getPriority());
+            admission.offer(holding, holding.getPriority());
+            admission.offer(otherHolding, otherHolding.getPriority());
+            admission.offer(other, other.getPriority());
+
+            assertEquals(Arrays.asList(running, holding), this.started);
+            assertEquals(2, admission.getQueueDepth());
+        } finally {
+            LockManager.getLockManager().releaseLock(heldLock);
+            assertTrue(waiting.get(5, TimeUnit.SECONDS));
+            LockManager.getLockManager().releaseLock(awaitedLock);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDispatch_WhenSubmittedObjectIsLockedByOthers_DefersJobUntilReleased() throws Exception {
+        LockObjectReference objectRef = new LockObjectReference(1001L, "sg", ObjectType.SECURITY_GROUP);
+        LockRequest otherLock = new LockRequest(new UnlockObjectTask(objectRef, LockType.READ_LOCK));
+        assertTrue(LockManager.getLockManager().tryAcquireLock(otherLock));
+
+        try {
+            JobAdmission admission = new JobAdmission(2, 0, 10, this.started::add);
+            Job contending = newJob("contending", JobPriority.USER, Collections.singleton(objectRef));
+            Job other = newJob("other", JobPriority.SCHEDULED);
+
+            admission.offer(contending, contending.getPriority());
+            admission.offer(other, other.getPriority());
+
+            assertEquals(Arrays.asList(other), this.started);
+            assertEquals(1, admission.getQueueDepth());
+            assertTrue(admission.getStatus().contains("Deferred: 1"));
+
+            LockManager.getLockManager().releaseLock(otherLock);
+            admission.dispatch();
+
+            assertEquals(Arrays.asList(other, contending), this.started);
+            assertEquals(0, admission.getQueueDepth());
+        } finally {
+            LockManager.getLockManager().releaseLock(otherLock);
+        }
+    }
+
+    @Test
+    public void testDispatch_WhenSubmittedObjectIsLockedByTheJobItself_StartsJob() throws Exception {
+        LockObjectReference objectRef = new LockObjectReference(1002L, "da", ObjectType.DISTRIBUTED_APPLIANCE);
+        UnlockObjectTask heldUnlockTask = new UnlockObjectTask(objectRef, LockType.WRITE_LOCK);
+        LockRequest heldLock = new LockRequest(heldUnlockTask);
+        assertTrue(LockManager.getLockManager().tryAcquireLock(heldLock));
+
+        try {
+            JobAdmission admission = new JobAdmission(1, 0, 10, this.started::add);
+            Job holding = newJob("holding", JobPriority.USER, Collections.singleton(objectRef), heldUnlockTask);
+
+            admission.offer(holding, holding.getPriority());
+
+            assertEquals(Arrays.asList(holding), this.started);
+        } finally {
+            LockManager.getLockManager().releaseLock(heldLock);
+        }
+    }
+
+    private static Job newJob(String name, JobPriority priority, Task... tasks) {
+        return newJob(name, priority, null, tasks);
+    }
+
+    private static Job newJob(String name, JobPriority priority, Set<LockObjectReference> objects, Task... tasks) {
+        TaskGraph tg = new TaskGraph();
+        tg.addTask(new EmptyTask(name));
+        for (Task task : tasks) {
+            tg.addTask(task);
+        }
+        return new Job(name, tg, objects, priority, null, null);
+    }
+}
@@ -477,6 +477,66 @@ public class JobEngineTest {
         assertEquals(B.id, C.id);
     }
 
+    @Test
+    public void testTaskInputFromAncestor() throws Exception {
+        OutputTask A = new OutputTask("A-OutputTask");
+        EmptyTask B = new EmptyTask("B");
+        InputTask C = new InputTask("C-Input");
+
+        this.tg = new TaskGraph();
+        this.tg.addTask(A);
+        this.tg.addTask(B, A);
+        this.tg.addTask(C, B);
+
+        this.job = this.je.submit("Job-ancestor-input", this.tg, true);
+        this.job.waitForCompletion();
+
+        assertEquals("output", C.id);
+        // The output of the immediate predecessor takes precedence over the same output of an ancestor
+        assertEquals(2, C.taskOrder);
+    }
+
+    static class CountdownPollingTask extends EmptyTask implements PollingTask {
+
+        private int remainingPolls;
+        private long pollDelay;
+
+        CountdownPollingTask(String name, int polls) {
+            super(name);
+            this.remainingPolls = polls;
+        }
+
+        @Override
+        public void execute() throws Exception {
+            this.taskOrder += 1;
+            this.pollDelay = --this.remainingPolls > 0 ? 10 : DONE;
+        }
+
+        @Override
+        public long getPollDelay() {
+            return this.pollDelay;
+        }
+    }
+
+    @Test
+    public void testPollingTask() throws Exception {
+        CountdownPollingTask A = new CountdownPollingTask("A-Polling", 5);
+        EmptyTask B = new EmptyTask("B");
+
+        this.tg = new TaskGraph();
+        this.tg.addTask(A);
+        this.tg.addTask(B, A);
+
+        this.job = this.je.submit("Job-polling-task", this.tg, true);
+        this.job.waitForCompletion();
+
+        assertEquals(JobStatus.PASSED, this.job.getStatus().getStatus());
+        assertEquals(TaskStatus.PASSED, ((TaskStatusElementImpl)this.job.getTaskGraph().getTaskNode(A).getStatus()).getStatus());
+        // Polled five times, then the output was passed on to B which incremented it once more
+        assertEquals(6, A.taskOrder);
+        assertEquals(7, B.taskOrder);
+    }
+
     private void waitForJobsCompletion(JobEngine je) {
         while (je.isActive()) {
             try {
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.osc.core.broker.job.JobStatePersister.JobRecordUpdate;
+import org.osc.core.broker.job.JobStatePersister.TaskRecordUpdate;
+import org.osc.core.common.job.JobState;
+import org.osc.core.common.job.JobStatus;
+import org.osc.core.common.job.TaskState;
+import org.osc.core.common.job.TaskStatus;
+
+public class JobStatePersisterTest {
+
+    private static final long WAIT_TIMEOUT_MS = 5000;
+
+    private static final class Write {
+        private final Job job;
+        private final JobRecordUpdate jobUpdate;
+        private final List<TaskRecordUpdate> taskUpdates;
+        private final Thread thread = Thread.currentThread();
+
+        private Write(Job job, JobRecordUpdate jobUpdate, List<TaskRecordUpdate> taskUpdates) {
+            this.job = job;
+            this.jobUpdate = jobUpdate;
+            this.taskUpdates = taskUpdates;
+        }
+    }
+
+    private final List<Write> writes = new CopyOnWriteArrayList<>();
+    private final CountDownLatch written = new CountDownLatch(1);
+    private JobStatePersister persister;
+
+    @After
+    public void testTearDown() {
+        if (this.persister != null) {
+            this.persister.stop();
+        }
+    }
+
+    @Test
+    public void testEnqueue_WriteBehind_CoalescesUpdatesOfJobUntilFlush() {
+        this.persister = newPersister(60000);
+        Job job = newJob("job");
+        JobRecordUpdate jobUpdate = newJobUpdate(JobState.RUNNING);
+
+        this.persister.enqueue(job, newTaskUpdate(1L, TaskState.QUEUED, "Failed to resolve"));
+        this.persister.enqueue(job, newTaskUpdate(1L, TaskState.RUNNING, null));
+        this.persister.enqueue(job, newTaskUpdate(2L, TaskState.QUEUED, null));
+        this.persister.enqueue(job, jobUpdate);
+
+        assertTrue(this.writes.isEmpty());
+
+        this.persister.flush(job);
+
+        assertEquals(1, this.writes.size());
+        Write write = this.writes.get(0);
+        assertSame(job, write.job);
+        assertSame(jobUpdate, write.jobUpdate);
+        assertEquals(2, write.taskUpdates.size());
+        assertEquals(Long.valueOf(1L), write.taskUpdates.get(0).getId());
+        assertEquals(TaskState.RUNNING, write.taskUpdates.get(0).getState());
+        assertEquals("Failed to resolve", write.taskUpdates.get(0).getFailReason());
+        assertEquals(TaskState.QUEUED, write.taskUpdates.get(1).getState());
+
+        this.persister.flush(job);
+
+        assertEquals(1, this.writes.size());
+    }
+
+    @Test
+    public void testEnqueue_WriteBehindWithCompletedTask_FlushesInBackground() throws Exception {
+        this.persister = newPersister(60000);
+        Job job = newJob("job");
+
+        this.persister.enqueue(job, newTaskUpdate(1L, TaskState.COMPLETED, null));
+
+        assertTrue(this.written.await(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(1, this.writes.size());
+        assertTrue(this.writes.get(0).thread != Thread.currentThread());
+    }
+
+    @Test
+    public void testFlushAll_WriteBehind_WritesEachJobSeparately() {
+        this.persister = newPersister(60000);
+        Job job = newJob("job");
+        Job otherJob = newJob("other job");
+
+        this.persister.enqueue(job, newTaskUpdate(1L, TaskState.RUNNING, null));
+        this.persister.enqueue(otherJob, newTaskUpdate(2L, TaskState.RUNNING, null));
+        this.persister.flushAll();
+
+        assertEquals(2, this.writes.size());
+        assertSame(job, this.writes.get(0).job);
+        assertSame(otherJob, this.writes.get(1).job);
+    }
+
+    @Test
+    public void testEnqueue_WriteThrough_WritesOnCallingThread() {
+        this.persister = newPersister(0);
+        Job job = newJob("job");
+
+        this.persister.enqueue(job, newTaskUpdate(1L, TaskState.RUNNING, null));
+        this.persister.enqueue(job, newJobUpdate(JobState.RUNNING));
+
+        assertEquals(2, this.writes.size());
+        assertSame(Thread.currentThread(), this.writes.get(0).thread);
+        assertEquals(1, this.writes.get(0).taskUpdates.size());
+        assertNull(this.writes.get(0).jobUpdate);
+        assertTrue(this.writes.get(1).taskUpdates.isEmpty());
+    }
+
+    @Test
+    public void testEnqueue_WriteThroughHoldingJobMonitor_LeavesWriteToFlusher() throws Exception {
+        this.persister = newPersister(0);
+        Job job = newJob("job");
+
+        synchronized (job) {
+            this.persister.enqueue(job, newTaskUpdate(1L, TaskState.COMPLETED, null));
+
+            assertTrue(this.writes.isEmpty());
+        }
+
+        assertTrue(this.written.await(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(1, this.writes.get(0).taskUpdates.size());
+    }
+
+    @Test
+    public void testStop_WithPendingUpdates_FlushesThemAndWritesThroughAfterwards() {
+        this.persister = newPersister(60000);
+        Job job = newJob("job");
+        this.persister.enqueue(job, newTaskUpdate(1L, TaskState.RUNNING, null));
+
+        this.persister.stop();
+
+        assertEquals(1, this.writes.size());
+        assertTrue(!this.persister.isWriteBehind());
+
+        this.persister.enqueue(job, newTaskUpdate(1L, TaskState.COMPLETED, null));
+
+        assertEquals(2, this.writes.size());
+        assertSame(Thread.currentThread(), this.writes.get(1).thread);
+    }
+
+    private JobStatePersister newPersister(long intervalMs) {
+        return new JobStatePersister(intervalMs, (job, jobUpdate, taskUpdates) -> {
+            this.writes.add(new Write(job, jobUpdate, taskUpdates));
+            this.written.countDown();
+        });
+    }
+
+    private static Job newJob(String name) {
+        return new Job(name, new TaskGraph(), null, JobPriority.USER, null, null);
+    }
+
+    private static TaskRecordUpdate newTaskUpdate(Long id, TaskState state, String failReason) {
+        return new TaskRecordUpdate(id, "task " + id, state, TaskStatus.PASSED, failReason, new Date(), null, null);
+    }
+
+    private static JobRecordUpdate newJobUpdate(JobState state) {
+        return new JobRecordUpdate(1L, state, JobStatus.PASSED, null, new Date(), null, null);
+    }
+}
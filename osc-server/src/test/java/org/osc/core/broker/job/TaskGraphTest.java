@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.osc.core.broker.job.Job.TaskChangeListener;
+import org.osc.core.broker.job.JobEngineTest.EmptyTask;
+import org.osc.core.common.job.TaskStatus;
+
+import com.google.common.collect.ImmutableSet;
+
+public class TaskGraphTest {
+
+    private final Task A = new EmptyTask("A");
+    private final Task B = new EmptyTask("B");
+    private final Task C = new EmptyTask("C");
+    private final Task D = new EmptyTask("D");
+    private final Task X = new EmptyTask("Meta-X");
+    private final Task Y = new EmptyTask("Meta-Y");
+
+    private TaskGraph tg;
+
+    @Before
+    public void testInitialize() {
+        Job job = mock(Job.class);
+        when(job.getTaskChangeStateListeners()).thenReturn(Collections.<TaskChangeListener>emptySet());
+
+        this.tg = new TaskGraph();
+        this.tg.setJob(job);
+    }
+
+    @Test
+    public void testCompleteTaskNode_WithSuccessorOfSeveralPredecessors_ReleasesItOnceAllComplete() {
+        this.tg.addTask(this.A);
+        this.tg.addTask(this.B);
+        this.tg.addTask(this.C, this.A, this.B);
+
+        assertEquals(ImmutableSet.of(node(this.A), node(this.B)), this.tg.completeTaskNode(start()));
+        assertFalse(node(this.A).hasPendingPredecessors());
+
+        assertEquals(ImmutableSet.of(node(this.C)), this.tg.completeTaskNode(node(this.A)));
+        assertTrue(node(this.C).hasPendingPredecessors());
+
+        this.tg.completeTaskNode(node(this.B));
+        assertFalse(node(this.C).hasPendingPredecessors());
+        assertTrue(node(this.C).allPredecessorsSucceeded());
+        assertTrue(node(this.C).allAncestorsSucceeded());
+    }
+
+    @Test
+    public void testCompleteTaskNode_WithFailedPredecessor_FailsPredecessorsAndAncestorsGuards() {
+        this.tg.addTask(this.A);
+        this.tg.addTask(this.B);
+        this.tg.addTask(this.C, this.A, this.B);
+        this.tg.addTask(this.D, this.B);
+
+        this.tg.completeTaskNode(start());
+        node(this.A).setStatus(TaskStatus.FAILED);
+        this.tg.completeTaskNode(node(this.A));
+        this.tg.completeTaskNode(node(this.B));
+
+        assertFalse(node(this.C).hasPendingPredecessors());
+        assertFalse(node(this.C).allPredecessorsSucceeded());
+        assertFalse(node(this.C).allAncestorsSucceeded());
+        assertTrue(node(this.D).allPredecessorsSucceeded());
+    }
+
+    @Test
+    public void testCompleteTaskNode_WithPassedPredecessorOfFailedAncestor_FailsOnlyAncestorsGuard() {
+        this.tg.addTask(this.A);
+        this.tg.addTask(this.B, this.A);
+        this.tg.addTask(this.C, this.B);
+
+        this.tg.completeTaskNode(start());
+        node(this.A).setStatus(TaskStatus.FAILED);
+        this.tg.completeTaskNode(node(this.A));
+        this.tg.completeTaskNode(node(this.B));
+
+        assertTrue(node(this.C).allPredecessorsSucceeded());
+        assertFalse(node(this.C).allAncestorsSucceeded());
+    }
+
+    @Test
+    public void testInsertTaskGraph_OfMetaTask_HoldsMetaTaskSuccessorsUntilMergedTasksComplete() {
+        this.tg.addTask(this.A);
+        this.tg.addTask(this.B, this.A);
+        this.tg.completeTaskNode(start());
+
+        this.tg.insertTaskGraph(metaTaskGraph(), this.A);
+
+        assertTrue(node(this.X).hasPendingPredecessors());
+        assertEquals(ImmutableSet.of(node(this.Y)), node(this.B).getPredecessors());
+
+        assertEquals(ImmutableSet.of(node(this.X)), this.tg.completeTaskNode(node(this.A)));
+        assertFalse(node(this.X).hasPendingPredecessors());
+        assertTrue(node(this.B).hasPendingPredecessors());
+
+        this.tg.completeTaskNode(node(this.X));
+        assertTrue(node(this.B).hasPendingPredecessors());
+
+        assertEquals(ImmutableSet.of(node(this.B)), this.tg.completeTaskNode(node(this.Y)));
+        assertFalse(node(this.B).hasPendingPredecessors());
+        assertTrue(node(this.B).allPredecessorsSucceeded());
+    }
+
+    @Test
+    public void testInsertTaskGraph_OfMetaTaskWithFailedTask_FailsGuardsOfMetaTaskSuccessors() {
+        this.tg.addTask(this.A);
+        this.tg.addTask(this.B, this.A);
+        this.tg.completeTaskNode(start());
+        this.tg.insertTaskGraph(metaTaskGraph(), this.A);
+        this.tg.completeTaskNode(node(this.A));
+
+        node(this.X).setStatus(TaskStatus.FAILED);
+        this.tg.completeTaskNode(node(this.X));
+        this.tg.completeTaskNode(node(this.Y));
+
+        assertFalse(node(this.Y).allPredecessorsSucceeded());
+        assertTrue(node(this.B).allPredecessorsSucceeded());
+        assertFalse(node(this.B).allAncestorsSucceeded());
+    }
+
+    @Test
+    public void testInsertTaskGraph_OfMetaTaskAfterItCompleted_DoesNotHoldMergedTasks() {
+        this.tg.addTask(this.A);
+        this.tg.completeTaskNode(start());
+        this.tg.completeTaskNode(node(this.A));
+
+        this.tg.insertTaskGraph(metaTaskGraph(), this.A);
+
+        assertFalse(node(this.X).hasPendingPredecessors());
+        assertTrue(node(this.Y).hasPendingPredecessors());
+        assertTrue(end().hasPendingPredecessors());
+    }
+
+    @Test
+    public void testGetTaskNode_AfterNodeRemoved_ReturnsNull() {
+        this.tg.addTask(this.A);
+        this.tg.addTask(this.B, this.A);
+        this.tg.completeTaskNode(start());
+
+        this.tg.getGraph().removeNode(node(this.A));
+
+        assertNull(node(this.A));
+        assertFalse(node(this.B).hasPendingPredecessors());
+    }
+
+    @Test
+    public void testAddTaskGraph_IndexesMergedTasksOnlyInTheTargetGraph() {
+        TaskGraph metaTaskGraph = metaTaskGraph();
+
+        this.tg.addTaskGraph(metaTaskGraph);
+
+        assertNull(metaTaskGraph.getTaskNode(this.X));
+        assertNull(metaTaskGraph.getTaskNode(this.Y));
+        assertSame(metaTaskGraph.getStartTaskNode(),
+                metaTaskGraph.getTaskNode(metaTaskGraph.getStartTaskNode().getTask()));
+        assertNotNull(node(this.X));
+        assertTrue(this.tg.getGraph().getNodes().contains(node(this.Y)));
+    }
+
+    private TaskGraph metaTaskGraph() {
+        TaskGraph metaTaskGraph = new TaskGraph();
+        metaTaskGraph.addTask(this.X);
+        metaTaskGraph.addTask(this.Y, this.X);
+        return metaTaskGraph;
+    }
+
+    private TaskNode node(Task task) {
+        return this.tg.getTaskNode(task);
+    }
+
+    private TaskNode start() {
+        return this.tg.getStartTaskNode();
+    }
+
+    private TaskNode end() {
+        return this.tg.getEndTaskNode();
+    }
+}
@@ -0,0 +1,396 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.job.lock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osc.core.broker.job.lock.LockObjectReference.ObjectType;
+import org.osc.core.broker.job.lock.LockRequest.LockType;
+import org.osc.core.broker.service.tasks.conformance.UnlockObjectTask;
+
+public class LockManagerTest {
+
+    private static final AtomicLong NEXT_OBJECT_ID = new AtomicLong(1);
+    private static final long WAIT_TIMEOUT_MS = 5000;
+
+    private LockManager lockManager = LockManager.getLockManager();
+    private LockObjectReference objectRef;
+    private LockObjectReference otherObjectRef;
+    private ExecutorService executor;
+
+    /**
+     * A job like lock owner, which gives up waiting and releases its locks when aborted.
+     */
+    private final class TestLockOwner implements LockOwner {
+        private final long sequence = NEXT_OBJECT_ID.getAndIncrement();
+        private final List<LockRequest> heldLocks = new CopyOnWriteArrayList<>();
+        private final List<Thread> waitingThreads = new CopyOnWriteArrayList<>();
+        private final CountDownLatch aborted = new CountDownLatch(1);
+
+        @Override
+        public long getLockOwnerSequence() {
+            return this.sequence;
+        }
+
+        @Override
+        public void abortDeadlocked() {
+            this.aborted.countDown();
+            this.waitingThreads.forEach(Thread::interrupt);
+            this.heldLocks.forEach(LockManagerTest.this.lockManager::releaseLock);
+        }
+
+        private void tryAcquireLock(LockRequest lockRequest) throws InterruptedException {
+            LockManager.setCurrentOwner(this);
+            try {
+                assertTrue(LockManagerTest.this.lockManager.tryAcquireLock(lockRequest));
+                this.heldLocks.add(lockRequest);
+            } finally {
+                LockManager.setCurrentOwner(null);
+            }
+        }
+
+        private Future<Boolean> acquireLock(LockRequest lockRequest) {
+            return LockManagerTest.this.executor.submit(() -> {
+                LockManager.setCurrentOwner(this);
+                this.waitingThreads.add(Thread.currentThread());
+                try {
+                    boolean acquired = LockManagerTest.this.lockManager.acquireLock(lockRequest);
+                    this.heldLocks.add(lockRequest);
+                    return acquired;
+                } finally {
+                    this.waitingThreads.remove(Thread.currentThread());
+                }
+            });
+        }
+
+        /**
+         * Hands a lock placed by another thread over to this owner, the way an unlock task is linked into a job.
+         */
+        private void takeOverLock(LockRequest lockRequest) {
+            ((UnlockObjectTask) lockRequest.getUnlockTask()).setLockOwner(this);
+            this.heldLocks.add(lockRequest);
+        }
+
+        private void releaseLocks() {
+            this.heldLocks.forEach(LockManagerTest.this.lockManager::releaseLock);
+            this.heldLocks.clear();
+        }
+    }
+
+    @Before
+    public void testInitialize() {
+        // The lock manager is a singleton, use different objects in each test
+        this.objectRef = new LockObjectReference(NEXT_OBJECT_ID.getAndIncrement(), "sg", ObjectType.SECURITY_GROUP);
+        this.otherObjectRef = new LockObjectReference(NEXT_OBJECT_ID.getAndIncrement(), "sg",
+                ObjectType.SECURITY_GROUP);
+        this.executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void testTearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void testReleaseLock_FromAnotherThread_GrantsWaitingWriter() throws Exception {
+        // Arrange.
+        LockRequest writer = newLockRequest(LockType.WRITE_LOCK);
+        LockRequest waitingWriter = newLockRequest(LockType.WRITE_LOCK);
+        assertTrue(this.lockManager.tryAcquireLock(writer));
+        Future<Boolean> waiting = this.executor.submit(() -> this.lockManager.acquireLock(waitingWriter));
+        awaitWaiters();
+
+        // Act.
+        this.executor.submit(() -> this.lockManager.releaseLock(writer)).get();
+
+        // Assert.
+        assertTrue(waiting.get(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(1, this.lockManager.getLockRequests(this.objectRef).size());
+        assertTrue(this.lockManager.getLockRequests(this.objectRef).containsValue(waitingWriter));
+
+        this.lockManager.releaseLock(waitingWriter);
+        assertNull(this.lockManager.getLockInformation().get(this.objectRef));
+    }
+
+    @Test
+    public void testTryAcquireLock_WithWriterWaitingForReaders_ReaderDoesNotOvertake() throws Exception {
+        // Arrange.
+        LockRequest reader = newLockRequest(LockType.READ_LOCK);
+        LockRequest waitingWriter = newLockRequest(LockType.WRITE_LOCK);
+        LockRequest lateReader = newLockRequest(LockType.READ_LOCK);
+        assertTrue(this.lockManager.tryAcquireLock(reader));
+        Future<Boolean> waiting = this.executor.submit(() -> this.lockManager.acquireLock(waitingWriter));
+        awaitWaiters();
+
+        // Act.
+        boolean lateReaderAcquired = this.lockManager.tryAcquireLock(lateReader);
+
+        // Assert.
+        assertFalse(lateReaderAcquired);
+        assertFalse(this.lockManager.isAvailable(this.objectRef, LockType.READ_LOCK));
+
+        this.lockManager.releaseLock(reader);
+        assertTrue(waiting.get(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        this.lockManager.releaseLock(waitingWriter);
+    }
+
+    @Test
+    public void testAcquireLock_WhenTimedOut_ReturnsFalseAndRecordsTimeout() throws Exception {
+        // Arrange.
+        LockRequest writer = newLockRequest(LockType.WRITE_LOCK);
+        LockRequest timedOutReader = newLockRequest(LockType.READ_LOCK);
+        assertTrue(this.lockManager.tryAcquireLock(writer));
+
+        // Act.
+        boolean acquired = this.lockManager.acquireLock(timedOutReader, 50);
+
+        // Assert.
+        assertFalse(acquired);
+        assertFalse(this.lockManager.hasWaiters(this.objectRef));
+        assertEquals(1, this.lockManager.getLockStatistics().get(this.objectRef).getTimeouts());
+
+        this.lockManager.releaseLock(writer);
+        assertNull(this.lockManager.getLockInformation().get(this.objectRef));
+    }
+
+    @Test
+    public void testUpgradeLockWithWait_WithSoleReader_UpgradesRightAway() throws Exception {
+        // Arrange.
+        LockRequest reader = newLockRequest(LockType.READ_LOCK);
+        assertTrue(this.lockManager.tryAcquireLock(reader));
+
+        // Act.
+        boolean upgraded = this.lockManager.upgradeLockWithWait(reader);
+
+        // Assert.
+        assertTrue(upgraded);
+        assertEquals(LockType.WRITE_LOCK, reader.getLockType());
+        assertTrue(this.lockManager.getLockInformation().get(this.objectRef).isWriteLocked());
+
+        this.lockManager.releaseLock(reader);
+    }
+
+    @Test
+    public void testUpgradeLockWithWait_WithOtherReader_WaitsForIt() throws Exception {
+        // Arrange.
+        LockRequest reader = newLockRequest(LockType.READ_LOCK);
+        LockRequest otherReader = newLockRequest(LockType.READ_LOCK);
+        assertTrue(this.lockManager.tryAcquireLock(reader));
+        assertTrue(this.lockManager.tryAcquireLock(otherReader));
+
+        // Act.
+        Future<Boolean> upgrading = this.executor.submit(() -> this.lockManager.upgradeLockWithWait(reader));
+        awaitWaiters();
+        this.lockManager.releaseLock(otherReader);
+
+        // Assert.
+        assertTrue(upgrading.get(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertTrue(this.lockManager.getLockInformation().get(this.objectRef).isWriteLocked());
+
+        this.lockManager.releaseLock(reader);
+    }
+
+    @Test
+    public void testDowngradeLock_WithWaitingReader_GrantsReader() throws Exception {
+        // Arrange.
+        LockRequest writer = newLockRequest(LockType.WRITE_LOCK);
+        LockRequest waitingReader = newLockRequest(LockType.READ_LOCK);
+        assertTrue(this.lockManager.tryAcquireLock(writer));
+        Future<Boolean> waiting = this.executor.submit(() -> this.lockManager.acquireLock(waitingReader));
+        awaitWaiters();
+
+        // Act.
+        boolean downgraded = this.lockManager.downgradeLock(writer);
+
+        // Assert.
+        assertTrue(downgraded);
+        assertTrue(waiting.get(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(2, this.lockManager.getLockInformation().get(this.objectRef).getReadLockCount());
+
+        this.lockManager.releaseLock(writer);
+        this.lockManager.releaseLock(waitingReader);
+    }
+
+    @Test
+    public void testReleaseLock_AfterWait_RecordsHoldAndWaitTimes() throws Exception {
+        // Arrange.
+        LockRequest writer = newLockRequest(LockType.WRITE_LOCK);
+        LockRequest waitingWriter = newLockRequest(LockType.WRITE_LOCK);
+        assertTrue(this.lockManager.tryAcquireLock(writer));
+        Future<Boolean> waiting = this.executor.submit(() -> this.lockManager.acquireLock(waitingWriter));
+        awaitWaiters();
+        Thread.sleep(20);
+
+        // Act.
+        this.lockManager.releaseLock(writer);
+        assertTrue(waiting.get(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        this.lockManager.releaseLock(waitingWriter);
+
+        // Assert.
+        LockStatistics statistics = this.lockManager.getLockStatistics().get(this.objectRef);
+        assertEquals(2, statistics.getWaitTimes().getCount());
+        assertEquals(2, statistics.getHoldTimes().getCount());
+        assertTrue(statistics.getWaitTimes().getMaxMillis() >= 20);
+        assertTrue(statistics.getHoldTimes().getMaxMillis() >= 20);
+    }
+
+    @Test
+    public void testAcquireLock_WithWaitForCycle_AbortsYoungestOwner() throws Exception {
+        // Arrange.
+        DeadlockDetector deadlockDetector = this.lockManager.getDeadlockDetector();
+        long deadlocks = deadlockDetector.getDeadlocks();
+        TestLockOwner olderOwner = new TestLockOwner();
+        TestLockOwner youngerOwner = new TestLockOwner();
+        olderOwner.tryAcquireLock(newLockRequest(this.objectRef, LockType.WRITE_LOCK));
+        youngerOwner.tryAcquireLock(newLockRequest(this.otherObjectRef, LockType.WRITE_LOCK));
+        Future<Boolean> olderWaiting = olderOwner.acquireLock(newLockRequest(this.otherObjectRef, LockType.WRITE_LOCK));
+        awaitWaiters(this.otherObjectRef);
+
+        // Act.
+        Future<Boolean> youngerWaiting = youngerOwner.acquireLock(newLockRequest(this.objectRef, LockType.WRITE_LOCK));
+
+        // Assert.
+        assertTrue(youngerOwner.aborted.await(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertTrue(olderWaiting.get(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertInterrupted(youngerWaiting);
+        assertEquals(1, olderOwner.aborted.getCount());
+        assertEquals(deadlocks + 1, deadlockDetector.getDeadlocks());
+
+        olderOwner.releaseLocks();
+        assertNull(this.lockManager.getLockInformation().get(this.objectRef));
+        assertNull(this.lockManager.getLockInformation().get(this.otherObjectRef));
+    }
+
+    @Test
+    public void testAcquireLock_WithWaitForCycleOnLocksPlacedWithoutOwner_AbortsYoungestOwner() throws Exception {
+        // Arrange.
+        TestLockOwner olderOwner = new TestLockOwner();
+        TestLockOwner youngerOwner = new TestLockOwner();
+        LockRequest olderLock = newLockRequest(this.objectRef, LockType.WRITE_LOCK);
+        LockRequest youngerLock = newLockRequest(this.otherObjectRef, LockType.WRITE_LOCK);
+        assertTrue(this.lockManager.tryAcquireLock(olderLock));
+        assertTrue(this.lockManager.tryAcquireLock(youngerLock));
+        olderOwner.takeOverLock(olderLock);
+        youngerOwner.takeOverLock(youngerLock);
+        Future<Boolean> olderWaiting = olderOwner.acquireLock(newLockRequest(this.otherObjectRef, LockType.WRITE_LOCK));
+        awaitWaiters(this.otherObjectRef);
+
+        // Act.
+        Future<Boolean> youngerWaiting = youngerOwner.acquireLock(newLockRequest(this.objectRef, LockType.WRITE_LOCK));
+
+        // Assert.
+        assertTrue(youngerOwner.aborted.await(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertTrue(olderWaiting.get(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertInterrupted(youngerWaiting);
+        assertEquals(1, olderOwner.aborted.getCount());
+
+        olderOwner.releaseLocks();
+        assertNull(this.lockManager.getLockInformation().get(this.objectRef));
+        assertNull(this.lockManager.getLockInformation().get(this.otherObjectRef));
+    }
+
+    @Test
+    public void testAcquireLock_WithReaderQueuedBehindWaitingWriter_AbortsYoungestOwner() throws Exception {
+        // Arrange.
+        TestLockOwner olderOwner = new TestLockOwner();
+        TestLockOwner youngerOwner = new TestLockOwner();
+        olderOwner.tryAcquireLock(newLockRequest(this.objectRef, LockType.READ_LOCK));
+        Future<Boolean> youngerWaiting = youngerOwner.acquireLock(newLockRequest(this.objectRef, LockType.WRITE_LOCK));
+        awaitWaiters(this.objectRef);
+
+        // Act.
+        Future<Boolean> olderWaiting = olderOwner.acquireLock(newLockRequest(this.objectRef, LockType.READ_LOCK));
+
+        // Assert.
+        assertTrue(youngerOwner.aborted.await(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertTrue(olderWaiting.get(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertInterrupted(youngerWaiting);
+        assertEquals(2, this.lockManager.getLockInformation().get(this.objectRef).getReadLockCount());
+
+        olderOwner.releaseLocks();
+    }
+
+    @Test
+    public void testAcquireLock_WithoutWaitForCycle_WaitsWithoutAbort() throws Exception {
+        // Arrange.
+        DeadlockDetector deadlockDetector = this.lockManager.getDeadlockDetector();
+        long checks = deadlockDetector.getChecks();
+        TestLockOwner holdingOwner = new TestLockOwner();
+        TestLockOwner waitingOwner = new TestLockOwner();
+        holdingOwner.tryAcquireLock(newLockRequest(this.objectRef, LockType.WRITE_LOCK));
+        waitingOwner.tryAcquireLock(newLockRequest(this.otherObjectRef, LockType.WRITE_LOCK));
+
+        // Act.
+        Future<Boolean> waiting = waitingOwner.acquireLock(newLockRequest(this.objectRef, LockType.READ_LOCK));
+        awaitWaiters(this.objectRef);
+        holdingOwner.releaseLocks();
+
+        // Assert.
+        assertTrue(waiting.get(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(1, holdingOwner.aborted.getCount());
+        assertEquals(1, waitingOwner.aborted.getCount());
+        assertTrue(deadlockDetector.getChecks() > checks);
+
+        waitingOwner.releaseLocks();
+    }
+
+    private LockRequest newLockRequest(LockType lockType) {
+        return newLockRequest(this.objectRef, lockType);
+    }
+
+    private LockRequest newLockRequest(LockObjectReference objectRef, LockType lockType) {
+        return new LockRequest(new UnlockObjectTask(objectRef, lockType));
+    }
+
+    private static void assertInterrupted(Future<Boolean> waiting) throws Exception {
+        try {
+            waiting.get(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            fail("Expected the lock wait to be interrupted");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof InterruptedException);
+        }
+    }
+
+    private void awaitWaiters() throws InterruptedException {
+        awaitWaiters(this.objectRef);
+    }
+
+    private void awaitWaiters(LockObjectReference objectRef) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+        while (!this.lockManager.hasWaiters(objectRef)) {
+            assertTrue("Timed out waiting for a lock request to wait", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.k8s;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import io.fabric8.kubernetes.api.model.DoneablePod;
+import io.fabric8.kubernetes.api.model.ListMeta;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodList;
+import io.fabric8.kubernetes.api.model.PodSpec;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.kubernetes.api.model.extensions.DeploymentList;
+import io.fabric8.kubernetes.api.model.extensions.DoneableDeployment;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.ExtensionsAPIGroupDSL;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListMultiDeletable;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.PodResource;
+import io.fabric8.kubernetes.client.dsl.ScalableResource;
+
+public class KubernetesInformerTest {
+
+    private static final long VC_ID = 1L;
+    private static final long TIMEOUT_MS = 5000;
+    private static final long RETRY_DELAY_MS = 10;
+    private static final int HTTP_GONE = 410;
+
+    @Mock
+    private KubernetesClient kubernetesClient;
+
+    @Mock
+    private DefaultKubernetesClient fabric8Client;
+
+    @Mock
+    private MixedOperation<Pod, PodList, DoneablePod, PodResource<Pod, DoneablePod>> podOperation;
+
+    @Mock
+    private FilterWatchListMultiDeletable<Pod, PodList, Boolean, Watch, Watcher<Pod>> allPods;
+
+    @Mock
+    private ExtensionsAPIGroupDSL extensions;
+
+    @Mock
+    private MixedOperation<Deployment, DeploymentList, DoneableDeployment,
+    ScalableResource<Deployment, DoneableDeployment>> deploymentOperation;
+
+    @Mock
+    private FilterWatchListMultiDeletable<Deployment, DeploymentList, Boolean, Watch,
+    Watcher<Deployment>> allDeployments;
+
+    @Mock
+    private KubernetesInformerListener listener;
+
+    private KubernetesInformer informer;
+
+    private final Semaphore watching = new Semaphore(0);
+    private volatile Watcher<Pod> podWatcher;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void testInitialize() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(this.kubernetesClient.getClient()).thenReturn(this.fabric8Client);
+        when(this.fabric8Client.pods()).thenReturn(this.podOperation);
+        when(this.podOperation.inAnyNamespace()).thenReturn(this.allPods);
+        when(this.allPods.watch(anyString(), any(Watcher.class))).thenAnswer(i -> {
+            this.podWatcher = (Watcher<Pod>) i.getArguments()[1];
+            this.watching.release();
+            return mock(Watch.class);
+        });
+
+        DeploymentList deployments = new DeploymentList();
+        deployments.setMetadata(listMeta());
+        when(this.fabric8Client.extensions()).thenReturn(this.extensions);
+        when(this.extensions.deployments()).thenReturn(this.deploymentOperation);
+        when(this.deploymentOperation.inAnyNamespace()).thenReturn(this.allDeployments);
+        when(this.allDeployments.list()).thenReturn(deployments);
+        when(this.allDeployments.watch(anyString(), any(Watcher.class))).thenReturn(mock(Watch.class));
+
+        this.informer = new KubernetesInformer(VC_ID, this.kubernetesClient, this.listener, RETRY_DELAY_MS);
+    }
+
+    @After
+    public void testTearDown() {
+        this.informer.close();
+    }
+
+    @Test
+    public void testStartWatching_WithSeveralPods_ReportsNothing() throws Exception {
+        // Arrange.
+        listPods(pod("uid-web", "web", "node1"), pod("uid-db", "db", "node2"));
+
+        // Act.
+        startWatching();
+        this.podWatcher.eventReceived(Watcher.Action.ADDED, pod("uid-cache", "cache", null));
+
+        // Assert.
+        List<KubernetesPodChange> changes = verifyPodsChanged(1).get(0);
+        assertEquals(1, changes.size());
+        assertEquals("uid-cache", changes.get(0).getPod().getUid());
+        assertEquals("node2", this.informer.getPodById("uid-db").getNode());
+    }
+
+    @Test
+    public void testRelist_AfterResourceVersionExpired_ReportsChangesInOneCall() throws Exception {
+        // Arrange.
+        listPods(pod("uid-web", "web", "node1"), pod("uid-db", "db", "node2"));
+        startWatching();
+        listPods(pod("uid-web", "web", "node1"), pod("uid-cache", "cache", null));
+
+        // Act.
+        this.podWatcher.onClose(new KubernetesClientException("Gone", HTTP_GONE, null));
+
+        // Assert.
+        assertTrue(this.watching.tryAcquire(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        List<KubernetesPodChange> changes = verifyPodsChanged(1).get(0);
+        assertEquals(2, changes.size());
+        for (KubernetesPodChange change : changes) {
+            if (change.getPod().getUid().equals("uid-db")) {
+                assertEquals(Collections.singletonMap("app", "db"), change.getOldLabels());
+                assertNull(change.getNewLabels());
+            } else {
+                assertEquals("uid-cache", change.getPod().getUid());
+                assertNull(change.getOldLabels());
+                assertEquals(Collections.singletonMap("app", "cache"), change.getNewLabels());
+            }
+        }
+        assertNull(this.informer.getPodById("uid-db"));
+    }
+
+    @Test
+    public void testEventReceived_WhileListenerIsBusy_KeepsWatching() throws Exception {
+        // Arrange.
+        CountDownLatch listenerBusy = new CountDownLatch(1);
+        CountDownLatch releaseListener = new CountDownLatch(1);
+        doAnswer(i -> {
+            listenerBusy.countDown();
+            releaseListener.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            return null;
+        }).when(this.listener).podsChanged(any(KubernetesInformer.class), anyListOf(KubernetesPodChange.class));
+        listPods(pod("uid-web", "web", null));
+        startWatching();
+
+        try {
+            // Act.
+            this.podWatcher.eventReceived(Watcher.Action.MODIFIED, pod("uid-web", "web", "node1"));
+            assertTrue(listenerBusy.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+            this.podWatcher.onClose(new KubernetesClientException("Gone", HTTP_GONE, null));
+
+            // Assert.
+            assertTrue(this.watching.tryAcquire(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        } finally {
+            releaseListener.countDown();
+        }
+    }
+
+    @Test
+    public void testEventReceived_WhenPodIsScheduledOnNode_ReportsChange() throws Exception {
+        // Arrange.
+        listPods(pod("uid-web", "web", null));
+        startWatching();
+
+        // Act.
+        this.podWatcher.eventReceived(Watcher.Action.MODIFIED, pod("uid-web", "web", "node1"));
+
+        // Assert.
+        KubernetesPodChange change = verifyPodsChanged(1).get(0).get(0);
+        assertEquals("node1", change.getPod().getNode());
+        assertEquals(change.getOldLabels(), change.getNewLabels());
+        assertEquals("node1", this.informer.getPodById("uid-web").getNode());
+    }
+
+    @Test
+    public void testEventReceived_WhenOnlyPodStatusChanges_ReportsNothing() throws Exception {
+        // Arrange.
+        listPods(pod("uid-web", "web", "node1"));
+        startWatching();
+
+        // Act.
+        this.podWatcher.eventReceived(Watcher.Action.MODIFIED, pod("uid-web", "web", "node1"));
+        this.podWatcher.eventReceived(Watcher.Action.DELETED, pod("uid-web", "web", "node1"));
+
+        // Assert.
+        List<List<KubernetesPodChange>> calls = verifyPodsChanged(1);
+        KubernetesPodChange removal = calls.get(0).get(0);
+        assertEquals("uid-web", removal.getPod().getUid());
+        assertNull(removal.getNewLabels());
+    }
+
+    private void startWatching() throws InterruptedException {
+        this.informer.startWatching();
+        assertTrue(this.watching.tryAcquire(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<KubernetesPodChange>> verifyPodsChanged(int calls) {
+        ArgumentCaptor<List> changes = ArgumentCaptor.forClass(List.class);
+        verify(this.listener, timeout(TIMEOUT_MS).times(calls)).podsChanged(eq(this.informer), changes.capture());
+        return (List<List<KubernetesPodChange>>) (List<?>) changes.getAllValues();
+    }
+
+    private void listPods(Pod... pods) {
+        PodList list = new PodList();
+        list.setItems(Arrays.asList(pods));
+        list.setMetadata(listMeta());
+        when(this.allPods.list()).thenReturn(list);
+    }
+
+    private static ListMeta listMeta() {
+        ListMeta metadata = new ListMeta();
+        metadata.setResourceVersion("1");
+        return metadata;
+    }
+
+    private static Pod pod(String uid, String name, String node) {
+        ObjectMeta metadata = new ObjectMeta();
+        metadata.setUid(uid);
+        metadata.setName(name);
+        metadata.setNamespace("default");
+        metadata.setResourceVersion("2");
+        metadata.setLabels(Collections.singletonMap("app", name));
+        PodSpec spec = new PodSpec();
+        spec.setNodeName(node);
+        Pod pod = new Pod();
+        pod.setMetadata(metadata);
+        pod.setSpec(spec);
+        return pod;
+    }
+}
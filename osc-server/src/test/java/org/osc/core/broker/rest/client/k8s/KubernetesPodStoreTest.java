@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.k8s;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class KubernetesPodStoreTest {
+
+    private static final KubernetesPod WEB_POD = new KubernetesPod("web", "default", "uid-web", "node1");
+    private static final KubernetesPod DB_POD = new KubernetesPod("db", "default", "uid-db", "node2");
+
+    private KubernetesPodStore store;
+
+    @Before
+    public void testInitialize() {
+        this.store = new KubernetesPodStore();
+        this.store.put(WEB_POD, labels("app", "web", "tier", "front"));
+        this.store.put(DB_POD, labels("app", "db"));
+    }
+
+    @Test
+    public void testGetByLabel_WithEqualityRequirement_ReturnsMatchingPods() {
+        // Act.
+        List<KubernetesPod> result = this.store.getByLabel(KubernetesLabelSelector.parse("app=web"));
+
+        // Assert.
+        assertEquals(Arrays.asList(WEB_POD), result);
+    }
+
+    @Test
+    public void testGetByLabel_WithExistenceRequirement_ReturnsAllPodsWithTheKey() {
+        // Act.
+        List<KubernetesPod> result = this.store.getByLabel(KubernetesLabelSelector.parse("app"));
+
+        // Assert.
+        assertEquals(new HashSet<>(Arrays.asList(WEB_POD, DB_POD)), new HashSet<>(result));
+    }
+
+    @Test
+    public void testGetByLabel_WithSeveralRequirements_ReturnsPodsMatchingAll() {
+        // Act.
+        List<KubernetesPod> both = this.store.getByLabel(KubernetesLabelSelector.parse("app==web,tier"));
+        List<KubernetesPod> none = this.store.getByLabel(KubernetesLabelSelector.parse("app=db,tier=front"));
+
+        // Assert.
+        assertEquals(Arrays.asList(WEB_POD), both);
+        assertTrue(none.isEmpty());
+    }
+
+    @Test
+    public void testPut_WhenPodIsRelabeled_ReturnsOldLabelsAndReindexes() {
+        // Act.
+        Map<String, String> oldLabels = this.store.put(WEB_POD, labels("app", "db"));
+
+        // Assert.
+        assertEquals(labels("app", "web", "tier", "front"), oldLabels);
+        assertTrue(this.store.getByLabel(KubernetesLabelSelector.parse("app=web")).isEmpty());
+        assertEquals(2, this.store.getByLabel(KubernetesLabelSelector.parse("app=db")).size());
+    }
+
+    @Test
+    public void testRemove_WhenPodIsKnown_RemovesItFromTheIndexes() {
+        // Act.
+        Map<String, String> oldLabels = this.store.remove(WEB_POD.getUid());
+
+        // Assert.
+        assertNotNull(oldLabels);
+        assertNull(this.store.get(WEB_POD.getUid()));
+        assertTrue(this.store.getByLabel(KubernetesLabelSelector.parse("tier")).isEmpty());
+        assertNull(this.store.remove(WEB_POD.getUid()));
+    }
+
+    @Test
+    public void testParse_WithUnsupportedRequirements_ReturnsNull() {
+        // Act and Assert.
+        assertNull(KubernetesLabelSelector.parse("app!=web"));
+        assertNull(KubernetesLabelSelector.parse("!app"));
+        assertNull(KubernetesLabelSelector.parse("app in (web,db)"));
+        assertNull(KubernetesLabelSelector.parse(""));
+    }
+
+    private static Map<String, String> labels(String... keysAndValues) {
+        Map<String, String> labels = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            labels.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.openstack.discovery;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openstack4j.model.network.Network;
+import org.osc.core.broker.rest.client.openstack.discovery.VmDiscoveryCache.PortInfo;
+import org.osc.core.broker.rest.client.openstack.discovery.VmDiscoveryCache.VmInfo;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.OsNotificationObjectType;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.ParsedNotification;
+
+public class OpenstackInventoryCacheTest {
+
+    private static final long TTL_MS = 1000;
+
+    private long now = 0;
+    private OpenstackInventoryCache cache;
+
+    @Before
+    public void testInitialize() {
+        this.cache = new OpenstackInventoryCache(() -> this.now, TTL_MS);
+    }
+
+    @Test
+    public void testGetVm_AfterTtl_ReturnsNull() {
+        // Arrange.
+        VmInfo vm = vm("port1", "mac1");
+        this.cache.putVm("vm1", vm, this.cache.now());
+
+        // Act.
+        VmInfo cached = this.cache.getVm("vm1");
+        this.now += TimeUnit.MILLISECONDS.toNanos(TTL_MS);
+
+        // Assert.
+        assertSame(vm, cached);
+        assertNull(this.cache.getVm("vm1"));
+    }
+
+    @Test
+    public void testPutVm_WithLargeClockValueAndNoInvalidation_IsCached() {
+        // Arrange.
+        this.now = Long.MAX_VALUE - TimeUnit.MILLISECONDS.toNanos(TTL_MS) / 2;
+        this.cache = new OpenstackInventoryCache(() -> this.now, TTL_MS);
+        VmInfo vm = vm("port1", "mac1");
+        Network network = mock(Network.class);
+        when(network.getId()).thenReturn("net1");
+
+        // Act.
+        this.cache.putVm("vm1", vm, this.cache.now());
+        this.cache.putNetwork(network, this.cache.now());
+        this.now++;
+
+        // Assert.
+        assertSame(vm, this.cache.getVm("vm1"));
+        assertSame(network, this.cache.getNetwork("net1"));
+    }
+
+    @Test
+    public void testPutVm_LoadedBeforeCacheWasCreated_IsDropped() {
+        // Arrange.
+        long loadedSince = this.now;
+        this.now++;
+        this.cache = new OpenstackInventoryCache(() -> this.now, TTL_MS);
+
+        // Act.
+        this.cache.putVm("vm1", vm("port1", "mac1"), loadedSince);
+
+        // Assert.
+        assertNull(this.cache.getVm("vm1"));
+    }
+
+    @Test
+    public void testOnNotification_WithPortOfCachedVm_InvalidatesVm() {
+        // Arrange.
+        VmInfo otherVm = vm("port2", "mac2");
+        this.cache.putVm("vm1", vm("port1", "mac1"), this.cache.now());
+        this.cache.putVm("vm2", otherVm, this.cache.now());
+
+        // Act.
+        this.cache.onNotification(OsNotificationObjectType.PORT,
+                notification("port.delete.end", "{\"port_id\": \"port1\"}"));
+
+        // Assert.
+        assertNull(this.cache.getVm("vm1"));
+        assertSame(otherVm, this.cache.getVm("vm2"));
+    }
+
+    @Test
+    public void testPutVm_LoadedBeforeInvalidation_IsDropped() {
+        // Arrange.
+        long loadedSince = this.cache.now();
+        this.now++;
+        this.cache.onNotification(OsNotificationObjectType.VM,
+                notification("compute.instance.update", "{\"instance_id\": \"vm1\"}"));
+        this.now++;
+
+        // Act.
+        this.cache.putVm("vm1", vm("port1", "mac1"), loadedSince);
+
+        // Assert.
+        assertNull(this.cache.getVm("vm1"));
+    }
+
+    @Test
+    public void testOnNotification_WithNetworkUpdate_InvalidatesAllNetworks() {
+        // Arrange.
+        Network network = mock(Network.class);
+        when(network.getId()).thenReturn("net1");
+        this.cache.putNetwork(network, this.cache.now());
+        this.now++;
+
+        // Act.
+        Network cached = this.cache.getNetwork("net1");
+        this.cache.onNotification(OsNotificationObjectType.NETWORK,
+                notification("network.update.end", "{\"network\": {\"id\": \"net1\"}}"));
+
+        // Assert.
+        assertSame(network, cached);
+        assertNull(this.cache.getNetwork("net1"));
+    }
+
+    private static VmInfo vm(String portId, String macAddress) {
+        PortInfo port = mock(PortInfo.class);
+        when(port.getElementId()).thenReturn(portId);
+        when(port.getMacAddress()).thenReturn(macAddress);
+        VmInfo vm = mock(VmInfo.class);
+        when(vm.getMacAddressToPortMap()).thenReturn(Collections.singletonMap(macAddress, port));
+        return vm;
+    }
+
+    private static ParsedNotification notification(String eventType, String payload) {
+        return new ParsedNotification("{\"event_type\": \"" + eventType + "\", \"payload\": " + payload + "}",
+                eventType);
+    }
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.openstack.discovery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.openstack4j.model.compute.Server;
+import org.openstack4j.model.network.Network;
+import org.openstack4j.model.network.Port;
+import org.openstack4j.model.network.Subnet;
+
+public class ProjectInventorySnapshotTest {
+
+    @Test
+    public void testGetServerPorts_GroupsPortsByDevice() {
+        // Arrange.
+        Server server = mock(Server.class);
+        when(server.getId()).thenReturn("vm1");
+        Port port1 = port("p1", "vm1");
+        Port port2 = port("p2", "vm1");
+        Port otherPort = port("p3", "vm2");
+        Port unboundPort = port("p4", null);
+
+        // Act.
+        ProjectInventorySnapshot snapshot = new ProjectInventorySnapshot(Collections.singletonList(server),
+                Arrays.asList(port1, otherPort, port2, unboundPort), Collections.emptyList(), Collections.emptyList());
+
+        // Assert.
+        assertSame(server, snapshot.getServer("vm1"));
+        assertEquals(Arrays.asList(port1, port2), snapshot.getServerPorts("vm1"));
+        assertEquals(Collections.singletonList(otherPort), snapshot.getServerPorts("vm2"));
+        assertNull(snapshot.getServer("vm2"));
+        assertTrue(snapshot.getServerPorts("vm3").isEmpty());
+    }
+
+    @Test
+    public void testGetNetworkAndSubnet_ReturnsNullOnMiss() {
+        // Arrange.
+        Network network = mock(Network.class);
+        when(network.getId()).thenReturn("net1");
+        Subnet subnet = mock(Subnet.class);
+        when(subnet.getId()).thenReturn("subnet1");
+
+        // Act.
+        ProjectInventorySnapshot snapshot = new ProjectInventorySnapshot(Collections.emptyList(),
+                Collections.emptyList(), Collections.singletonList(network), Collections.singletonList(subnet));
+
+        // Assert.
+        assertSame(network, snapshot.getNetwork("net1"));
+        assertSame(subnet, snapshot.getSubnet("subnet1"));
+        assertNull(snapshot.getNetwork("net2"));
+        assertNull(snapshot.getSubnet("subnet2"));
+    }
+
+    private static Port port(String id, String deviceId) {
+        Port port = mock(Port.class);
+        when(port.getId()).thenReturn(id);
+        when(port.getDeviceId()).thenReturn(deviceId);
+        return port;
+    }
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.openstack.openstack4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.openstack4j.model.identity.v3.Token;
+
+public class KeystoneTokenCacheTest {
+
+    private static final long LIFETIME_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final AtomicLong now = new AtomicLong(1000000);
+    private final AtomicInteger authentications = new AtomicInteger();
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    private Token authenticate(String key) {
+        this.authentications.incrementAndGet();
+        Token token = mock(Token.class);
+        when(token.getIssuedAt()).thenReturn(new Date(0));
+        when(token.getExpires()).thenReturn(new Date(LIFETIME_MS));
+        return token;
+    }
+
+    @Test
+    public void testGet_WithUsableToken_ReusesToken() {
+        KeystoneTokenCache<String> cache = new KeystoneTokenCache<>(this::authenticate, this.refreshes::add,
+                this.now::get);
+
+        Token token = cache.get("vc-project");
+        this.now.addAndGet(LIFETIME_MS - KeystoneTokenCache.REFRESH_MARGIN_MS - 1);
+
+        assertSame(token, cache.get("vc-project"));
+        assertEquals(1, this.authentications.get());
+        assertEquals(0, this.refreshes.size());
+    }
+
+    @Test
+    public void testGet_WithTokenCloseToExpiry_RefreshesInBackgroundOnce() {
+        KeystoneTokenCache<String> cache = new KeystoneTokenCache<>(this::authenticate, this.refreshes::add,
+                this.now::get);
+
+        Token token = cache.get("vc-project");
+        this.now.addAndGet(LIFETIME_MS - KeystoneTokenCache.REFRESH_MARGIN_MS + 1);
+
+        assertSame(token, cache.get("vc-project"));
+        assertSame(token, cache.get("vc-project"));
+        assertEquals(1, this.refreshes.size());
+
+        this.refreshes.get(0).run();
+        Token refreshed = cache.get("vc-project");
+
+        assertEquals(2, this.authentications.get());
+        assertNotSame(token, refreshed);
+    }
+
+    @Test
+    public void testGet_WithExpiredOrInvalidatedToken_Authenticates() {
+        KeystoneTokenCache<String> cache = new KeystoneTokenCache<>(this::authenticate, this.refreshes::add,
+                this.now::get);
+
+        Token token = cache.get("vc-project");
+        this.now.addAndGet(LIFETIME_MS - KeystoneTokenCache.EXPIRY_MARGIN_MS);
+        Token newToken = cache.get("vc-project");
+        assertNotSame(token, newToken);
+
+        // A stale token does not invalidate the current one
+        cache.invalidate("vc-project", token);
+        assertSame(newToken, cache.get("vc-project"));
+
+        cache.invalidate("vc-project", newToken);
+        cache.get("vc-project");
+        assertEquals(3, this.authentications.get());
+    }
+
+    @Test
+    public void testGet_WithConcurrentRequests_AuthenticatesOnce() throws Exception {
+        CountDownLatch authenticating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        KeystoneTokenCache<String> cache = new KeystoneTokenCache<>(key -> {
+            authenticating.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return authenticate(key);
+        }, this.refreshes::add, this.now::get);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Token>> tokens = new ArrayList<>();
+            tokens.add(executor.submit(() -> cache.get("vc-project")));
+            authenticating.await();
+            for (int i = 0; i < 3; i++) {
+                tokens.add(executor.submit(() -> cache.get("vc-project")));
+            }
+            release.countDown();
+
+            Token token = tokens.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Token> other : tokens) {
+                assertSame(token, other.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, this.authentications.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.openstack.vmidc.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.listener.NotificationListener;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.listener.OsNotificationEventState;
+
+public class NotificationRoutingIndexTest {
+
+    private static final String PORT_CREATE_MESSAGE = "{\"event_type\": \"port.create.end\", "
+            + "\"_context_tenant_id\": \"project-1\", \"payload\": {\"port\": {\"id\": \"port-1\", "
+            + "\"network_id\": \"network-1\", \"tenant_id\": \"project-1\", \"device_id\": \"vm-1\", "
+            + "\"fixed_ips\": [{\"subnet_id\": \"subnet-1\", \"ip_address\": \"10.0.0.5\"}]}}, "
+            + "\"priority\": \"INFO\"}";
+
+    private static final String PORT_DELETE_MESSAGE = "{\"event_type\": \"port.delete.end\", "
+            + "\"_context_tenant_id\": \"project-1\", \"payload\": {\"port_id\": \"port-1\"}, "
+            + "\"priority\": \"INFO\"}";
+
+    private static final Set<OsNotificationKeyType> PORT_KEYS = EnumSet.of(OsNotificationKeyType.PROJECT_ID,
+            OsNotificationKeyType.NETWORK_ID, OsNotificationKeyType.DEVICE_ID, OsNotificationKeyType.SUBNET_ID);
+
+    @Test
+    public void testRoute_WithPortMessage_RoutesOnlyToListenersOfMatchingIds() {
+        NotificationRoutingIndex index = new NotificationRoutingIndex();
+        TestListener networkListener = new TestListener("network-1", "network-2");
+        TestListener vmListener = new TestListener("vm-1");
+        TestListener otherListener = new TestListener("network-3", "vm-3");
+        index.add(OsNotificationObjectType.PORT, networkListener);
+        index.add(OsNotificationObjectType.PORT, vmListener);
+        index.add(OsNotificationObjectType.PORT, otherListener);
+
+        Set<NotificationListener> listeners = index.route(OsNotificationObjectType.PORT,
+                new ParsedNotification(PORT_CREATE_MESSAGE));
+
+        assertEquals(new HashSet<>(Arrays.asList(networkListener, vmListener)), listeners);
+        assertTrue(index.route(OsNotificationObjectType.VM, new ParsedNotification(PORT_CREATE_MESSAGE)).isEmpty());
+    }
+
+    @Test
+    public void testRoute_WithObjectTypeWithoutListeners_ReturnsNoListeners() {
+        NotificationRoutingIndex index = new NotificationRoutingIndex();
+        ParsedNotification notification = new ParsedNotification(PORT_CREATE_MESSAGE);
+
+        assertFalse(index.hasListeners(OsNotificationObjectType.PORT));
+        assertTrue(index.route(OsNotificationObjectType.PORT, notification).isEmpty());
+
+        TestListener listener = new TestListener("network-1");
+        index.add(OsNotificationObjectType.PORT, listener);
+        index.remove(OsNotificationObjectType.PORT, listener);
+
+        assertFalse(index.hasListeners(OsNotificationObjectType.PORT));
+        assertTrue(index.route(OsNotificationObjectType.PORT, notification).isEmpty());
+    }
+
+    @Test
+    public void testUpdate_WithChangedIds_ReroutesListener() {
+        NotificationRoutingIndex index = new NotificationRoutingIndex();
+        TestListener listener = new TestListener("network-2");
+        index.add(OsNotificationObjectType.PORT, listener);
+        ParsedNotification notification = new ParsedNotification(PORT_CREATE_MESSAGE);
+        assertTrue(index.route(OsNotificationObjectType.PORT, notification).isEmpty());
+
+        listener.ids = new HashSet<>(Arrays.asList("subnet-1"));
+        index.update(OsNotificationObjectType.PORT, listener);
+        assertEquals(Collections.singleton(listener), index.route(OsNotificationObjectType.PORT, notification));
+
+        index.remove(OsNotificationObjectType.PORT, listener);
+        assertTrue(index.route(OsNotificationObjectType.PORT, notification).isEmpty());
+        assertFalse(index.hasListeners(OsNotificationObjectType.PORT));
+    }
+
+    @Test
+    public void testRoute_WithUnroutedEventState_RoutesToListenerRegardlessOfIds() {
+        NotificationRoutingIndex index = new NotificationRoutingIndex();
+        TestListener listener = new TestListener("network-3");
+        listener.unroutedEventStates = EnumSet.of(OsNotificationEventState.DELETE);
+        index.add(OsNotificationObjectType.PORT, listener);
+
+        assertEquals(Collections.singleton(listener),
+                index.route(OsNotificationObjectType.PORT, new ParsedNotification(PORT_DELETE_MESSAGE)));
+        assertTrue(index.route(OsNotificationObjectType.PORT, new ParsedNotification(PORT_CREATE_MESSAGE)).isEmpty());
+    }
+
+    private static final class TestListener implements NotificationListener {
+        private Set<String> ids;
+        private Set<OsNotificationEventState> unroutedEventStates = Collections.emptySet();
+
+        private TestListener(String... ids) {
+            this.ids = new HashSet<>(Arrays.asList(ids));
+        }
+
+        @Override
+        public void register(VirtualizationConnector vc, OsNotificationObjectType objectType) {
+        }
+
+        @Override
+        public void unRegister(VirtualizationConnector vc, OsNotificationObjectType objectType) {
+        }
+
+        @Override
+        public void onMessage(ParsedNotification notification) {
+        }
+
+        @Override
+        public Set<String> getRoutingIds() {
+            return this.ids;
+        }
+
+        @Override
+        public Set<OsNotificationKeyType> getRoutingKeys() {
+            return PORT_KEYS;
+        }
+
+        @Override
+        public Set<OsNotificationEventState> getUnroutedEventStates() {
+            return this.unroutedEventStates;
+        }
+    }
+}
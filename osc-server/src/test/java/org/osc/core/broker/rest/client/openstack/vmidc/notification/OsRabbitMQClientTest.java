@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.openstack.vmidc.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+import static org.osc.core.common.virtualization.VirtualizationConnectorProperties.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.listener.NotificationListener;
+import org.osc.core.broker.rest.client.openstack.vmidc.notification.listener.OsNotificationEventState;
+import org.osc.core.broker.service.api.server.EncryptionApi;
+import org.osc.core.broker.util.StaticRegistry;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(StaticRegistry.class)
+public class OsRabbitMQClientTest {
+
+    private static final String PORT_CREATE_MESSAGE = "{\"event_type\": \"port.create.end\", "
+            + "\"_context_tenant_id\": \"project-1\", \"payload\": {\"port\": {\"id\": \"port-1\", "
+            + "\"network_id\": \"network-1\", \"tenant_id\": \"project-1\", \"device_id\": \"vm-1\", "
+            + "\"fixed_ips\": [{\"subnet_id\": \"subnet-1\", \"ip_address\": \"10.0.0.5\"}]}}, "
+            + "\"priority\": \"INFO\"}";
+
+    private static final String ROUTER_CREATE_MESSAGE = "{\"event_type\": \"router.create.end\", "
+            + "\"_context_tenant_id\": \"project-1\", \"payload\": {\"router\": {\"id\": \"router-1\"}}, "
+            + "\"priority\": \"INFO\"}";
+
+    @Mock
+    private VirtualizationConnector vc;
+
+    @Mock
+    private EncryptionApi encrypter;
+
+    private OsRabbitMQClient client;
+
+    private final AtomicInteger acks = new AtomicInteger();
+
+    @Before
+    public void testInitialize() throws Exception {
+        MockitoAnnotations.initMocks(this);
+
+        when(this.encrypter.decryptAESCTR(any(String.class))).thenReturn("Decrypted Password");
+        PowerMockito.mockStatic(StaticRegistry.class);
+        when(StaticRegistry.encryptionApi()).thenReturn(this.encrypter);
+
+        Map<String, String> providerAttributes = new HashMap<>();
+        providerAttributes.put(ATTRIBUTE_KEY_RABBITMQ_PORT, "5672");
+        providerAttributes.put(ATTRIBUTE_KEY_RABBITMQ_USER, "guest");
+        providerAttributes.put(ATTRIBUTE_KEY_RABBITMQ_USER_PASSWORD, "Encrypted Password");
+        when(this.vc.getId()).thenReturn(1L);
+        when(this.vc.getName()).thenReturn("vc-1");
+        when(this.vc.getRabbitMQIP()).thenReturn("127.0.0.1");
+        when(this.vc.getProviderAttributes()).thenReturn(providerAttributes);
+
+        this.client = new OsRabbitMQClient(this.vc);
+    }
+
+    @After
+    public void testTearDown() {
+        this.client.destroy();
+    }
+
+    @Test
+    public void testReceiveMessage_WithoutListeners_AcksMessage() {
+        // Act.
+        this.client.receiveMessage(ROUTER_CREATE_MESSAGE, this.acks::incrementAndGet);
+
+        // Assert.
+        assertEquals(1, this.acks.get());
+    }
+
+    @Test
+    public void testReceiveMessage_WithObjectTypeWithoutListeners_AcksMessage() {
+        // Arrange.
+        // Port messages affect the inventory cache, so they are parsed and looked up although nobody listens to ports
+        NotificationListener vmListener = newListener("vm-1");
+        this.client.registerListener(vmListener, OsNotificationObjectType.VM);
+
+        // Act.
+        this.client.receiveMessage(PORT_CREATE_MESSAGE, this.acks::incrementAndGet);
+
+        // Assert.
+        assertEquals(1, this.acks.get());
+        verify(vmListener, never()).onMessage(any(ParsedNotification.class));
+    }
+
+    @Test
+    public void testReceiveMessage_AfterLastListenerOfObjectTypeRemoved_AcksMessage() {
+        // Arrange.
+        NotificationListener portListener = newListener("network-1");
+        this.client.registerListener(portListener, OsNotificationObjectType.PORT);
+        this.client.removeListener(portListener, OsNotificationObjectType.PORT);
+
+        // Act.
+        this.client.receiveMessage(PORT_CREATE_MESSAGE, this.acks::incrementAndGet);
+
+        // Assert.
+        assertEquals(1, this.acks.get());
+        verify(portListener, never()).onMessage(any(ParsedNotification.class));
+    }
+
+    @Test
+    public void testReceiveMessage_WithMatchingListener_AcksMessageOnceListenerIsDone() throws Exception {
+        // Arrange.
+        NotificationListener portListener = newListener("network-1");
+        this.client.registerListener(portListener, OsNotificationObjectType.PORT);
+        CountDownLatch acked = new CountDownLatch(1);
+
+        // Act.
+        this.client.receiveMessage(PORT_CREATE_MESSAGE, () -> {
+            this.acks.incrementAndGet();
+            acked.countDown();
+        });
+
+        // Assert.
+        assertTrue(acked.await(10, TimeUnit.SECONDS));
+        verify(portListener).onMessage(any(ParsedNotification.class));
+        assertEquals(1, this.acks.get());
+    }
+
+    private static NotificationListener newListener(String id) {
+        NotificationListener listener = mock(NotificationListener.class);
+        when(listener.getRoutingIds()).thenReturn(Collections.singleton(id));
+        when(listener.getRoutingKeys()).thenReturn(Collections.singleton(OsNotificationKeyType.NETWORK_ID));
+        when(listener.getUnroutedEventStates()).thenReturn(Collections.<OsNotificationEventState>emptySet());
+        return listener;
+    }
+}
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.openstack.vmidc.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ParsedNotificationTest {
+
+    private static final String PORT_CREATE_MESSAGE = "{\"event_type\": \"port.create.end\", "
+            + "\"_context_tenant_id\": \"project-1\", \"payload\": {\"port\": {\"id\": \"port-1\", "
+            + "\"network_id\": \"network-1\", \"tenant_id\": \"project-1\", \"device_id\": \"vm-1\", "
+            + "\"fixed_ips\": [{\"subnet_id\": \"subnet-1\", \"ip_address\": \"10.0.0.5\"}]}}, "
+            + "\"priority\": \"INFO\"}";
+
+    @Test
+    public void testParsedNotification_WithPortMessage_ExtractsKnownKeys() {
+        ParsedNotification notification = new ParsedNotification(PORT_CREATE_MESSAGE);
+
+        assertEquals("port.create.end", notification.getEventType());
+        assertEquals("network-1", notification.getProperty(OsNotificationKeyType.NETWORK_ID));
+        assertEquals("vm-1", notification.getProperty(OsNotificationKeyType.DEVICE_ID));
+        assertEquals("subnet-1", notification.getProperty(OsNotificationKeyType.SUBNET_ID));
+        assertEquals("project-1", notification.getProperty(OsNotificationKeyType.CONTEXT_PROJECT_ID));
+        assertEquals("10.0.0.5", notification.getProperty("ip_address"));
+        assertNull(notification.getProperty(OsNotificationKeyType.INSTANCE_ID));
+    }
+
+    @Test
+    public void testGetRelevantId_WithRegisteredIds_MatchesOnlyRegisteredIds() {
+        ParsedNotification notification = new ParsedNotification(PORT_CREATE_MESSAGE);
+        Set<String> objectIds = new HashSet<>(Arrays.asList("network-2", "network-1"));
+
+        assertEquals("network-1", notification.getRelevantId(OsNotificationKeyType.NETWORK_ID, objectIds));
+        assertNull(notification.getRelevantId(OsNotificationKeyType.DEVICE_ID, objectIds));
+        assertNull(notification.getRelevantId(OsNotificationKeyType.INSTANCE_ID, objectIds));
+    }
+}
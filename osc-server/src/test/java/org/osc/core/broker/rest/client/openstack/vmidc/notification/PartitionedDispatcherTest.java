@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.rest.client.openstack.vmidc.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PartitionedDispatcherTest {
+
+    private final PartitionedDispatcher dispatcher = new PartitionedDispatcher(4, "test-dispatcher");
+
+    @After
+    public void tearDown() {
+        this.dispatcher.shutdown();
+    }
+
+    @Test
+    public void testExecute_WithSameKey_RunsInSubmissionOrder() throws Exception {
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            final int order = i;
+            this.dispatcher.execute(1L, () -> {
+                executed.add(order);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i), executed.get(i));
+        }
+    }
+
+    @Test
+    public void testExecute_WithDifferentKeys_RunsInParallel() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch otherKeyExecuted = new CountDownLatch(1);
+
+        this.dispatcher.execute(1L, () -> {
+            try {
+                blocked.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        this.dispatcher.execute(2L, otherKeyExecuted::countDown);
+
+        assertTrue(otherKeyExecuted.await(5, TimeUnit.SECONDS));
+        blocked.countDown();
+    }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SecurityGroupSyncCoalescerTest {
+
+    private static final Long SG_ID = 1L;
+    private static final Long OTHER_SG_ID = 2L;
+
+    private final BlockingQueue<Runnable> runningSyncs = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Long> startedSyncs = new LinkedBlockingQueue<>();
+
+    private SecurityGroupSyncCoalescer coalescer;
+
+    @Before
+    public void setUp() {
+        SecurityGroupSyncCoalescer.setSyncWindow("100");
+        this.coalescer = new SecurityGroupSyncCoalescer((sgId, onCompletion) -> {
+            this.runningSyncs.add(onCompletion);
+            this.startedSyncs.add(sgId);
+            return true;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        this.coalescer.shutdown();
+        SecurityGroupSyncCoalescer.setSyncWindow(String.valueOf(SecurityGroupSyncCoalescer.DEFAULT_SYNC_WINDOW_MS));
+    }
+
+    @Test
+    public void testRequest_WithBurstOfRequests_StartsSingleSync() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            this.coalescer.request(SG_ID, "sg");
+        }
+        this.coalescer.request(OTHER_SG_ID, "other-sg");
+
+        assertEquals(SG_ID, this.startedSyncs.poll(5, TimeUnit.SECONDS));
+        assertEquals(OTHER_SG_ID, this.startedSyncs.poll(5, TimeUnit.SECONDS));
+        assertEquals(null, this.startedSyncs.poll(300, TimeUnit.MILLISECONDS));
+        assertTrue(this.coalescer.getStatus(), this.coalescer.getStatus().contains("Suppressed: 4"));
+    }
+
+    @Test
+    public void testRequest_WhileSyncIsRunning_StartsSingleFollowUpSyncAfterCompletion() throws Exception {
+        this.coalescer.request(SG_ID, "sg");
+        assertEquals(SG_ID, this.startedSyncs.poll(5, TimeUnit.SECONDS));
+
+        this.coalescer.request(SG_ID, "sg");
+        this.coalescer.request(SG_ID, "sg");
+        assertEquals(null, this.startedSyncs.poll(300, TimeUnit.MILLISECONDS));
+
+        this.runningSyncs.take().run();
+
+        assertEquals(SG_ID, this.startedSyncs.poll(5, TimeUnit.SECONDS));
+        assertEquals(null, this.startedSyncs.poll(300, TimeUnit.MILLISECONDS));
+        String status = this.coalescer.getStatus();
+        assertTrue(status, status.contains("Merged: 1") && status.contains("Suppressed: 1"));
+    }
+
+    @Test
+    public void testRequest_AfterSyncCompleted_StartsNewSync() throws Exception {
+        this.coalescer.request(SG_ID, "sg");
+        assertEquals(SG_ID, this.startedSyncs.poll(5, TimeUnit.SECONDS));
+        Runnable onCompletion = this.runningSyncs.take();
+        onCompletion.run();
+        // Completing twice must not cause a sync
+        onCompletion.run();
+
+        this.coalescer.request(SG_ID, "sg");
+
+        assertEquals(SG_ID, this.startedSyncs.poll(5, TimeUnit.SECONDS));
+        assertEquals(null, this.startedSyncs.poll(300, TimeUnit.MILLISECONDS));
+    }
+}
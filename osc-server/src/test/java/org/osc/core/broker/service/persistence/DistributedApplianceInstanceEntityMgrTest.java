@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.service.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.RollbackException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.osc.core.broker.model.entities.appliance.Appliance;
+import org.osc.core.broker.model.entities.appliance.ApplianceSoftwareVersion;
+import org.osc.core.broker.model.entities.appliance.DistributedAppliance;
+import org.osc.core.broker.model.entities.appliance.DistributedApplianceInstance;
+import org.osc.core.broker.model.entities.appliance.VirtualSystem;
+import org.osc.core.broker.model.entities.management.ApplianceManagerConnector;
+import org.osc.core.broker.model.entities.management.Domain;
+import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector;
+import org.osc.core.broker.service.test.InMemDB;
+import org.osc.core.common.virtualization.VirtualizationType;
+
+public class DistributedApplianceInstanceEntityMgrTest {
+
+    private static final Date LAST_STATUS_BEFORE = new Date(10 * 60 * 1000L);
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    private EntityManager em;
+
+    private VirtualSystem vs;
+
+    private DistributedApplianceInstance reportedDai;
+    private DistributedApplianceInstance reportedAtThresholdDai;
+    private DistributedApplianceInstance timedOutDai;
+    private DistributedApplianceInstance neverReportedDai;
+    private DistributedApplianceInstance alreadyResetDai;
+
+    @Before
+    public void testInitialize() {
+        this.em = InMemDB.getEntityManagerFactory().createEntityManager();
+
+        this.em.getTransaction().begin();
+        populateVirtualSystem();
+        this.reportedDai = newDai("reported", new Date(LAST_STATUS_BEFORE.getTime() + 1), true);
+        this.reportedAtThresholdDai = newDai("reportedAtThreshold", LAST_STATUS_BEFORE, true);
+        this.timedOutDai = newDai("timedOut", new Date(LAST_STATUS_BEFORE.getTime() - 1), true);
+        this.neverReportedDai = newDai("neverReported", null, false);
+        this.alreadyResetDai = newDai("alreadyReset", new Date(0), null);
+        this.em.getTransaction().commit();
+        this.em.clear();
+    }
+
+    @After
+    public void testTearDown() {
+        InMemDB.shutdown();
+    }
+
+    @Test
+    public void testListTimedOut_ListsInstancesWithoutStatusOrWithStatusBeforeTheGivenTime() {
+        // Arrange.
+        Map<Long, String> expected = new HashMap<>();
+        expected.put(this.timedOutDai.getId(), this.timedOutDai.getName());
+        expected.put(this.neverReportedDai.getId(), this.neverReportedDai.getName());
+        expected.put(this.alreadyResetDai.getId(), this.alreadyResetDai.getName());
+
+        // Act.
+        Map<Long, String> dais = DistributedApplianceInstanceEntityMgr.listTimedOut(this.em, LAST_STATUS_BEFORE);
+
+        // Assert.
+        assertEquals(expected, dais);
+    }
+
+    @Test
+    public void testResetTimedOut_ClearsFlagsAndBumpsVersionOfTimedOutInstancesNotAlreadyReset() {
+        // Act.
+        this.em.getTransaction().begin();
+        int updated = DistributedApplianceInstanceEntityMgr.resetTimedOut(this.em, LAST_STATUS_BEFORE);
+        this.em.getTransaction().commit();
+
+        // Assert.
+        assertEquals(2, updated);
+        assertReset(this.timedOutDai, this.timedOutDai.getVersion() + 1);
+        assertReset(this.neverReportedDai, this.neverReportedDai.getVersion() + 1);
+        assertReset(this.alreadyResetDai, this.alreadyResetDai.getVersion());
+        assertNotReset(this.reportedDai);
+        assertNotReset(this.reportedAtThresholdDai);
+    }
+
+    @Test
+    public void testResetTimedOut_ThenUpdatingAnInstanceLoadedBefore_FailsOptimisticLock() {
+        // Arrange.
+        EntityManager staleEm = InMemDB.getEntityManagerFactory().createEntityManager();
+        DistributedApplianceInstance staleDai = staleEm.find(DistributedApplianceInstance.class,
+                this.timedOutDai.getId());
+
+        this.em.getTransaction().begin();
+        DistributedApplianceInstanceEntityMgr.resetTimedOut(this.em, LAST_STATUS_BEFORE);
+        this.em.getTransaction().commit();
+
+        this.exception.expect(RollbackException.class);
+
+        // Act.
+        staleEm.getTransaction().begin();
+        staleDai.setDiscovered(false);
+        staleEm.getTransaction().commit();
+    }
+
+    private void assertReset(DistributedApplianceInstance dai, Long expectedVersion) {
+        DistributedApplianceInstance loaded = this.em.find(DistributedApplianceInstance.class, dai.getId());
+        assertNull(loaded.getDiscovered());
+        assertNull(loaded.getInspectionReady());
+        assertEquals(expectedVersion, loaded.getVersion());
+    }
+
+    private void assertNotReset(DistributedApplianceInstance dai) {
+        DistributedApplianceInstance loaded = this.em.find(DistributedApplianceInstance.class, dai.getId());
+        assertTrue(loaded.getDiscovered());
+        assertTrue(loaded.getInspectionReady());
+        assertEquals(dai.getVersion(), loaded.getVersion());
+    }
+
+    private DistributedApplianceInstance newDai(String name, Date lastStatus, Boolean discovered) {
+        DistributedApplianceInstance dai = new DistributedApplianceInstance(this.vs);
+        dai.setName(name);
+        dai.setIpAddress(name + "Ip");
+        dai.setApplianceConfig(new byte[3]);
+        dai.setLastStatus(lastStatus);
+        dai.setDiscovered(discovered);
+        dai.setInspectionReady(discovered);
+
+        this.em.persist(dai);
+        return dai;
+    }
+
+    private void populateVirtualSystem() {
+        Appliance app = new Appliance();
+        app.setManagerSoftwareVersion("fizz");
+        app.setManagerType("buzz");
+        app.setModel("fizzbuzz");
+
+        this.em.persist(app);
+
+        ApplianceManagerConnector amc = new ApplianceManagerConnector();
+        amc.setManagerType("buzz");
+        amc.setIpAddress("127.0.0.1");
+        amc.setName("Steve");
+        amc.setServiceType("foobar");
+
+        this.em.persist(amc);
+
+        Domain domain = new Domain(amc);
+        domain.setName("domainName");
+
+        this.em.persist(domain);
+
+        VirtualizationConnector vc = new VirtualizationConnector();
+        vc.setVirtualizationType(VirtualizationType.OPENSTACK);
+        vc.setVirtualizationSoftwareVersion("vcSoftwareVersion");
+        vc.setName("vcName");
+        vc.setProviderIpAddress("127.0.0.1");
+        vc.setProviderUsername("Natasha");
+        vc.setProviderPassword("********");
+
+        this.em.persist(vc);
+
+        ApplianceSoftwareVersion asv = new ApplianceSoftwareVersion(app);
+        asv.setApplianceSoftwareVersion("softwareVersion");
+        asv.setImageUrl("bar");
+        asv.setVirtualizarionSoftwareVersion(vc.getVirtualizationSoftwareVersion());
+        asv.setVirtualizationType(vc.getVirtualizationType());
+
+        this.em.persist(asv);
+
+        DistributedAppliance da = new DistributedAppliance(amc);
+        da.setName("daName");
+        da.setApplianceVersion(asv.getApplianceSoftwareVersion());
+        da.setAppliance(app);
+
+        this.em.persist(da);
+
+        this.vs = new VirtualSystem(da);
+        this.vs.setApplianceSoftwareVersion(asv);
+        this.vs.setDomain(domain);
+        this.vs.setVirtualizationConnector(vc);
+        this.vs.setMarkedForDeletion(false);
+        this.vs.setName("vsName");
+
+        this.em.persist(this.vs);
+        da.addVirtualSystem(this.vs);
+    }
+}
@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.service.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.osc.core.broker.model.entities.ObjectType;
+import org.osc.core.broker.model.entities.job.JobObject;
+import org.osc.core.broker.model.entities.job.JobRecord;
+import org.osc.core.broker.service.exceptions.VmidcBrokerValidationException;
+import org.osc.core.broker.service.request.ListJobRequest;
+import org.osc.core.broker.service.test.InMemDB;
+import org.osc.core.common.job.JobState;
+import org.osc.core.common.job.JobStatus;
+
+public class JobEntityManagerTest {
+
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    private EntityManager em;
+
+    private JobRecord passedJob;
+    private JobRecord failedJob;
+    private JobRecord runningJob;
+    private JobRecord vsJob;
+    private JobRecord sgJob;
+
+    @Before
+    public void testInitialize() {
+        this.em = InMemDB.getEntityManagerFactory().createEntityManager();
+
+        this.passedJob = newJob("passed", JobState.COMPLETED, JobStatus.PASSED, 1, "admin");
+        this.failedJob = newJob("failed", JobState.COMPLETED, JobStatus.FAILED, 2, "admin");
+        this.runningJob = newJob("running", JobState.RUNNING, null, null, "user");
+        this.vsJob = newJob("vs", JobState.COMPLETED, JobStatus.PASSED, 3, "user");
+        new JobObject(this.vsJob, "vs", ObjectType.VIRTUAL_SYSTEM, 10L);
+        this.sgJob = newJob("sg", JobState.COMPLETED, JobStatus.PASSED, 4, "admin");
+        new JobObject(this.sgJob, "sg", ObjectType.SECURITY_GROUP, 10L);
+        new JobObject(this.sgJob, "other vs", ObjectType.VIRTUAL_SYSTEM, 11L);
+
+        this.em.getTransaction().begin();
+        for (JobRecord job : Arrays.asList(this.passedJob, this.failedJob, this.runningJob, this.vsJob, this.sgJob)) {
+            this.em.persist(job);
+        }
+        this.em.getTransaction().commit();
+        this.em.clear();
+    }
+
+    @After
+    public void testTearDown() {
+        InMemDB.shutdown();
+    }
+
+    @Test
+    public void testListJobs_WithoutFilters_ListsAllJobsMostRecentFirstWithTheirObjects() throws Exception {
+        // Act.
+        List<JobRecord> jobs = JobEntityManager.listJobs(this.em, new ListJobRequest());
+
+        // Assert.
+        assertJobs(jobs, this.sgJob, this.vsJob, this.runningJob, this.failedJob, this.passedJob);
+        assertEquals(2, jobs.get(0).getObjects().size());
+    }
+
+    @Test
+    public void testListJobs_WithPageSize_ListsPagesBeforeTheLastIdOfThePreviousPage() throws Exception {
+        // Arrange.
+        ListJobRequest request = new ListJobRequest();
+        request.setPageSize(2);
+
+        // Act.
+        List<JobRecord> firstPage = JobEntityManager.listJobs(this.em, request);
+        request.setBeforeId(firstPage.get(firstPage.size() - 1).getId());
+        List<JobRecord> secondPage = JobEntityManager.listJobs(this.em, request);
+        request.setBeforeId(secondPage.get(secondPage.size() - 1).getId());
+        List<JobRecord> lastPage = JobEntityManager.listJobs(this.em, request);
+        request.setBeforeId(lastPage.get(lastPage.size() - 1).getId());
+        List<JobRecord> emptyPage = JobEntityManager.listJobs(this.em, request);
+
+        // Assert.
+        assertJobs(firstPage, this.sgJob, this.vsJob);
+        assertEquals(2, firstPage.get(0).getObjects().size());
+        assertJobs(secondPage, this.runningJob, this.failedJob);
+        assertJobs(lastPage, this.passedJob);
+        assertTrue(emptyPage.isEmpty());
+    }
+
+    @Test
+    public void testListJobs_WithStateAndStatus_ListsMatchingJobs() throws Exception {
+        // Arrange.
+        ListJobRequest stateRequest = new ListJobRequest();
+        stateRequest.setState(JobState.RUNNING.name());
+        ListJobRequest statusRequest = new ListJobRequest();
+        statusRequest.setStatus(JobStatus.FAILED.name());
+
+        // Act.
+        List<JobRecord> runningJobs = JobEntityManager.listJobs(this.em, stateRequest);
+        List<JobRecord> failedJobs = JobEntityManager.listJobs(this.em, statusRequest);
+
+        // Assert.
+        assertJobs(runningJobs, this.runningJob);
+        assertJobs(failedJobs, this.failedJob);
+    }
+
+    @Test
+    public void testListJobs_WithCompletedRange_ListsJobsCompletedFromInclusiveToExclusive() throws Exception {
+        // Arrange.
+        ListJobRequest request = new ListJobRequest();
+        request.setCompletedFrom(new Date(2 * HOUR_MS));
+        request.setCompletedTo(new Date(4 * HOUR_MS));
+
+        // Act.
+        List<JobRecord> jobs = JobEntityManager.listJobs(this.em, request);
+
+        // Assert.
+        assertJobs(jobs, this.vsJob, this.failedJob);
+    }
+
+    @Test
+    public void testListJobs_WithSubmittedBy_ListsJobsOfTheUser() throws Exception {
+        // Arrange.
+        ListJobRequest request = new ListJobRequest();
+        request.setSubmittedBy("user");
+
+        // Act.
+        List<JobRecord> jobs = JobEntityManager.listJobs(this.em, request);
+
+        // Assert.
+        assertJobs(jobs, this.vsJob, this.runningJob);
+    }
+
+    @Test
+    public void testListJobs_WithObjectTypeAndId_ListsJobsOfTheObjectWithAllTheirObjects() throws Exception {
+        // Arrange.
+        ListJobRequest typeRequest = new ListJobRequest();
+        typeRequest.setObjectType(ObjectType.VIRTUAL_SYSTEM.name());
+        ListJobRequest idRequest = new ListJobRequest();
+        idRequest.setObjectId(10L);
+        ListJobRequest objectRequest = new ListJobRequest();
+        objectRequest.setObjectType(ObjectType.VIRTUAL_SYSTEM.name());
+        objectRequest.setObjectId(10L);
+        objectRequest.setPageSize(10);
+
+        // Act.
+        List<JobRecord> typeJobs = JobEntityManager.listJobs(this.em, typeRequest);
+        List<JobRecord> idJobs = JobEntityManager.listJobs(this.em, idRequest);
+        List<JobRecord> objectJobs = JobEntityManager.listJobs(this.em, objectRequest);
+
+        // Assert.
+        assertJobs(typeJobs, this.sgJob, this.vsJob);
+        assertJobs(idJobs, this.sgJob, this.vsJob);
+        assertJobs(objectJobs, this.vsJob);
+    }
+
+    @Test
+    public void testListJobs_WithCombinedFiltersAndPageSize_ListsMatchingPage() throws Exception {
+        // Arrange.
+        ListJobRequest request = new ListJobRequest();
+        request.setState(JobState.COMPLETED.name());
+        request.setSubmittedBy("admin");
+        request.setBeforeId(this.sgJob.getId());
+        request.setPageSize(1);
+
+        // Act.
+        List<JobRecord> jobs = JobEntityManager.listJobs(this.em, request);
+
+        // Assert.
+        assertJobs(jobs, this.failedJob);
+    }
+
+    @Test
+    public void testListJobs_WithInvalidState_ThrowsValidationException() throws Exception {
+        // Arrange.
+        ListJobRequest request = new ListJobRequest();
+        request.setState("DONE");
+
+        this.exception.expect(VmidcBrokerValidationException.class);
+        this.exception.expectMessage("Invalid job state: 'DONE'");
+
+        // Act.
+        JobEntityManager.listJobs(this.em, request);
+    }
+
+    @Test
+    public void testListJobs_WithInvalidStatus_ThrowsValidationException() throws Exception {
+        // Arrange.
+        ListJobRequest request = new ListJobRequest();
+        request.setStatus("passed");
+
+        this.exception.expect(VmidcBrokerValidationException.class);
+        this.exception.expectMessage("Invalid job status: 'passed'");
+
+        // Act.
+        JobEntityManager.listJobs(this.em, request);
+    }
+
+    @Test
+    public void testListJobs_WithInvalidObjectType_ThrowsValidationException() throws Exception {
+        // Arrange.
+        ListJobRequest request = new ListJobRequest();
+        request.setObjectType("VM");
+        request.setPageSize(10);
+
+        this.exception.expect(VmidcBrokerValidationException.class);
+        this.exception.expectMessage("Invalid object type: 'VM'");
+
+        // Act.
+        JobEntityManager.listJobs(this.em, request);
+    }
+
+    private static JobRecord newJob(String name, JobState state, JobStatus status, Integer completedHour,
+            String submittedBy) {
+        JobRecord job = new JobRecord();
+        job.setName(name);
+        job.setState(state);
+        job.setStatus(status);
+        job.setSubmittedBy(submittedBy);
+        if (completedHour != null) {
+            job.setCompletedTimestamp(new Date(completedHour * HOUR_MS));
+        }
+        return job;
+    }
+
+    private static void assertJobs(List<JobRecord> jobs, JobRecord... expectedJobs) {
+        assertEquals(Arrays.stream(expectedJobs).map(JobRecord::getId).collect(Collectors.toList()),
+                jobs.stream().map(JobRecord::getId).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.service.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.osc.core.broker.model.entities.ObjectType;
+import org.osc.core.broker.model.entities.job.JobRecord;
+import org.osc.core.broker.model.entities.job.TaskObject;
+import org.osc.core.broker.model.entities.job.TaskRecord;
+import org.osc.core.broker.service.exceptions.VmidcBrokerValidationException;
+import org.osc.core.broker.service.request.ListTaskRequest;
+import org.osc.core.broker.service.test.InMemDB;
+import org.osc.core.common.job.TaskGuard;
+import org.osc.core.common.job.TaskState;
+import org.osc.core.common.job.TaskStatus;
+
+public class TaskEntityMgrTest {
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    private EntityManager em;
+
+    private JobRecord job;
+    private TaskRecord firstTask;
+    private TaskRecord secondTask;
+    private TaskRecord failedTask;
+    private TaskRecord runningTask;
+    private TaskRecord otherJobTask;
+
+    @Before
+    public void testInitialize() {
+        this.em = InMemDB.getEntityManagerFactory().createEntityManager();
+
+        this.job = new JobRecord();
+        this.job.setName("job");
+        JobRecord otherJob = new JobRecord();
+        otherJob.setName("other job");
+
+        this.firstTask = newTask(this.job, "first", 1L, TaskState.COMPLETED, TaskStatus.PASSED);
+        new TaskObject(this.firstTask, "vs", ObjectType.VIRTUAL_SYSTEM, 10L);
+        this.secondTask = newTask(this.job, "second", 2L, TaskState.COMPLETED, TaskStatus.PASSED);
+        this.secondTask.addPredecessor(this.firstTask);
+        this.failedTask = newTask(this.job, "failed", 2L, TaskState.COMPLETED, TaskStatus.FAILED);
+        this.failedTask.addPredecessor(this.firstTask);
+        this.runningTask = newTask(this.job, "running", 3L, TaskState.RUNNING, null);
+        this.runningTask.addPredecessor(this.secondTask);
+        this.runningTask.addPredecessor(this.failedTask);
+        this.otherJobTask = newTask(otherJob, "other", 1L, TaskState.COMPLETED, TaskStatus.PASSED);
+
+        this.em.getTransaction().begin();
+        this.em.persist(this.job);
+        this.em.persist(otherJob);
+        for (TaskRecord task : Arrays.asList(this.firstTask, this.secondTask, this.failedTask, this.runningTask,
+                this.otherJobTask)) {
+            this.em.persist(task);
+        }
+        this.em.getTransaction().commit();
+        this.em.clear();
+    }
+
+    @After
+    public void testTearDown() {
+        InMemDB.shutdown();
+    }
+
+    @Test
+    public void testListTasks_WithoutFilters_ListsTasksOfTheJobInDependencyOrderWithObjectsAndPredecessors()
+            throws Exception {
+        // Act.
+        List<TaskRecord> tasks = new TaskEntityMgr(this.em, null).listTasks(newRequest());
+
+        // Assert.
+        assertTasks(tasks, this.firstTask, this.secondTask, this.failedTask, this.runningTask);
+        assertEquals(1, tasks.get(0).getObjects().size());
+        assertEquals(2, tasks.get(3).getPredecessors().size());
+    }
+
+    @Test
+    public void testListTasks_WithPageSize_ListsPagesAfterTheLastDependencyOrderOfThePreviousPage()
+            throws Exception {
+        // Arrange.
+        ListTaskRequest request = newRequest();
+        request.setPageSize(3);
+        TaskEntityMgr taskEntityMgr = new TaskEntityMgr(this.em, null);
+
+        // Act.
+        List<TaskRecord> firstPage = taskEntityMgr.listTasks(request);
+        request.setAfterDependencyOrder(firstPage.get(firstPage.size() - 1).getDependencyOrder());
+        List<TaskRecord> lastPage = taskEntityMgr.listTasks(request);
+        request.setAfterDependencyOrder(lastPage.get(lastPage.size() - 1).getDependencyOrder());
+        List<TaskRecord> emptyPage = taskEntityMgr.listTasks(request);
+
+        // Assert.
+        assertTasks(firstPage, this.firstTask, this.secondTask, this.failedTask);
+        assertEquals(1, firstPage.get(0).getObjects().size());
+        assertTasks(lastPage, this.runningTask);
+        assertEquals(2, lastPage.get(0).getPredecessors().size());
+        assertTrue(emptyPage.isEmpty());
+    }
+
+    @Test
+    public void testListTasks_WithStateAndStatus_ListsMatchingTasks() throws Exception {
+        // Arrange.
+        ListTaskRequest stateRequest = newRequest();
+        stateRequest.setState(TaskState.RUNNING.name());
+        ListTaskRequest statusRequest = newRequest();
+        statusRequest.setStatus(TaskStatus.PASSED.name());
+        statusRequest.setAfterDependencyOrder(1L);
+        TaskEntityMgr taskEntityMgr = new TaskEntityMgr(this.em, null);
+
+        // Act.
+        List<TaskRecord> runningTasks = taskEntityMgr.listTasks(stateRequest);
+        List<TaskRecord> passedTasks = taskEntityMgr.listTasks(statusRequest);
+
+        // Assert.
+        assertTasks(runningTasks, this.runningTask);
+        assertTasks(passedTasks, this.secondTask);
+    }
+
+    @Test
+    public void testListTasks_WithUnknownJob_ListsNoTasks() throws Exception {
+        // Arrange.
+        ListTaskRequest request = newRequest();
+        request.setJobId(this.job.getId() + 100);
+
+        // Act.
+        List<TaskRecord> tasks = new TaskEntityMgr(this.em, null).listTasks(request);
+
+        // Assert.
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void testListTasks_WithInvalidState_ThrowsValidationException() throws Exception {
+        // Arrange.
+        ListTaskRequest request = newRequest();
+        request.setState("DONE");
+
+        this.exception.expect(VmidcBrokerValidationException.class);
+        this.exception.expectMessage("Invalid task state: 'DONE'");
+
+        // Act.
+        new TaskEntityMgr(this.em, null).listTasks(request);
+    }
+
+    @Test
+    public void testListTasks_WithInvalidStatus_ThrowsValidationException() throws Exception {
+        // Arrange.
+        ListTaskRequest request = newRequest();
+        request.setStatus("passed");
+        request.setPageSize(10);
+
+        this.exception.expect(VmidcBrokerValidationException.class);
+        this.exception.expectMessage("Invalid task status: 'passed'");
+
+        // Act.
+        new TaskEntityMgr(this.em, null).listTasks(request);
+    }
+
+    private ListTaskRequest newRequest() {
+        ListTaskRequest request = new ListTaskRequest();
+        request.setJobId(this.job.getId());
+        return request;
+    }
+
+    private static TaskRecord newTask(JobRecord job, String name, Long dependencyOrder, TaskState state,
+            TaskStatus status) {
+        TaskRecord task = new TaskRecord(job);
+        task.setName(name);
+        task.setDependencyOrder(dependencyOrder);
+        task.setTaskGaurd(TaskGuard.ALL_PREDECESSORS_COMPLETED);
+        task.setState(state);
+        task.setStatus(status);
+        return task;
+    }
+
+    private static void assertTasks(List<TaskRecord> tasks, TaskRecord... expectedTasks) {
+        assertEquals(Arrays.stream(expectedTasks).map(TaskRecord::getId).collect(Collectors.toList()),
+                tasks.stream().map(TaskRecord::getId).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.service.tasks;
+
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+import javax.persistence.OptimisticLockException;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.osc.core.broker.job.TaskGraph;
+import org.osc.core.broker.model.entities.virtualization.SecurityGroup;
+import org.osc.core.broker.util.db.DBConnectionManager;
+import org.osc.core.test.util.TestTransactionControl;
+
+public class PhasedTransactionalMetaTaskTest {
+
+    @Mock
+    private EntityManager em;
+
+    @Mock
+    private EntityTransaction tx;
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private TestTransactionControl txControl;
+
+    @Mock
+    private DBConnectionManager dbMgr;
+
+    private SecurityGroup sg;
+
+    private static class RecordingTask extends PhasedTransactionalMetaTask {
+        private final List<String> phases = new ArrayList<>();
+        private final Long sgId;
+
+        private RecordingTask(DBConnectionManager dbMgr, Long sgId) {
+            this.dbConnectionManager = dbMgr;
+            this.sgId = sgId;
+            this.name = "recording task";
+        }
+
+        @Override
+        protected void executeReadTransaction(EntityManager em) throws Exception {
+            this.phases.add("read");
+            validate(em.find(SecurityGroup.class, this.sgId));
+        }
+
+        @Override
+        protected void executeRemoteCalls() throws Exception {
+            this.phases.add("remote");
+        }
+
+        @Override
+        protected void executeWriteTransaction(EntityManager em) throws Exception {
+            this.phases.add("write");
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+
+        @Override
+        public TaskGraph getTaskGraph() {
+            return null;
+        }
+    }
+
+    @Before
+    public void testInitialize() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(this.em.getTransaction()).thenReturn(this.tx);
+
+        this.txControl.setEntityManager(this.em);
+
+        when(this.dbMgr.getTransactionalEntityManager()).thenReturn(this.em);
+        when(this.dbMgr.getTransactionControl()).thenReturn(this.txControl);
+
+        this.sg = new SecurityGroup(null, null, null);
+        this.sg.setId(10L);
+        this.sg.setVersion(1L);
+    }
+
+    @Test
+    public void testExecute_WhenEntityIsUnchanged_RunsEachPhaseOnce() throws Exception {
+        // Arrange.
+        when(this.em.find(SecurityGroup.class, this.sg.getId())).thenReturn(this.sg);
+        RecordingTask task = new RecordingTask(this.dbMgr, this.sg.getId());
+
+        // Act.
+        task.execute();
+
+        // Assert.
+        Assert.assertEquals(Arrays.asList("read", "remote", "write"), task.phases);
+    }
+
+    @Test
+    public void testExecute_WhenEntityChangesOnce_RetriesAllPhases() throws Exception {
+        // Arrange.
+        SecurityGroup updatedSg = new SecurityGroup(null, null, null);
+        updatedSg.setId(this.sg.getId());
+        updatedSg.setVersion(2L);
+        when(this.em.find(SecurityGroup.class, this.sg.getId())).thenReturn(this.sg, updatedSg);
+        RecordingTask task = new RecordingTask(this.dbMgr, this.sg.getId());
+
+        // Act.
+        task.execute();
+
+        // Assert.
+        Assert.assertEquals(Arrays.asList("read", "remote", "read", "remote", "write"), task.phases);
+    }
+
+    @Test
+    public void testExecute_WhenEntityKeepsChanging_ThrowsOptimisticLockException() throws Exception {
+        // Arrange.
+        SecurityGroup deletedSg = null;
+        when(this.em.find(SecurityGroup.class, this.sg.getId())).thenReturn(this.sg, deletedSg, this.sg, deletedSg,
+                this.sg, deletedSg);
+        RecordingTask task = new RecordingTask(this.dbMgr, this.sg.getId());
+
+        // Act.
+        try {
+            task.execute();
+            Assert.fail("Expected an OptimisticLockException");
+        } catch (OptimisticLockException e) {
+            // Assert.
+            Assert.assertEquals(PhasedTransactionalMetaTask.MAX_ATTEMPTS * 2, task.phases.size());
+            Assert.assertFalse(task.phases.contains("write"));
+        }
+    }
+}
@@ -16,6 +16,7 @@
  *******************************************************************************/
 package org.osc.core.broker.service.tasks.conformance.k8s.deploymentspec;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -35,6 +36,7 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
+import org.osc.core.broker.job.PollingTask;
 import org.osc.core.broker.model.entities.appliance.ApplianceSoftwareVersion;
 import org.osc.core.broker.model.entities.appliance.VirtualSystem;
 import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector;
@@ -117,7 +119,7 @@ public class CheckK8sDeploymentStateTaskTest  {
         this.exception.expectMessage("The Kubernetes deployment failed to reach the desired replica count");
 
         // Act.
-        task.execute();
+        executeUntilDone(task);
 
         // Assert.
         verify(this.k8sDeploymentApi.getDeploymentById(anyString(), anyString(), anyString()), times(numberOfRetries));
@@ -141,6 +143,29 @@ public class CheckK8sDeploymentStateTaskTest  {
 
         // Assert.
         verify(this.k8sDeploymentApi, times(1)).getDeploymentById(anyString(), anyString(), anyString());
+        assertEquals(PollingTask.DONE, task.getPollDelay());
+    }
+
+    @Test
+    public void testExecute_WhenGetDeploymentReturnsUnexpectedCount_PollsAgainAfterRetryInterval() throws Exception {
+        // Arrange.
+        DeploymentSpec ds = createDS();
+        when(this.em.find(DeploymentSpec.class, ds.getId())).thenReturn(ds);
+
+        KubernetesDeployment k8sDeployment = Mockito.mock(KubernetesDeployment.class);
+        when(k8sDeployment.getAvailableReplicaCount()).thenReturn(ds.getInstanceCount() - 1);
+
+        registerKubernetesDeployment(ds, k8sDeployment);
+
+        CheckK8sDeploymentStateTask task = this.factory.create(ds, this.k8sDeploymentApi);
+        task.RETRY_INTERVAL__MILLISECONDS = 1234;
+
+        // Act.
+        task.execute();
+
+        // Assert.
+        verify(this.k8sDeploymentApi, times(1)).getDeploymentById(anyString(), anyString(), anyString());
+        assertEquals(1234, task.getPollDelay());
     }
 
     @Test
@@ -158,12 +183,18 @@ public class CheckK8sDeploymentStateTaskTest  {
         task.RETRY_INTERVAL__MILLISECONDS = retryInterval;
 
         // Act.
-        task.execute();
+        executeUntilDone(task);
 
         // Assert.
         verify(this.k8sDeploymentApi, times(numberOfRetries)).getDeploymentById(anyString(), anyString(), anyString());
     }
 
+    private static void executeUntilDone(CheckK8sDeploymentStateTask task) throws Exception {
+        do {
+            task.execute();
+        } while (task.getPollDelay() > 0);
+    }
+
     private void registerKubernetesDeployment(DeploymentSpec ds, KubernetesDeployment k8sDeployment) throws VmidcException {
         when(this.k8sDeploymentApi
                 .getDeploymentById(
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.service.tasks.conformance.k8s.securitygroup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.osc.core.broker.model.entities.virtualization.k8s.Label;
+import org.osc.core.broker.model.entities.virtualization.k8s.Pod;
+import org.osc.core.broker.model.entities.virtualization.k8s.PodPort;
+import org.osc.core.broker.rest.client.k8s.KubernetesPod;
+import org.osc.core.broker.service.persistence.PodEntityMgr;
+import org.osc.core.broker.service.test.InMemDB;
+import org.osc.core.broker.util.TransactionalBroadcastUtil;
+import org.osc.core.broker.util.db.DBConnectionManager;
+import org.osc.core.test.util.TestTransactionControl;
+
+public class ReconcileK8sLabelPodsTaskTest {
+
+    private EntityManager em;
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private TestTransactionControl txControl;
+
+    @Mock
+    DBConnectionManager dbMgr;
+
+    @Mock
+    TransactionalBroadcastUtil txBroadcastUtil;
+
+    @InjectMocks
+    ReconcileK8sLabelPodsTask factoryTask;
+
+    private Label label;
+
+    @Before
+    public void testInitialize() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        this.em = InMemDB.getEntityManagerFactory().createEntityManager();
+
+        this.txControl.setEntityManager(this.em);
+        Mockito.when(this.dbMgr.getTransactionalEntityManager()).thenReturn(this.em);
+        Mockito.when(this.dbMgr.getTransactionControl()).thenReturn(this.txControl);
+
+        this.label = new Label("LABEL_name", "LABEL_value" + UUID.randomUUID());
+        this.em.getTransaction().begin();
+        this.em.persist(this.label);
+        this.em.getTransaction().commit();
+    }
+
+    @After
+    public void testTearDown() {
+        InMemDB.shutdown();
+    }
+
+    @Test
+    public void testExecute_WithResolvedAndUnresolvedPods_OnlyResolvedPodsAdded() throws Exception {
+        // Arrange.
+        KubernetesPod resolvedPod = createKubernetesPod();
+        KubernetesPod unresolvedPod = createKubernetesPod();
+        ReconcileK8sLabelPodsTask task = this.factoryTask.create(this.label, Arrays.asList(resolvedPod, unresolvedPod),
+                Collections.emptyList());
+        task.addPodPort(resolvedPod, createPodPort());
+
+        // Act.
+        task.execute();
+
+        // Assert.
+        this.em.clear();
+        Pod pod = PodEntityMgr.findExternalId(this.em, resolvedPod.getUid());
+        assertNotNull("The resolved pod should have been created.", pod);
+        assertEquals(1, pod.getPorts().size());
+        assertEquals(1, this.em.find(Label.class, this.label.getId()).getPods().size());
+        assertNull("The unresolved pod should have been left out.",
+                PodEntityMgr.findExternalId(this.em, unresolvedPod.getUid()));
+    }
+
+    @Test
+    public void testExecute_WithManyPods_AllPodsAdded() throws Exception {
+        // Arrange.
+        int podCount = ReconcileK8sLabelPodsTask.BATCH_SIZE * 2 + 1;
+        KubernetesPod[] k8sPods = new KubernetesPod[podCount];
+        for (int i = 0; i < podCount; i++) {
+            k8sPods[i] = createKubernetesPod();
+        }
+        ReconcileK8sLabelPodsTask task = this.factoryTask.create(this.label, Arrays.asList(k8sPods),
+                Collections.emptyList());
+        for (KubernetesPod k8sPod : k8sPods) {
+            task.addPodPort(k8sPod, createPodPort());
+        }
+
+        // Act.
+        task.execute();
+
+        // Assert.
+        this.em.clear();
+        assertEquals(podCount, this.em.find(Label.class, this.label.getId()).getPods().size());
+    }
+
+    @Test
+    public void testExecute_WithRemovedPods_PodsOnlyInLabelDeleted() throws Exception {
+        // Arrange.
+        Label otherLabel = new Label("OTHER_name", "OTHER_value" + UUID.randomUUID());
+        Pod orphanPod = createPod();
+        Pod sharedPod = createPod();
+        this.em.getTransaction().begin();
+        for (Pod pod : Arrays.asList(orphanPod, sharedPod)) {
+            this.em.persist(pod);
+            this.em.persist(pod.getPorts().iterator().next());
+        }
+        this.label = this.em.find(Label.class, this.label.getId());
+        this.label.getPods().add(orphanPod);
+        this.label.getPods().add(sharedPod);
+        otherLabel.getPods().add(sharedPod);
+        this.em.persist(otherLabel);
+        this.em.getTransaction().commit();
+        this.em.clear();
+
+        ReconcileK8sLabelPodsTask task = this.factoryTask.create(this.label, Collections.emptyList(),
+                Arrays.asList(orphanPod, sharedPod));
+
+        // Act.
+        task.execute();
+
+        // Assert.
+        this.em.clear();
+        assertTrue(this.em.find(Label.class, this.label.getId()).getPods().isEmpty());
+        assertNull("The pod without other labels should have been deleted.",
+                this.em.find(Pod.class, orphanPod.getId()));
+        assertNotNull("The pod with another label should have been kept.",
+                this.em.find(Pod.class, sharedPod.getId()));
+        assertEquals(1, this.em.find(Label.class, otherLabel.getId()).getPods().size());
+    }
+
+    private static KubernetesPod createKubernetesPod() {
+        return new KubernetesPod("name" + UUID.randomUUID(), "namespace", UUID.randomUUID().toString(), "node");
+    }
+
+    private static Pod createPod() {
+        Pod pod = new Pod("name" + UUID.randomUUID(), "namespace", "node", UUID.randomUUID().toString());
+        PodPort podPort = createPodPort();
+        pod.getPorts().add(podPort);
+        podPort.setPod(pod);
+        return pod;
+    }
+
+    private static PodPort createPodPort() {
+        return new PodPort(UUID.randomUUID().toString(), UUID.randomUUID().toString(), "10.0.0.1",
+                UUID.randomUUID().toString());
+    }
+}
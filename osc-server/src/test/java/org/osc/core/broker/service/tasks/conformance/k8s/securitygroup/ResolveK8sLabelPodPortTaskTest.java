@@ -16,8 +16,12 @@
  *******************************************************************************/
 package org.osc.core.broker.service.tasks.conformance.k8s.securitygroup;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
-import static org.osc.core.broker.service.tasks.conformance.k8s.securitygroup.CreateK8sLabelPodTaskTestData.*;
+import static org.osc.core.broker.service.tasks.conformance.k8s.securitygroup.ResolveK8sLabelPodPortTaskTestData.*;
 
 import javax.persistence.EntityManager;
 
@@ -28,18 +32,16 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.osc.core.broker.model.entities.virtualization.SecurityGroupMember;
-import org.osc.core.broker.model.entities.virtualization.k8s.Label;
-import org.osc.core.broker.model.entities.virtualization.k8s.Pod;
 import org.osc.core.broker.model.entities.virtualization.k8s.PodPort;
 import org.osc.core.broker.model.plugin.ApiFactoryService;
 import org.osc.core.broker.rest.client.k8s.KubernetesPod;
 import org.osc.core.broker.service.exceptions.VmidcException;
-import org.osc.core.broker.service.persistence.PodEntityMgr;
 import org.osc.core.broker.service.test.InMemDB;
 import org.osc.core.broker.util.TransactionalBroadcastUtil;
 import org.osc.core.broker.util.db.DBConnectionManager;
@@ -47,7 +49,7 @@ import org.osc.core.test.util.TestTransactionControl;
 import org.osc.sdk.controller.api.SdnRedirectionApi;
 import org.osc.sdk.controller.element.NetworkElement;
 
-public class CreateK8sLabelPodTaskTest {
+public class ResolveK8sLabelPodPortTaskTest {
     public EntityManager em;
 
     @Rule
@@ -68,8 +70,11 @@ public class CreateK8sLabelPodTaskTest {
     @Mock
     public SdnRedirectionApi redirectionApi;
 
+    @Mock
+    public ReconcileK8sLabelPodsTask reconcileTask;
+
     @InjectMocks
-    CreateK8sLabelPodTask factoryTask;
+    ResolveK8sLabelPodPortTask factoryTask;
 
     @Before
     public void testInitialize() throws VmidcException {
@@ -91,7 +96,8 @@ public class CreateK8sLabelPodTaskTest {
     @Test
     public void testExecute_WhenK8sPodAlreadyBelongsToAnotherSG_ThrowsVmidException() throws Exception {
         // Arrange.
-        CreateK8sLabelPodTask task = this.factoryTask.create(ALREADY_PROTECTED_K8S_POD, ALREADY_PROTECTED_POD_SGM_LABEL);
+        ResolveK8sLabelPodPortTask task = this.factoryTask.create(ALREADY_PROTECTED_K8S_POD, ALREADY_PROTECTED_POD_SGM_LABEL,
+                this.reconcileTask);
         this.exception.expect(VmidcException.class);
         this.exception.expectMessage("is already part of the security group");
 
@@ -102,7 +108,8 @@ public class CreateK8sLabelPodTaskTest {
     @Test
     public void testExecute_WhenSDNReturnsNullNetworkElement_ThrowsVmidcException() throws Exception {
         // Arrange.
-        CreateK8sLabelPodTask task = this.factoryTask.create(NETWORK_ELEMENT_NOT_FOUND_K8S_POD, NETWORK_ELEMENT_NOT_FOUND_POD_SGM_LABEL);
+        ResolveK8sLabelPodPortTask task = this.factoryTask.create(NETWORK_ELEMENT_NOT_FOUND_K8S_POD,
+                NETWORK_ELEMENT_NOT_FOUND_POD_SGM_LABEL, this.reconcileTask);
         registerNetworkElement(NETWORK_ELEMENT_NOT_FOUND_POD_SGM_LABEL.getSecurityGroupMembers().iterator().next(), null, NETWORK_ELEMENT_NOT_FOUND_K8S_POD);
         this.exception.expect(VmidcException.class);
         this.exception.expectMessage("The SDN controller did not return a network element for the device");
@@ -112,9 +119,10 @@ public class CreateK8sLabelPodTaskTest {
     }
 
     @Test
-    public void testExecute_WithAValidNewPod_PodAndPortArePersisted() throws Exception {
+    public void testExecute_WithAValidNewPod_PortIsHandedToReconcileTask() throws Exception {
         // Arrange.
-        CreateK8sLabelPodTask task = this.factoryTask.create(VALID_K8S_POD, VALID_POD_SGM_LABEL);
+        ResolveK8sLabelPodPortTask task = this.factoryTask.create(VALID_K8S_POD, VALID_POD_SGM_LABEL,
+                this.reconcileTask);
         NetworkElement podPort = createNetworkElement();
         registerNetworkElement(VALID_POD_SGM_LABEL.getSecurityGroupMembers().iterator().next(), podPort, VALID_K8S_POD);
 
@@ -122,16 +130,14 @@ public class CreateK8sLabelPodTaskTest {
         task.execute();
 
         // Assert.
-        Pod createdPod = PodEntityMgr.findExternalId(this.em, VALID_K8S_POD.getUid());
-        Assert.assertNotNull("The created pod should no be null", createdPod);
-        Assert.assertTrue("The persisted pod is different than expected", isExpectedPod(createdPod, VALID_K8S_POD, podPort));
-        Assert.assertTrue("The label SGM should contain the created pod", VALID_POD_SGM_LABEL.getPods().contains(createdPod));
+        Assert.assertTrue("The resolved port is different than expected", isExpectedPort(VALID_K8S_POD, podPort));
     }
 
     @Test
-    public void testExecute_WithAValidExistingPod_LabelIsUpdatedWithExistingPod() throws Exception {
+    public void testExecute_WithAnExistingPodOfTheSameSG_PortIsHandedToReconcileTask() throws Exception {
         // Arrange.
-        CreateK8sLabelPodTask task = this.factoryTask.create(SAME_SG_ALREADY_PROTECTED_K8S_POD, VALID_EXISTING_POD_SGM_LABEL);
+        ResolveK8sLabelPodPortTask task = this.factoryTask.create(SAME_SG_ALREADY_PROTECTED_K8S_POD,
+                VALID_EXISTING_POD_SGM_LABEL, this.reconcileTask);
         NetworkElement podPort = SAME_SG_ALREADY_PROTECTED_POD_NETWORK_ELEMENT;
         registerNetworkElement(VALID_EXISTING_POD_SGM_LABEL.getSecurityGroupMembers().iterator().next(), podPort, SAME_SG_ALREADY_PROTECTED_K8S_POD);
 
@@ -139,17 +145,26 @@ public class CreateK8sLabelPodTaskTest {
         task.execute();
 
         // Assert.
-        Pod updatedPod = PodEntityMgr.findExternalId(this.em, SAME_SG_ALREADY_PROTECTED_K8S_POD.getUid());
+        Assert.assertTrue("The resolved port is different than expected",
+                isExpectedPort(SAME_SG_ALREADY_PROTECTED_K8S_POD, podPort));
+    }
 
-        Assert.assertNotNull("The updated pod should no be null", updatedPod);
-        Assert.assertTrue("The updated pod is different than expected", isExpectedPod(updatedPod, SAME_SG_ALREADY_PROTECTED_K8S_POD, podPort));
+    @Test
+    public void testExecute_WhenK8sPodAlreadyBelongsToAnotherSG_NoPortIsHandedToReconcileTask() throws Exception {
+        // Arrange.
+        ResolveK8sLabelPodPortTask task = this.factoryTask.create(ALREADY_PROTECTED_K8S_POD, ALREADY_PROTECTED_POD_SGM_LABEL,
+                this.reconcileTask);
 
-        Label updatedLabel = this.em.find(Label.class, VALID_EXISTING_POD_SGM_LABEL.getId());
+        // Act.
+        try {
+            task.execute();
+            Assert.fail("The task should fail for a pod protected by another security group");
+        } catch (VmidcException e) {
+            // Expected.
+        }
 
-        Assert.assertTrue("The label SGM should contain the created pod", updatedLabel.getPods().contains(updatedPod));
-        // The existing port should not contain its previous label and its new label
-        Assert.assertTrue("", updatedPod.getLabels().contains(EXISTING_PROTECTED_POD_SAME_SG_LABEL));
-        Assert.assertTrue("", updatedPod.getLabels().contains(VALID_EXISTING_POD_SGM_LABEL));
+        // Assert.
+        verify(this.reconcileTask, never()).addPodPort(any(KubernetesPod.class), any(PodPort.class));
     }
 
     private void populateDatabase() {
@@ -171,13 +186,11 @@ public class CreateK8sLabelPodTaskTest {
         when(this.apiFactoryServiceMock.createNetworkRedirectionApi(sgm.getSecurityGroup().getVirtualizationConnector())).thenReturn(this.redirectionApi);
     }
 
-    private boolean isExpectedPod(Pod podEntity, KubernetesPod k8sPod, NetworkElement podPort) {
-        PodPort entityPort = podEntity.getPorts().iterator().next();
-        return podEntity.getName().equals(k8sPod.getName()) &&
-                podEntity.getNamespace().equals(k8sPod.getNamespace()) &&
-                podEntity.getNode().equals(k8sPod.getNode()) &&
-                podEntity.getExternalId().equals(k8sPod.getUid()) &&
-                entityPort.getExternalId().equals(podPort.getElementId()) &&
+    private boolean isExpectedPort(KubernetesPod k8sPod, NetworkElement podPort) {
+        ArgumentCaptor<PodPort> entityPortCaptor = ArgumentCaptor.forClass(PodPort.class);
+        verify(this.reconcileTask).addPodPort(eq(k8sPod), entityPortCaptor.capture());
+        PodPort entityPort = entityPortCaptor.getValue();
+        return entityPort.getExternalId().equals(podPort.getElementId()) &&
                 entityPort.getParentId().equals(podPort.getParentId()) &&
                 entityPort.getMacAddress().equals(podPort.getMacAddresses().get(0)) &&
                 entityPort.getIpAddresses().get(0).equals(podPort.getPortIPs().get(0));
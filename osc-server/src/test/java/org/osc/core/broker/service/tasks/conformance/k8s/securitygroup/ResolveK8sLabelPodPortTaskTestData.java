@@ -38,7 +38,7 @@ import org.osc.core.broker.rest.client.k8s.KubernetesPod;
 import org.osc.core.common.virtualization.VirtualizationType;
 import org.osc.sdk.controller.DefaultNetworkPort;
 
-public class CreateK8sLabelPodTaskTestData {
+public class ResolveK8sLabelPodPortTaskTestData {
     public static boolean DB_POPULATED = false;
 
     public static final DefaultNetworkPort SAME_SG_ALREADY_PROTECTED_POD_NETWORK_ELEMENT = createNetworkElement();
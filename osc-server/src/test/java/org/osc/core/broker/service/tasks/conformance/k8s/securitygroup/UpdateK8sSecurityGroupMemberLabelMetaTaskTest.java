@@ -96,8 +96,8 @@ public class UpdateK8sSecurityGroupMemberLabelMetaTaskTest {
     public void testExecute_WithVariousSGM_ExpectCorrectTaskGraph() throws Exception {
         // Arrange.
         UpdateK8sSecurityGroupMemberLabelMetaTask task = this.factoryTask.create(this.sgm, this.k8sPodApi);
-        task.labelPodCreateTask = new CreateK8sLabelPodTask();
-        task.labelPodDeleteTask = new DeleteK8sLabelPodTask();
+        task.labelPodPortResolveTask = new ResolveK8sLabelPodPortTask();
+        task.labelPodsReconcileTask = new ReconcileK8sLabelPodsTask();
 
         // Act.
         task.execute();
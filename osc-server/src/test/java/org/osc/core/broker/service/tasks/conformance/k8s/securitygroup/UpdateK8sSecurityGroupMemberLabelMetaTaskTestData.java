@@ -18,6 +18,7 @@ package org.osc.core.broker.service.tasks.conformance.k8s.securitygroup;
 
 import static org.osc.core.broker.rest.client.k8s.KubernetesDeploymentApi.OSC_DEPLOYMENT_LABEL_NAME;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -27,6 +28,7 @@ import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
 
+import org.osc.core.broker.job.Task;
 import org.osc.core.broker.job.TaskGraph;
 import org.osc.core.broker.model.entities.appliance.Appliance;
 import org.osc.core.broker.model.entities.appliance.ApplianceSoftwareVersion;
@@ -40,6 +42,7 @@ import org.osc.core.broker.model.entities.virtualization.VirtualizationConnector
 import org.osc.core.broker.model.entities.virtualization.k8s.Label;
 import org.osc.core.broker.model.entities.virtualization.k8s.Pod;
 import org.osc.core.broker.rest.client.k8s.KubernetesPod;
+import org.osc.core.common.job.TaskGuard;
 import org.osc.core.common.virtualization.VirtualizationType;
 
 public class UpdateK8sSecurityGroupMemberLabelMetaTaskTestData {
@@ -68,17 +71,23 @@ public class UpdateK8sSecurityGroupMemberLabelMetaTaskTestData {
         Label label = sgm.getLabel();
 
         Collection<String> podIdsInDB = label.getPods().stream().map(Pod::getExternalId).collect(Collectors.toList());
-        for (KubernetesPod kp : MATCHING_PODS) {
-            if (!podIdsInDB.contains(kp.getUid())) {
-                expectedGraph.appendTask(new CreateK8sLabelPodTask().create(kp, label));
-            }
+        List<KubernetesPod> k8sPodsToCreate = MATCHING_PODS.stream().filter(kp -> !podIdsInDB.contains(kp.getUid()))
+                .collect(Collectors.toList());
+        List<Pod> dbPodsToDelete = label.getPods().stream().filter(p -> !KNOWN_POD_IDS.contains(p.getExternalId()))
+                .collect(Collectors.toList());
+        if (k8sPodsToCreate.isEmpty() && dbPodsToDelete.isEmpty()) {
+            return expectedGraph;
         }
 
-        for (Pod p : label.getPods()) {
-            if (!KNOWN_POD_IDS.contains(p.getExternalId())) {
-                expectedGraph.addTask(new DeleteK8sLabelPodTask().create(p, label));
-            }
+        ReconcileK8sLabelPodsTask reconcileTask = new ReconcileK8sLabelPodsTask().create(label, k8sPodsToCreate,
+                dbPodsToDelete);
+        List<Task> resolveTasks = new ArrayList<>();
+        for (KubernetesPod kp : k8sPodsToCreate) {
+            Task resolveTask = new ResolveK8sLabelPodPortTask().create(kp, label, reconcileTask);
+            expectedGraph.addTask(resolveTask);
+            resolveTasks.add(resolveTask);
         }
+        expectedGraph.addTask(reconcileTask, TaskGuard.ALL_PREDECESSORS_COMPLETED, resolveTasks.toArray(new Task[0]));
 
         return expectedGraph;
     }
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.service.tasks.conformance.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.Semaphore;
+
+import org.junit.Test;
+
+public class ManagerDevicePermitsTest {
+
+    @Test
+    public void testForManager_WithVirtualSystemsOfTheSameManager_SharesPermits() throws Exception {
+        // Arrange.
+        Semaphore firstVsPermits = ManagerDevicePermits.forManager(101L, 2);
+        Semaphore secondVsPermits = ManagerDevicePermits.forManager(101L, 2);
+
+        // Act.
+        ManagerDevicePermits.acquire(firstVsPermits);
+        ManagerDevicePermits.acquire(secondVsPermits);
+
+        // Assert.
+        assertSame(firstVsPermits, secondVsPermits);
+        assertFalse(secondVsPermits.tryAcquire());
+
+        ManagerDevicePermits.release(firstVsPermits);
+        ManagerDevicePermits.release(secondVsPermits);
+        assertEquals(2, firstVsPermits.availablePermits());
+    }
+
+    @Test
+    public void testForManager_WithOtherManager_HasOwnPermits() {
+        // Act.
+        Semaphore permits = ManagerDevicePermits.forManager(102L, 1);
+        Semaphore otherPermits = ManagerDevicePermits.forManager(103L, 1);
+
+        // Assert.
+        assertNotSame(permits, otherPermits);
+    }
+
+    @Test
+    public void testForManager_WithChangedLimit_HandsOutNewPermits() {
+        // Arrange.
+        Semaphore permits = ManagerDevicePermits.forManager(104L, 1);
+
+        // Act.
+        Semaphore changedPermits = ManagerDevicePermits.forManager(104L, 3);
+
+        // Assert.
+        assertNotSame(permits, changedPermits);
+        assertEquals(3, changedPermits.availablePermits());
+    }
+
+    @Test
+    public void testAcquire_WithoutPermits_DoesNotLimit() throws Exception {
+        // Act.
+        ManagerDevicePermits.acquire(null);
+        ManagerDevicePermits.release(null);
+    }
+}
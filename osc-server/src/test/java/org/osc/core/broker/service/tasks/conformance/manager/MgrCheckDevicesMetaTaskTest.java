@@ -100,6 +100,9 @@ public class MgrCheckDevicesMetaTaskTest {
                 .thenReturn(mgrDeviceGroupNotSupportedApi);
         when(this.apiFactoryService.createManagerDeviceApi(MANAGER_ID_AND_DAI_DEVICE_PRESENT_VS))
                 .thenReturn(mgrDeviceGroupSupportedApi);
+        when(this.apiFactoryService.createManagerDeviceApi(CONCURRENT_MANAGER_DEVICES_VS))
+                .thenReturn(mgrDeviceGroupSupportedApi);
+        when(this.apiFactoryService.getMaxConcurrentDeviceTasks(CONCURRENT_MANAGER_DEVICES_VS)).thenReturn(2);
 
     }
 
@@ -161,7 +164,8 @@ public class MgrCheckDevicesMetaTaskTest {
                 {DAI_IP_PRESENT_VS, mgrCreateVSSDeviceAndCreateMemberGraph(DAI_IP_PRESENT_VS)},
                 { MANAGER_DEVICE_ID_AND_DAI_IP_NOT_PRESENT_VS, createVSSDeviceGraph(MANAGER_DEVICE_ID_AND_DAI_IP_NOT_PRESENT_VS) },
                 { DEVICE_GROUP_NOT_SUPPORTED_VS, updateDAISManagerDeviceIdGraph(DEVICE_GROUP_NOT_SUPPORTED_VS) },
-                { MANAGER_ID_AND_DAI_DEVICE_PRESENT_VS, updateVSSDeviceGraph(MANAGER_ID_AND_DAI_DEVICE_PRESENT_VS) }
+                { MANAGER_ID_AND_DAI_DEVICE_PRESENT_VS, updateVSSDeviceGraph(MANAGER_ID_AND_DAI_DEVICE_PRESENT_VS) },
+                { CONCURRENT_MANAGER_DEVICES_VS, updateVSSDeviceAndConcurrentUpdateMembersGraph(CONCURRENT_MANAGER_DEVICES_VS) }
                 });
     }
 }
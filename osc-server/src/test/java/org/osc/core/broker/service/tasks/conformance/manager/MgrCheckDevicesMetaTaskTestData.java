@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.mockito.Mockito;
+import org.osc.core.broker.job.Task;
 import org.osc.core.broker.job.TaskGraph;
 import org.osc.core.broker.model.entities.appliance.Appliance;
 import org.osc.core.broker.model.entities.appliance.ApplianceSoftwareVersion;
@@ -56,6 +57,8 @@ public class MgrCheckDevicesMetaTaskTestData {
     public static VirtualSystem DEVICE_GROUP_NOT_SUPPORTED_VS = createVirtualSystemWithManager(106L,
             "MGR_DEVICE_GROUP_NOT_SUPPORTED_VS_ID");
     public static VirtualSystem MANAGER_ID_AND_DAI_DEVICE_PRESENT_VS = createVirtualSystemWithManager(107L, "MGR_ID");
+    public static VirtualSystem CONCURRENT_MANAGER_DEVICES_VS = createVirtualSystemWithDAIManagerDevices(108L, "MGR_ID",
+            2);
 
     public static TaskGraph updateVSSDeviceAndDeleteMemberGraph(VirtualSystem vs) {
         TaskGraph expectedGraph = new TaskGraph();
@@ -90,6 +93,16 @@ public class MgrCheckDevicesMetaTaskTestData {
         return expectedGraph;
     }
 
+    public static TaskGraph updateVSSDeviceAndConcurrentUpdateMembersGraph(VirtualSystem vs) {
+        TaskGraph expectedGraph = new TaskGraph();
+        Task vssDeviceTask = new MgrUpdateVSSDeviceTask().create(vs);
+        expectedGraph.appendTask(vssDeviceTask);
+        for (DistributedApplianceInstance dai : vs.getDistributedApplianceInstances()) {
+            expectedGraph.addTask(new MgrUpdateMemberDeviceTask().create(dai), vssDeviceTask);
+        }
+        return expectedGraph;
+    }
+
     public static TaskGraph updateDAISManagerDeviceIdGraph(VirtualSystem vs) {
         TaskGraph expectedGraph = new TaskGraph();
         expectedGraph.appendTask(new UpdateDAISManagerDeviceId().create(vs));
@@ -180,6 +193,19 @@ public class MgrCheckDevicesMetaTaskTestData {
         return vs;
     }
 
+    private static VirtualSystem createVirtualSystemWithDAIManagerDevices(Long vsId, String mgrId, int daiCount) {
+        VirtualSystem vs = createBaseVirtualSystem(vsId);
+
+        vs.setMgrId(mgrId);
+        for (int i = 1; i <= daiCount; i++) {
+            vs.addDistributedApplianceInstance(createDistributedApplianceInstance(
+                    "DISTRIBUTED_APPIANCE_INSTANCE_WITH_MANAGER_ID_" + i, "MGR_DEVICE_ID_" + i, null));
+        }
+
+        TEST_VIRTUAL_SYSTEMS.add(vs);
+        return vs;
+    }
+
     private static VirtualSystem createVirtualSystemWithDAIIP(Long vsId) {
         VirtualSystem vs = createBaseVirtualSystem(vsId);
 
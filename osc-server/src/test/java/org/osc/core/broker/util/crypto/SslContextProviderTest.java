@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.broker.util.crypto;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+
+import org.junit.Test;
+
+public class SslContextProviderTest {
+
+    @Test
+    public void testInvalidateSessions_WithCachedSessions_InvalidatesAll() {
+        byte[] firstId = new byte[] { 1 };
+        byte[] secondId = new byte[] { 2 };
+        byte[] expiredId = new byte[] { 3 };
+        SSLSession firstSession = mock(SSLSession.class);
+        SSLSession secondSession = mock(SSLSession.class);
+        SSLSessionContext sessionContext = mock(SSLSessionContext.class);
+        when(sessionContext.getIds())
+                .thenReturn(Collections.enumeration(Arrays.asList(firstId, secondId, expiredId)));
+        when(sessionContext.getSession(firstId)).thenReturn(firstSession);
+        when(sessionContext.getSession(secondId)).thenReturn(secondSession);
+
+        assertEquals(2, SslContextProvider.invalidateSessions(sessionContext));
+        verify(firstSession).invalidate();
+        verify(secondSession).invalidate();
+    }
+
+    @Test
+    public void testTruststoreChanged_WithoutGetSSLContext_InvalidatesSessionsImmediately() {
+        X509TrustManagerFactory trustManagerFactory = new X509TrustManagerFactory();
+        SslContextProvider provider = new SslContextProvider(trustManagerFactory);
+        assertEquals(X509TrustManagerFactory.getTruststoreGeneration(), provider.truststoreGeneration);
+
+        trustManagerFactory.notifyTruststoreChanged();
+
+        assertEquals(X509TrustManagerFactory.getTruststoreGeneration(), provider.truststoreGeneration);
+    }
+}
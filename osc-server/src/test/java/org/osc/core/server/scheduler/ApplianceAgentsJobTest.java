@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.server.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.osc.core.server.scheduler.ApplianceAgentsJob.VirtualSystemQuery;
+import org.osc.sdk.manager.api.ManagerDeviceMemberApi;
+import org.osc.sdk.manager.element.DistributedApplianceInstanceElement;
+import org.osc.sdk.manager.element.ManagerDeviceMemberStatusElement;
+
+public class ApplianceAgentsJobTest {
+
+    private final Map<Long, Map<Long, ManagerDeviceMemberStatusElement>> written = new ConcurrentHashMap<>();
+    private final ApplianceAgentsJob job = new ApplianceAgentsJob(this.written::put);
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    @Test
+    public void testQueryAll_WithQueriesOfOneManager_RunsAtMostManagerConcurrencyAtOnce() throws Exception {
+        // Arrange.
+        List<VirtualSystemQuery> queries = new ArrayList<>();
+        for (long vsId = 1; vsId <= 6; vsId++) {
+            queries.add(query(vsId, 1L, slowApi(vsId * 10)));
+        }
+
+        // Act.
+        this.job.queryAll(queries, 8, 2);
+
+        // Assert.
+        assertEquals(2, this.maxRunning.get());
+        assertEquals(6, this.written.size());
+    }
+
+    @Test
+    public void testQueryAll_WithQueriesOfManyManagers_RunsAtMostThreadsAtOnce() throws Exception {
+        // Arrange.
+        List<VirtualSystemQuery> queries = new ArrayList<>();
+        for (long vsId = 1; vsId <= 6; vsId++) {
+            queries.add(query(vsId, vsId, slowApi(vsId * 10)));
+        }
+
+        // Act.
+        this.job.queryAll(queries, 3, 2);
+
+        // Assert.
+        assertEquals(3, this.maxRunning.get());
+        assertEquals(6, this.written.size());
+    }
+
+    @Test
+    public void testQueryAll_WithFailingQuery_SavesStatusesOfOtherQueries() throws Exception {
+        // Arrange.
+        ManagerDeviceMemberApi failingApi = mock(ManagerDeviceMemberApi.class);
+        when(failingApi.getFullStatus(anyListOf(DistributedApplianceInstanceElement.class)))
+                .thenThrow(new IllegalStateException("Manager unreachable"));
+        List<VirtualSystemQuery> queries = Arrays.asList(query(1L, 1L, slowApi(10L)), query(2L, 1L, failingApi),
+                query(3L, 2L, slowApi(30L)));
+
+        // Act.
+        this.job.queryAll(queries, 8, 1);
+
+        // Assert.
+        assertEquals(new HashSet<>(Arrays.asList(1L, 3L)), this.written.keySet());
+        assertEquals(Collections.singleton(10L), this.written.get(1L).keySet());
+        assertEquals(Collections.singleton(30L), this.written.get(3L).keySet());
+    }
+
+    @Test
+    public void testQueryAll_WithFailingWrite_SavesStatusesOfOtherQueries() throws Exception {
+        // Arrange.
+        ApplianceAgentsJob job = new ApplianceAgentsJob((vsId, statusByDaiId) -> {
+            if (vsId == 1L) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            this.written.put(vsId, statusByDaiId);
+        });
+        List<VirtualSystemQuery> queries = Arrays.asList(query(1L, 1L, slowApi(10L)), query(2L, 1L, slowApi(20L)));
+
+        // Act.
+        job.queryAll(queries, 8, 2);
+
+        // Assert.
+        assertEquals(Collections.singleton(2L), this.written.keySet());
+    }
+
+    @Test
+    public void testQueryAll_ReturnsOnceStatusesOfAllQueriesAreSaved() throws Exception {
+        // Arrange.
+        Set<Long> expected = new HashSet<>();
+        List<VirtualSystemQuery> queries = new ArrayList<>();
+        for (long vsId = 1; vsId <= 4; vsId++) {
+            queries.add(query(vsId, vsId, slowApi(vsId * 10)));
+            expected.add(vsId);
+        }
+
+        // Act.
+        this.job.queryAll(queries, 2, 1);
+
+        // Assert.
+        assertEquals(expected, this.written.keySet());
+        assertEquals(0, this.running.get());
+    }
+
+    private static VirtualSystemQuery query(Long vsId, Long mcId, ManagerDeviceMemberApi agentApi) {
+        return new VirtualSystemQuery(vsId, "vs" + vsId, mcId, agentApi,
+                Collections.singletonList(daiElement(vsId * 10)));
+    }
+
+    /**
+     * An agent API taking a while to return the status of the given appliance instance, recording how many calls
+     * run at once.
+     */
+    private ManagerDeviceMemberApi slowApi(Long daiId) throws Exception {
+        ManagerDeviceMemberStatusElement status = mock(ManagerDeviceMemberStatusElement.class);
+        DistributedApplianceInstanceElement daiElement = daiElement(daiId);
+        when(status.getDistributedApplianceInstanceElement()).thenReturn(daiElement);
+
+        ManagerDeviceMemberApi agentApi = mock(ManagerDeviceMemberApi.class);
+        when(agentApi.getFullStatus(anyListOf(DistributedApplianceInstanceElement.class))).thenAnswer(invocation -> {
+            this.maxRunning.accumulateAndGet(this.running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(100);
+            } finally {
+                this.running.decrementAndGet();
+            }
+            return Collections.singletonList(status);
+        });
+        return agentApi;
+    }
+
+    private static DistributedApplianceInstanceElement daiElement(Long daiId) {
+        DistributedApplianceInstanceElement daiElement = mock(DistributedApplianceInstanceElement.class);
+        when(daiElement.getId()).thenReturn(daiId);
+        return daiElement;
+    }
+}
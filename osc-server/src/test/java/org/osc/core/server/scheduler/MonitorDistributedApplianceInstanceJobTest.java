@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.server.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class MonitorDistributedApplianceInstanceJobTest {
+
+    private final Set<Long> timedOutDaiIds = new HashSet<>();
+
+    @Test
+    public void testNewlyTimedOut_WithTimedOutInstances_ReturnsThemOnlyOnTheFirstRun() {
+        // Arrange.
+        Map<Long, String> timedOutDais = dais(1L, 2L);
+
+        // Act.
+        Map<Long, String> firstRun = MonitorDistributedApplianceInstanceJob.newlyTimedOut(this.timedOutDaiIds,
+                timedOutDais);
+        Map<Long, String> secondRun = MonitorDistributedApplianceInstanceJob.newlyTimedOut(this.timedOutDaiIds,
+                timedOutDais);
+
+        // Assert.
+        assertEquals(timedOutDais, firstRun);
+        assertTrue(secondRun.isEmpty());
+    }
+
+    @Test
+    public void testNewlyTimedOut_WithAnotherInstanceTimingOut_ReturnsOnlyTheNewOne() {
+        // Arrange.
+        MonitorDistributedApplianceInstanceJob.newlyTimedOut(this.timedOutDaiIds, dais(1L));
+
+        // Act.
+        Map<Long, String> newlyTimedOut = MonitorDistributedApplianceInstanceJob.newlyTimedOut(this.timedOutDaiIds,
+                dais(1L, 2L));
+
+        // Assert.
+        assertEquals(dais(2L), newlyTimedOut);
+        assertEquals(new HashSet<>(dais(1L, 2L).keySet()), this.timedOutDaiIds);
+    }
+
+    @Test
+    public void testNewlyTimedOut_WithInstanceReportingThenTimingOutAgain_ReturnsItAgain() {
+        // Arrange.
+        MonitorDistributedApplianceInstanceJob.newlyTimedOut(this.timedOutDaiIds, dais(1L, 2L));
+
+        // Act.
+        Map<Long, String> reportedRun = MonitorDistributedApplianceInstanceJob.newlyTimedOut(this.timedOutDaiIds,
+                dais(2L));
+        Map<Long, String> timedOutAgainRun = MonitorDistributedApplianceInstanceJob
+                .newlyTimedOut(this.timedOutDaiIds, dais(1L, 2L));
+
+        // Assert.
+        assertTrue(reportedRun.isEmpty());
+        assertEquals(dais(1L), timedOutAgainRun);
+    }
+
+    @Test
+    public void testNewlyTimedOut_WithAllInstancesReporting_ForgetsThem() {
+        // Arrange.
+        MonitorDistributedApplianceInstanceJob.newlyTimedOut(this.timedOutDaiIds, dais(1L, 2L));
+
+        // Act.
+        Map<Long, String> newlyTimedOut = MonitorDistributedApplianceInstanceJob.newlyTimedOut(this.timedOutDaiIds,
+                Collections.emptyMap());
+
+        // Assert.
+        assertTrue(newlyTimedOut.isEmpty());
+        assertTrue(this.timedOutDaiIds.isEmpty());
+    }
+
+    private static Map<Long, String> dais(Long... ids) {
+        Map<Long, String> dais = new HashMap<>();
+        for (Long id : ids) {
+            dais.put(id, "dai" + id);
+        }
+        return dais;
+    }
+}
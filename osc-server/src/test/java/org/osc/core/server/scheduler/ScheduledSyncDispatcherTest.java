@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.server.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class ScheduledSyncDispatcherTest {
+
+    private ScheduledExecutorService executor;
+    private ScheduledSyncDispatcher dispatcher;
+    private List<Long> synced = new ArrayList<>();
+
+    @Before
+    public void testInitialize() {
+        this.executor = mock(ScheduledExecutorService.class);
+        this.dispatcher = new ScheduledSyncDispatcher(this.executor, () -> 0.5);
+    }
+
+    @Test
+    public void testDispatch_SpreadsSyncsOverWindow() {
+        // Act.
+        int scheduled = this.dispatcher.dispatch("SG", Arrays.asList(1L, 2L, 3L, 4L), 4000, this.synced::add);
+
+        // Assert.
+        ArgumentCaptor<Long> delays = ArgumentCaptor.forClass(Long.class);
+        verify(this.executor, times(4)).schedule(any(Runnable.class), delays.capture(), eq(TimeUnit.MILLISECONDS));
+        assertEquals(4, scheduled);
+        assertEquals(Arrays.asList(500L, 1500L, 2500L, 3500L), delays.getAllValues());
+    }
+
+    @Test
+    public void testDispatch_WithSyncNotStarted_SkipsEntity() {
+        // Arrange.
+        this.dispatcher.dispatch("SG", Arrays.asList(1L, 2L), 1000, this.synced::add);
+        ArgumentCaptor<Runnable> syncs = ArgumentCaptor.forClass(Runnable.class);
+        verify(this.executor, times(2)).schedule(syncs.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+        syncs.getAllValues().get(0).run();
+
+        // Act.
+        int scheduled = this.dispatcher.dispatch("SG", Arrays.asList(1L, 2L), 1000, this.synced::add);
+        int otherTypeScheduled = this.dispatcher.dispatch("DA", Arrays.asList(2L), 1000, this.synced::add);
+
+        // Assert.
+        assertEquals(Arrays.asList(1L), this.synced);
+        assertEquals(1, scheduled);
+        assertEquals(1, otherTypeScheduled);
+    }
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) Intel Corporation
+ * Copyright (c) 2017
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.osc.core.server.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osc.core.broker.model.entities.job.JobRecord;
+import org.osc.core.common.job.JobState;
+import org.osc.core.common.job.JobStatus;
+
+public class SyncScheduleTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private SyncSchedule schedule;
+
+    @Before
+    public void testInitialize() {
+        SyncSchedule.setIntervals(5 * MINUTE, 60 * MINUTE);
+        this.schedule = new SyncSchedule();
+    }
+
+    @After
+    public void testTearDown() {
+        SyncSchedule.setIntervals(SyncSchedule.DEFAULT_CHECK_INTERVAL_MS, SyncSchedule.DEFAULT_SYNC_INTERVAL_MS);
+    }
+
+    @Test
+    public void testGetInterval_DoublesUpToSyncInterval() {
+        assertEquals(5 * MINUTE, SyncSchedule.getInterval(0));
+        assertEquals(20 * MINUTE, SyncSchedule.getInterval(2));
+        assertEquals(60 * MINUTE, SyncSchedule.getInterval(10));
+    }
+
+    @Test
+    public void testIsDue_WithRunningJob_ReturnsFalse() {
+        // Arrange.
+        JobRecord job = job(1L, JobState.RUNNING, null, 0, 0);
+
+        // Act.
+        boolean due = this.schedule.isDue(1L, job, 10 * MINUTE);
+
+        // Assert.
+        assertFalse(due);
+    }
+
+    @Test
+    public void testIsDue_WithCleanEntity_BacksOff() {
+        // Arrange.
+        JobRecord job = job(1L, JobState.COMPLETED, JobStatus.PASSED, 0, MINUTE);
+
+        // Act.
+        boolean dueBeforeNextInterval = this.schedule.isDue(1L, job, 4 * MINUTE);
+        boolean dueAfterFirstInterval = this.schedule.isDue(1L, job, 7 * MINUTE);
+
+        // Assert.
+        assertFalse(dueBeforeNextInterval);
+        assertTrue(dueAfterFirstInterval);
+    }
+
+    @Test
+    public void testIsDue_WithChangeDuringLastJob_ReturnsTrue() {
+        // Arrange.
+        JobRecord job = job(1L, JobState.COMPLETED, JobStatus.PASSED, 0, MINUTE);
+        this.schedule.isDue(1L, job, 2 * MINUTE);
+        this.schedule.markDirty(1L, MINUTE / 2);
+
+        // Act.
+        boolean due = this.schedule.isDue(1L, job, 2 * MINUTE);
+
+        // Assert.
+        assertTrue(due);
+    }
+
+    @Test
+    public void testIsDue_WithFailedJob_RetriesOnNextRun() {
+        // Arrange.
+        JobRecord job = job(1L, JobState.COMPLETED, JobStatus.FAILED, 0, MINUTE);
+
+        // Act.
+        boolean due = this.schedule.isDue(1L, job, 2 * MINUTE);
+
+        // Assert.
+        assertTrue(due);
+    }
+
+    private static JobRecord job(Long id, JobState state, JobStatus status, long started, long completed) {
+        JobRecord job = mock(JobRecord.class);
+        when(job.getId()).thenReturn(id);
+        when(job.getState()).thenReturn(state);
+        when(job.getStatus()).thenReturn(status);
+        when(job.getStartedTimestamp()).thenReturn(new Date(started));
+        when(job.getCompletedTimestamp()).thenReturn(state == JobState.COMPLETED ? new Date(completed) : null);
+        return job;
+    }
+}
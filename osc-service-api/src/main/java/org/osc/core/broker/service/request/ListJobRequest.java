@@ -16,6 +16,100 @@
  *******************************************************************************/
 package org.osc.core.broker.service.request;
 
+import java.util.Date;
+
+/**
+ * Lists the jobs matching all the given filters, most recent first.
+ * <p>
+ * Jobs are listed a page at a time when a page size is given: the next page starts before the id of the last job of
+ * the previous one. Without a page size all the matching jobs are listed.
+ */
 public class ListJobRequest implements Request {
+    /**
+     * The page size used by the REST API when none is given, so the full job history is only listed on request.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    private Long beforeId;
+    private int pageSize;
+    private String state;
+    private String status;
+    private Date completedFrom;
+    private Date completedTo;
+    private String objectType;
+    private Long objectId;
+    private String submittedBy;
+
+    public Long getBeforeId() {
+        return this.beforeId;
+    }
+
+    public void setBeforeId(Long beforeId) {
+        this.beforeId = beforeId;
+    }
+
+    public int getPageSize() {
+        return this.pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public String getState() {
+        return this.state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getStatus() {
+        return this.status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Date getCompletedFrom() {
+        return this.completedFrom;
+    }
+
+    public void setCompletedFrom(Date completedFrom) {
+        this.completedFrom = completedFrom;
+    }
+
+    public Date getCompletedTo() {
+        return this.completedTo;
+    }
+
+    public void setCompletedTo(Date completedTo) {
+        this.completedTo = completedTo;
+    }
+
+    public String getObjectType() {
+        return this.objectType;
+    }
+
+    public void setObjectType(String objectType) {
+        this.objectType = objectType;
+    }
+
+    public Long getObjectId() {
+        return this.objectId;
+    }
+
+    public void setObjectId(Long objectId) {
+        this.objectId = objectId;
+    }
+
+    public String getSubmittedBy() {
+        return this.submittedBy;
+    }
+
+    public void setSubmittedBy(String submittedBy) {
+        this.submittedBy = submittedBy;
+    }
 
 }
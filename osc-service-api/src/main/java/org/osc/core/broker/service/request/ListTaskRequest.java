@@ -16,15 +16,57 @@
  *******************************************************************************/
 package org.osc.core.broker.service.request;
 
+/**
+ * Lists the tasks of a job matching all the given filters, in dependency order.
+ * <p>
+ * Tasks are listed a page at a time when a page size is given: the next page starts after the dependency order of
+ * the last task of the previous one. Without a page size all the matching tasks are listed.
+ */
 public class ListTaskRequest implements Request {
     private long jobId;
+    private Long afterDependencyOrder;
+    private int pageSize;
+    private String state;
+    private String status;
 
     public long getJobId() {
-        return jobId;
+        return this.jobId;
     }
 
     public void setJobId(long jobId) {
         this.jobId = jobId;
     }
 
+    public Long getAfterDependencyOrder() {
+        return this.afterDependencyOrder;
+    }
+
+    public void setAfterDependencyOrder(Long afterDependencyOrder) {
+        this.afterDependencyOrder = afterDependencyOrder;
+    }
+
+    public int getPageSize() {
+        return this.pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public String getState() {
+        return this.state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getStatus() {
+        return this.status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
 }
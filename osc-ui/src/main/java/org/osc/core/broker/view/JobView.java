@@ -93,6 +93,9 @@ public class JobView extends CRUDBaseView<JobRecordDto, TaskRecordDto> {
     private static final String JOB_ID_COLUMN_ID = "id";
     private static final String JOB_SUBMITTED_BY_COLUMN_ID = "submittedBy";
 
+    // Number of jobs loaded at a time, older jobs are loaded on demand
+    private static final int JOB_PAGE_SIZE = 500;
+
     private static final String JOB_HELP_GUID = "GUID-005C8EBC-FABB-4F94-B82A-8F760EFDE69F.html";
 
     private static final Logger log = LoggerFactory.getLogger(JobView.class);
@@ -101,6 +104,8 @@ public class JobView extends CRUDBaseView<JobRecordDto, TaskRecordDto> {
 
     private File dotFile;
     private Embedded embeddedImage;
+    private Long oldestJobId;
+    private boolean hasOlderJobs;
 
     @Reference
     private ListJobServiceApi listJobService;
@@ -119,7 +124,8 @@ public class JobView extends CRUDBaseView<JobRecordDto, TaskRecordDto> {
 
     @Activate
     private void activate() {
-        createView("Jobs", Arrays.asList(ToolbarButtons.JOB_VIEW, ToolbarButtons.JOB_ABORT), "Tasks", null);
+        createView("Jobs", Arrays.asList(ToolbarButtons.JOB_VIEW, ToolbarButtons.JOB_ABORT,
+                ToolbarButtons.JOB_LOAD_OLDER), "Tasks", null);
     }
 
     @Override
@@ -129,6 +135,8 @@ public class JobView extends CRUDBaseView<JobRecordDto, TaskRecordDto> {
         } else if (event.getButton().getId().equals(ToolbarButtons.JOB_ABORT.getId())) {
             this.listJobService.abortJob(getParentItemId(),
                     VmidcMessages.getString(VmidcMessages_.JOB_ABORT_USER, this.userContext.getCurrentUser()));
+        } else if (event.getButton().getId().equals(ToolbarButtons.JOB_LOAD_OLDER.getId())) {
+            loadOlderJobs();
         }
     }
 
@@ -182,18 +190,10 @@ public class JobView extends CRUDBaseView<JobRecordDto, TaskRecordDto> {
 
     @Override
     public void populateParentTable() {
-
-        ListJobRequest listRequest = null;
-        ListResponse<JobRecordDto> res;
         try {
-            res = this.listJobService.dispatch(listRequest);
-            List<JobRecordDto> listResponse = res.getList();
             this.parentContainer.removeAllItems();
-            // creating table with list of jobs
-            for (JobRecordDto j : listResponse) {
-                this.parentContainer.addItem(j.getId(), j);
-            }
-
+            this.oldestJobId = null;
+            loadJobs();
         } catch (Exception e) {
             log.error("Fail to populate Jobs table", e);
             ViewUtil.iscNotification("Fail to populate Job table (" + e.getMessage() + ")",
@@ -202,6 +202,32 @@ public class JobView extends CRUDBaseView<JobRecordDto, TaskRecordDto> {
 
     }
 
+    private void loadOlderJobs() {
+        try {
+            loadJobs();
+        } catch (Exception e) {
+            log.error("Fail to load older Jobs", e);
+            ViewUtil.iscNotification("Fail to load older Jobs (" + e.getMessage() + ")",
+                    Notification.Type.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Appends the page of jobs preceding the oldest job loaded so far.
+     */
+    private void loadJobs() throws Exception {
+        ListJobRequest listRequest = new ListJobRequest();
+        listRequest.setBeforeId(this.oldestJobId);
+        listRequest.setPageSize(JOB_PAGE_SIZE);
+        List<JobRecordDto> listResponse = this.listJobService.dispatch(listRequest).getList();
+        for (JobRecordDto j : listResponse) {
+            this.parentContainer.addItem(j.getId(), j);
+            this.oldestJobId = j.getId();
+        }
+        this.hasOlderJobs = listResponse.size() == JOB_PAGE_SIZE;
+        updateLoadOlderButtonState();
+    }
+
     @Override
     public void parentTableClicked(long parentItemId) {
         super.parentTableClicked(parentItemId);
@@ -211,6 +237,7 @@ public class JobView extends CRUDBaseView<JobRecordDto, TaskRecordDto> {
         } else {
             updateAbortButtonState(null);
         }
+        updateLoadOlderButtonState();
     }
 
     // This is also needed since Abort button should change to disabled if job state
@@ -224,6 +251,7 @@ public class JobView extends CRUDBaseView<JobRecordDto, TaskRecordDto> {
             jobRecordDto = item.getBean();
         }
         updateAbortButtonState(jobRecordDto);
+        updateLoadOlderButtonState();
     }
 
     private static final String JOB_COMPLETE = "COMPLETED";
@@ -234,6 +262,12 @@ public class JobView extends CRUDBaseView<JobRecordDto, TaskRecordDto> {
         }
     }
 
+    // Loading older jobs does not depend on the selection
+    private void updateLoadOlderButtonState() {
+        ViewUtil.enableToolBarButtons(this.hasOlderJobs, this.parentToolbar,
+                Arrays.asList(ToolbarButtons.JOB_LOAD_OLDER.getId()));
+    }
+
     @SuppressWarnings("serial")
     @Override
     public void initChildTable() {
@@ -40,7 +40,8 @@ public enum ToolbarButtons {
     ACKNOWLEDGE_ALERT("Acknowledge", "acknowledge_alert", "img/acknowledge.png"),
     UNACKNOWLEDGE_ALERT("Unacknowledge", "unacknowledge_alert", "img/unacknowledge.png"),
     SHOW_PENDING_ACKNOWLEDGE_ALERTS("Show Pending", "show_pending_alerts", null, "Show Pending Un-Acknowledged Alerts", HorizontalAlignment.RIGHT),
-    SHOW_ALL_ALERTS("Show All", "show_all_alerts", null, "Remove All Filters and Show All Alerts", HorizontalAlignment.RIGHT);
+    SHOW_ALL_ALERTS("Show All", "show_all_alerts", null, "Remove All Filters and Show All Alerts", HorizontalAlignment.RIGHT),
+    JOB_LOAD_OLDER("Load Older", "Load_Older_Jobs", null, "Load the Next Page of Older Jobs", HorizontalAlignment.RIGHT);
 
     private String text;
     private String tooltip;